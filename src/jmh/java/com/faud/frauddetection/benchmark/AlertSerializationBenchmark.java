@@ -0,0 +1,61 @@
+package com.faud.frauddetection.benchmark;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.dto.FraudDetectionResult;
+import com.faud.frauddetection.service.AlertService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AlertService payload serialization for a fraudulent transaction, as JSON and in the binary wire format
+ * Uses an ObjectMapper built like the one Spring Boot injects into AlertService
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlertSerializationBenchmark {
+
+    private AlertService alertService;
+    private FraudDetectionResult result;
+
+    @Setup
+    public void setUp() {
+        alertService = new AlertService(null, Jackson2ObjectMapperBuilder.json().build(), new FraudDetectionProperties());
+        result = FraudDetectionResult.builder()
+            .transactionId("TXN_20250101_000042")
+            .isFraudulent(true)
+            .riskScore(0.85)
+            .riskLevel("HIGH")
+            .reason("Triggered rules: LARGE_AMOUNT_RULE: Amount 15000.00 exceeds threshold 10000.00; "
+                + "HIGH_FREQUENCY_RULE: User has 7 transactions in 3600 seconds, exceeds threshold 5")
+            .detectionTime(LocalDateTime.of(2025, 1, 1, 14, 30, 5))
+            .processingTime(3L)
+            .build();
+    }
+
+    @Benchmark
+    public String serializeAlert() throws JsonProcessingException {
+        return alertService.createAlertMessage(result);
+    }
+
+    @Benchmark
+    public byte[] serializeBinaryAlert() {
+        return alertService.createBinaryAlertMessage(result);
+    }
+}
@@ -0,0 +1,113 @@
+package com.faud.frauddetection.benchmark;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.dto.RuleEvaluationResult;
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.service.evaluator.DynamicEvaluator;
+import com.faud.frauddetection.service.evaluator.MultiConditionEvaluator;
+import com.faud.frauddetection.service.rule.CompiledRule;
+import com.faud.frauddetection.service.rule.RuleCompiler;
+import com.faud.frauddetection.service.rule.TransactionFieldRegistry;
+import com.faud.frauddetection.service.rule.ValueListRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DynamicEvaluator and MultiConditionEvaluator cost per condition operator
+ * The single-condition rule tests one field with the operator; the multi-condition rule wraps the
+ * same condition in an AND group with an amount check, so the group is always fully evaluated
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluatorOperatorBenchmark {
+
+    @Param({"GT", "LT", "EQ", "NE", "GTE", "LTE", "IN", "NOT_IN", "CONTAINS",
+        "TIME_IN_RANGE", "TIME_NOT_IN_RANGE", "IS_NULL", "IS_NOT_NULL"})
+    private String operator;
+
+    private DynamicEvaluator dynamicEvaluator;
+    private MultiConditionEvaluator multiConditionEvaluator;
+    private CompiledRule singleConditionRule;
+    private CompiledRule multiConditionRule;
+    private Transaction transaction;
+
+    @Setup
+    public void setUp() {
+        RuleCompiler ruleCompiler = new RuleCompiler(new TransactionFieldRegistry(), new ValueListRegistry(new FraudDetectionProperties()));
+        multiConditionEvaluator = new MultiConditionEvaluator(ruleCompiler);
+        dynamicEvaluator = new DynamicEvaluator(multiConditionEvaluator, ruleCompiler);
+
+        String[] condition = conditionFor(operator);
+        singleConditionRule = ruleCompiler.compile(FraudRule.builder()
+            .ruleName("SINGLE_" + operator)
+            .ruleType("SIMPLE")
+            .conditionField(condition[0])
+            .conditionOperator(operator)
+            .conditionValue(condition[1])
+            .riskWeight(BigDecimal.valueOf(0.5))
+            .build());
+        multiConditionRule = ruleCompiler.compile(FraudRule.builder()
+            .ruleName("MULTI_" + operator)
+            .ruleType("MULTI_CONDITION")
+            .ruleConfig("{\"conditionGroups\": [{\"intraGroupOperator\": \"AND\", \"conditions\": ["
+                + "{\"field\": \"amount\", \"operator\": \"GT\", \"value\": \"100\"},"
+                + "{\"field\": \"" + condition[0] + "\", \"operator\": \"" + operator + "\", \"value\": \""
+                + condition[1] + "\"}]}]}")
+            .riskWeight(BigDecimal.valueOf(0.5))
+            .build());
+
+        transaction = Transaction.builder()
+            .transactionId("TXN_BENCH")
+            .userId("USER_BENCH")
+            .amount(new BigDecimal("1250.00"))
+            .currency("USD")
+            .country("US")
+            .ipAddress("192.168.1.100")
+            .merchant("MERCHANT_042")
+            .paymentMethod("CREDIT_CARD")
+            .timestamp(LocalDateTime.of(2025, 1, 1, 14, 30))
+            .build();
+    }
+
+    @Benchmark
+    public RuleEvaluationResult singleCondition() {
+        return dynamicEvaluator.evaluateRule(singleConditionRule, transaction);
+    }
+
+    @Benchmark
+    public RuleEvaluationResult multiCondition() {
+        return multiConditionEvaluator.evaluateRule(multiConditionRule, transaction);
+    }
+
+    /**
+     * Field and operand exercised by each operator
+     */
+    private static String[] conditionFor(String operator) {
+        return switch (operator) {
+            case "GT", "LT", "EQ", "NE", "GTE", "LTE" -> new String[] {"amount", "1000"};
+            case "IN", "NOT_IN" -> new String[] {"country", "NG, RU, KP, IR, US"};
+            case "CONTAINS" -> new String[] {"ipAddress", "10.66."};
+            case "TIME_IN_RANGE", "TIME_NOT_IN_RANGE" -> new String[] {"timestamp", "22:00-06:00"};
+            case "IS_NULL", "IS_NOT_NULL" -> new String[] {"deviceId", ""};
+            default -> throw new IllegalArgumentException("No benchmark condition for operator " + operator);
+        };
+    }
+}
@@ -0,0 +1,200 @@
+package com.faud.frauddetection.benchmark;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.dto.FraudDetectionResult;
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.entity.FraudDetectionResultEntity;
+import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.service.FraudDetectionResultService;
+import com.faud.frauddetection.service.FraudRuleService;
+import com.faud.frauddetection.service.evaluator.AmountEvaluator;
+import com.faud.frauddetection.service.evaluator.DynamicEvaluator;
+import com.faud.frauddetection.service.evaluator.FrequencyEvaluator;
+import com.faud.frauddetection.service.evaluator.MultiConditionEvaluator;
+import com.faud.frauddetection.service.evaluator.RuleEvaluationExecutor;
+import com.faud.frauddetection.service.evaluator.RuleEvaluationMetrics;
+import com.faud.frauddetection.service.evaluator.RuleEvaluatorRegistry;
+import com.faud.frauddetection.service.evaluator.StatefulRuleStage;
+import com.faud.frauddetection.service.impl.FraudDetectionServiceImpl;
+import com.faud.frauddetection.service.redis.RedisPipeline;
+import com.faud.frauddetection.service.rule.CompiledRule;
+import com.faud.frauddetection.service.rule.RuleCompiler;
+import com.faud.frauddetection.service.rule.RuleSnapshot;
+import com.faud.frauddetection.service.rule.TransactionFieldRegistry;
+import com.faud.frauddetection.service.rule.ValueListRegistry;
+import com.faud.frauddetection.service.velocity.RedisVelocityStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end FraudDetectionServiceImpl.detectFraud with N in-memory rules
+ * Two Redis-backed rules (AMOUNT, FREQUENCY) run against an in-process Redis stub, and results
+ * are not persisted, so the benchmark measures the detection path itself
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FraudDetectionBenchmark {
+
+    @Param({"10", "100", "500"})
+    private int ruleCount;
+
+    private RuleEvaluationExecutor ruleEvaluationExecutor;
+    private FraudDetectionServiceImpl fraudDetectionService;
+    private Transaction transaction;
+
+    @Setup
+    public void setUp() {
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        RuleCompiler ruleCompiler = new RuleCompiler(new TransactionFieldRegistry(), new ValueListRegistry(properties));
+        MultiConditionEvaluator multiConditionEvaluator = new MultiConditionEvaluator(ruleCompiler);
+        StubRedisTemplate redisTemplate = new StubRedisTemplate();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RedisVelocityStore velocityStore = new RedisVelocityStore(redisTemplate, properties, meterRegistry);
+        RuleEvaluatorRegistry evaluatorRegistry = new RuleEvaluatorRegistry(List.of(
+            new DynamicEvaluator(multiConditionEvaluator, ruleCompiler),
+            multiConditionEvaluator,
+            new AmountEvaluator(velocityStore, properties),
+            new FrequencyEvaluator(velocityStore, properties)));
+
+        List<CompiledRule> rules = new ArrayList<>(ruleCount + 2);
+        rules.add(evaluatorRegistry.bind(ruleCompiler.compile(FraudRule.builder()
+            .ruleName("CUMULATIVE_AMOUNT").ruleType("AMOUNT").thresholdValue(BigDecimal.valueOf(50000))
+            .ruleConfig("{\"timeWindowSeconds\":3600}").riskWeight(BigDecimal.valueOf(0.3)).build())));
+        rules.add(evaluatorRegistry.bind(ruleCompiler.compile(FraudRule.builder()
+            .ruleName("VELOCITY").ruleType("FREQUENCY").thresholdValue(BigDecimal.valueOf(5))
+            .ruleConfig("{\"timeWindowSeconds\":600}").riskWeight(BigDecimal.valueOf(0.3)).build())));
+        for (int i = 0; i < ruleCount; i++) {
+            FraudRule.FraudRuleBuilder rule = FraudRule.builder()
+                .ruleName("RULE_" + i)
+                .ruleType("SIMPLE")
+                .riskWeight(BigDecimal.valueOf(0.1));
+            switch (i % 4) {
+                case 0 -> rule.conditionField("amount").conditionOperator("GT").conditionValue(String.valueOf(10000 + i));
+                case 1 -> rule.conditionField("country").conditionOperator("EQ").conditionValue("C" + i);
+                case 2 -> rule.conditionField("ipAddress").conditionOperator("CONTAINS").conditionValue("10." + i + ".");
+                default -> rule.conditionField("timestamp").conditionOperator("TIME_IN_RANGE").conditionValue("01:00-05:00");
+            }
+            rules.add(evaluatorRegistry.bind(ruleCompiler.compile(rule.build())));
+        }
+        RuleSnapshot snapshot = new RuleSnapshot(1L, null, Instant.now(), rules);
+
+        ruleEvaluationExecutor = new RuleEvaluationExecutor(properties, new RuleEvaluationMetrics(meterRegistry));
+        fraudDetectionService = new FraudDetectionServiceImpl(evaluatorRegistry, new SnapshotRuleService(snapshot),
+            new DiscardingResultService(), ruleEvaluationExecutor, new StatefulRuleStage(velocityStore, new RedisPipeline(redisTemplate)), properties, meterRegistry);
+
+        transaction = Transaction.builder()
+            .transactionId("TXN_BENCH")
+            .userId("USER_BENCH")
+            .amount(new BigDecimal("1250.00"))
+            .currency("USD")
+            .country("US")
+            .ipAddress("192.168.1.100")
+            .paymentMethod("CREDIT_CARD")
+            .timestamp(LocalDateTime.of(2025, 1, 1, 14, 30))
+            .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        ruleEvaluationExecutor.shutdown();
+    }
+
+    @Benchmark
+    public FraudDetectionResult detectFraud() {
+        return fraudDetectionService.detectFraud(transaction);
+    }
+
+    /**
+     * Rule service serving a fixed snapshot
+     */
+    private static final class SnapshotRuleService implements FraudRuleService {
+
+        private final RuleSnapshot snapshot;
+
+        private SnapshotRuleService(RuleSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public RuleSnapshot getActiveRuleSnapshot() {
+            return snapshot;
+        }
+
+        @Override
+        public List<FraudRule> getActiveRules() {
+            return snapshot.getRules();
+        }
+
+        @Override
+        public FraudRule createFraudRule(FraudRule fraudRule) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<FraudRule> getFraudRuleById(Long id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<FraudRule> getAllFraudRules() {
+            return snapshot.getRules();
+        }
+
+        @Override
+        public FraudRule updateFraudRule(Long id, FraudRule fraudRule) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void deleteFraudRule(Long id) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Result service that does not persist anything
+     */
+    private static final class DiscardingResultService implements FraudDetectionResultService {
+
+        @Override
+        public void saveResult(FraudDetectionResult resultDto) {
+        }
+
+        @Override
+        public void saveResults(List<FraudDetectionResult> resultDtos) {
+        }
+
+        @Override
+        public List<FraudDetectionResultEntity> getAllResults() {
+            return List.of();
+        }
+
+        @Override
+        public Optional<FraudDetectionResultEntity> getResultById(Long id) {
+            return Optional.empty();
+        }
+    }
+}
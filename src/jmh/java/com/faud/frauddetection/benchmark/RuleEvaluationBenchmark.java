@@ -0,0 +1,128 @@
+package com.faud.frauddetection.benchmark;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.dto.RuleEvaluationResult;
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.service.evaluator.DynamicEvaluator;
+import com.faud.frauddetection.service.evaluator.MultiConditionEvaluator;
+import com.faud.frauddetection.service.rule.CompiledRule;
+import com.faud.frauddetection.service.rule.RuleCompiler;
+import com.faud.frauddetection.service.rule.TransactionFieldRegistry;
+import com.faud.frauddetection.service.rule.ValueListRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Evaluation of compiled rule predicates: a single condition, a multi-condition rule and a large IP list
+ * Run it on two revisions to compare them
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleEvaluationBenchmark {
+
+    private static final String MULTI_CONDITION_CONFIG = "{"
+        + "\"groupLogicalOperator\": \"OR\","
+        + "\"conditionGroups\": ["
+        + "  {\"intraGroupOperator\": \"AND\", \"conditions\": ["
+        + "    {\"field\": \"amount\", \"operator\": \"GT\", \"value\": \"50000\"},"
+        + "    {\"field\": \"country\", \"operator\": \"IN\", \"value\": \"NG, RU, KP, IR\"}]},"
+        + "  {\"intraGroupOperator\": \"AND\", \"conditions\": ["
+        + "    {\"field\": \"timestamp\", \"operator\": \"TIME_IN_RANGE\", \"value\": \"01:00-05:00\"},"
+        + "    {\"field\": \"paymentMethod\", \"operator\": \"EQ\", \"value\": \"CRYPTO\"}]},"
+        + "  {\"intraGroupOperator\": \"OR\", \"conditions\": ["
+        + "    {\"field\": \"currency\", \"operator\": \"NOT_IN\", \"value\": \"USD, EUR, GBP, JPY\"},"
+        + "    {\"field\": \"ipAddress\", \"operator\": \"CONTAINS\", \"value\": \"10.66.\"}]}"
+        + "]}";
+
+    private DynamicEvaluator compiledEvaluator;
+
+    private static final int LARGE_LIST_SIZE = 5000;
+
+    private CompiledRule compiledSingleConditionRule;
+    private CompiledRule compiledMultiConditionRule;
+    private CompiledRule compiledLargeListRule;
+    private Transaction transaction;
+
+    @Setup
+    public void setUp() {
+        RuleCompiler ruleCompiler = new RuleCompiler(new TransactionFieldRegistry(), new ValueListRegistry(new FraudDetectionProperties()));
+        compiledEvaluator = new DynamicEvaluator(new MultiConditionEvaluator(ruleCompiler), ruleCompiler);
+
+        FraudRule singleConditionRule = FraudRule.builder()
+            .ruleName("HIGH_AMOUNT")
+            .ruleType("SIMPLE")
+            .conditionField("amount")
+            .conditionOperator("GT")
+            .conditionValue("10000")
+            .riskWeight(BigDecimal.valueOf(0.5))
+            .build();
+        FraudRule multiConditionRule = FraudRule.builder()
+            .ruleName("RISKY_COMBINATION")
+            .ruleType("MULTI_CONDITION")
+            .ruleConfig(MULTI_CONDITION_CONFIG)
+            .riskWeight(BigDecimal.valueOf(0.8))
+            .build();
+
+        // IP blacklist sized like production lists; the transaction IP is not on it
+        FraudRule largeListRule = FraudRule.builder()
+            .ruleName("IP_BLACKLIST")
+            .ruleType("IP_BLACKLIST")
+            .conditionField("ipAddress")
+            .conditionOperator("IN")
+            .conditionValue(IntStream.range(0, LARGE_LIST_SIZE)
+                .mapToObj(i -> "10." + (i / 256) + "." + (i % 256) + ".1")
+                .collect(Collectors.joining(", ")))
+            .riskWeight(BigDecimal.valueOf(0.9))
+            .build();
+
+        compiledSingleConditionRule = ruleCompiler.compile(singleConditionRule);
+        compiledMultiConditionRule = ruleCompiler.compile(multiConditionRule);
+        compiledLargeListRule = ruleCompiler.compile(largeListRule);
+
+        // Nothing matches, so every condition of the multi-condition rule is evaluated
+        transaction = Transaction.builder()
+            .transactionId("TXN_BENCH")
+            .userId("USER_BENCH")
+            .amount(new BigDecimal("1250.00"))
+            .currency("USD")
+            .country("US")
+            .ipAddress("192.168.1.100")
+            .paymentMethod("CREDIT_CARD")
+            .timestamp(LocalDateTime.of(2025, 1, 1, 14, 30))
+            .build();
+    }
+
+    @Benchmark
+    public RuleEvaluationResult singleConditionCompiled() {
+        return compiledEvaluator.evaluateRule(compiledSingleConditionRule, transaction);
+    }
+
+    @Benchmark
+    public RuleEvaluationResult multiConditionCompiled() {
+        return compiledEvaluator.evaluateRule(compiledMultiConditionRule, transaction);
+    }
+
+    @Benchmark
+    public RuleEvaluationResult largeListCompiled() {
+        return compiledEvaluator.evaluateRule(compiledLargeListRule, transaction);
+    }
+}
@@ -0,0 +1,95 @@
+package com.faud.frauddetection.benchmark;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.service.evaluator.DynamicEvaluator;
+import com.faud.frauddetection.service.evaluator.MultiConditionEvaluator;
+import com.faud.frauddetection.service.rule.CompiledRule;
+import com.faud.frauddetection.service.rule.RuleCompiler;
+import com.faud.frauddetection.service.rule.RuleSnapshot;
+import com.faud.frauddetection.service.rule.TransactionFieldRegistry;
+import com.faud.frauddetection.service.rule.ValueListRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Indexed candidate selection versus evaluating every rule
+ * The rule set is made of country / merchant / payment method equality and membership rules,
+ * of which only a handful can match any one transaction
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleIndexBenchmark {
+
+    @Param({"100", "1000"})
+    private int ruleCount;
+
+    private DynamicEvaluator evaluator;
+    private RuleSnapshot snapshot;
+    private Transaction transaction;
+
+    @Setup
+    public void setUp() {
+        RuleCompiler ruleCompiler = new RuleCompiler(new TransactionFieldRegistry(), new ValueListRegistry(new FraudDetectionProperties()));
+        evaluator = new DynamicEvaluator(new MultiConditionEvaluator(ruleCompiler), ruleCompiler);
+
+        List<CompiledRule> rules = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            FraudRule.FraudRuleBuilder rule = FraudRule.builder().ruleName("RULE_" + i).ruleType("SIMPLE");
+            switch (i % 3) {
+                case 0 -> rule.conditionField("country").conditionOperator("EQ").conditionValue("C" + i);
+                case 1 -> rule.conditionField("merchant").conditionOperator("IN")
+                    .conditionValue("M" + i + ", M" + (i + 1) + ", M" + (i + 2));
+                default -> rule.conditionField("paymentMethod").conditionOperator("EQ").conditionValue("P" + i);
+            }
+            rules.add(ruleCompiler.compile(rule.build()).withEvaluator(evaluator));
+        }
+        snapshot = new RuleSnapshot(1L, null, Instant.now(), rules);
+
+        transaction = Transaction.builder()
+            .transactionId("TXN_BENCH")
+            .userId("USER_BENCH")
+            .amount(new BigDecimal("1250.00"))
+            .country("C0")
+            .merchant("M2")
+            .paymentMethod("CREDIT_CARD")
+            .timestamp(LocalDateTime.of(2025, 1, 1, 14, 30))
+            .build();
+    }
+
+    @Benchmark
+    public void evaluateAllRules(Blackhole blackhole) {
+        for (CompiledRule rule : snapshot.getCompiledRules()) {
+            blackhole.consume(evaluator.evaluateRule(rule, transaction));
+        }
+    }
+
+    @Benchmark
+    public void evaluateCandidateRules(Blackhole blackhole) {
+        for (CompiledRule rule : snapshot.getCandidateRules(transaction)) {
+            blackhole.consume(evaluator.evaluateRule(rule, transaction));
+        }
+    }
+}
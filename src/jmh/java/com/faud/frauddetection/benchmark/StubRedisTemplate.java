@@ -0,0 +1,79 @@
+package com.faud.frauddetection.benchmark;
+
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-process stand-in for Redis used by the benchmarks
+ * Scripts return canned results without any network round-trip, so the benchmarks measure the
+ * evaluation code around Redis rather than Redis itself. Pipelined script calls get the same
+ * replies; script loading is a no-op
+ */
+final class StubRedisTemplate extends StringRedisTemplate {
+
+    /**
+     * Event count reported for every velocity window
+     */
+    private static final long WINDOW_SIZE = 3L;
+
+    /**
+     * Amount sum in minor units reported for every velocity window
+     */
+    private static final long WINDOW_SUM = 375_000L;
+
+    /**
+     * Leading velocity script arguments before the window starts
+     */
+    private static final int VELOCITY_FIXED_ARGS = 7;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+        if (List.class.equals(script.getResultType())) {
+            return (T) velocityReply(args.length);
+        }
+        throw new UnsupportedOperationException("Script result type not stubbed: " + script.getResultType());
+    }
+
+    @Override
+    public <T> T execute(RedisCallback<T> action) {
+        return null;
+    }
+
+    @Override
+    public List<Object> executePipelined(RedisCallback<?> action) {
+        List<Object> replies = new ArrayList<>();
+        StringRedisConnection connection = (StringRedisConnection) Proxy.newProxyInstance(
+            StringRedisConnection.class.getClassLoader(), new Class<?>[]{StringRedisConnection.class},
+            (proxy, method, args) -> {
+                if (!"evalSha".equals(method.getName()) || !(args[3] instanceof String[] keysAndArgs)) {
+                    throw new UnsupportedOperationException("Pipelined command not stubbed: " + method.getName());
+                }
+                int numKeys = (Integer) args[2];
+                replies.add(velocityReply(keysAndArgs.length - numKeys));
+                return null;
+            });
+        action.doInRedis(connection);
+        return replies;
+    }
+
+    /**
+     * One count / sum pair per requested window, then the exact key state
+     */
+    private static List<Long> velocityReply(int argCount) {
+        int windows = Math.max(argCount - VELOCITY_FIXED_ARGS, 0);
+        List<Long> reply = new ArrayList<>(2 * windows + 1);
+        for (int i = 0; i < windows; i++) {
+            reply.add(WINDOW_SIZE);
+            reply.add(WINDOW_SUM);
+        }
+        reply.add(0L);
+        return reply;
+    }
+}
@@ -0,0 +1,80 @@
+package com.faud.frauddetection.benchmark;
+
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.service.kafka.BinaryCodec;
+import com.faud.frauddetection.service.kafka.TransactionReader;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transaction deserialization as done by the listeners for every Kafka record: JSON bytes and the
+ * binary wire format through TransactionReader, against a default ObjectMapper reading a String
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionDeserializationBenchmark {
+
+    private static final String TRANSACTION_JSON = "{"
+        + "\"transactionId\": \"TXN_20250101_000042\","
+        + "\"userId\": \"USER_123456\","
+        + "\"amount\": 1250.00,"
+        + "\"timestamp\": \"2025-01-01T14:30:00\","
+        + "\"ipAddress\": \"192.168.1.100\","
+        + "\"deviceId\": \"DEVICE_ABCDEF\","
+        + "\"userAgent\": \"Mozilla/5.0 (Windows NT 10.0; Win64; x64)\","
+        + "\"country\": \"US\","
+        + "\"currency\": \"USD\","
+        + "\"merchant\": \"MERCHANT_042\","
+        + "\"paymentMethod\": \"CREDIT_CARD\","
+        + "\"status\": \"PENDING\""
+        + "}";
+
+    private ObjectMapper objectMapper;
+    private TransactionReader transactionReader;
+    private BinaryCodec binaryCodec;
+    private byte[] jsonPayload;
+    private byte[] binaryPayload;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapper();
+        objectMapper.findAndRegisterModules();
+        transactionReader = new TransactionReader();
+        binaryCodec = new BinaryCodec();
+        jsonPayload = TRANSACTION_JSON.getBytes(StandardCharsets.UTF_8);
+        binaryPayload = binaryCodec.encode(transactionReader.read(jsonPayload));
+    }
+
+    @Benchmark
+    public Transaction deserialize() throws JsonProcessingException {
+        return objectMapper.readValue(TRANSACTION_JSON, Transaction.class);
+    }
+
+    @Benchmark
+    public Transaction readJsonBytes() throws IOException {
+        return transactionReader.read(jsonPayload);
+    }
+
+    @Benchmark
+    public Transaction readBinary() throws IOException {
+        return binaryCodec.decodeTransaction(binaryPayload);
+    }
+}
@@ -2,9 +2,12 @@ package com.faud.frauddetection.config;
 
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Configuration properties for fraud detection system
@@ -27,24 +30,58 @@ public class FraudDetectionProperties {
     
     /**
      * Whether to enable async processing
+     * Consumed transactions are detected without blocking the listener thread on Redis; offsets are
+     * still only committed up to the first transaction whose result is not saved yet
      */
     private boolean asyncProcessing = true;
     
     /**
-     * Batch size for processing
+     * Maximum number of transactions detected asynchronously at once; the listener waits when reached
+     * Keep below rule-evaluation.executor-queue-capacity so completions never run on the Redis I/O thread
+     */
+    private int maxInFlightTransactions = 256;
+    
+    /**
+     * How the transactions listener hands records to detection
+     */
+    private ListenerMode listenerMode = ListenerMode.RECORD;
+    
+    /**
+     * Maximum number of transactions detected together in batch listener mode; a poll is split into
+     * batches of this size. Keep below rule-evaluation.executor-queue-capacity
      */
     private int batchSize = 100;
     
     /**
-     * Thread pool size for async processing
+     * Thread pool size for async processing; the worker threads of the key-ordered listener mode
      */
     private int threadPoolSize = 10;
     
+    /**
+     * Offset commit configurations of the transactions listener
+     */
+    private OffsetCommit offsetCommit = new OffsetCommit();
+    
     /**
      * Time window configurations
      */
     private TimeWindow timeWindow = new TimeWindow();
     
+    /**
+     * Velocity window store configurations
+     */
+    private Velocity velocity = new Velocity();
+    
+    /**
+     * Distinct count (HyperLogLog) rule configurations
+     */
+    private DistinctCount distinctCount = new DistinctCount();
+    
+    /**
+     * Migration of Redis keys from the unversioned layout
+     */
+    private KeyMigration keyMigration = new KeyMigration();
+    
     /**
      * Rule evaluation configurations
      */
@@ -55,6 +92,64 @@ public class FraudDetectionProperties {
      */
     private Alert alert = new Alert();
     
+    /**
+     * In-memory active rule cache configurations
+     */
+    private RuleCache ruleCache = new RuleCache();
+    
+    /**
+     * Named value lists for IN / NOT_IN conditions, referenced as "@list:&lt;name&gt;"
+     * Each resource holds one value per line
+     */
+    private Map<String, Resource> valueLists = new LinkedHashMap<>();
+    
+    public enum ListenerMode {
+        /**
+         * Each record is detected on its own, asynchronously if async-processing is enabled
+         */
+        RECORD,
+        
+        /**
+         * The records of a poll are received together and detected batch-size at a time with one rule
+         * snapshot, one Redis pipeline and one batched insert per batch
+         */
+        BATCH,
+        
+        /**
+         * The records of a partition are detected concurrently on thread-pool-size workers, in order
+         * per userId; offsets are committed up to the lowest record not yet detected
+         */
+        KEY_ORDERED
+    }
+    
+    public enum WireFormat {
+        /**
+         * JSON values, readable by every consumer
+         */
+        JSON,
+        
+        /**
+         * The compact binary format of schema/wire-format.schema, marked by a content-type header
+         */
+        BINARY
+    }
+    
+    @Data
+    public static class OffsetCommit {
+        /**
+         * Minimum interval in milliseconds between offset commits of a partition, 0 to commit after
+         * every poll. Offsets only cover records whose result was saved; records detected since the last
+         * commit are detected again after a crash
+         */
+        private long intervalMs = 1000L;
+        
+        /**
+         * Maximum time in milliseconds a rebalance or shutdown waits for records in progress of the
+         * revoked partitions before committing them; keep well below max.poll.interval.ms
+         */
+        private long drainTimeoutMs = 5000L;
+    }
+    
     @Data
     public static class TimeWindow {
         /**
@@ -73,6 +168,125 @@ public class FraudDetectionProperties {
         private long minSeconds = 300L; // 5 minutes
     }
     
+    @Data
+    public static class Velocity {
+        /**
+         * Length in seconds of the buckets cumulative amounts are aggregated in
+         * Windows are evaluated at bucket granularity, the oldest bucket is counted in full
+         */
+        private long bucketSeconds = 60L;
+        
+        /**
+         * Decimal places kept when amounts are stored as integer minor units
+         */
+        private int amountScale = 2;
+        
+        /**
+         * In-process velocity state for the users of the assigned partitions
+         */
+        private LocalState localState = new LocalState();
+        
+        /**
+         * In-process fallback windows used while Redis is unhealthy
+         */
+        private Fallback fallback = new Fallback();
+        
+        /**
+         * Per-user cap on the events kept in a velocity window
+         */
+        private Cap cap = new Cap();
+        
+        @Data
+        public static class LocalState {
+            /**
+             * Keep velocity state in process and write it behind to Redis
+             * Requires the transactions topic to be keyed by userId with the default partitioner
+             */
+            private boolean enabled = false;
+            
+            /**
+             * Topic whose partition assignment decides which users are kept locally
+             */
+            private String topic = "transactions";
+            
+            /**
+             * Maximum number of queued write-behind updates; when full, updates are written on the calling thread
+             */
+            private int writeBehindQueueCapacity = 10000;
+            
+            /**
+             * Interval in milliseconds between sweeps that drop users without events in the longest window
+             */
+            private long evictionIntervalMs = 60000L;
+        }
+        
+        @Data
+        public static class Fallback {
+            /**
+             * Keep approximate per-bucket windows of every user in process and evaluate velocity rules
+             * from them, flagged as degraded, while the Redis circuit breaker is open
+             */
+            private boolean enabled = true;
+            
+            /**
+             * Consecutive Redis failures that open the circuit breaker
+             */
+            private int failureThreshold = 5;
+            
+            /**
+             * Time in milliseconds the circuit stays open before a single probe request is let through
+             */
+            private long openDurationMs = 5000L;
+            
+            /**
+             * Interval in milliseconds between sweeps that drop users without events in the longest window
+             */
+            private long evictionIntervalMs = 60000L;
+        }
+        
+        @Data
+        public static class Cap {
+            /**
+             * Maximum number of events kept per user; beyond it the oldest events are dropped and windows
+             * reaching back to them are counted from the per-bucket counters instead
+             */
+            private int maxEventsPerUser = 10000;
+            
+            /**
+             * Risk score added to a decision while the user's velocity state is downsampled, 0 to disable
+             */
+            private double riskScore = 0.0;
+        }
+    }
+    
+    @Data
+    public static class DistinctCount {
+        /**
+         * Default length in seconds of the slices a window's sketches are kept in
+         * Windows are evaluated at slice granularity, the oldest slice is counted in full
+         */
+        private long sliceSeconds = 300L;
+        
+        /**
+         * Maximum number of slices merged for one window; longer windows use proportionally longer slices
+         */
+        private int maxSlices = 48;
+    }
+    
+    @Data
+    public static class KeyMigration {
+        /**
+         * Copy state kept under the unversioned key layout into the versioned keys once on startup,
+         * then delete the old keys. Enable once every instance writes the versioned keys
+         */
+        private boolean enabled = false;
+        
+        /**
+         * Number of keys requested per SCAN call
+         */
+        private int scanCount = 1000;
+    }
+    
     @Data
     public static class RuleEvaluation {
         /**
@@ -96,9 +310,39 @@ public class FraudDetectionProperties {
         private int defaultPriority = 1;
         
         /**
-         * Timeout for rule evaluation in milliseconds
+         * Deadline in milliseconds for evaluating all rules of a transaction
+         * Rules still running when it expires are reported as TIMED_OUT
          */
         private long evaluationTimeoutMs = 5000L;
+        
+        /**
+         * Number of threads evaluating I/O-bound rules concurrently
+         */
+        private int executorThreads = 16;
+        
+        /**
+         * Maximum number of queued rule evaluations; when full, rules are evaluated on the calling thread
+         */
+        private int executorQueueCapacity = 1000;
+        
+        /**
+         * Evaluate rules in-memory first, then by priority and observed cost, and stop once the
+         * risk score reaches maxRiskScore or a decisive rule triggers; remaining rules are SKIPPED
+         */
+        private boolean shortCircuit = false;
+    }
+    
+    @Data
+    public static class RuleCache {
+        /**
+         * Interval in milliseconds between cheap rule table version checks
+         */
+        private long versionCheckIntervalMs = 5000L;
+        
+        /**
+         * Maximum age in seconds of the rule snapshot before a full reload is forced
+         */
+        private long maxAgeSeconds = 300L;
     }
     
     @Data
@@ -113,6 +357,11 @@ public class FraudDetectionProperties {
          */
         private String kafkaTopic = "fraud-alerts";
         
+        /**
+         * Format of the alerts published to the Kafka topic; consumers tell them apart by the content-type header
+         */
+        private WireFormat wireFormat = WireFormat.JSON;
+        
         /**
          * Alert timeout in milliseconds
          */
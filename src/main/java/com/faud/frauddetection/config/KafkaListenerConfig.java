@@ -0,0 +1,44 @@
+package com.faud.frauddetection.config;
+
+import com.faud.frauddetection.service.kafka.OffsetCommitter;
+import com.faud.frauddetection.service.kafka.OffsetCommittingRebalanceListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ContainerCustomizer;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+
+/**
+ * Kafka listener container configuration
+ * Containers are created by the auto-configured factory; the transactions listeners commit their own
+ * offsets through the OffsetCommitter and their containers are adjusted here
+ */
+@Configuration
+public class KafkaListenerConfig {
+
+    /**
+     * How often an idle container commits records done since its last poll, when every poll commits
+     */
+    static final long DEFAULT_IDLE_COMMIT_INTERVAL_MS = 1000;
+
+    /**
+     * The transactions containers must not commit the offsets of a poll when the listener returns,
+     * and commit the partitions they give up in a rebalance through the OffsetCommitter
+     */
+    @Bean
+    public ContainerCustomizer<Object, Object, ConcurrentMessageListenerContainer<Object, Object>> transactionsContainerCustomizer(
+            OffsetCommitter offsetCommitter, FraudDetectionProperties properties) {
+        long intervalMs = properties.getOffsetCommit().getIntervalMs();
+        return container -> {
+            String listenerId = container.getListenerId();
+            if (listenerId == null || !listenerId.startsWith(OffsetCommitter.LISTENER_ID_PREFIX)) {
+                return;
+            }
+            ContainerProperties containerProperties = container.getContainerProperties();
+            containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+            containerProperties.setIdleEventInterval(intervalMs > 0 ? intervalMs : DEFAULT_IDLE_COMMIT_INTERVAL_MS);
+            containerProperties.setConsumerRebalanceListener(
+                new OffsetCommittingRebalanceListener(offsetCommitter, containerProperties.getConsumerRebalanceListener()));
+        };
+    }
+}
@@ -48,4 +48,7 @@ public final class FraudRuleOperators {
     
     // List Value Separator
     public static final String LIST_VALUE_SEPARATOR = ",";
+    
+    // Prefix of IN / NOT_IN values that reference a named value list, e.g. "@list:high-risk-ips"
+    public static final String VALUE_LIST_REFERENCE_PREFIX = "@list:";
 } 
\ No newline at end of file
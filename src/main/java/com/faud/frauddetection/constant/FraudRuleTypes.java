@@ -13,6 +13,7 @@ public final class FraudRuleTypes {
     // Rule Types
     public static final String AMOUNT = "AMOUNT";
     public static final String FREQUENCY = "FREQUENCY";
+    public static final String DISTINCT_COUNT = "DISTINCT_COUNT";
     public static final String TIME_OF_DAY = "TIME_OF_DAY";
     public static final String IP_BLACKLIST = "IP_BLACKLIST";
     public static final String IP_WHITELIST = "IP_WHITELIST";
@@ -5,50 +5,85 @@ package com.faud.frauddetection.constant;
  * Centralizes all Redis key patterns used in the fraud detection system
  */
 public final class RedisKeys {
-    
+
     private RedisKeys() {
         // Utility class - prevent instantiation
     }
-    
-    // Key Prefixes
-    public static final String FRAUD_PREFIX = "fraud";
-    public static final String FREQUENCY_PREFIX = "frequency";
-    public static final String AMOUNTS_PREFIX = "amounts";
-    public static final String TRANSACTIONS_PREFIX = "transactions";
-    public static final String USER_PREFIX = "user";
-    
+
+    /**
+     * Version of the key layout; a layout change gets a new version and a migration of the old keys
+     */
+    public static final String KEY_VERSION = "v1";
+
+    /**
+     * Hash tag of a user's keys; all state of one user, or of one distinct count group, lives in the
+     * same Redis Cluster slot, so multi-key scripts stay valid in a cluster
+     */
+    public static final String USER_TAG = "u";
+
+    // Key suffixes, kept short as they are repeated in every key
+    public static final String EVENTS_SUFFIX = "e";
+    public static final String AMOUNT_BUCKETS_SUFFIX = "a";
+    public static final String DISTINCT_SUFFIX = "d";
+
     // Key Separators
     public static final String KEY_SEPARATOR = ":";
-    
-    // Complete Key Patterns
-    public static final String FRAUD_FREQUENCY_USER_PATTERN = FRAUD_PREFIX + KEY_SEPARATOR + FREQUENCY_PREFIX + KEY_SEPARATOR + USER_PREFIX + KEY_SEPARATOR + "%s";
-    public static final String AMOUNTS_USER_PATTERN = AMOUNTS_PREFIX + KEY_SEPARATOR + USER_PREFIX + KEY_SEPARATOR + "%s";
-    public static final String TRANSACTIONS_USER_PATTERN = TRANSACTIONS_PREFIX + KEY_SEPARATOR + USER_PREFIX + KEY_SEPARATOR + "%s";
-    
+
     /**
-     * Generate fraud frequency key for user
-     * @param userId user identifier
-     * @return formatted Redis key
+     * Transaction field whose distinct count groups share the user's hash tag
      */
-    public static String fraudFrequencyKey(String userId) {
-        return String.format(FRAUD_FREQUENCY_USER_PATTERN, userId);
-    }
-    
+    private static final String USER_ID_FIELD = "userId";
+
+    // Unversioned layout before v1, only read by the key migration
+    public static final String LEGACY_TRANSACTIONS_USER_PREFIX = "transactions:user:";
+    public static final String LEGACY_AMOUNT_BUCKETS_USER_PREFIX = "amounts:buckets:user:";
+    public static final String LEGACY_DISTINCT_PREFIX = "distinct:";
+
     /**
-     * Generate amounts key for user
+     * Generate per-minute amount bucket key for user
      * @param userId user identifier
-     * @return formatted Redis key
+     * @return Redis key, {@code v1:{u:<userId>}:a}
      */
-    public static String amountsKey(String userId) {
-        return String.format(AMOUNTS_USER_PATTERN, userId);
+    public static String amountBucketsKey(String userId) {
+        return KEY_VERSION + KEY_SEPARATOR + "{" + USER_TAG + KEY_SEPARATOR + userId + "}" + KEY_SEPARATOR + AMOUNT_BUCKETS_SUFFIX;
     }
-    
+
     /**
      * Generate transactions key for user
      * @param userId user identifier
-     * @return formatted Redis key
+     * @return Redis key, {@code v1:{u:<userId>}:e}
      */
     public static String transactionsKey(String userId) {
-        return String.format(TRANSACTIONS_USER_PATTERN, userId);
+        return KEY_VERSION + KEY_SEPARATOR + "{" + USER_TAG + KEY_SEPARATOR + userId + "}" + KEY_SEPARATOR + EVENTS_SUFFIX;
+    }
+
+    /**
+     * Generate the common prefix of the HyperLogLog keys of a distinct count group
+     * Slice keys are the prefix followed by the slice index
+     * @param countField field whose distinct values are counted
+     * @param groupField field the values are grouped by
+     * @param sliceSeconds slice length in seconds
+     * @param groupValue value of the group field
+     * @return Redis key prefix, ending with a separator, {@code v1:{<group>:<value>}:d:<countField>:<sliceSeconds>:}
+     *         with the group tag {@code u} for userId
+     */
+    public static String distinctSlicePrefix(String countField, String groupField, long sliceSeconds, String groupValue) {
+        String tag = USER_ID_FIELD.equals(groupField) ? USER_TAG : groupField;
+        return KEY_VERSION + KEY_SEPARATOR + "{" + tag + KEY_SEPARATOR + groupValue + "}" + KEY_SEPARATOR
+            + DISTINCT_SUFFIX + KEY_SEPARATOR + countField + KEY_SEPARATOR + sliceSeconds + KEY_SEPARATOR;
+    }
+
+    /**
+     * Generate the HyperLogLog key of one slice of a distinct count
+     * @param countField field whose distinct values are counted
+     * @param groupField field the values are grouped by
+     * @param sliceSeconds slice length in seconds
+     * @param groupValue value of the group field
+     * @param sliceIndex slice start divided by the slice length
+     * @return Redis key
+     */
+    public static String distinctSliceKey(String countField, String groupField, long sliceSeconds,
+                                          String groupValue, long sliceIndex) {
+        return distinctSlicePrefix(countField, groupField, sliceSeconds, groupValue) + sliceIndex;
     }
-} 
\ No newline at end of file
+}
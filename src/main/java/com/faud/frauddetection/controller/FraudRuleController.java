@@ -12,6 +12,8 @@ import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 
 /**
  * Fraud Rule Management Controller
@@ -138,6 +140,24 @@ public class FraudRuleController {
         return ResponseEntity.status(HttpStatus.CREATED).body(savedRule);
     }
 
+    /**
+     * Reject invalid rule definitions with 400 Bad Request
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidRule(IllegalArgumentException e) {
+        log.warn("Rejected fraud rule request: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+
+    /**
+     * Report updates of missing rules with 404 Not Found
+     */
+    @ExceptionHandler(NoSuchElementException.class)
+    public ResponseEntity<Map<String, String>> handleMissingRule(NoSuchElementException e) {
+        log.warn("Fraud rule not found: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+    }
+
     /**
      * Convert DTO to entity
      */
@@ -154,6 +174,7 @@ public class FraudRuleController {
                 .conditionValue(dto.getConditionValue())
                 .riskWeight(dto.getRiskWeight() != null ? dto.getRiskWeight() : getDefaultRiskWeight(dto.getRuleType()))
                 .priority(dto.getPriority() != null ? dto.getPriority() : 1)
+                .decisive(Boolean.TRUE.equals(dto.getDecisive()))
                 .build();
     }
 
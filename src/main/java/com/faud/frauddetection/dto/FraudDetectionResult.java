@@ -14,6 +14,11 @@ import java.util.List;
 @AllArgsConstructor
 public class FraudDetectionResult {
 
+    /**
+     * Risk level of a result returned instead of an exception when detection fails
+     */
+    public static final String ERROR_RISK_LEVEL = "ERROR";
+
     private String transactionId;
     private boolean isFraudulent;
     private double riskScore;
@@ -31,6 +36,16 @@ public class FraudDetectionResult {
     private String evaluationStatus;
     private String alertStatus;
     
+    /**
+     * Whether any rule was evaluated from approximate in-process state because Redis was unavailable
+     */
+    private boolean degraded;
+    
+    /**
+     * Whether the result was saved; failed detections are never saved
+     */
+    private boolean persisted;
+    
     // Legacy method names for backward compatibility
     public boolean isFraud() {
         return isFraudulent;
@@ -60,4 +60,9 @@ public class FraudRuleDto {
      * Rule priority
      */
     private Integer priority;
+    
+    /**
+     * Whether the rule decides the transaction on its own
+     */
+    private Boolean decisive;
 } 
\ No newline at end of file
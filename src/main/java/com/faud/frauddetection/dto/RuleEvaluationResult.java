@@ -44,4 +44,20 @@ public class RuleEvaluationResult {
      * Threshold value used for comparison
      */
     private String thresholdValue;
+    
+    /**
+     * Whether the rule was evaluated to completion
+     */
+    @Builder.Default
+    private RuleEvaluationStatus status = RuleEvaluationStatus.COMPLETED;
+    
+    /**
+     * Whether the rule was evaluated from approximate in-process state because Redis was unavailable
+     */
+    private boolean degraded;
+    
+    /**
+     * Whether the user's velocity state exceeded the per-user event cap and was evaluated at bucket granularity
+     */
+    private boolean downsampled;
 } 
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.faud.frauddetection.dto;
+
+/**
+ * Outcome of evaluating a single rule for a transaction
+ */
+public enum RuleEvaluationStatus {
+    /**
+     * The evaluator returned a result within the deadline
+     */
+    COMPLETED,
+    /**
+     * The evaluator did not return within the transaction deadline; the rule did not contribute to the decision
+     */
+    TIMED_OUT,
+    /**
+     * The evaluator failed with an error; the rule did not contribute to the decision
+     */
+    FAILED,
+    /**
+     * The rule was not evaluated
+     */
+    SKIPPED
+}
@@ -12,5 +12,6 @@ public class FraudDetectionResultEntity {
     private double riskScore;
     private String reason;
     private LocalDateTime detectionTimestamp;
+    private boolean degraded;
 
 }
\ No newline at end of file
@@ -76,6 +76,12 @@ public class FraudRule {
      */
     private Integer priority;
     
+    /**
+     * Whether the rule decides the transaction on its own
+     * In short-circuit mode, no further rules are evaluated once a decisive rule triggers
+     */
+    private Boolean decisive;
+    
     /**
      * Created time
      */
@@ -107,6 +113,9 @@ public class FraudRule {
         if (priority == null) {
             priority = 1;
         }
+        if (decisive == null) {
+            decisive = false;
+        }
     }
     
     /**
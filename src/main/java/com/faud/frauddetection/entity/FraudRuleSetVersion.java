@@ -0,0 +1,34 @@
+package com.faud.frauddetection.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight fingerprint of the fraud_rules table
+ * Used to detect rule changes made by other instances without reloading every rule
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FraudRuleSetVersion {
+
+    /**
+     * Total number of rules
+     */
+    private long ruleCount;
+
+    /**
+     * Number of enabled rules
+     */
+    private long enabledCount;
+
+    /**
+     * Most recent update timestamp across all rules
+     */
+    private LocalDateTime lastUpdatedAt;
+}
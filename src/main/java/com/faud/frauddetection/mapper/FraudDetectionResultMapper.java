@@ -26,6 +26,11 @@ public interface FraudDetectionResultMapper {
      */
     void insert(FraudDetectionResultEntity result);
 
+    /**
+     * Insert fraud detection results in one multi-row statement
+     */
+    void insertBatch(List<FraudDetectionResultEntity> results);
+
     /**
      * Delete fraud detection result by ID
      */
@@ -1,6 +1,7 @@
 package com.faud.frauddetection.mapper;
 
 import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.entity.FraudRuleSetVersion;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
@@ -84,4 +85,11 @@ public interface FraudRuleMapper {
      * @return A list of all enabled fraud rules.
      */
     List<FraudRule> findAllEnabled();
-} 
\ No newline at end of file
+
+    /**
+     * Computes a cheap fingerprint (row count, enabled count, latest update) of the rule table.
+     *
+     * @return The current rule set version.
+     */
+    FraudRuleSetVersion selectRuleSetVersion();
+}
@@ -12,6 +12,8 @@ public interface FraudDetectionResultRepository {
 
     FraudDetectionResultEntity save(FraudDetectionResultEntity result);
 
+    List<FraudDetectionResultEntity> saveAll(List<FraudDetectionResultEntity> results);
+
     Optional<FraudDetectionResultEntity> findById(Long id);
 
     List<FraudDetectionResultEntity> findAll();
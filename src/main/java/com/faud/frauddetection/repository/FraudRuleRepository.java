@@ -1,6 +1,7 @@
 package com.faud.frauddetection.repository;
 
 import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.entity.FraudRuleSetVersion;
 
 import java.util.List;
 import java.util.Optional;
@@ -30,6 +31,12 @@ public interface FraudRuleRepository {
      */
     List<FraudRule> findAllEnabled();
 
+    /**
+     * Reads a cheap fingerprint of the rule table, used to detect changes.
+     * @return The current rule set version.
+     */
+    FraudRuleSetVersion findRuleSetVersion();
+
     /**
      * Saves a new or updated fraud rule.
      * @param fraudRule The rule to save.
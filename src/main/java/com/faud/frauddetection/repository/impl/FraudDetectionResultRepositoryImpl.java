@@ -23,6 +23,14 @@ public class FraudDetectionResultRepositoryImpl implements FraudDetectionResultR
         return result;
     }
 
+    @Override
+    public List<FraudDetectionResultEntity> saveAll(List<FraudDetectionResultEntity> results) {
+        if (!results.isEmpty()) {
+            resultMapper.insertBatch(results);
+        }
+        return results;
+    }
+
     @Override
     public Optional<FraudDetectionResultEntity> findById(Long id) {
         return Optional.ofNullable(resultMapper.findById(id));
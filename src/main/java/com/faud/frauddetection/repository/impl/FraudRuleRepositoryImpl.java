@@ -1,6 +1,7 @@
 package com.faud.frauddetection.repository.impl;
 
 import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.entity.FraudRuleSetVersion;
 import com.faud.frauddetection.mapper.FraudRuleMapper;
 import com.faud.frauddetection.repository.FraudRuleRepository;
 import org.springframework.stereotype.Repository;
@@ -32,6 +33,11 @@ public class FraudRuleRepositoryImpl implements FraudRuleRepository {
         return fraudRuleMapper.findAllEnabled();
     }
 
+    @Override
+    public FraudRuleSetVersion findRuleSetVersion() {
+        return fraudRuleMapper.selectRuleSetVersion();
+    }
+
     @Override
     public void save(FraudRule fraudRule) {
         fraudRuleMapper.insert(fraudRule);
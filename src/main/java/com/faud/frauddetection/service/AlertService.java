@@ -5,13 +5,20 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.faud.frauddetection.dto.FraudDetectionResult;
 import com.faud.frauddetection.config.FraudDetectionProperties;
 import com.faud.frauddetection.constant.AlertSeverity;
+import com.faud.frauddetection.service.kafka.BinaryCodec;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
@@ -26,6 +33,8 @@ public class AlertService {
     private final KafkaTemplate<String, String> kafkaTemplate;
     private final ObjectMapper objectMapper;
     private final FraudDetectionProperties properties;
+    private final BinaryCodec binaryCodec = new BinaryCodec();
+    private volatile KafkaTemplate<String, byte[]> binaryKafkaTemplate;
 
     public AlertService(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper, FraudDetectionProperties properties) {
         this.kafkaTemplate = kafkaTemplate;
@@ -67,25 +76,74 @@ public class AlertService {
      * Send fraud alert to Kafka topic for downstream processing
      */
     private void sendKafkaAlert(FraudDetectionResult result) {
+        if (properties.getAlert().getWireFormat() == FraudDetectionProperties.WireFormat.BINARY) {
+            sendBinaryKafkaAlert(result);
+            return;
+        }
         try {
-            Map<String, Object> alertData = createAlertData(result);
-            String alertMessage = objectMapper.writeValueAsString(alertData);
+            String alertMessage = createAlertMessage(result);
             
             CompletableFuture<SendResult<String, String>> future = kafkaTemplate.send(properties.getAlert().getKafkaTopic(), result.getTransactionId(), alertMessage);
             
-            future.whenComplete((sendResult, exception) -> {
-                if (exception == null) {
-                    log.info("✅ Fraud alert sent to Kafka successfully for transaction: {}", result.getTransactionId());
-                } else {
-                    log.error("❌ Failed to send fraud alert to Kafka for transaction: {}", result.getTransactionId(), exception);
-                }
-            });
+            future.whenComplete((sendResult, exception) -> logSendResult(result, exception));
             
         } catch (JsonProcessingException e) {
             log.error("Failed to serialize fraud alert for transaction: {}", result.getTransactionId(), e);
         }
     }
 
+    /**
+     * Send fraud alert to Kafka topic in the binary wire format, marked by its content-type header
+     */
+    private void sendBinaryKafkaAlert(FraudDetectionResult result) {
+        ProducerRecord<String, byte[]> alertRecord = new ProducerRecord<>(properties.getAlert().getKafkaTopic(), null,
+            result.getTransactionId(), createBinaryAlertMessage(result), List.of(BinaryCodec.binaryContentType()));
+
+        binaryKafkaTemplate().send(alertRecord).whenComplete((sendResult, exception) -> logSendResult(result, exception));
+    }
+
+    private void logSendResult(FraudDetectionResult result, Throwable exception) {
+        if (exception == null) {
+            log.info("✅ Fraud alert sent to Kafka successfully for transaction: {}", result.getTransactionId());
+        } else {
+            log.error("❌ Failed to send fraud alert to Kafka for transaction: {}", result.getTransactionId(), exception);
+        }
+    }
+
+    /**
+     * Template for binary alerts: the producer configuration of the injected template with a byte[] value serializer
+     */
+    @SuppressWarnings("unchecked")
+    private KafkaTemplate<String, byte[]> binaryKafkaTemplate() {
+        KafkaTemplate<String, byte[]> template = binaryKafkaTemplate;
+        if (template == null) {
+            synchronized (this) {
+                if (binaryKafkaTemplate == null) {
+                    ProducerFactory<String, byte[]> producerFactory =
+                        (ProducerFactory<String, byte[]>) (ProducerFactory<?, ?>) kafkaTemplate.getProducerFactory();
+                    binaryKafkaTemplate = new KafkaTemplate<>(producerFactory,
+                        Map.of(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class));
+                }
+                template = binaryKafkaTemplate;
+            }
+        }
+        return template;
+    }
+
+    /**
+     * Serialize the alert payload sent to the alert topic
+     */
+    public String createAlertMessage(FraudDetectionResult result) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(createAlertData(result));
+    }
+
+    /**
+     * Encode the alert payload sent to the alert topic in the binary wire format, the detection result itself
+     */
+    public byte[] createBinaryAlertMessage(FraudDetectionResult result) {
+        return binaryCodec.encode(result);
+    }
+
     /**
      * Send webhook alert (placeholder for actual webhook implementation)
      */
@@ -118,4 +176,14 @@ public class AlertService {
     private String getSeverity(double riskScore) {
         return AlertSeverity.getSeverity(riskScore);
     }
+
+    /**
+     * Close the producers of the binary alert template, which is not a bean
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (binaryKafkaTemplate != null) {
+            binaryKafkaTemplate.getProducerFactory().reset();
+        }
+    }
 } 
\ No newline at end of file
@@ -17,6 +17,12 @@ public interface FraudDetectionResultService {
      */
     void saveResult(FraudDetectionResult resultDto);
 
+    /**
+     * Saves fraud detection results with one batched insert.
+     * @param resultDtos The results to save.
+     */
+    void saveResults(List<FraudDetectionResult> resultDtos);
+
     /**
      * Retrieves all fraud detection results.
      * @return A list of all results.
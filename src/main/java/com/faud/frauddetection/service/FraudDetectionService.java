@@ -3,6 +3,10 @@ package com.faud.frauddetection.service;
 import com.faud.frauddetection.dto.Transaction;
 import com.faud.frauddetection.dto.FraudDetectionResult;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Fraud detection service interface
  */
@@ -15,4 +19,29 @@ public interface FraudDetectionService {
      * @return fraud detection result
      */
     FraudDetectionResult detectFraud(Transaction transaction);
-} 
\ No newline at end of file
+    
+    /**
+     * Detect if a transaction has fraud risk without blocking the calling thread on Redis
+     * 
+     * @param transaction the transaction to be detected
+     * @return future of the fraud detection result, never completed exceptionally
+     */
+    default CompletableFuture<FraudDetectionResult> detectFraudAsync(Transaction transaction) {
+        return CompletableFuture.completedFuture(detectFraud(transaction));
+    }
+    
+    /**
+     * Detect the fraud risk of a batch of transactions, in order
+     * Transactions of the same user are recorded in the order given
+     * 
+     * @param transactions the transactions to be detected
+     * @return one fraud detection result per transaction, in the same order
+     */
+    default List<FraudDetectionResult> detectFraudBatch(List<Transaction> transactions) {
+        List<FraudDetectionResult> results = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            results.add(detectFraud(transaction));
+        }
+        return results;
+    }
+}
\ No newline at end of file
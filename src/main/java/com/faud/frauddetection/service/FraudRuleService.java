@@ -1,6 +1,7 @@
 package com.faud.frauddetection.service;
 
 import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.service.rule.RuleSnapshot;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,6 +11,7 @@ public interface FraudRuleService {
     Optional<FraudRule> getFraudRuleById(Long id);
     List<FraudRule> getAllFraudRules();
     List<FraudRule> getActiveRules();  // Get only enabled rules
+    RuleSnapshot getActiveRuleSnapshot();  // Get enabled rules in compiled form
     FraudRule updateFraudRule(Long id, FraudRule fraudRule);
     void deleteFraudRule(Long id);
 }
\ No newline at end of file
@@ -0,0 +1,124 @@
+package com.faud.frauddetection.service;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.service.kafka.KeyOrderedExecutor;
+import com.faud.frauddetection.service.kafka.OffsetCommitter;
+import com.faud.frauddetection.service.kafka.OffsetTracker;
+import com.faud.frauddetection.service.kafka.TransactionReader;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Kafka Transaction Key-Ordered Consumer
+ * Fans the records of a partition out to a worker pool keyed by userId: a user's transactions are
+ * detected one at a time in offset order, so velocity windows stay correct, while other users proceed
+ * concurrently instead of waiting behind a slow Redis call. Offsets are committed through the
+ * OffsetCommitter up to the lowest record whose result is not saved yet.
+ * Active in the key-ordered listener mode
+ */
+@Service
+@ConditionalOnProperty(prefix = "fraud.detection", name = "listener-mode", havingValue = "key-ordered")
+@Slf4j
+public class KeyOrderedTransactionConsumer {
+
+    public static final String LISTENER_ID = OffsetCommitter.LISTENER_ID_PREFIX + "key-ordered";
+
+    private final FraudDetectionService fraudDetectionService;
+    private final OffsetCommitter offsetCommitter;
+    private final TransactionReader transactionReader;
+    private final ThreadPoolTaskExecutor workerPool;
+    private final KeyOrderedExecutor workers;
+    private final Semaphore inFlight;
+
+    public KeyOrderedTransactionConsumer(FraudDetectionService fraudDetectionService, OffsetCommitter offsetCommitter,
+                                         TransactionReader transactionReader, FraudDetectionProperties properties) {
+        if (properties.getThreadPoolSize() < 1) {
+            throw new IllegalArgumentException("Thread pool size must be at least 1");
+        }
+        this.fraudDetectionService = fraudDetectionService;
+        this.offsetCommitter = offsetCommitter;
+        this.transactionReader = transactionReader;
+
+        // The queue never fills, records waiting for a worker are bounded by the in-flight limit
+        this.workerPool = new ThreadPoolTaskExecutor();
+        workerPool.setCorePoolSize(properties.getThreadPoolSize());
+        workerPool.setMaxPoolSize(properties.getThreadPoolSize());
+        workerPool.setThreadNamePrefix("key-ordered-");
+        workerPool.initialize();
+        this.workers = new KeyOrderedExecutor(workerPool);
+        this.inFlight = new Semaphore(properties.getMaxInFlightTransactions());
+    }
+
+    /**
+     * Consume the transaction messages of one poll
+     */
+    @KafkaListener(id = LISTENER_ID, topics = "transactions", groupId = "fraud-detection-group", batch = "true",
+        properties = "enable.auto.commit:false")
+    public void consumeBatch(List<ConsumerRecord<String, byte[]>> records, Consumer<?, ?> consumer) {
+        try {
+            for (ConsumerRecord<String, byte[]> record : records) {
+                dispatch(record);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting to dispatch transaction records, remaining records are redelivered");
+        } finally {
+            offsetCommitter.commitIfDue(consumer);
+        }
+    }
+
+    private void dispatch(ConsumerRecord<String, byte[]> record) throws InterruptedException {
+        Transaction transaction;
+        try {
+            transaction = transactionReader.read(record.headers(), record.value());
+        } catch (IOException e) {
+            log.error("Error parsing message from Kafka at {}-{}@{} ({} bytes): {}", record.topic(),
+                record.partition(), record.offset(), record.serializedValueSize(), e.getMessage());
+            OffsetTracker.Pending pending = offsetCommitter.dispatched(record);
+            if (pending != null) {
+                pending.completed();
+            }
+            return;
+        }
+
+        // A slow Redis backs up to the listener instead of queueing detections without limit
+        inFlight.acquire();
+        OffsetTracker.Pending pending = offsetCommitter.dispatched(record);
+        if (pending == null) {
+            inFlight.release();
+            return;
+        }
+        String key = transaction.getUserId() != null ? transaction.getUserId() : record.key();
+        workers.submit(key, () -> detect(transaction, pending)).whenComplete((ignored, error) -> {
+            inFlight.release();
+            if (error != null) {
+                pending.failed();
+            }
+        });
+    }
+
+    private void detect(Transaction transaction, OffsetTracker.Pending pending) {
+        try {
+            offsetCommitter.completed(pending, fraudDetectionService.detectFraud(transaction));
+        } catch (Exception e) {
+            pending.completed();
+            log.error("Error detecting transaction {} from Kafka", transaction.getTransactionId(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workerPool.shutdown();
+    }
+}
@@ -0,0 +1,102 @@
+package com.faud.frauddetection.service;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.dto.FraudDetectionResult;
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.service.kafka.OffsetCommitter;
+import com.faud.frauddetection.service.kafka.OffsetTracker;
+import com.faud.frauddetection.service.kafka.TransactionReader;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kafka Transaction Batch Consumer
+ * Receives the records of a poll together and detects them batch-size at a time, so rule loading,
+ * Redis round-trips and result inserts are paid per batch instead of per record. Records are
+ * detected in offset order, which keeps each user's transactions in order within a partition.
+ * Offsets are committed through the OffsetCommitter once results are saved.
+ * Active in the batch listener mode
+ */
+@Service
+@ConditionalOnProperty(prefix = "fraud.detection", name = "listener-mode", havingValue = "batch")
+@Slf4j
+public class TransactionBatchConsumer {
+
+    public static final String LISTENER_ID = OffsetCommitter.LISTENER_ID_PREFIX + "batch";
+
+    private final FraudDetectionService fraudDetectionService;
+    private final OffsetCommitter offsetCommitter;
+    private final TransactionReader transactionReader;
+    private final int batchSize;
+
+    public TransactionBatchConsumer(FraudDetectionService fraudDetectionService, OffsetCommitter offsetCommitter,
+                                    TransactionReader transactionReader, FraudDetectionProperties properties) {
+        if (properties.getBatchSize() < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        this.fraudDetectionService = fraudDetectionService;
+        this.offsetCommitter = offsetCommitter;
+        this.transactionReader = transactionReader;
+        this.batchSize = properties.getBatchSize();
+    }
+
+    /**
+     * Consume the transaction messages of one poll
+     */
+    @KafkaListener(id = LISTENER_ID, topics = "transactions", groupId = "fraud-detection-group", batch = "true",
+        properties = "enable.auto.commit:false")
+    public void consumeBatch(List<ConsumerRecord<String, byte[]>> records, Consumer<?, ?> consumer) {
+        log.info("Consumed batch of {} transaction records", records.size());
+        List<Transaction> transactions = new ArrayList<>(Math.min(records.size(), batchSize));
+        List<OffsetTracker.Pending> pending = new ArrayList<>(Math.min(records.size(), batchSize));
+        try {
+            for (ConsumerRecord<String, byte[]> record : records) {
+                OffsetTracker.Pending recordPending = offsetCommitter.dispatched(record);
+                if (recordPending == null) {
+                    continue;
+                }
+                try {
+                    transactions.add(transactionReader.read(record.headers(), record.value()));
+                    pending.add(recordPending);
+                } catch (IOException e) {
+                    recordPending.completed();
+                    log.error("Error parsing message from Kafka at {}-{}@{} ({} bytes): {}", record.topic(),
+                        record.partition(), record.offset(), record.serializedValueSize(), e.getMessage());
+                    continue;
+                }
+                if (transactions.size() == batchSize) {
+                    detect(transactions, pending);
+                    transactions = new ArrayList<>(batchSize);
+                    pending = new ArrayList<>(batchSize);
+                }
+            }
+            if (!transactions.isEmpty()) {
+                detect(transactions, pending);
+            }
+        } finally {
+            offsetCommitter.commitIfDue(consumer);
+        }
+    }
+
+    private void detect(List<Transaction> transactions, List<OffsetTracker.Pending> pending) {
+        List<FraudDetectionResult> results;
+        try {
+            results = fraudDetectionService.detectFraudBatch(transactions);
+        } catch (Exception e) {
+            log.error("Error detecting batch of {} transactions from Kafka", transactions.size(), e);
+            pending.forEach(OffsetTracker.Pending::failed);
+            return;
+        }
+        for (int i = 0; i < pending.size(); i++) {
+            offsetCommitter.completed(pending.get(i), i < results.size() ? results.get(i) : null);
+        }
+    }
+}
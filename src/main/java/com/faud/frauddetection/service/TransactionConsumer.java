@@ -1,38 +1,100 @@
 package com.faud.frauddetection.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.faud.frauddetection.config.FraudDetectionProperties;
 import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.service.kafka.OffsetCommitter;
+import com.faud.frauddetection.service.kafka.OffsetTracker;
+import com.faud.frauddetection.service.kafka.TransactionReader;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+
 /**
  * Kafka Transaction Message Consumer
+ * Active in the record listener mode, see TransactionBatchConsumer for the batch mode
  */
 @Service
+@ConditionalOnProperty(prefix = "fraud.detection", name = "listener-mode", havingValue = "record", matchIfMissing = true)
 @Slf4j
 public class TransactionConsumer {
 
+    public static final String LISTENER_ID = OffsetCommitter.LISTENER_ID_PREFIX + "record";
+
     private final FraudDetectionService fraudDetectionService;
-    private final ObjectMapper objectMapper;
+    private final OffsetCommitter offsetCommitter;
+    private final TransactionReader transactionReader;
+    private final boolean asyncProcessing;
+    private final Semaphore inFlight;
 
-    public TransactionConsumer(FraudDetectionService fraudDetectionService) {
+    public TransactionConsumer(FraudDetectionService fraudDetectionService, OffsetCommitter offsetCommitter,
+                               TransactionReader transactionReader, FraudDetectionProperties properties) {
         this.fraudDetectionService = fraudDetectionService;
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.findAndRegisterModules(); // To handle LocalDateTime
+        this.offsetCommitter = offsetCommitter;
+        this.transactionReader = transactionReader;
+        this.asyncProcessing = properties.isAsyncProcessing();
+        this.inFlight = new Semaphore(properties.getMaxInFlightTransactions());
     }
 
     /**
      * Consume transaction messages
+     * Offsets are committed through the OffsetCommitter once results are saved
      */
-    @KafkaListener(topics = "transactions", groupId = "fraud-detection-group")
-    public void consume(String message) {
+    @KafkaListener(id = LISTENER_ID, topics = "transactions", groupId = "fraud-detection-group",
+        properties = "enable.auto.commit:false")
+    public void consume(ConsumerRecord<String, byte[]> record, Consumer<?, ?> consumer) {
+        OffsetTracker.Pending pending = offsetCommitter.dispatched(record);
         try {
-            Transaction transaction = objectMapper.readValue(message, Transaction.class);
+            if (pending != null) {
+                process(record, pending);
+            }
+        } finally {
+            offsetCommitter.commitIfDue(consumer);
+        }
+    }
+
+    /**
+     * Detect fraud in a record; with async processing only start the detection, so many transactions
+     * are in flight per consumer thread while their Redis round-trips are pending, up to a bound
+     */
+    private void process(ConsumerRecord<String, byte[]> record, OffsetTracker.Pending pending) {
+        try {
+            Transaction transaction = transactionReader.read(record.headers(), record.value());
             log.info("Consumed transaction: {}", transaction.getTransactionId());
-            fraudDetectionService.detectFraud(transaction);
+            if (!asyncProcessing) {
+                offsetCommitter.completed(pending, fraudDetectionService.detectFraud(transaction));
+                return;
+            }
+
+            // A slow Redis backs up to the listener instead of queueing detections without limit
+            inFlight.acquire();
+            try {
+                fraudDetectionService.detectFraudAsync(transaction).whenComplete((result, error) -> {
+                    inFlight.release();
+                    offsetCommitter.completed(pending, result);
+                });
+            } catch (RuntimeException e) {
+                inFlight.release();
+                throw e;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.failed();
+            log.warn("Interrupted while waiting to process message from Kafka at {}-{}@{}",
+                record.topic(), record.partition(), record.offset());
+        } catch (IOException e) {
+            pending.completed();
+            log.error("Error parsing message from Kafka at {}-{}@{} ({} bytes): {}", record.topic(), record.partition(),
+                record.offset(), record.serializedValueSize(), e.getMessage());
         } catch (Exception e) {
-            log.error("Error processing message from Kafka: {}", message, e);
+            pending.completed();
+            log.error("Error processing message from Kafka at {}-{}@{}",
+                record.topic(), record.partition(), record.offset(), e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,257 @@
+package com.faud.frauddetection.service.evaluator;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.constant.FraudRuleTypes;
+import com.faud.frauddetection.constant.RedisKeys;
+import com.faud.frauddetection.dto.RuleEvaluationResult;
+import com.faud.frauddetection.dto.RuleEvaluationStatus;
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.service.rule.CompiledRule;
+import com.faud.frauddetection.service.rule.TransactionFieldRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Distinct count rule evaluator
+ * Counts the distinct values of one transaction field per value of another over a time window,
+ * e.g. devices per user or users per IP address, configured as
+ * {"countField": "deviceId", "groupField": "userId", "timeWindowSeconds": 3600}.
+ * Values are kept in one HyperLogLog sketch per group and time slice, so memory stays at most
+ * 12KB per key whatever the cardinality, with a standard error of 0.81%. One script adds the
+ * transaction's value to the current slice and merges the window's slices with PFCOUNT
+ */
+@Component
+@Slf4j
+public class DistinctCountEvaluator implements RuleEvaluator {
+
+    public static final String COUNT_FIELD = "countField";
+    public static final String GROUP_FIELD = "groupField";
+    private static final String TIME_WINDOW_FIELD = "timeWindowSeconds";
+    private static final String SLICE_FIELD = "sliceSeconds";
+
+    static final RedisScript<Long> DISTINCT_COUNT_SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/distinct-count.lua"), Long.class);
+
+    private static final Set<String> SUPPORTED_RULE_TYPES = Set.of(FraudRuleTypes.DISTINCT_COUNT);
+
+    private final StringRedisTemplate redisTemplate;
+    private final TransactionFieldRegistry fieldRegistry;
+    private final FraudDetectionProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public DistinctCountEvaluator(StringRedisTemplate redisTemplate, TransactionFieldRegistry fieldRegistry,
+                                  FraudDetectionProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.fieldRegistry = fieldRegistry;
+        this.properties = properties;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    @Override
+    public RuleEvaluationResult evaluateRule(FraudRule rule, Transaction transaction) {
+        return evaluate(rule, () -> configOf(rule), transaction, null);
+    }
+
+    @Override
+    public RuleEvaluationResult evaluateRule(CompiledRule compiledRule, RuleEvaluationContext context) {
+        return evaluate(compiledRule.getRule(), () -> configOf(compiledRule), context.getTransaction(),
+            context.getPrepared(compiledRule));
+    }
+
+    /**
+     * Parse the rule configuration once when the rule is bound, so errors surface when the snapshot loads
+     */
+    @Override
+    public DistinctCountConfig compileConfig(FraudRule rule) {
+        return configOf(rule);
+    }
+
+    @Override
+    public void prepare(CompiledRule compiledRule, RuleEvaluationContext context) {
+        if (!context.hasBatch()) {
+            return;
+        }
+        try {
+            SliceQuery query = query(configOf(compiledRule), context.getTransaction(), Instant.now().toEpochMilli());
+            if (query != null) {
+                context.putPrepared(compiledRule, context.getBatch().script(DISTINCT_COUNT_SCRIPT, query.keys(),
+                    query.args(), DistinctCountEvaluator::distinctCount));
+            }
+        } catch (RuntimeException e) {
+            // Reported when the rule is evaluated
+            log.debug("Distinct count rule {} not prepared: {}", compiledRule.getRule().getRuleName(), e.getMessage());
+        }
+    }
+
+    private RuleEvaluationResult evaluate(FraudRule rule, Supplier<DistinctCountConfig> configSupplier,
+                                          Transaction transaction, Supplier<Long> prepared) {
+        try {
+            log.debug("Evaluating DISTINCT_COUNT rule: {} for transaction: {}", rule.getRuleName(), transaction.getTransactionId());
+
+            if (rule.getThresholdValue() == null) {
+                return RuleEvaluationResult.builder()
+                    .triggered(false)
+                    .reason("Threshold value not configured")
+                    .ruleName(rule.getRuleName())
+                    .build();
+            }
+
+            DistinctCountConfig config = configSupplier.get();
+            long distinct;
+            if (prepared != null) {
+                distinct = prepared.get();
+            } else {
+                SliceQuery query = query(config, transaction, Instant.now().toEpochMilli());
+                if (query == null) {
+                    return missingValue(rule, config);
+                }
+                distinct = distinctCount(redisTemplate.execute(DISTINCT_COUNT_SCRIPT, query.keys(), query.args().toArray()));
+            }
+
+            long threshold = rule.getThresholdValue().longValue();
+            boolean triggered = distinct > threshold;
+            double riskScore = triggered ? Math.min(distinct / rule.getThresholdValue().doubleValue(), 1.0) : 0.0;
+
+            return RuleEvaluationResult.builder()
+                .triggered(triggered)
+                .riskScore(riskScore)
+                .reason(triggered ? String.format("%d distinct %s per %s in %d seconds, exceeds threshold %d",
+                    distinct, config.countField(), config.groupField(), config.windowSeconds(), threshold)
+                    : "Distinct " + config.countField() + " count is normal")
+                .ruleName(rule.getRuleName())
+                .actualValue(String.valueOf(distinct))
+                .thresholdValue(rule.getThresholdValue().toString())
+                .build();
+
+        } catch (Exception e) {
+            log.error("Error evaluating DISTINCT_COUNT rule {}: {}", rule.getRuleName(), e.getMessage(), e);
+            return RuleEvaluationResult.builder()
+                .triggered(false)
+                .reason("Rule evaluation error: " + e.getMessage())
+                .ruleName(rule.getRuleName())
+                .status(RuleEvaluationStatus.FAILED)
+                .build();
+        }
+    }
+
+    private static RuleEvaluationResult missingValue(FraudRule rule, DistinctCountConfig config) {
+        return RuleEvaluationResult.builder()
+            .triggered(false)
+            .reason("Transaction has no " + config.groupField() + " or " + config.countField() + " to count")
+            .ruleName(rule.getRuleName())
+            .thresholdValue(rule.getThresholdValue().toString())
+            .build();
+    }
+
+    /**
+     * Script keys and arguments for a transaction, null if it has no value to group or count
+     */
+    SliceQuery query(DistinctCountConfig config, Transaction transaction, long nowMs) {
+        Object groupValue = config.groupAccessor().apply(transaction);
+        Object countedValue = config.countAccessor().apply(transaction);
+        if (groupValue == null || countedValue == null) {
+            return null;
+        }
+
+        long currentSlice = Math.floorDiv(nowMs, config.sliceSeconds() * 1000);
+        // All slices of a group share its hash tag, so PFCOUNT over them stays in one cluster slot
+        String keyPrefix = RedisKeys.distinctSlicePrefix(config.countField(), config.groupField(), config.sliceSeconds(),
+            String.valueOf(groupValue));
+        List<String> keys = new ArrayList<>(config.slices());
+        for (int i = 0; i < config.slices(); i++) {
+            keys.add(keyPrefix + (currentSlice - i));
+        }
+        // The current slice is read by windows ending up to one window from now
+        long ttlSeconds = config.windowSeconds() + config.sliceSeconds();
+        return new SliceQuery(keys, List.of(String.valueOf(countedValue), String.valueOf(ttlSeconds)));
+    }
+
+    /**
+     * Configuration parsed when the rule was bound to this evaluator
+     * @throws IllegalArgumentException if the configuration could not be parsed
+     */
+    DistinctCountConfig configOf(CompiledRule compiledRule) {
+        DistinctCountConfig config = compiledRule.getEvaluatorConfig(DistinctCountConfig.class);
+        return config != null ? config : configOf(compiledRule.getRule());
+    }
+
+    /**
+     * Parse the rule configuration
+     * @throws IllegalArgumentException if the configuration is missing, malformed or references unknown fields
+     */
+    DistinctCountConfig configOf(FraudRule rule) {
+        String ruleConfig = rule.getRuleConfig();
+        if (ruleConfig == null || ruleConfig.trim().isEmpty()) {
+            throw new IllegalArgumentException("Distinct count rule needs " + COUNT_FIELD + " and " + GROUP_FIELD + " in its config");
+        }
+        return parse(ruleConfig);
+    }
+
+    private DistinctCountConfig parse(String ruleConfig) {
+        JsonNode config;
+        try {
+            config = objectMapper.readTree(ruleConfig);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Rule config is not valid JSON: " + e.getOriginalMessage());
+        }
+        String countField = config.path(COUNT_FIELD).asText(null);
+        String groupField = config.path(GROUP_FIELD).asText(null);
+        Function<Transaction, Object> countAccessor = fieldRegistry.findAccessor(countField)
+            .orElseThrow(() -> new IllegalArgumentException("Unknown " + COUNT_FIELD + " '" + countField + "'"));
+        Function<Transaction, Object> groupAccessor = fieldRegistry.findAccessor(groupField)
+            .orElseThrow(() -> new IllegalArgumentException("Unknown " + GROUP_FIELD + " '" + groupField + "'"));
+
+        long windowSeconds = config.path(TIME_WINDOW_FIELD).asLong(properties.getTimeWindow().getDefaultSeconds());
+        long sliceSeconds = config.path(SLICE_FIELD).asLong(properties.getDistinctCount().getSliceSeconds());
+        if (windowSeconds <= 0 || sliceSeconds <= 0) {
+            throw new IllegalArgumentException("Time window and slice length must be positive");
+        }
+        // Longer windows merge at most maxSlices sketches per evaluation
+        int maxSlices = properties.getDistinctCount().getMaxSlices();
+        sliceSeconds = Math.max(sliceSeconds, (windowSeconds + maxSlices - 1) / maxSlices);
+        int slices = (int) ((windowSeconds + sliceSeconds - 1) / sliceSeconds);
+
+        return new DistinctCountConfig(countField, groupField, countAccessor, groupAccessor, windowSeconds, sliceSeconds, slices);
+    }
+
+    private static long distinctCount(Object reply) {
+        return reply instanceof Number number ? number.longValue() : 0L;
+    }
+
+    @Override
+    public Set<String> getSupportedRuleTypes() {
+        return SUPPORTED_RULE_TYPES;
+    }
+
+    @Override
+    public boolean isIoBound() {
+        return true;
+    }
+
+    @Override
+    public boolean isStateful() {
+        return true;
+    }
+
+    record DistinctCountConfig(String countField, String groupField,
+                               Function<Transaction, Object> countAccessor, Function<Transaction, Object> groupAccessor,
+                               long windowSeconds, long sliceSeconds, int slices) {
+    }
+
+    record SliceQuery(List<String> keys, List<String> args) {
+    }
+}
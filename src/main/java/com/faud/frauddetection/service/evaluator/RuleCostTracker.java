@@ -0,0 +1,58 @@
+package com.faud.frauddetection.service.evaluator;
+
+import com.faud.frauddetection.service.rule.CompiledRule;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Observed evaluation cost per rule
+ * Keeps an exponentially weighted moving average of the evaluation time of each rule, so cheaper
+ * rules can be evaluated first. Updates are lock-free and may lose a sample under contention,
+ * which is acceptable for an ordering heuristic
+ */
+public class RuleCostTracker {
+
+    /**
+     * Weight of a new sample as a power of two (1/8)
+     */
+    private static final int SMOOTHING_SHIFT = 3;
+
+    private final Map<Object, AtomicLong> averageNanos = new ConcurrentHashMap<>();
+
+    /**
+     * Record one evaluation of a rule
+     * @param rule evaluated rule
+     * @param elapsedNanos evaluation time in nanoseconds
+     */
+    public void record(CompiledRule rule, long elapsedNanos) {
+        Object key = ruleKey(rule);
+        if (key == null) {
+            return;
+        }
+        AtomicLong average = averageNanos.computeIfAbsent(key, k -> new AtomicLong(-1L));
+        long previous = average.get();
+        long updated = previous < 0 ? elapsedNanos : previous + ((elapsedNanos - previous) >> SMOOTHING_SHIFT);
+        average.compareAndSet(previous, updated);
+    }
+
+    /**
+     * Average evaluation time of a rule
+     * @param rule rule
+     * @return average in nanoseconds, 0 for rules that have not been evaluated yet
+     */
+    public long getAverageNanos(CompiledRule rule) {
+        Object key = ruleKey(rule);
+        AtomicLong average = key == null ? null : averageNanos.get(key);
+        return average == null ? 0L : Math.max(average.get(), 0L);
+    }
+
+    /**
+     * Key of a rule: its ID, or its name for rules that were never saved, like the rule tag of RuleEvaluationMetrics
+     */
+    private static Object ruleKey(CompiledRule rule) {
+        Long id = rule.getRule().getId();
+        return id != null ? id : rule.getRuleName();
+    }
+}
@@ -0,0 +1,129 @@
+package com.faud.frauddetection.service.evaluator;
+
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.service.redis.RedisBatch;
+import com.faud.frauddetection.service.rule.CompiledRule;
+import com.faud.frauddetection.service.velocity.VelocityAggregates;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * State shared by the rule evaluations of one transaction
+ * Stateful rules register their Redis commands in the context's batch before evaluation and read
+ * the results back while evaluating, so all commands of the transaction share one round-trip.
+ * Velocity aggregates are loaded by the first velocity rule that needs them and reused by the
+ * others, so the transaction is recorded in the velocity store exactly once. A load failure is
+ * remembered as well and reported by every velocity rule of the transaction
+ */
+public final class RuleEvaluationContext {
+
+    private final Transaction transaction;
+    private final RedisBatch batch;
+    private final Supplier<VelocityAggregates> velocityLoader;
+    private final Map<CompiledRule, Supplier<?>> prepared = new ConcurrentHashMap<>();
+    private VelocityAggregates velocity;
+    private RuntimeException velocityError;
+
+    private RuleEvaluationContext(Transaction transaction, RedisBatch batch, Supplier<VelocityAggregates> velocityLoader) {
+        this.transaction = transaction;
+        this.batch = batch;
+        this.velocityLoader = velocityLoader;
+    }
+
+    /**
+     * Context without a Redis batch or shared velocity aggregates; stateful rules query Redis themselves
+     */
+    public static RuleEvaluationContext of(Transaction transaction) {
+        return new RuleEvaluationContext(transaction, null, null);
+    }
+
+    /**
+     * Context whose stateful rules register their Redis commands in a batch
+     */
+    public static RuleEvaluationContext of(Transaction transaction, RedisBatch batch) {
+        return new RuleEvaluationContext(transaction, batch, null);
+    }
+
+    /**
+     * Context whose velocity aggregates are loaded on first use
+     */
+    public static RuleEvaluationContext withVelocity(Transaction transaction, Supplier<VelocityAggregates> velocityLoader) {
+        return new RuleEvaluationContext(transaction, null, velocityLoader);
+    }
+
+    /**
+     * Context with a Redis batch whose velocity aggregates are loaded on first use
+     */
+    public static RuleEvaluationContext withVelocity(Transaction transaction, RedisBatch batch,
+                                                     Supplier<VelocityAggregates> velocityLoader) {
+        return new RuleEvaluationContext(transaction, batch, velocityLoader);
+    }
+
+    public Transaction getTransaction() {
+        return transaction;
+    }
+
+    public boolean hasBatch() {
+        return batch != null;
+    }
+
+    /**
+     * Redis batch of the transaction
+     * @throws IllegalStateException if the context has no batch
+     */
+    public RedisBatch getBatch() {
+        if (batch == null) {
+            throw new IllegalStateException("No Redis batch in this evaluation context");
+        }
+        return batch;
+    }
+
+    /**
+     * Whether the batch already has every reply, so no rule of the transaction waits on Redis
+     */
+    public boolean isResolved() {
+        return batch != null && batch.isDone();
+    }
+
+    /**
+     * Keep the result a rule registered in the batch until the rule is evaluated
+     */
+    public void putPrepared(CompiledRule rule, Supplier<?> result) {
+        prepared.put(rule, result);
+    }
+
+    /**
+     * Result a rule registered in the batch, null if the rule registered nothing
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Supplier<T> getPrepared(CompiledRule rule) {
+        return (Supplier<T>) prepared.get(rule);
+    }
+
+    public boolean hasVelocity() {
+        return velocityLoader != null;
+    }
+
+    /**
+     * Velocity aggregates of the transaction, loaded once
+     * @throws IllegalStateException if the context has no velocity aggregates
+     */
+    public synchronized VelocityAggregates getVelocity() {
+        if (velocityLoader == null) {
+            throw new IllegalStateException("No velocity aggregates in this evaluation context");
+        }
+        if (velocity == null && velocityError == null) {
+            try {
+                velocity = velocityLoader.get();
+            } catch (RuntimeException e) {
+                velocityError = e;
+            }
+        }
+        if (velocityError != null) {
+            throw velocityError;
+        }
+        return velocity;
+    }
+}
@@ -0,0 +1,326 @@
+package com.faud.frauddetection.service.evaluator;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.dto.RuleEvaluationResult;
+import com.faud.frauddetection.dto.RuleEvaluationStatus;
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.service.redis.RedisBatch;
+import com.faud.frauddetection.service.rule.CompiledRule;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Evaluates the rules of a transaction within the transaction deadline (rule-evaluation.evaluation-timeout-ms)
+ * I/O-bound rules run concurrently on a bounded pool; results not ready in time are reported as TIMED_OUT
+ */
+@Component
+@Slf4j
+public class RuleEvaluationExecutor {
+
+    private final ThreadPoolTaskExecutor executor;
+    private final RuleCostTracker costTracker;
+    private final RuleEvaluationMetrics metrics;
+    private final long timeoutMs;
+    private final boolean shortCircuit;
+    private final double maxRiskScore;
+    private final Comparator<CompiledRule> priorityOrder;
+
+    public RuleEvaluationExecutor(FraudDetectionProperties properties, RuleEvaluationMetrics metrics) {
+        FraudDetectionProperties.RuleEvaluation ruleEvaluation = properties.getRuleEvaluation();
+        this.timeoutMs = ruleEvaluation.getEvaluationTimeoutMs();
+        this.shortCircuit = ruleEvaluation.isShortCircuit();
+        this.maxRiskScore = ruleEvaluation.getMaxRiskScore().doubleValue();
+        this.costTracker = new RuleCostTracker();
+        this.metrics = metrics;
+
+        int defaultPriority = ruleEvaluation.getDefaultPriority();
+        this.priorityOrder = Comparator
+            .comparing((CompiledRule rule) -> rule.getEvaluator().isIoBound())
+            .thenComparingInt(rule -> rule.getPriority() != null ? rule.getPriority() : defaultPriority);
+
+        // Bounded in threads and queue; when the queue is full the caller evaluates the rule itself
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(ruleEvaluation.getExecutorThreads());
+        executor.setMaxPoolSize(ruleEvaluation.getExecutorThreads());
+        executor.setQueueCapacity(ruleEvaluation.getExecutorQueueCapacity());
+        executor.setThreadNamePrefix("rule-eval-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+    }
+
+    /**
+     * Evaluate rules against a transaction
+     * Rules without a bound evaluator are skipped
+     * @param rules compiled rules
+     * @param transaction transaction data
+     * @return one result per evaluated rule, in rule order, or in evaluation order with SKIPPED
+     *         results for the rules not evaluated in short-circuit mode
+     */
+    public List<RuleEvaluationResult> evaluate(List<CompiledRule> rules, Transaction transaction) {
+        return evaluate(rules, RuleEvaluationContext.of(transaction));
+    }
+
+    /**
+     * Evaluate rules with the state shared by the rules of a transaction
+     * Rules without a bound evaluator are skipped
+     * @param rules compiled rules
+     * @param context evaluation context of the transaction
+     * @return one result per evaluated rule, in rule order, or in evaluation order with SKIPPED
+     *         results for the rules not evaluated in short-circuit mode
+     */
+    public List<RuleEvaluationResult> evaluate(List<CompiledRule> rules, RuleEvaluationContext context) {
+        return evaluate(rules, context, deadline());
+    }
+
+    /**
+     * Evaluate rules without blocking the calling thread on Redis
+     * The context's Redis batch is sent asynchronously; when its replies arrive, or the deadline
+     * expires and the commands still pending are failed, the rules are evaluated on the pool within
+     * what is left of the same deadline
+     * @param rules compiled rules
+     * @param context evaluation context of the transaction
+     * @return future of the results, as returned by evaluate
+     */
+    public CompletableFuture<List<RuleEvaluationResult>> evaluateAsync(List<CompiledRule> rules,
+                                                                       RuleEvaluationContext context) {
+        long deadline = deadline();
+        if (!context.hasBatch()) {
+            return CompletableFuture.supplyAsync(() -> evaluate(rules, context, deadline), executor);
+        }
+        RedisBatch batch = context.getBatch();
+        return batch.flushAsync()
+            .copy()
+            .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+            .handleAsync((ignored, error) -> {
+                if (error != null) {
+                    log.warn("Redis batch of transaction {} timed out after {} ms",
+                        context.getTransaction().getTransactionId(), timeoutMs);
+                    batch.abort(new QueryTimeoutException("Redis batch did not complete within " + timeoutMs + " ms"));
+                }
+                return evaluate(rules, context, deadline);
+            }, executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private long deadline() {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    }
+
+    private List<RuleEvaluationResult> evaluate(List<CompiledRule> rules, RuleEvaluationContext context, long deadline) {
+        List<CompiledRule> boundRules = new ArrayList<>(rules.size());
+        for (CompiledRule rule : rules) {
+            if (rule.getEvaluator() != null) {
+                boundRules.add(rule);
+            } else {
+                log.debug("No supporting engine bound for rule type: {}", rule.getRuleType());
+            }
+        }
+
+        return shortCircuit
+            ? evaluateShortCircuit(boundRules, context, deadline)
+            : evaluateAll(boundRules, context, deadline);
+    }
+
+    /**
+     * Evaluate every rule, the I/O-bound ones on the pool while the others run on the calling thread
+     */
+    private List<RuleEvaluationResult> evaluateAll(List<CompiledRule> rules, RuleEvaluationContext context, long deadline) {
+        // Start the I/O-bound rules first so their round-trips overlap with the in-memory rules
+        List<CompletableFuture<RuleEvaluationResult>> pending = new ArrayList<>(rules.size());
+        for (CompiledRule rule : rules) {
+            pending.add(runsInline(rule, context) ? null : submit(rule, context));
+        }
+
+        RuleEvaluationResult[] results = new RuleEvaluationResult[rules.size()];
+        for (int i = 0; i < results.length; i++) {
+            if (pending.get(i) == null) {
+                results[i] = evaluateInline(rules.get(i), context);
+            }
+        }
+        for (int i = 0; i < results.length; i++) {
+            if (pending.get(i) != null) {
+                results[i] = await(rules.get(i), pending.get(i), deadline, context.getTransaction());
+            }
+        }
+        return new ArrayList<>(Arrays.asList(results));
+    }
+
+    /**
+     * Evaluate rules in-memory first, then by priority and observed cost, until the decision cannot change
+     * The rules not evaluated are reported as SKIPPED
+     */
+    private List<RuleEvaluationResult> evaluateShortCircuit(List<CompiledRule> rules, RuleEvaluationContext context,
+                                                            long deadline) {
+        List<CompiledRule> ordered = inEvaluationOrder(rules);
+
+        List<RuleEvaluationResult> results = new ArrayList<>(ordered.size());
+        double riskScore = 0.0;
+        String skipReason = null;
+
+        // In-memory rules sort first; the I/O-bound rules are only started if those cannot decide. Once the
+        // Redis batch has its replies every rule runs here and the transaction is already recorded
+        int next = 0;
+        for (; next < ordered.size() && runsInline(ordered.get(next), context); next++) {
+            CompiledRule rule = ordered.get(next);
+            if (skipReason != null) {
+                results.add(skipped(rule, skipReason));
+                continue;
+            }
+            RuleEvaluationResult result = evaluateInline(rule, context);
+            results.add(result);
+            riskScore += result.isTriggered() ? result.getRiskScore() : 0.0;
+            skipReason = skipReason(rule, result, riskScore);
+        }
+
+        // Stateful rules always run so the transaction is still recorded, even once the decision is made
+        List<CompletableFuture<RuleEvaluationResult>> pending = new ArrayList<>(ordered.size() - next);
+        for (int i = next; i < ordered.size(); i++) {
+            CompiledRule rule = ordered.get(i);
+            pending.add(skipReason == null || rule.getEvaluator().isStateful() ? submit(rule, context) : null);
+        }
+
+        for (int i = next; i < ordered.size(); i++) {
+            CompiledRule rule = ordered.get(i);
+            CompletableFuture<RuleEvaluationResult> future = pending.get(i - next);
+            if (skipReason != null) {
+                if (future != null && !rule.getEvaluator().isStateful()) {
+                    future.cancel(true);
+                }
+                results.add(skipped(rule, skipReason));
+                continue;
+            }
+            RuleEvaluationResult result = await(rule, future, deadline, context.getTransaction());
+            results.add(result);
+            riskScore += result.isTriggered() ? result.getRiskScore() : 0.0;
+            skipReason = skipReason(rule, result, riskScore);
+        }
+        return results;
+    }
+
+    /**
+     * Rules in-memory first, then by priority and observed cost
+     * Costs keep changing while other transactions are evaluated, so the sort uses a copy taken up front
+     */
+    private List<CompiledRule> inEvaluationOrder(List<CompiledRule> rules) {
+        Map<CompiledRule, Long> costs = new IdentityHashMap<>(rules.size() * 2);
+        for (CompiledRule rule : rules) {
+            costs.put(rule, costTracker.getAverageNanos(rule));
+        }
+        List<CompiledRule> ordered = new ArrayList<>(rules);
+        ordered.sort(priorityOrder.thenComparingLong(costs::get));
+        return ordered;
+    }
+
+    /**
+     * Whether a rule is evaluated on the calling thread: it does no I/O, or its Redis replies are already in
+     */
+    private static boolean runsInline(CompiledRule rule, RuleEvaluationContext context) {
+        return !rule.getEvaluator().isIoBound() || context.isResolved();
+    }
+
+    /**
+     * Why the remaining rules need not be evaluated after this result, null to continue
+     */
+    private String skipReason(CompiledRule rule, RuleEvaluationResult result, double riskScore) {
+        if (result.isTriggered() && rule.isDecisive()) {
+            return "Skipped: decisive rule " + rule.getRuleName() + " triggered";
+        }
+        if (riskScore >= maxRiskScore) {
+            return "Skipped: risk score reached " + maxRiskScore;
+        }
+        return null;
+    }
+
+    private CompletableFuture<RuleEvaluationResult> submit(CompiledRule rule, RuleEvaluationContext context) {
+        return CompletableFuture.supplyAsync(() -> timedEvaluation(rule, context), executor);
+    }
+
+    private RuleEvaluationResult timedEvaluation(CompiledRule rule, RuleEvaluationContext context) {
+        long start = System.nanoTime();
+        try {
+            return rule.getEvaluator().evaluateRule(rule, context);
+        } finally {
+            long elapsedNanos = System.nanoTime() - start;
+            costTracker.record(rule, elapsedNanos);
+            metrics.recordLatency(rule, elapsedNanos);
+        }
+    }
+
+    private RuleEvaluationResult evaluateInline(CompiledRule rule, RuleEvaluationContext context) {
+        RuleEvaluationResult result;
+        try {
+            result = timedEvaluation(rule, context);
+        } catch (Exception e) {
+            log.error("Error evaluating rule {}: {}", rule.getRuleName(), e.getMessage(), e);
+            result = failed(rule, e);
+        }
+        metrics.recordResult(rule, result);
+        return result;
+    }
+
+    private RuleEvaluationResult await(CompiledRule rule, CompletableFuture<RuleEvaluationResult> future,
+                                       long deadline, Transaction transaction) {
+        RuleEvaluationResult result;
+        try {
+            result = future.get(Math.max(deadline - System.nanoTime(), 0L), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Rule {} timed out after {} ms for transaction {}",
+                rule.getRuleName(), timeoutMs, transaction.getTransactionId());
+            result = RuleEvaluationResult.builder()
+                .triggered(false)
+                .reason("Rule evaluation timed out after " + timeoutMs + " ms")
+                .ruleName(rule.getRuleName())
+                .status(RuleEvaluationStatus.TIMED_OUT)
+                .build();
+        } catch (ExecutionException e) {
+            log.error("Error evaluating rule {}: {}", rule.getRuleName(), e.getCause().getMessage(), e.getCause());
+            result = failed(rule, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            result = failed(rule, e);
+        }
+        metrics.recordResult(rule, result);
+        return result;
+    }
+
+    private RuleEvaluationResult failed(CompiledRule rule, Throwable error) {
+        return RuleEvaluationResult.builder()
+            .triggered(false)
+            .reason("Rule evaluation error: " + error.getMessage())
+            .ruleName(rule.getRuleName())
+            .status(RuleEvaluationStatus.FAILED)
+            .build();
+    }
+
+    private RuleEvaluationResult skipped(CompiledRule rule, String reason) {
+        RuleEvaluationResult result = RuleEvaluationResult.builder()
+            .triggered(false)
+            .reason(reason)
+            .ruleName(rule.getRuleName())
+            .status(RuleEvaluationStatus.SKIPPED)
+            .build();
+        metrics.recordResult(rule, result);
+        return result;
+    }
+}
@@ -0,0 +1,173 @@
+package com.faud.frauddetection.service.evaluator;
+
+import com.faud.frauddetection.dto.RuleEvaluationResult;
+import com.faud.frauddetection.dto.RuleEvaluationStatus;
+import com.faud.frauddetection.service.rule.CompiledRule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for rule evaluation
+ * Records a latency histogram per rule and per evaluator implementation, and trigger, error,
+ * timeout and skip counters per rule. Rules are tagged by rule ID (the rule name for rules that
+ * were never saved), so cardinality is bounded by the size of the rule table. Meters are resolved
+ * once per rule and type and cached, keeping registry lookups off the evaluation path; meters of
+ * rules that left the rule snapshot are removed when it is reloaded
+ */
+@Component
+public class RuleEvaluationMetrics {
+
+    public static final String RULE_EVALUATION_TIMER = "fraud.rule.evaluation";
+    public static final String EVALUATOR_EVALUATION_TIMER = "fraud.evaluator.evaluation";
+    public static final String RULE_TRIGGERED_COUNTER = "fraud.rule.triggered";
+    public static final String RULE_ERRORS_COUNTER = "fraud.rule.errors";
+    public static final String RULE_TIMEOUTS_COUNTER = "fraud.rule.timeouts";
+    public static final String RULE_SKIPPED_COUNTER = "fraud.rule.skipped";
+
+    public static final String RULE_TAG = "rule";
+    public static final String RULE_TYPE_TAG = "rule_type";
+    public static final String EVALUATOR_TAG = "evaluator";
+
+    /**
+     * Histogram bucket range; rule evaluations range from in-memory predicates to Redis round-trips
+     */
+    private static final Duration MIN_EXPECTED_LATENCY = Duration.ofNanos(500);
+    private static final Duration MAX_EXPECTED_LATENCY = Duration.ofSeconds(5);
+
+    /**
+     * Meters of one rule
+     */
+    private record RuleMeters(Timer timer, Counter triggered, Counter errors, Counter timeouts, Counter skipped) {
+
+        List<Meter> all() {
+            return List.of(timer, triggered, errors, timeouts, skipped);
+        }
+    }
+
+    /**
+     * Tags of one rule's meters; a rule whose type changes gets new meters
+     */
+    private record RuleTags(String rule, String ruleType) {
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Map<RuleTags, RuleMeters> ruleMeters = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Timer> evaluatorTimers = new ConcurrentHashMap<>();
+
+    public RuleEvaluationMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Record the time one rule evaluation took
+     * @param rule evaluated rule, bound to an evaluator
+     * @param elapsedNanos evaluation time in nanoseconds
+     */
+    public void recordLatency(CompiledRule rule, long elapsedNanos) {
+        metersOf(rule).timer().record(elapsedNanos, TimeUnit.NANOSECONDS);
+        evaluatorTimers.computeIfAbsent(rule.getEvaluator().getClass(), this::evaluatorTimer)
+            .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Count the outcome of a rule evaluation
+     * @param rule evaluated rule
+     * @param result evaluation result
+     */
+    public void recordResult(CompiledRule rule, RuleEvaluationResult result) {
+        RuleMeters meters = metersOf(rule);
+        RuleEvaluationStatus status = result.getStatus() != null ? result.getStatus() : RuleEvaluationStatus.COMPLETED;
+        switch (status) {
+            case COMPLETED -> {
+                if (result.isTriggered()) {
+                    meters.triggered().increment();
+                }
+            }
+            case FAILED -> meters.errors().increment();
+            case TIMED_OUT -> meters.timeouts().increment();
+            case SKIPPED -> meters.skipped().increment();
+        }
+    }
+
+    /**
+     * Remove the meters of rules that are no longer active, including those recorded under a previous rule type
+     * @param activeRules rules of the newly loaded snapshot
+     */
+    public void retainRules(Collection<CompiledRule> activeRules) {
+        Set<RuleTags> active = new HashSet<>();
+        for (CompiledRule rule : activeRules) {
+            active.add(tagsOf(rule));
+        }
+        ruleMeters.entrySet().removeIf(entry -> {
+            if (active.contains(entry.getKey())) {
+                return false;
+            }
+            entry.getValue().all().forEach(meterRegistry::remove);
+            return true;
+        });
+    }
+
+    private RuleMeters metersOf(CompiledRule rule) {
+        return ruleMeters.computeIfAbsent(tagsOf(rule), tags -> newRuleMeters(tags.rule(), tags.ruleType()));
+    }
+
+    private static RuleTags tagsOf(CompiledRule rule) {
+        return new RuleTags(ruleKey(rule), String.valueOf(rule.getRuleType()));
+    }
+
+    private RuleMeters newRuleMeters(String ruleKey, String ruleType) {
+        return new RuleMeters(
+            Timer.builder(RULE_EVALUATION_TIMER)
+                .description("Evaluation time of a fraud rule")
+                .tags(RULE_TAG, ruleKey, RULE_TYPE_TAG, ruleType)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_EXPECTED_LATENCY)
+                .maximumExpectedValue(MAX_EXPECTED_LATENCY)
+                .register(meterRegistry),
+            ruleCounter(RULE_TRIGGERED_COUNTER, "Evaluations in which a fraud rule triggered", ruleKey, ruleType),
+            ruleCounter(RULE_ERRORS_COUNTER, "Fraud rule evaluations that failed", ruleKey, ruleType),
+            ruleCounter(RULE_TIMEOUTS_COUNTER, "Fraud rule evaluations that exceeded the transaction deadline", ruleKey, ruleType),
+            ruleCounter(RULE_SKIPPED_COUNTER, "Fraud rule evaluations skipped by short-circuit evaluation", ruleKey, ruleType));
+    }
+
+    private Counter ruleCounter(String name, String description, String ruleKey, String ruleType) {
+        return Counter.builder(name)
+            .description(description)
+            .tags(RULE_TAG, ruleKey, RULE_TYPE_TAG, ruleType)
+            .register(meterRegistry);
+    }
+
+    private Timer evaluatorTimer(Class<?> evaluatorType) {
+        String evaluatorName = evaluatorType.getSimpleName().isEmpty() ? evaluatorType.getName() : evaluatorType.getSimpleName();
+        return Timer.builder(EVALUATOR_EVALUATION_TIMER)
+            .description("Evaluation time of fraud rules per evaluator implementation")
+            .tag(EVALUATOR_TAG, evaluatorName)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(MIN_EXPECTED_LATENCY)
+            .maximumExpectedValue(MAX_EXPECTED_LATENCY)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Tag value identifying a rule: its ID, or its name for rules that were never saved
+     */
+    private static String ruleKey(CompiledRule rule) {
+        Long id = rule.getRule().getId();
+        if (id != null) {
+            return String.valueOf(id);
+        }
+        return rule.getRuleName() != null ? rule.getRuleName() : "unknown";
+    }
+}
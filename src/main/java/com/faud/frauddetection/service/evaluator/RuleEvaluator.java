@@ -3,6 +3,9 @@ package com.faud.frauddetection.service.evaluator;
 import com.faud.frauddetection.dto.Transaction;
 import com.faud.frauddetection.dto.RuleEvaluationResult;
 import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.service.rule.CompiledRule;
+
+import java.util.Set;
 
 /**
  * Rule evaluator interface
@@ -18,10 +21,95 @@ public interface RuleEvaluator {
      */
     RuleEvaluationResult evaluateRule(FraudRule rule, Transaction transaction);
     
+    /**
+     * Evaluate a rule that was compiled when the rule set was loaded
+     * Evaluators without a compiled form fall back to evaluating the source rule
+     * @param compiledRule compiled rule
+     * @param transaction transaction data
+     * @return rule evaluation result
+     */
+    default RuleEvaluationResult evaluateRule(CompiledRule compiledRule, Transaction transaction) {
+        return evaluateRule(compiledRule.getRule(), transaction);
+    }
+    
+    /**
+     * Evaluate a compiled rule with the state shared by the rules of the transaction
+     * Evaluators that do not use shared state fall back to evaluating the transaction alone
+     * @param compiledRule compiled rule
+     * @param context evaluation context of the transaction
+     * @return rule evaluation result
+     */
+    default RuleEvaluationResult evaluateRule(CompiledRule compiledRule, RuleEvaluationContext context) {
+        return evaluateRule(compiledRule, context.getTransaction());
+    }
+    
+    /**
+     * Parse the evaluator-specific part of a rule's configuration when the rule is bound
+     * The result is kept on the compiled rule, so it is parsed once per snapshot rather than
+     * per transaction. Evaluators without such configuration return null
+     * @param rule rule configuration
+     * @return parsed configuration, or null
+     * @throws IllegalArgumentException if the configuration is invalid
+     */
+    default Object compileConfig(FraudRule rule) {
+        return null;
+    }
+    
+    /**
+     * Register the Redis commands a rule needs for a transaction in the context's batch
+     * Called for the stateful candidate rules of a transaction before any rule is evaluated; the
+     * evaluator reads its result back from the context during evaluation, when the batch is sent
+     * in one pipeline. Evaluators that do not use Redis register nothing
+     * @param compiledRule compiled rule
+     * @param context evaluation context of the transaction, with a Redis batch
+     */
+    default void prepare(CompiledRule compiledRule, RuleEvaluationContext context) {
+    }
+    
+    /**
+     * Rule types handled by this evaluator, in upper case
+     * Used to build the rule type dispatch table at startup; evaluators that are only used
+     * internally by other evaluators return an empty set
+     * @return supported rule types
+     */
+    Set<String> getSupportedRuleTypes();
+    
+    /**
+     * Whether evaluation waits on remote I/O (e.g. Redis)
+     * I/O-bound rules of a transaction are evaluated concurrently on the rule evaluation executor;
+     * all other rules are evaluated on the calling thread
+     * @return whether the evaluator is I/O-bound
+     */
+    default boolean isIoBound() {
+        return false;
+    }
+    
+    /**
+     * Whether evaluation also records the transaction in state read by later evaluations
+     * (e.g. velocity windows). Short-circuit evaluation still runs stateful rules after the
+     * decision is made, it only stops waiting for their results
+     * @return whether the evaluator is stateful
+     */
+    default boolean isStateful() {
+        return false;
+    }
+    
+    /**
+     * Whether a rule can only trigger when its compiled predicate matches
+     * Such rules may be indexed on their equality and membership conditions and are then only
+     * evaluated for transactions whose field values can match them
+     * @return whether evaluation is decided by the compiled predicate alone
+     */
+    default boolean isPredicateOnly() {
+        return false;
+    }
+    
     /**
      * Check if the rule evaluator supports a specific type of rule
-     * @param ruleType rule type
+     * @param ruleType rule type, case-insensitive
      * @return whether supported
      */
-    boolean supports(String ruleType);
+    default boolean supports(String ruleType) {
+        return ruleType != null && getSupportedRuleTypes().contains(ruleType.toUpperCase());
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.faud.frauddetection.service.evaluator;
+
+import com.faud.frauddetection.service.rule.CompiledRule;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Rule type to evaluator dispatch table
+ * Built once at startup from the rule types each evaluator declares; two evaluators claiming
+ * the same rule type is a configuration error and prevents startup
+ */
+@Component
+@Slf4j
+public class RuleEvaluatorRegistry {
+
+    private final Map<String, RuleEvaluator> dispatchTable;
+
+    public RuleEvaluatorRegistry(List<RuleEvaluator> evaluators) {
+        Map<String, RuleEvaluator> table = new HashMap<>();
+        for (RuleEvaluator evaluator : evaluators) {
+            for (String ruleType : evaluator.getSupportedRuleTypes()) {
+                RuleEvaluator existing = table.putIfAbsent(ruleType.toUpperCase(), evaluator);
+                if (existing != null && existing != evaluator) {
+                    throw new IllegalStateException("Rule type " + ruleType + " is supported by both "
+                        + existing.getClass().getSimpleName() + " and " + evaluator.getClass().getSimpleName());
+                }
+            }
+        }
+        this.dispatchTable = Map.copyOf(table);
+        log.info("Registered {} rule types: {}", dispatchTable.size(), new TreeSet<>(dispatchTable.keySet()));
+    }
+
+    /**
+     * Find the evaluator for a rule type
+     * @param ruleType rule type, case-insensitive
+     * @return evaluator, or empty if no evaluator supports the type
+     */
+    public Optional<RuleEvaluator> findEvaluator(String ruleType) {
+        return ruleType == null ? Optional.empty() : Optional.ofNullable(dispatchTable.get(ruleType.toUpperCase()));
+    }
+
+    /**
+     * Whether any evaluator supports the rule type
+     */
+    public boolean supports(String ruleType) {
+        return findEvaluator(ruleType).isPresent();
+    }
+
+    public Set<String> getSupportedRuleTypes() {
+        return dispatchTable.keySet();
+    }
+
+    /**
+     * Attach the evaluator for the rule's type to a compiled rule
+     * @param compiledRule compiled rule
+     * @return the rule bound to its evaluator, unbound if its type is not supported
+     */
+    public CompiledRule bind(CompiledRule compiledRule) {
+        return compiledRule.withEvaluator(findEvaluator(compiledRule.getRuleType()).orElse(null));
+    }
+
+    /**
+     * Supported rule types grouped by evaluator
+     */
+    public Map<String, Set<String>> getCapabilities() {
+        Map<String, Set<String>> capabilities = new LinkedHashMap<>();
+        dispatchTable.forEach((ruleType, evaluator) -> capabilities
+            .computeIfAbsent(evaluator.getClass().getSimpleName(), name -> new TreeSet<>())
+            .add(ruleType));
+        return capabilities;
+    }
+}
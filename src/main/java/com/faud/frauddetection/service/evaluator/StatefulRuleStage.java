@@ -0,0 +1,107 @@
+package com.faud.frauddetection.service.evaluator;
+
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.service.redis.RedisBatch;
+import com.faud.frauddetection.service.redis.RedisPipeline;
+import com.faud.frauddetection.service.rule.CompiledRule;
+import com.faud.frauddetection.service.rule.RuleSnapshot;
+import com.faud.frauddetection.service.velocity.VelocityAggregates;
+import com.faud.frauddetection.service.velocity.VelocityStore;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Opens the evaluation context of a transaction and registers the Redis commands of its stateful
+ * rules in a Redis batch
+ * The velocity windows are the distinct windows of all velocity rules in the active snapshot,
+ * resolved once per snapshot version, and are recorded and aggregated by a single velocity store
+ * call. Every other stateful candidate rule is then prepared by its evaluator. Nothing is sent
+ * until the first rule reads a result, then the whole batch goes out in one pipeline
+ */
+@Component
+public class StatefulRuleStage {
+
+    private final VelocityStore velocityStore;
+    private final RedisPipeline redisPipeline;
+    private volatile SnapshotWindows snapshotWindows;
+
+    public StatefulRuleStage(VelocityStore velocityStore, RedisPipeline redisPipeline) {
+        this.velocityStore = velocityStore;
+        this.redisPipeline = redisPipeline;
+    }
+
+    /**
+     * Open the evaluation context of a transaction with a batch of its own
+     * @param transaction transaction data
+     * @param snapshot rule snapshot the transaction is evaluated against
+     * @param candidateRules rules that will be evaluated
+     * @return evaluation context
+     */
+    public RuleEvaluationContext open(Transaction transaction, RuleSnapshot snapshot, List<CompiledRule> candidateRules) {
+        return open(transaction, snapshot, candidateRules, redisPipeline.newBatch());
+    }
+
+    /**
+     * New Redis batch to be shared by the contexts of several transactions
+     */
+    public RedisBatch newBatch() {
+        return redisPipeline.newBatch();
+    }
+
+    /**
+     * Open the evaluation context of a transaction with a batch shared by several transactions
+     * Contexts sharing a batch must all be opened before any of them is evaluated
+     * @param transaction transaction data
+     * @param snapshot rule snapshot the transaction is evaluated against
+     * @param candidateRules rules that will be evaluated
+     * @param batch batch the transaction's commands are registered in
+     * @return evaluation context, without velocity aggregates if the snapshot has no velocity rules
+     */
+    public RuleEvaluationContext open(Transaction transaction, RuleSnapshot snapshot, List<CompiledRule> candidateRules,
+                                      RedisBatch batch) {
+        long[] windows = windowsOf(snapshot);
+        RuleEvaluationContext context;
+        if (windows.length == 0) {
+            context = RuleEvaluationContext.of(transaction, batch);
+        } else {
+            Supplier<VelocityAggregates> velocity =
+                velocityStore.recordAndAggregate(batch, transaction, Instant.now().toEpochMilli(), windows);
+            context = RuleEvaluationContext.withVelocity(transaction, batch, velocity);
+        }
+
+        for (CompiledRule rule : candidateRules) {
+            if (rule.getEvaluator() != null && rule.getEvaluator().isStateful()) {
+                rule.getEvaluator().prepare(rule, context);
+            }
+        }
+        return context;
+    }
+
+    /**
+     * Distinct velocity windows of a snapshot, in rule order
+     */
+    long[] windowsOf(RuleSnapshot snapshot) {
+        SnapshotWindows cached = snapshotWindows;
+        if (cached != null && cached.version() == snapshot.getVersion()) {
+            return cached.windows();
+        }
+
+        Set<Long> windows = new LinkedHashSet<>();
+        for (CompiledRule rule : snapshot.getCompiledRules()) {
+            if (rule.getEvaluator() instanceof VelocityWindowEvaluator evaluator) {
+                windows.add(evaluator.timeWindowSeconds(rule));
+            }
+        }
+        long[] resolved = windows.stream().mapToLong(Long::longValue).toArray();
+        snapshotWindows = new SnapshotWindows(snapshot.getVersion(), resolved);
+        return resolved;
+    }
+
+    private record SnapshotWindows(long version, long[] windows) {
+    }
+}
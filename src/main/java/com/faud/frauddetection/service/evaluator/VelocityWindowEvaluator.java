@@ -0,0 +1,158 @@
+package com.faud.frauddetection.service.evaluator;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.dto.RuleEvaluationResult;
+import com.faud.frauddetection.dto.RuleEvaluationStatus;
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.service.rule.CompiledRule;
+import com.faud.frauddetection.service.velocity.VelocityAggregates;
+import com.faud.frauddetection.service.velocity.VelocityStore;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Base class of the evaluators that compare a per-user aggregate over a time window with the rule threshold
+ */
+@Slf4j
+public abstract class VelocityWindowEvaluator implements RuleEvaluator {
+
+    private final VelocityStore velocityStore;
+    private final ObjectMapper objectMapper;
+    private final FraudDetectionProperties properties;
+
+    protected VelocityWindowEvaluator(VelocityStore velocityStore, FraudDetectionProperties properties) {
+        this.velocityStore = velocityStore;
+        this.objectMapper = new ObjectMapper();
+        this.properties = properties;
+    }
+
+    /**
+     * Compare the aggregate of the rule's window with its threshold
+     * @param rule rule configuration, threshold value set
+     * @param aggregates velocity aggregates including the rule's window
+     * @param timeWindowSeconds rule's window length
+     * @return rule evaluation result
+     */
+    protected abstract RuleEvaluationResult evaluateWindow(FraudRule rule, VelocityAggregates aggregates, long timeWindowSeconds);
+
+    @Override
+    public RuleEvaluationResult evaluateRule(FraudRule rule, Transaction transaction) {
+        return evaluate(rule, resolveTimeWindowSeconds(rule), transaction, null);
+    }
+
+    @Override
+    public RuleEvaluationResult evaluateRule(CompiledRule compiledRule, RuleEvaluationContext context) {
+        return evaluate(compiledRule.getRule(), timeWindowSeconds(compiledRule), context.getTransaction(),
+            context.hasVelocity() ? context : null);
+    }
+
+    /**
+     * Resolve the rule's window once when the rule is bound
+     */
+    @Override
+    public Long compileConfig(FraudRule rule) {
+        return resolveTimeWindowSeconds(rule);
+    }
+
+    /**
+     * Read the rule's window from the context's velocity aggregates, or record the transaction for this
+     * window alone without them
+     * Results from the in-process fallback windows are flagged as degraded, results of users over the
+     * per-user event cap as downsampled
+     */
+    private RuleEvaluationResult evaluate(FraudRule rule, long timeWindowSeconds, Transaction transaction,
+                                          RuleEvaluationContext context) {
+        try {
+            log.debug("Evaluating {} rule: {} for transaction: {}", rule.getRuleType(), rule.getRuleName(), transaction.getTransactionId());
+
+            if (rule.getThresholdValue() == null) {
+                return RuleEvaluationResult.builder()
+                    .triggered(false)
+                    .reason("Threshold value not configured")
+                    .ruleName(rule.getRuleName())
+                    .build();
+            }
+
+            VelocityAggregates aggregates;
+            if (context != null) {
+                aggregates = context.getVelocity();
+                if (!aggregates.contains(timeWindowSeconds)) {
+                    // Recording again would count the transaction twice
+                    throw new IllegalStateException("Window of " + timeWindowSeconds + " seconds was not aggregated");
+                }
+            } else {
+                aggregates = velocityStore.recordAndAggregate(transaction, Instant.now().toEpochMilli(), timeWindowSeconds);
+            }
+            RuleEvaluationResult result = evaluateWindow(rule, aggregates, timeWindowSeconds);
+            result.setDegraded(aggregates.isDegraded());
+            result.setDownsampled(aggregates.isDownsampled());
+            return result;
+
+        } catch (Exception e) {
+            log.error("Error evaluating {} rule {}: {}", rule.getRuleType(), rule.getRuleName(), e.getMessage(), e);
+            return RuleEvaluationResult.builder()
+                .triggered(false)
+                .reason("Rule evaluation error: " + e.getMessage())
+                .ruleName(rule.getRuleName())
+                .status(RuleEvaluationStatus.FAILED)
+                .build();
+        }
+    }
+
+    /**
+     * Window of a compiled rule, resolved when the rule was bound to this evaluator
+     */
+    public long timeWindowSeconds(CompiledRule compiledRule) {
+        Long timeWindowSeconds = compiledRule.getEvaluatorConfig(Long.class);
+        return timeWindowSeconds != null ? timeWindowSeconds : resolveTimeWindowSeconds(compiledRule.getRule());
+    }
+
+    /**
+     * Extract time window from rule configuration, fallback to default
+     * Rule config should contain: {"timeWindowSeconds": 3600}
+     */
+    public long resolveTimeWindowSeconds(FraudRule rule) {
+        String ruleConfig = rule.getRuleConfig();
+        if (ruleConfig != null && !ruleConfig.trim().isEmpty()) {
+            Long timeWindowSeconds = parseTimeWindowSeconds(ruleConfig);
+            if (timeWindowSeconds != null) {
+                return timeWindowSeconds;
+            }
+        }
+        return properties.getTimeWindow().getDefaultSeconds();
+    }
+
+    private Long parseTimeWindowSeconds(String ruleConfig) {
+        try {
+            Map<String, Object> config = objectMapper.readValue(ruleConfig, new TypeReference<Map<String, Object>>() {});
+
+            if (config.containsKey("timeWindowSeconds")) {
+                Object timeWindow = config.get("timeWindowSeconds");
+                if (timeWindow instanceof Number) {
+                    return ((Number) timeWindow).longValue();
+                }
+                if (timeWindow instanceof String) {
+                    return Long.parseLong((String) timeWindow);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to parse time window from rule config, using default: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    @Override
+    public boolean isIoBound() {
+        return true;
+    }
+
+    @Override
+    public boolean isStateful() {
+        return true;
+    }
+}
@@ -6,6 +6,7 @@ import com.faud.frauddetection.repository.FraudDetectionResultRepository;
 import com.faud.frauddetection.service.FraudDetectionResultService;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,13 +24,27 @@ public class FraudDetectionResultServiceImpl implements FraudDetectionResultServ
 
     @Override
     public void saveResult(FraudDetectionResult resultDto) {
+        resultRepository.save(toEntity(resultDto));
+    }
+
+    @Override
+    public void saveResults(List<FraudDetectionResult> resultDtos) {
+        List<FraudDetectionResultEntity> entities = new ArrayList<>(resultDtos.size());
+        for (FraudDetectionResult resultDto : resultDtos) {
+            entities.add(toEntity(resultDto));
+        }
+        resultRepository.saveAll(entities);
+    }
+
+    private static FraudDetectionResultEntity toEntity(FraudDetectionResult resultDto) {
         FraudDetectionResultEntity entity = new FraudDetectionResultEntity();
         entity.setTransactionId(resultDto.getTransactionId());
         entity.setFraud(resultDto.isFraudulent());
         entity.setRiskScore(resultDto.getRiskScore());
         entity.setReason(resultDto.getReason());
         entity.setDetectionTimestamp(resultDto.getDetectionTime());
-        resultRepository.save(entity);
+        entity.setDegraded(resultDto.isDegraded());
+        return entity;
     }
 
     @Override
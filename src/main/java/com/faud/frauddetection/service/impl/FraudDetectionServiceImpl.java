@@ -1,20 +1,34 @@
 package com.faud.frauddetection.service.impl;
 
+import com.faud.frauddetection.config.FraudDetectionProperties;
 import com.faud.frauddetection.dto.FraudDetectionResult;
 import com.faud.frauddetection.dto.Transaction;
 import com.faud.frauddetection.service.FraudDetectionService;
 import com.faud.frauddetection.service.FraudDetectionResultService;
 import com.faud.frauddetection.service.FraudRuleService;
-import com.faud.frauddetection.service.evaluator.RuleEvaluator;
-import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.service.evaluator.RuleEvaluationContext;
+import com.faud.frauddetection.service.evaluator.RuleEvaluationExecutor;
+import com.faud.frauddetection.service.evaluator.RuleEvaluatorRegistry;
+import com.faud.frauddetection.service.evaluator.StatefulRuleStage;
+import com.faud.frauddetection.service.redis.RedisBatch;
+import com.faud.frauddetection.service.rule.CompiledRule;
+import com.faud.frauddetection.service.rule.RuleSnapshot;
 import com.faud.frauddetection.dto.RuleEvaluationResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -25,107 +39,308 @@ import java.util.stream.Collectors;
 @Slf4j
 public class FraudDetectionServiceImpl implements FraudDetectionService {
     
-    private final List<RuleEvaluator> ruleEngines;
+    public static final String DETECTION_TIMER = "fraud.detection";
+    public static final String DEGRADED_DETECTION_COUNTER = "fraud.detection.degraded";
+    public static final String VELOCITY_CAP_SIGNAL = "VELOCITY_CAP_EXCEEDED";
+    
+    private final RuleEvaluatorRegistry evaluatorRegistry;
     private final FraudRuleService fraudRuleService;
     private final FraudDetectionResultService resultService;
+    private final RuleEvaluationExecutor ruleEvaluationExecutor;
+    private final StatefulRuleStage statefulRuleStage;
+    private final Timer fraudDetectionTimer;
+    private final Timer normalDetectionTimer;
+    private final Timer failedDetectionTimer;
+    private final Counter degradedDetections;
+    private final FraudDetectionProperties.Velocity.Cap velocityCap;
     
     public FraudDetectionServiceImpl(
-            List<RuleEvaluator> ruleEngines,
+            RuleEvaluatorRegistry evaluatorRegistry,
             FraudRuleService fraudRuleService,
-            FraudDetectionResultService resultService) {
-        this.ruleEngines = ruleEngines;
+            FraudDetectionResultService resultService,
+            RuleEvaluationExecutor ruleEvaluationExecutor,
+            StatefulRuleStage statefulRuleStage,
+            FraudDetectionProperties properties,
+            MeterRegistry meterRegistry) {
+        this.evaluatorRegistry = evaluatorRegistry;
         this.fraudRuleService = fraudRuleService;
         this.resultService = resultService;
-        log.info("Initialized FraudDetectionService with {} rule engines", ruleEngines.size());
-        ruleEngines.forEach(engine -> log.info("Registered rule engine: {}", engine.getClass().getSimpleName()));
+        this.ruleEvaluationExecutor = ruleEvaluationExecutor;
+        this.statefulRuleStage = statefulRuleStage;
+        this.velocityCap = properties.getVelocity().getCap();
+        this.fraudDetectionTimer = detectionTimer(meterRegistry, "fraud");
+        this.normalDetectionTimer = detectionTimer(meterRegistry, "normal");
+        this.failedDetectionTimer = detectionTimer(meterRegistry, "error");
+        this.degradedDetections = Counter.builder(DEGRADED_DETECTION_COUNTER)
+            .description("Fraud decisions made with rules evaluated from in-process fallback state")
+            .register(meterRegistry);
+        evaluatorRegistry.getCapabilities().forEach((engine, ruleTypes) ->
+            log.info("Registered rule engine: {} for rule types {}", engine, ruleTypes));
     }
     
     @Override
     public FraudDetectionResult detectFraud(Transaction transaction) {
         log.info("Starting fraud detection for transaction: {}", transaction.getTransactionId());
+        long start = System.nanoTime();
         
         try {
-            // Get all active rules
-            List<FraudRule> activeRules = fraudRuleService.getActiveRules();
-            log.debug("Found {} active rules", activeRules.size());
-            
-            List<RuleEvaluationResult> evaluationResults = new ArrayList<>();
-            double totalRiskScore = 0.0;
-            boolean isFraudulent = false;
-            
-            // Evaluate each rule with the appropriate engine
-            for (FraudRule rule : activeRules) {
-                RuleEvaluator engine = findSupportingEngine(rule.getRuleType());
-                if (engine != null) {
-                    RuleEvaluationResult result = engine.evaluateRule(rule, transaction);
-                    evaluationResults.add(result);
-                    
-                    if (result.isTriggered()) {
-                        totalRiskScore += result.getRiskScore();
-                        isFraudulent = true;
-                        log.debug("Rule {} triggered with risk score: {}", rule.getRuleName(), result.getRiskScore());
-                    }
-                } else {
-                    log.warn("No supporting engine found for rule type: {}", rule.getRuleType());
-                }
-            }
-            
-            // Normalize risk score (cap at 1.0)
-            totalRiskScore = Math.min(totalRiskScore, 1.0);
+            Candidates candidates = open(transaction);
             
-            // Determine final fraud status based on risk score
-            String riskLevel = determineRiskLevel(totalRiskScore);
+            // Evaluate each rule with the engine bound to it, I/O-bound rules concurrently
+            List<RuleEvaluationResult> evaluationResults =
+                ruleEvaluationExecutor.evaluate(candidates.rules(), candidates.context());
+            return complete(transaction, evaluationResults, start);
             
-            FraudDetectionResult result = FraudDetectionResult.builder()
-                .transactionId(transaction.getTransactionId())
-                .isFraudulent(isFraudulent)
-                .riskScore(totalRiskScore)
-                .riskLevel(riskLevel)
-                .detectionTime(LocalDateTime.now())
-                .evaluationResults(evaluationResults)
-                .reason(generateSummaryReason(evaluationResults))
-                .build();
+        } catch (Exception e) {
+            return failed(transaction, e, start);
+        }
+    }
+    
+    /**
+     * Send the transaction's Redis batch without blocking and complete the decision on the evaluation pool
+     */
+    @Override
+    public CompletableFuture<FraudDetectionResult> detectFraudAsync(Transaction transaction) {
+        log.info("Starting asynchronous fraud detection for transaction: {}", transaction.getTransactionId());
+        long start = System.nanoTime();
+        
+        try {
+            Candidates candidates = open(transaction);
             
-            log.info("Fraud detection completed for transaction: {} - Result: {} (Risk: {})", 
-                transaction.getTransactionId(), isFraudulent ? "FRAUD" : "NORMAL", riskLevel);
+            // No thread waits on Redis; the rules are evaluated once the batch replies arrive
+            return ruleEvaluationExecutor.evaluateAsync(candidates.rules(), candidates.context())
+                .thenApply(evaluationResults -> complete(transaction, evaluationResults, start))
+                .exceptionally(e -> failed(transaction,
+                    e instanceof CompletionException && e.getCause() != null ? e.getCause() : e, start));
             
-            // Save the result
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(failed(transaction, e, start));
+        }
+    }
+    
+    /**
+     * Evaluate the transactions against one rule snapshot, send the Redis commands of all of them
+     * in one pipeline and save their results with one batched insert
+     */
+    @Override
+    public List<FraudDetectionResult> detectFraudBatch(List<Transaction> transactions) {
+        log.info("Starting fraud detection for batch of {} transactions", transactions.size());
+        long start = System.nanoTime();
+        
+        List<FraudDetectionResult> results = new ArrayList<>(transactions.size());
+        RuleSnapshot ruleSnapshot;
+        try {
+            ruleSnapshot = fraudRuleService.getActiveRuleSnapshot();
+        } catch (Exception e) {
+            for (Transaction transaction : transactions) {
+                results.add(failed(transaction, e, start));
+            }
+            return results;
+        }
+        
+        // Every context registers in the shared batch before any rule reads a result
+        RedisBatch batch = statefulRuleStage.newBatch();
+        Candidates[] opened = new Candidates[transactions.size()];
+        Exception[] errors = new Exception[transactions.size()];
+        for (int i = 0; i < opened.length; i++) {
             try {
-                resultService.saveResult(result);
-                log.debug("Fraud detection result saved for transaction: {}", transaction.getTransactionId());
+                opened[i] = open(transactions.get(i), ruleSnapshot, batch);
             } catch (Exception e) {
-                log.error("Failed to save fraud detection result for transaction {}: {}", 
-                    transaction.getTransactionId(), e.getMessage(), e);
-                // Don't fail the detection because of save error
+                errors[i] = e;
             }
-            
-            return result;
-            
+        }
+        
+        // One pipeline for the whole batch; the rules then find their replies and evaluate in-line
+        batch.flush();
+        List<FraudDetectionResult> scored = new ArrayList<>(transactions.size());
+        for (int i = 0; i < opened.length; i++) {
+            Transaction transaction = transactions.get(i);
+            if (opened[i] == null) {
+                results.add(failed(transaction, errors[i], start));
+                continue;
+            }
+            try {
+                FraudDetectionResult result = score(transaction,
+                    ruleEvaluationExecutor.evaluate(opened[i].rules(), opened[i].context()), start);
+                results.add(result);
+                scored.add(result);
+            } catch (Exception e) {
+                results.add(failed(transaction, e, start));
+            }
+        }
+        
+        try {
+            resultService.saveResults(scored);
+            for (FraudDetectionResult result : scored) {
+                result.setPersisted(true);
+            }
+            log.debug("Fraud detection results of {} transactions saved", scored.size());
         } catch (Exception e) {
-            log.error("Error in fraud detection for transaction {}: {}", 
+            log.error("Failed to save fraud detection results of batch of {} transactions: {}", scored.size(), e.getMessage(), e);
+            // Don't fail the detection because of save error
+        }
+        for (FraudDetectionResult result : scored) {
+            record(result, start);
+        }
+        return results;
+    }
+    
+    /**
+     * Select the candidate rules of a transaction and register their Redis commands
+     */
+    private Candidates open(Transaction transaction) {
+        // Get all active rules, already compiled into predicate trees
+        RuleSnapshot ruleSnapshot = fraudRuleService.getActiveRuleSnapshot();
+        
+        // Redis commands of all stateful rules are registered up front and sent in one pipeline
+        return open(transaction, ruleSnapshot, null);
+    }
+    
+    /**
+     * Select the candidate rules of a transaction and register their Redis commands in a batch
+     * @param batch batch shared with other transactions, null for a batch of the transaction's own
+     */
+    private Candidates open(Transaction transaction, RuleSnapshot ruleSnapshot, RedisBatch batch) {
+        // Only rules that can match the transaction's field values are evaluated
+        List<CompiledRule> candidateRules = ruleSnapshot.getCandidateRules(transaction);
+        log.debug("Found {} candidate rules of {} active rules in snapshot version {}",
+            candidateRules.size(), ruleSnapshot.size(), ruleSnapshot.getVersion());
+        
+        RuleEvaluationContext context = batch == null
+            ? statefulRuleStage.open(transaction, ruleSnapshot, candidateRules)
+            : statefulRuleStage.open(transaction, ruleSnapshot, candidateRules, batch);
+        return new Candidates(candidateRules, context);
+    }
+    
+    /**
+     * Score the evaluation results, then save and return the detection result
+     */
+    private FraudDetectionResult complete(Transaction transaction, List<RuleEvaluationResult> evaluationResults, long start) {
+        FraudDetectionResult result = score(transaction, evaluationResults, start);
+        
+        // Save the result
+        try {
+            resultService.saveResult(result);
+            result.setPersisted(true);
+            log.debug("Fraud detection result saved for transaction: {}", transaction.getTransactionId());
+        } catch (Exception e) {
+            log.error("Failed to save fraud detection result for transaction {}: {}", 
                 transaction.getTransactionId(), e.getMessage(), e);
-            
-            // Return error result instead of throwing exception
-            return FraudDetectionResult.builder()
-                .transactionId(transaction.getTransactionId())
-                .isFraudulent(false)
-                .riskScore(0.0)
-                .riskLevel("ERROR")
-                .detectionTime(LocalDateTime.now())
-                .reason("Detection failed: " + e.getMessage())
-                .evaluationResults(new ArrayList<>())
-                .build();
+            // Don't fail the detection because of save error
+        }
+        
+        record(result, start);
+        return result;
+    }
+    
+    /**
+     * Score the evaluation results into the detection result
+     * The result is degraded when any rule fell back to in-process state because Redis was unavailable.
+     * When configured, a user over the per-user event cap adds the velocity cap signal
+     */
+    private FraudDetectionResult score(Transaction transaction, List<RuleEvaluationResult> evaluationResults, long start) {
+        double totalRiskScore = 0.0;
+        boolean isFraudulent = false;
+        boolean degraded = false;
+        boolean downsampled = false;
+        
+        for (RuleEvaluationResult result : evaluationResults) {
+            degraded |= result.isDegraded();
+            downsampled |= result.isDownsampled();
+            if (result.isTriggered()) {
+                totalRiskScore += result.getRiskScore();
+                isFraudulent = true;
+                log.debug("Rule {} triggered with risk score: {}", result.getRuleName(), result.getRiskScore());
+            }
         }
+        
+        // An unusually high event rate is a signal of its own, once per decision however many rules saw it
+        if (downsampled && velocityCap.getRiskScore() > 0) {
+            RuleEvaluationResult signal = velocityCapSignal();
+            evaluationResults = new ArrayList<>(evaluationResults);
+            evaluationResults.add(signal);
+            totalRiskScore += signal.getRiskScore();
+            isFraudulent = true;
+        }
+        
+        // Normalize risk score (cap at 1.0)
+        totalRiskScore = Math.min(totalRiskScore, 1.0);
+        
+        // Determine final fraud status based on risk score
+        String riskLevel = determineRiskLevel(totalRiskScore);
+        
+        FraudDetectionResult result = FraudDetectionResult.builder()
+            .transactionId(transaction.getTransactionId())
+            .isFraudulent(isFraudulent)
+            .riskScore(totalRiskScore)
+            .riskLevel(riskLevel)
+            .detectionTime(LocalDateTime.now())
+            .processingTime(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+            .evaluationResults(evaluationResults)
+            .reason(generateSummaryReason(evaluationResults))
+            .degraded(degraded)
+            .build();
+        
+        log.info("Fraud detection completed for transaction: {} - Result: {} (Risk: {}){}", 
+            transaction.getTransactionId(), isFraudulent ? "FRAUD" : "NORMAL", riskLevel, degraded ? " degraded" : "");
+        if (degraded) {
+            degradedDetections.increment();
+        }
+        return result;
+    }
+    
+    /**
+     * Record the detection time of a scored result, including its save
+     */
+    private void record(FraudDetectionResult result, long start) {
+        (result.isFraudulent() ? fraudDetectionTimer : normalDetectionTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
     }
     
     /**
-     * Find a rule evaluator that supports the given rule type
+     * Result of the velocity cap signal, raised for users with more events than the per-user cap
      */
-    private RuleEvaluator findSupportingEngine(String ruleType) {
-        return ruleEngines.stream()
-            .filter(engine -> engine.supports(ruleType))
-            .findFirst()
-            .orElse(null);
+    private RuleEvaluationResult velocityCapSignal() {
+        return RuleEvaluationResult.builder()
+            .triggered(true)
+            .riskScore(Math.min(velocityCap.getRiskScore(), 1.0))
+            .reason(String.format("User has more than %d transactions in velocity windows", velocityCap.getMaxEventsPerUser()))
+            .ruleName(VELOCITY_CAP_SIGNAL)
+            .thresholdValue(String.valueOf(velocityCap.getMaxEventsPerUser()))
+            .downsampled(true)
+            .build();
+    }
+    
+    /**
+     * Error result returned instead of throwing
+     */
+    private FraudDetectionResult failed(Transaction transaction, Throwable e, long start) {
+        log.error("Error in fraud detection for transaction {}: {}", 
+            transaction.getTransactionId(), e.getMessage(), e);
+        
+        failedDetectionTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return FraudDetectionResult.builder()
+            .transactionId(transaction.getTransactionId())
+            .isFraudulent(false)
+            .riskScore(0.0)
+            .riskLevel(FraudDetectionResult.ERROR_RISK_LEVEL)
+            .detectionTime(LocalDateTime.now())
+            .reason("Detection failed: " + e.getMessage())
+            .processingTime(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+            .evaluationResults(new ArrayList<>())
+            .build();
+    }
+    
+    /**
+     * End-to-end detection latency, tagged with the outcome
+     */
+    private static Timer detectionTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder(DETECTION_TIMER)
+            .description("End-to-end fraud detection time of a transaction")
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofMillis(1))
+            .maximumExpectedValue(Duration.ofSeconds(10))
+            .register(meterRegistry);
     }
     
     /**
@@ -163,15 +378,14 @@ public class FraudDetectionServiceImpl implements FraudDetectionService {
      * Get statistics about available rule engines
      */
     public Map<String, Object> getEngineStatistics() {
-        Map<String, List<String>> engineCapabilities = ruleEngines.stream()
-            .collect(Collectors.toMap(
-                engine -> engine.getClass().getSimpleName(),
-                engine -> List.of("Check supports() method for details")
-            ));
+        Map<String, Set<String>> engineCapabilities = evaluatorRegistry.getCapabilities();
         
         return Map.of(
-            "totalEngines", ruleEngines.size(),
+            "totalEngines", engineCapabilities.size(),
             "engines", engineCapabilities
         );
     }
-} 
\ No newline at end of file
+    
+    private record Candidates(List<CompiledRule> rules, RuleEvaluationContext context) {
+    }
+}
\ No newline at end of file
@@ -3,29 +3,46 @@ package com.faud.frauddetection.service.impl;
 import com.faud.frauddetection.entity.FraudRule;
 import com.faud.frauddetection.repository.FraudRuleRepository;
 import com.faud.frauddetection.service.FraudRuleService;
+import com.faud.frauddetection.service.rule.FraudRuleValidator;
+import com.faud.frauddetection.service.rule.RuleSnapshot;
+import com.faud.frauddetection.service.rule.RuleSnapshotManager;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
  * Implementation of Fraud Rule Service
+ * Active rules are served from the in-memory rule snapshot, which is refreshed after every change
+ * Rules are validated before they are saved, unless an update only switches a rule on or off
  */
 @Service
 public class FraudRuleServiceImpl implements FraudRuleService {
 
     private final FraudRuleRepository fraudRuleRepository;
+    private final RuleSnapshotManager ruleSnapshotManager;
+    private final FraudRuleValidator fraudRuleValidator;
     
-    public FraudRuleServiceImpl(FraudRuleRepository fraudRuleRepository) {
+    public FraudRuleServiceImpl(FraudRuleRepository fraudRuleRepository,
+                                RuleSnapshotManager ruleSnapshotManager,
+                                FraudRuleValidator fraudRuleValidator) {
         this.fraudRuleRepository = fraudRuleRepository;
+        this.ruleSnapshotManager = ruleSnapshotManager;
+        this.fraudRuleValidator = fraudRuleValidator;
     }
 
     @Override
     public FraudRule createFraudRule(FraudRule fraudRule) {
         fraudRule.setCreatedAt(LocalDateTime.now());
         fraudRule.setUpdatedAt(LocalDateTime.now());
+        // The insert writes every column explicitly, so apply the column defaults here
+        fraudRule.onCreate();
+        fraudRuleValidator.validate(fraudRule);
         fraudRuleRepository.save(fraudRule);
+        ruleSnapshotManager.refresh();
         return fraudRule;
     }
 
@@ -41,15 +58,22 @@ public class FraudRuleServiceImpl implements FraudRuleService {
 
     @Override
     public List<FraudRule> getActiveRules() {
-        return fraudRuleRepository.findAll().stream()
-            .filter(rule -> rule.getEnabled() != null && rule.getEnabled())
-            .toList();
+        return ruleSnapshotManager.getSnapshot().getRules();
+    }
+
+    @Override
+    public RuleSnapshot getActiveRuleSnapshot() {
+        return ruleSnapshotManager.getSnapshot();
     }
 
     @Override
     public FraudRule updateFraudRule(Long id, FraudRule fraudRuleDetails) {
         FraudRule existingRule = fraudRuleRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Fraud rule with id " + id + " not found"));
+                .orElseThrow(() -> new NoSuchElementException("Fraud rule with id " + id + " not found"));
+        // Switching a stored rule on or off must work even if it predates the current validation
+        if (!onlyEnabledChanges(existingRule, fraudRuleDetails)) {
+            fraudRuleValidator.validate(fraudRuleDetails);
+        }
         // Update fields
         existingRule.setRuleName(fraudRuleDetails.getRuleName());
         existingRule.setRuleType(fraudRuleDetails.getRuleType());
@@ -57,14 +81,36 @@ public class FraudRuleServiceImpl implements FraudRuleService {
         existingRule.setRuleConfig(fraudRuleDetails.getRuleConfig());
         existingRule.setEnabled(fraudRuleDetails.getEnabled());
         existingRule.setThresholdValue(fraudRuleDetails.getThresholdValue());
+        existingRule.setConditionField(fraudRuleDetails.getConditionField());
+        existingRule.setConditionOperator(fraudRuleDetails.getConditionOperator());
+        existingRule.setConditionValue(fraudRuleDetails.getConditionValue());
+        existingRule.setRiskWeight(fraudRuleDetails.getRiskWeight());
+        existingRule.setPriority(fraudRuleDetails.getPriority());
+        existingRule.setDecisive(fraudRuleDetails.getDecisive());
         existingRule.setUpdatedAt(LocalDateTime.now());
 
         fraudRuleRepository.update(existingRule);
+        ruleSnapshotManager.refresh();
         return existingRule;
     }
 
+    private static boolean onlyEnabledChanges(FraudRule existing, FraudRule details) {
+        return Objects.equals(existing.getRuleName(), details.getRuleName())
+                && Objects.equals(existing.getRuleType(), details.getRuleType())
+                && Objects.equals(existing.getDescription(), details.getDescription())
+                && Objects.equals(existing.getRuleConfig(), details.getRuleConfig())
+                && Objects.equals(existing.getThresholdValue(), details.getThresholdValue())
+                && Objects.equals(existing.getConditionField(), details.getConditionField())
+                && Objects.equals(existing.getConditionOperator(), details.getConditionOperator())
+                && Objects.equals(existing.getConditionValue(), details.getConditionValue())
+                && Objects.equals(existing.getRiskWeight(), details.getRiskWeight())
+                && Objects.equals(existing.getPriority(), details.getPriority())
+                && Objects.equals(existing.getDecisive(), details.getDecisive());
+    }
+
     @Override
     public void deleteFraudRule(Long id) {
         fraudRuleRepository.delete(id);
+        ruleSnapshotManager.refresh();
     }
 } 
\ No newline at end of file
@@ -0,0 +1,498 @@
+package com.faud.frauddetection.service.kafka;
+
+import com.faud.frauddetection.dto.FraudDetectionResult;
+import com.faud.frauddetection.dto.RuleEvaluationResult;
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.dto.TransactionStatus;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeader;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of Transaction and FraudDetectionResult, as defined by schema/wire-format.schema
+ * A record uses it when its content-type header is BINARY_CONTENT_TYPE; records without the header are JSON.
+ * Codes (country, currency, payment method) are decoded to shared Strings. Instances are thread-safe
+ */
+public final class BinaryCodec {
+
+    public static final String CONTENT_TYPE_HEADER = "content-type";
+    public static final String JSON_CONTENT_TYPE = "application/json";
+    public static final String BINARY_CONTENT_TYPE = "application/x-fraud-binary";
+
+    /**
+     * Version written by this codec, and the only one it reads so far
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Transaction fields by index, "name type" as in the schema
+     */
+    static final List<String> TRANSACTION_FIELDS = List.of("transactionId string", "userId string",
+        "amount decimal", "timestamp timestamp", "ipAddress string", "deviceId string", "userAgent string",
+        "country string", "currency string", "merchant string", "paymentMethod string",
+        "status enum TransactionStatus");
+
+    /**
+     * FraudDetectionResult fields by index, "name type" as in the schema
+     */
+    static final List<String> RESULT_FIELDS = List.of("transactionId string", "fraudulent boolean",
+        "riskScore double", "riskLevel string", "reason string", "detectionTime timestamp", "processingTime long",
+        "degraded boolean", "triggeredRules list<string>", "evaluationStatus string", "alertStatus string");
+
+    /**
+     * TransactionStatus symbols by index
+     */
+    static final TransactionStatus[] STATUSES = {TransactionStatus.PENDING, TransactionStatus.COMPLETED,
+        TransactionStatus.FAILED, TransactionStatus.CANCELLED, TransactionStatus.REVIEW};
+
+    private static final byte[] BINARY_CONTENT_TYPE_BYTES = BINARY_CONTENT_TYPE.getBytes(StandardCharsets.US_ASCII);
+
+    private final SharedCodes countries = new SharedCodes();
+    private final SharedCodes currencies = new SharedCodes();
+    private final SharedCodes paymentMethods = new SharedCodes();
+
+    /**
+     * Whether a record is in the binary format, by its last content-type header
+     */
+    public static boolean isBinary(Headers headers) {
+        Header contentType = headers.lastHeader(CONTENT_TYPE_HEADER);
+        return contentType != null && Arrays.equals(contentType.value(), BINARY_CONTENT_TYPE_BYTES);
+    }
+
+    /**
+     * Content-type header of a binary record
+     */
+    public static Header binaryContentType() {
+        return new RecordHeader(CONTENT_TYPE_HEADER, BINARY_CONTENT_TYPE_BYTES);
+    }
+
+    /**
+     * Encode a transaction in the current version
+     */
+    public byte[] encode(Transaction transaction) {
+        long presence = 0;
+        presence |= bit(0, transaction.getTransactionId() != null);
+        presence |= bit(1, transaction.getUserId() != null);
+        presence |= bit(2, transaction.getAmount() != null);
+        presence |= bit(3, transaction.getTimestamp() != null);
+        presence |= bit(4, transaction.getIpAddress() != null);
+        presence |= bit(5, transaction.getDeviceId() != null);
+        presence |= bit(6, transaction.getUserAgent() != null);
+        presence |= bit(7, transaction.getCountry() != null);
+        presence |= bit(8, transaction.getCurrency() != null);
+        presence |= bit(9, transaction.getMerchant() != null);
+        presence |= bit(10, transaction.getPaymentMethod() != null);
+        presence |= bit(11, transaction.getStatus() != null);
+
+        Output out = new Output(128);
+        out.writeByte(VERSION);
+        out.writeVarint(presence);
+        out.writeString(transaction.getTransactionId());
+        out.writeString(transaction.getUserId());
+        if (transaction.getAmount() != null) {
+            out.writeDecimal(transaction.getAmount());
+        }
+        if (transaction.getTimestamp() != null) {
+            out.writeTimestamp(transaction.getTimestamp());
+        }
+        out.writeString(transaction.getIpAddress());
+        out.writeString(transaction.getDeviceId());
+        out.writeString(transaction.getUserAgent());
+        out.writeString(transaction.getCountry());
+        out.writeString(transaction.getCurrency());
+        out.writeString(transaction.getMerchant());
+        out.writeString(transaction.getPaymentMethod());
+        if (transaction.getStatus() != null) {
+            out.writeVarint(statusIndex(transaction.getStatus()));
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode a transaction; like JSON, a missing transactionId or timestamp gets a random id or the current time
+     * @throws IOException if the payload is truncated, malformed or of an unknown version
+     */
+    public Transaction decodeTransaction(byte[] payload) throws IOException {
+        Input in = new Input(payload);
+        long presence = in.readHeader(TRANSACTION_FIELDS.size());
+        Transaction.TransactionBuilder builder = Transaction.builder();
+        builder.transactionId(has(presence, 0) ? in.readString() : UUID.randomUUID().toString());
+        if (has(presence, 1)) {
+            builder.userId(in.readString());
+        }
+        if (has(presence, 2)) {
+            builder.amount(in.readDecimal());
+        }
+        builder.timestamp(has(presence, 3) ? in.readTimestamp() : LocalDateTime.now());
+        if (has(presence, 4)) {
+            builder.ipAddress(in.readString());
+        }
+        if (has(presence, 5)) {
+            builder.deviceId(in.readString());
+        }
+        if (has(presence, 6)) {
+            builder.userAgent(in.readString());
+        }
+        if (has(presence, 7)) {
+            builder.country(in.readCode(countries));
+        }
+        if (has(presence, 8)) {
+            builder.currency(in.readCode(currencies));
+        }
+        if (has(presence, 9)) {
+            builder.merchant(in.readString());
+        }
+        if (has(presence, 10)) {
+            builder.paymentMethod(in.readCode(paymentMethods));
+        }
+        if (has(presence, 11)) {
+            long index = in.readVarint();
+            if (index < 0 || index >= STATUSES.length) {
+                throw new IOException("Unknown TransactionStatus index " + index);
+            }
+            builder.status(STATUSES[(int) index]);
+        }
+        in.expectEnd();
+        return builder.build();
+    }
+
+    /**
+     * Encode a result in the current version; rule evaluations other than the triggered rule names are left out
+     */
+    public byte[] encode(FraudDetectionResult result) {
+        List<String> triggeredRules = triggeredRuleNames(result);
+        long presence = 0;
+        presence |= bit(0, result.getTransactionId() != null);
+        presence |= bit(1, result.isFraudulent());
+        presence |= bit(2, result.getRiskScore() != 0);
+        presence |= bit(3, result.getRiskLevel() != null);
+        presence |= bit(4, result.getReason() != null);
+        presence |= bit(5, result.getDetectionTime() != null);
+        presence |= bit(6, result.getProcessingTime() != 0);
+        presence |= bit(7, result.isDegraded());
+        presence |= bit(8, !triggeredRules.isEmpty());
+        presence |= bit(9, result.getEvaluationStatus() != null);
+        presence |= bit(10, result.getAlertStatus() != null);
+
+        Output out = new Output(128);
+        out.writeByte(VERSION);
+        out.writeVarint(presence);
+        out.writeString(result.getTransactionId());
+        if (result.getRiskScore() != 0) {
+            out.writeDouble(result.getRiskScore());
+        }
+        out.writeString(result.getRiskLevel());
+        out.writeString(result.getReason());
+        if (result.getDetectionTime() != null) {
+            out.writeTimestamp(result.getDetectionTime());
+        }
+        if (result.getProcessingTime() != 0) {
+            out.writeZigZag(result.getProcessingTime());
+        }
+        if (!triggeredRules.isEmpty()) {
+            out.writeVarint(triggeredRules.size());
+            triggeredRules.forEach(out::writeString);
+        }
+        out.writeString(result.getEvaluationStatus());
+        out.writeString(result.getAlertStatus());
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode a result; triggered rules come back as triggered evaluations carrying only the rule name
+     * @throws IOException if the payload is truncated, malformed or of an unknown version
+     */
+    public FraudDetectionResult decodeResult(byte[] payload) throws IOException {
+        Input in = new Input(payload);
+        long presence = in.readHeader(RESULT_FIELDS.size());
+        FraudDetectionResult.FraudDetectionResultBuilder builder = FraudDetectionResult.builder();
+        if (has(presence, 0)) {
+            builder.transactionId(in.readString());
+        }
+        builder.isFraudulent(has(presence, 1));
+        if (has(presence, 2)) {
+            builder.riskScore(in.readDouble());
+        }
+        if (has(presence, 3)) {
+            builder.riskLevel(in.readString());
+        }
+        if (has(presence, 4)) {
+            builder.reason(in.readString());
+        }
+        if (has(presence, 5)) {
+            builder.detectionTime(in.readTimestamp());
+        }
+        if (has(presence, 6)) {
+            builder.processingTime(in.readZigZag());
+        }
+        builder.degraded(has(presence, 7));
+        List<RuleEvaluationResult> triggeredRules = new ArrayList<>();
+        if (has(presence, 8)) {
+            int count = in.readLength();
+            for (int i = 0; i < count; i++) {
+                triggeredRules.add(RuleEvaluationResult.builder().ruleName(in.readString()).triggered(true).build());
+            }
+            builder.evaluationResults(triggeredRules);
+        }
+        builder.triggeredRules(triggeredRules);
+        if (has(presence, 9)) {
+            builder.evaluationStatus(in.readString());
+        }
+        if (has(presence, 10)) {
+            builder.alertStatus(in.readString());
+        }
+        in.expectEnd();
+        return builder.build();
+    }
+
+    /**
+     * Names of the rules that triggered, from the rule evaluations of the result
+     */
+    private static List<String> triggeredRuleNames(FraudDetectionResult result) {
+        if (result.getEvaluationResults() == null || result.getEvaluationResults().isEmpty()) {
+            return List.of();
+        }
+        List<String> names = new ArrayList<>();
+        for (RuleEvaluationResult rule : result.getEvaluationResults()) {
+            if (rule != null && rule.isTriggered() && rule.getRuleName() != null) {
+                names.add(rule.getRuleName());
+            }
+        }
+        return names;
+    }
+
+    private static int statusIndex(TransactionStatus status) {
+        for (int i = 0; i < STATUSES.length; i++) {
+            if (STATUSES[i] == status) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("TransactionStatus " + status + " is not in the wire format schema");
+    }
+
+    private static long bit(int index, boolean present) {
+        return present ? 1L << index : 0L;
+    }
+
+    private static boolean has(long presence, int index) {
+        return (presence & 1L << index) != 0;
+    }
+
+    /**
+     * Growable buffer the encoders write to
+     */
+    private static final class Output {
+
+        private byte[] buffer;
+        private int position;
+
+        Output(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7fL) != 0) {
+                buffer[position++] = (byte) (value & 0x7f | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeZigZag(long value) {
+            writeVarint(value << 1 ^ value >> 63);
+        }
+
+        /**
+         * Write a string, nothing for null; the presence bit tells the reader
+         */
+        void writeString(String value) {
+            if (value == null) {
+                return;
+            }
+            int length = value.length();
+            for (int i = 0; i < length; i++) {
+                if (value.charAt(i) > 0x7f) {
+                    writeBytes(value.getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+            }
+            // ASCII, one byte per character
+            writeVarint(length);
+            ensure(length);
+            for (int i = 0; i < length; i++) {
+                buffer[position++] = (byte) value.charAt(i);
+            }
+        }
+
+        void writeBytes(byte[] bytes) {
+            writeVarint(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void writeDecimal(BigDecimal value) {
+            writeZigZag(value.scale());
+            writeBytes(value.unscaledValue().toByteArray());
+        }
+
+        void writeTimestamp(LocalDateTime value) {
+            writeZigZag(value.toEpochSecond(ZoneOffset.UTC));
+            writeVarint(value.getNano());
+        }
+
+        void writeDouble(double value) {
+            long bits = Double.doubleToRawLongBits(value);
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[position++] = (byte) (bits >>> shift);
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensure(int bytes) {
+            if (position + bytes > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+            }
+        }
+    }
+
+    /**
+     * Bounds-checked reader over a payload
+     */
+    private static final class Input {
+
+        private final byte[] buffer;
+        private int position;
+
+        Input(byte[] buffer) throws IOException {
+            if (buffer == null) {
+                throw new EOFException("Empty binary message");
+            }
+            this.buffer = buffer;
+        }
+
+        /**
+         * Read the version and the presence bits of a message with the given number of fields
+         */
+        long readHeader(int fields) throws IOException {
+            require(1);
+            int version = buffer[position++] & 0xff;
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary format version " + version);
+            }
+            long presence = readVarint();
+            if (presence >>> fields != 0) {
+                throw new IOException("Unknown fields in binary format version " + version);
+            }
+            return presence;
+        }
+
+        long readVarint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                require(1);
+                byte b = buffer[position++];
+                value |= (long) (b & 0x7f) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint at byte " + position);
+        }
+
+        long readZigZag() throws IOException {
+            long value = readVarint();
+            return value >>> 1 ^ -(value & 1);
+        }
+
+        int readLength() throws IOException {
+            long length = readVarint();
+            if (length < 0 || length > buffer.length - position) {
+                throw new EOFException("Length " + length + " at byte " + position + " exceeds the message");
+            }
+            return (int) length;
+        }
+
+        String readString() throws IOException {
+            int length = readLength();
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        String readCode(SharedCodes codes) throws IOException {
+            int length = readLength();
+            String value = codes.resolve(buffer, position, length);
+            position += length;
+            return value;
+        }
+
+        BigDecimal readDecimal() throws IOException {
+            long scale = readZigZag();
+            int length = readLength();
+            if (length == 0 || scale != (int) scale) {
+                throw new IOException("Malformed decimal at byte " + position);
+            }
+            BigInteger unscaled = new BigInteger(buffer, position, length);
+            position += length;
+            return new BigDecimal(unscaled, (int) scale);
+        }
+
+        LocalDateTime readTimestamp() throws IOException {
+            long seconds = readZigZag();
+            long nanos = readVarint();
+            if (nanos < 0 || nanos > 999_999_999) {
+                throw new IOException("Malformed timestamp at byte " + position);
+            }
+            try {
+                return LocalDateTime.ofEpochSecond(seconds, (int) nanos, ZoneOffset.UTC);
+            } catch (DateTimeException e) {
+                throw new IOException("Malformed timestamp at byte " + position, e);
+            }
+        }
+
+        double readDouble() throws IOException {
+            require(8);
+            long bits = 0;
+            for (int i = 0; i < 8; i++) {
+                bits = bits << 8 | buffer[position++] & 0xff;
+            }
+            return Double.longBitsToDouble(bits);
+        }
+
+        void expectEnd() throws IOException {
+            if (position != buffer.length) {
+                throw new IOException((buffer.length - position) + " unexpected bytes after the message");
+            }
+        }
+
+        private void require(int bytes) throws EOFException {
+            if (buffer.length - position < bytes) {
+                throw new EOFException("Binary message truncated at byte " + position);
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.faud.frauddetection.service.kafka;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs tasks on a shared pool, one at a time and in submission order per key
+ * A task is chained behind the last pending task of its key, so tasks of different keys run
+ * concurrently while a slow key only delays its own later tasks. Keys without pending tasks hold no state
+ */
+public class KeyOrderedExecutor {
+
+    private final Executor executor;
+    private final Map<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    public KeyOrderedExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Run a task after every task submitted before it with the same key
+     * A failing task does not stop later tasks of its key
+     * @param key ordering key, or null to run the task without ordering
+     * @param task task to run
+     * @return future completing when the task has run, exceptionally if it failed
+     */
+    public CompletableFuture<Void> submit(String key, Runnable task) {
+        if (key == null) {
+            return CompletableFuture.runAsync(task, executor);
+        }
+        CompletableFuture<Void> future = tails.compute(key, (k, tail) -> tail == null
+            ? CompletableFuture.runAsync(task, executor)
+            : tail.handle((ignored, error) -> null).thenRunAsync(task, executor));
+        future.whenComplete((ignored, error) -> tails.remove(key, future));
+        return future;
+    }
+
+    /**
+     * Keys with a pending task
+     */
+    public int pendingKeys() {
+        return tails.size();
+    }
+}
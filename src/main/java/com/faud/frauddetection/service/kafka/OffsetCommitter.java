@@ -0,0 +1,189 @@
+package com.faud.frauddetection.service.kafka;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.dto.FraudDetectionResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * At-least-once offset management of the transactions listeners
+ * A record counts as done once its result is saved, or its detection failed and it is never saved.
+ * Offsets of done records are committed asynchronously and at most once per commit interval per
+ * partition, never past a record still in progress. A record whose result could not be saved rewinds
+ * its partition, so it is consumed again. Revoked partitions wait for their records in progress and
+ * are committed synchronously. All methods taking a Consumer run on that consumer's thread
+ */
+@Component
+@Slf4j
+public class OffsetCommitter {
+
+    /**
+     * Listener id prefix of the containers whose offsets are committed here
+     */
+    public static final String LISTENER_ID_PREFIX = "transactions-";
+
+    public static final String PENDING_RECORDS_GAUGE = "fraud.consumer.pending";
+    public static final String REWINDS_COUNTER = "fraud.consumer.rewinds";
+    public static final String COMMIT_FAILURES_COUNTER = "fraud.consumer.commit.failures";
+
+    private static final long DRAIN_POLL_INTERVAL_MS = 10;
+
+    private final OffsetTracker offsets = new OffsetTracker();
+    private final Map<TopicPartition, Long> lastCommitMs = new ConcurrentHashMap<>();
+    private final long intervalMs;
+    private final long drainTimeoutMs;
+    private final Counter rewinds;
+    private final Counter commitFailures;
+
+    public OffsetCommitter(FraudDetectionProperties properties, MeterRegistry meterRegistry) {
+        FraudDetectionProperties.OffsetCommit offsetCommit = properties.getOffsetCommit();
+        if (offsetCommit.getIntervalMs() < 0) {
+            throw new IllegalArgumentException("Offset commit interval must not be negative");
+        }
+        this.intervalMs = offsetCommit.getIntervalMs();
+        this.drainTimeoutMs = offsetCommit.getDrainTimeoutMs();
+
+        Gauge.builder(PENDING_RECORDS_GAUGE, offsets, OffsetTracker::pending)
+            .description("Transaction records consumed and not yet saved")
+            .register(meterRegistry);
+        this.rewinds = Counter.builder(REWINDS_COUNTER)
+            .description("Partitions consumed again from a record whose result could not be saved")
+            .register(meterRegistry);
+        this.commitFailures = Counter.builder(COMMIT_FAILURES_COUNTER)
+            .description("Failed offset commits of the transactions listener")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Track a consumed record until it is done
+     * @return handle to complete or fail the record with, or null if the record is to be skipped as it
+     *         is consumed again after a rewind
+     */
+    public OffsetTracker.Pending dispatched(ConsumerRecord<?, ?> record) {
+        return offsets.dispatched(new TopicPartition(record.topic(), record.partition()), record.offset());
+    }
+
+    /**
+     * Complete a record with its detection result, or fail it if the result was not saved
+     * @param result detection result, null if detection did not return one
+     */
+    public void completed(OffsetTracker.Pending pending, FraudDetectionResult result) {
+        if (isDone(result)) {
+            pending.completed();
+        } else {
+            pending.failed();
+        }
+    }
+
+    /**
+     * Whether the record of a result needs no further processing
+     */
+    static boolean isDone(FraudDetectionResult result) {
+        return result != null && (result.isPersisted() || FraudDetectionResult.ERROR_RISK_LEVEL.equals(result.getRiskLevel()));
+    }
+
+    /**
+     * Rewind partitions with failed records and commit the partitions whose commit interval elapsed
+     */
+    public void commitIfDue(Consumer<?, ?> consumer) {
+        Collection<TopicPartition> assigned = consumer.assignment();
+        for (Map.Entry<TopicPartition, Long> rewind : offsets.rewinds(assigned).entrySet()) {
+            log.warn("Consuming {} again from offset {} as a result could not be saved", rewind.getKey(), rewind.getValue());
+            consumer.seek(rewind.getKey(), rewind.getValue());
+            rewinds.increment();
+        }
+
+        long now = System.currentTimeMillis();
+        List<TopicPartition> due = new ArrayList<>(assigned.size());
+        for (TopicPartition partition : assigned) {
+            if (now - lastCommitMs.getOrDefault(partition, 0L) >= intervalMs) {
+                due.add(partition);
+            }
+        }
+        Map<TopicPartition, OffsetAndMetadata> committable = offsets.committable(due);
+        if (committable.isEmpty()) {
+            return;
+        }
+        for (TopicPartition partition : committable.keySet()) {
+            lastCommitMs.put(partition, now);
+        }
+        consumer.commitAsync(committable, (committed, error) -> {
+            if (error != null) {
+                // A later commit of the same partitions supersedes this one
+                commitFailures.increment();
+                log.warn("Failed to commit offsets {}: {}", committed, error.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Commit records done while no records arrive
+     */
+    @EventListener
+    public void onIdle(ListenerContainerIdleEvent event) {
+        // Published on the consumer thread, the only thread that may use the consumer
+        if (event.getListenerId().startsWith(LISTENER_ID_PREFIX)) {
+            commitIfDue(event.getConsumer());
+        }
+    }
+
+    /**
+     * Wait for the records in progress of revoked partitions, then commit them synchronously
+     */
+    public void onPartitionsRevoked(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        long deadline = System.currentTimeMillis() + drainTimeoutMs;
+        try {
+            while (offsets.pending(partitions) > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(DRAIN_POLL_INTERVAL_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int remaining = offsets.pending(partitions);
+        if (remaining > 0) {
+            log.warn("{} records of revoked partitions still in progress, they are consumed again by the next owner", remaining);
+        }
+
+        Map<TopicPartition, OffsetAndMetadata> committable = offsets.committable(partitions);
+        try {
+            if (!committable.isEmpty()) {
+                consumer.commitSync(committable, Duration.ofMillis(drainTimeoutMs));
+            }
+        } catch (RuntimeException e) {
+            commitFailures.increment();
+            log.warn("Failed to commit offsets {} of revoked partitions: {}", committable, e.getMessage());
+        } finally {
+            forget(partitions);
+        }
+    }
+
+    /**
+     * Stop tracking partitions lost without a chance to commit
+     */
+    public void onPartitionsLost(Collection<TopicPartition> partitions) {
+        forget(partitions);
+    }
+
+    private void forget(Collection<TopicPartition> partitions) {
+        offsets.remove(partitions);
+        for (TopicPartition partition : partitions) {
+            lastCommitMs.remove(partition);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.faud.frauddetection.service.kafka;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+
+import java.util.Collection;
+
+/**
+ * Rebalance listener of the transactions containers
+ * Commits the done records of revoked partitions through the OffsetCommitter, after calling the
+ * rebalance listener otherwise configured for the container, if any
+ */
+public class OffsetCommittingRebalanceListener implements ConsumerAwareRebalanceListener {
+
+    private final OffsetCommitter offsetCommitter;
+    private final ConsumerRebalanceListener delegate;
+
+    /**
+     * @param delegate rebalance listener configured for the container, null if none
+     */
+    public OffsetCommittingRebalanceListener(OffsetCommitter offsetCommitter, ConsumerRebalanceListener delegate) {
+        this.offsetCommitter = offsetCommitter;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (delegate instanceof ConsumerAwareRebalanceListener consumerAware) {
+            consumerAware.onPartitionsRevokedBeforeCommit(consumer, partitions);
+        } else if (delegate != null) {
+            delegate.onPartitionsRevoked(partitions);
+        }
+        offsetCommitter.onPartitionsRevoked(consumer, partitions);
+    }
+
+    @Override
+    public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (delegate instanceof ConsumerAwareRebalanceListener consumerAware) {
+            consumerAware.onPartitionsRevokedAfterCommit(consumer, partitions);
+        }
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (delegate instanceof ConsumerAwareRebalanceListener consumerAware) {
+            consumerAware.onPartitionsLost(consumer, partitions);
+        } else if (delegate != null) {
+            delegate.onPartitionsLost(partitions);
+        }
+        offsetCommitter.onPartitionsLost(partitions);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (delegate instanceof ConsumerAwareRebalanceListener consumerAware) {
+            consumerAware.onPartitionsAssigned(consumer, partitions);
+        } else if (delegate != null) {
+            delegate.onPartitionsAssigned(partitions);
+        }
+    }
+}
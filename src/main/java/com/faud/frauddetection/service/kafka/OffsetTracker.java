@@ -0,0 +1,194 @@
+package com.faud.frauddetection.service.kafka;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the records of each partition from dispatch to completion when they complete out of order
+ * The committable offset of a partition is its lowest incomplete record, or the record after the
+ * last dispatched one when all are complete, so a commit never passes a record still in progress.
+ * A failed record holds the committable offset back until the partition is rewound to it; records below
+ * it that are still in progress stay tracked across the rewind.
+ * Records are dispatched and offsets read on the consumer thread; completions may come from any thread
+ */
+public class OffsetTracker {
+
+    private final Map<TopicPartition, PartitionOffsets> partitions = new ConcurrentHashMap<>();
+
+    /**
+     * Record dispatched for processing, in offset order per partition
+     * @return handle to complete or fail the record with, or null if the partition was rewound before
+     *         the record and it is to be skipped until delivered again
+     */
+    public Pending dispatched(TopicPartition partition, long offset) {
+        return partitions.computeIfAbsent(partition, key -> new PartitionOffsets()).dispatched(offset);
+    }
+
+    /**
+     * Offsets of the given partitions that advanced since they were last returned
+     * @param assigned partitions currently assigned to the calling consumer
+     * @return offset to commit per partition, empty if none advanced
+     */
+    public Map<TopicPartition, OffsetAndMetadata> committable(Collection<TopicPartition> assigned) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (TopicPartition partition : assigned) {
+            PartitionOffsets partitionOffsets = partitions.get(partition);
+            if (partitionOffsets == null) {
+                continue;
+            }
+            long committable = partitionOffsets.committable();
+            if (committable > partitionOffsets.committed) {
+                partitionOffsets.committed = committable;
+                offsets.put(partition, new OffsetAndMetadata(committable));
+            }
+        }
+        return offsets;
+    }
+
+    /**
+     * Partitions of the given ones with a failed record, and the lowest failed offset to seek each to
+     * Records from the failed one on are forgotten, they are delivered again, and records of the current
+     * poll past it are skipped until consumed again from it. Records below it still in progress stay
+     * tracked: they hold commits back, and a later failure of one rewinds the partition again
+     * @param assigned partitions currently assigned to the calling consumer
+     * @return offset to consume next per partition, empty if no record failed
+     */
+    public Map<TopicPartition, Long> rewinds(Collection<TopicPartition> assigned) {
+        Map<TopicPartition, Long> rewinds = new HashMap<>();
+        for (TopicPartition partition : assigned) {
+            PartitionOffsets partitionOffsets = partitions.get(partition);
+            if (partitionOffsets != null && partitionOffsets.rewindOffset.get() != Long.MAX_VALUE) {
+                rewinds.put(partition, partitionOffsets.rewind());
+            }
+        }
+        return rewinds;
+    }
+
+    /**
+     * Stop tracking partitions no longer assigned
+     */
+    public void remove(Collection<TopicPartition> revoked) {
+        for (TopicPartition partition : revoked) {
+            partitions.remove(partition);
+        }
+    }
+
+    /**
+     * Records dispatched but not completed, over all partitions
+     */
+    public int pending() {
+        return pending(partitions.keySet());
+    }
+
+    /**
+     * Records dispatched but not completed in the given partitions
+     */
+    public int pending(Collection<TopicPartition> partitions) {
+        int pending = 0;
+        for (TopicPartition partition : partitions) {
+            PartitionOffsets offsets = this.partitions.get(partition);
+            if (offsets != null) {
+                pending += offsets.pending.size();
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * A dispatched record, completed or failed exactly once from any thread
+     * Once its partition is rewound to or before it, the outcome no longer counts: the record is delivered again
+     */
+    public static final class Pending {
+
+        private final PartitionOffsets offsets;
+        private final long offset;
+
+        private Pending(PartitionOffsets offsets, long offset) {
+            this.offsets = offsets;
+            this.offset = offset;
+        }
+
+        /**
+         * Record processed, its offset may be committed
+         */
+        public void completed() {
+            offsets.pending.remove(offset, this);
+        }
+
+        /**
+         * Record not processed, the partition is consumed again from it
+         */
+        public void failed() {
+            if (offsets.pending.get(offset) != this) {
+                return;
+            }
+            // Set before the record leaves pending, so no commit passes it in between
+            offsets.rewindOffset.accumulateAndGet(offset, Math::min);
+            offsets.pending.remove(offset, this);
+        }
+
+        public long offset() {
+            return offset;
+        }
+    }
+
+    private static final class PartitionOffsets {
+
+        /**
+         * Records in progress by offset; a record delivered again replaces the earlier delivery
+         */
+        private final ConcurrentSkipListMap<Long, Pending> pending = new ConcurrentSkipListMap<>();
+        private final AtomicLong rewindOffset = new AtomicLong(Long.MAX_VALUE);
+        private volatile long nextOffset = -1;
+        private volatile long committed = -1;
+
+        /**
+         * Highest offset delivered before a rewind and not consumed again yet, -1 when not rewound
+         */
+        private long skipAfter = -1;
+
+        Pending dispatched(long offset) {
+            if (skipAfter >= 0) {
+                if (offset > skipAfter) {
+                    // Rest of the poll in which the rewind happened, consumed again after the seek
+                    skipAfter = offset;
+                    return null;
+                }
+                skipAfter = -1;
+            }
+            if (offset < nextOffset) {
+                // Redelivered after a rebalance or seek, the committed offset may have moved back
+                committed = -1;
+            }
+            Pending record = new Pending(this, offset);
+            pending.put(offset, record);
+            nextOffset = offset + 1;
+            return record;
+        }
+
+        /**
+         * Forget the records from the lowest failed one on and consume again from it
+         * @return offset to seek to
+         */
+        long rewind() {
+            long offset = rewindOffset.getAndSet(Long.MAX_VALUE);
+            pending.tailMap(offset).clear();
+            skipAfter = nextOffset - 1;
+            nextOffset = offset;
+            return offset;
+        }
+
+        long committable() {
+            // Null when empty, unlike firstKey() which may throw if the last record completes concurrently
+            Map.Entry<Long, Pending> lowest = pending.firstEntry();
+            return Math.min(lowest != null ? lowest.getKey() : nextOffset, rewindOffset.get());
+        }
+    }
+}
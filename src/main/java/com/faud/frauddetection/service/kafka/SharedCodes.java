@@ -0,0 +1,72 @@
+package com.faud.frauddetection.service.kafka;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Table of short ASCII codes (country, currency, payment method) resolving each code to one shared
+ * String, looked up by the code's characters packed into a long so a known code costs no allocation
+ * Codes longer than MAX_CODE_LENGTH or not ASCII, and new codes once the table is full, are returned as copies
+ */
+final class SharedCodes {
+
+    /**
+     * Longest code resolved to a shared String
+     */
+    static final int MAX_CODE_LENGTH = 8;
+
+    /**
+     * Distinct codes shared per table
+     */
+    static final int MAX_SHARED_CODES = 1024;
+
+    private final Map<Long, String> codes = new ConcurrentHashMap<>();
+
+    /**
+     * Resolve a code from a character buffer
+     */
+    String resolve(char[] text, int offset, int length) {
+        if (length > MAX_CODE_LENGTH) {
+            return new String(text, offset, length);
+        }
+        // 7 bits per character after the length, unique for ASCII codes up to 8 characters
+        long key = length;
+        for (int i = offset; i < offset + length; i++) {
+            char c = text[i];
+            if (c > 0x7f) {
+                return new String(text, offset, length);
+            }
+            key = key << 7 | c;
+        }
+        String code = codes.get(key);
+        return code != null ? code : share(key, new String(text, offset, length));
+    }
+
+    /**
+     * Resolve a code from UTF-8 bytes
+     */
+    String resolve(byte[] utf8, int offset, int length) {
+        if (length > MAX_CODE_LENGTH) {
+            return new String(utf8, offset, length, StandardCharsets.UTF_8);
+        }
+        long key = length;
+        for (int i = offset; i < offset + length; i++) {
+            byte b = utf8[i];
+            if (b < 0) {
+                return new String(utf8, offset, length, StandardCharsets.UTF_8);
+            }
+            key = key << 7 | b;
+        }
+        String code = codes.get(key);
+        return code != null ? code : share(key, new String(utf8, offset, length, StandardCharsets.US_ASCII));
+    }
+
+    private String share(long key, String code) {
+        if (codes.size() < MAX_SHARED_CODES) {
+            String shared = codes.putIfAbsent(key, code);
+            return shared != null ? shared : code;
+        }
+        return code;
+    }
+}
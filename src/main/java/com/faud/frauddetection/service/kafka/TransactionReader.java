@@ -0,0 +1,144 @@
+package com.faud.frauddetection.service.kafka;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.dto.TransactionStatus;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Parser of transaction messages, straight from the bytes of a record into a Transaction
+ * The format is chosen per record by its content-type header: BinaryCodec for the binary format,
+ * JSON otherwise, so both kinds of producers can share the topic. The JSON reader is built once and
+ * shared by the listeners. Enum-like codes (country, currency, payment method) are resolved to one
+ * shared String per code from the parser's buffer, and TransactionStatus is matched without creating
+ * a String, so a record allocates no copies of them. Parse errors do not include the payload
+ */
+@Component
+public class TransactionReader {
+
+    private final ObjectReader reader;
+    private final BinaryCodec binaryCodec = new BinaryCodec();
+
+    public TransactionReader() {
+        // Parse errors must not carry the payload into logs
+        JsonFactory jsonFactory = JsonFactory.builder()
+            .disable(StreamReadFeature.INCLUDE_SOURCE_IN_LOCATION)
+            .build();
+        ObjectMapper objectMapper = new ObjectMapper(jsonFactory);
+        objectMapper.findAndRegisterModules(); // To handle LocalDateTime
+        objectMapper.addMixIn(Transaction.class, TransactionCodes.class);
+        objectMapper.registerModule(new SimpleModule()
+            .addDeserializer(TransactionStatus.class, new TransactionStatusDeserializer()));
+        this.reader = objectMapper.readerFor(Transaction.class);
+    }
+
+    /**
+     * Parse a transaction record in the format named by its headers
+     * @throws IOException if the payload is not a valid transaction, the message describes the error
+     * without the payload
+     */
+    public Transaction read(Headers headers, byte[] payload) throws IOException {
+        return BinaryCodec.isBinary(headers) ? binaryCodec.decodeTransaction(payload) : read(payload);
+    }
+
+    /**
+     * Parse a JSON transaction message
+     * @param payload UTF-8 JSON
+     * @throws IOException if the payload is not a valid transaction
+     */
+    public Transaction read(byte[] payload) throws IOException {
+        if (payload == null) {
+            throw new JsonParseException(null, "Empty transaction message");
+        }
+        return reader.readValue(payload);
+    }
+
+    /**
+     * Transaction fields holding codes from a small set of values
+     */
+    abstract static class TransactionCodes {
+        @JsonDeserialize(using = SharedCodeDeserializer.class)
+        String country;
+
+        @JsonDeserialize(using = SharedCodeDeserializer.class)
+        String currency;
+
+        @JsonDeserialize(using = SharedCodeDeserializer.class)
+        String paymentMethod;
+    }
+
+    /**
+     * Resolves codes to shared Strings from the parser's character buffer
+     */
+    static final class SharedCodeDeserializer extends StdScalarDeserializer<String> {
+
+        private final SharedCodes codes = new SharedCodes();
+
+        SharedCodeDeserializer() {
+            super(String.class);
+        }
+
+        @Override
+        public String deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (!parser.hasToken(JsonToken.VALUE_STRING)) {
+                return StringDeserializer.instance.deserialize(parser, context);
+            }
+            return codes.resolve(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        }
+    }
+
+    /**
+     * Matches the status name against the constants without creating a String
+     */
+    static final class TransactionStatusDeserializer extends StdScalarDeserializer<TransactionStatus> {
+
+        private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+        TransactionStatusDeserializer() {
+            super(TransactionStatus.class);
+        }
+
+        @Override
+        public TransactionStatus deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (!parser.hasToken(JsonToken.VALUE_STRING)) {
+                return (TransactionStatus) context.handleUnexpectedToken(TransactionStatus.class, parser);
+            }
+            char[] text = parser.getTextCharacters();
+            int offset = parser.getTextOffset();
+            int length = parser.getTextLength();
+            for (TransactionStatus status : STATUSES) {
+                if (matches(status.name(), text, offset, length)) {
+                    return status;
+                }
+            }
+            return (TransactionStatus) context.handleWeirdStringValue(TransactionStatus.class, parser.getText(),
+                "not one of the values accepted for TransactionStatus");
+        }
+
+        private static boolean matches(String name, char[] text, int offset, int length) {
+            if (name.length() != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (name.charAt(i) != text[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
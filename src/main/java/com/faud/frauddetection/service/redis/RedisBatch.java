@@ -0,0 +1,233 @@
+package com.faud.frauddetection.service.redis;
+
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Redis commands registered by the rules of one transaction, or of a micro-batch of transactions
+ * Commands are only queued when registered; the whole batch is sent in a single pipeline when the
+ * first result is read (or on an explicit flush), and each registrant gets its own reply back.
+ * Commands run in registration order, so later commands see the writes of earlier ones.
+ * Thread-safe; commands can no longer be registered once the batch is flushed
+ */
+public final class RedisBatch {
+
+    private final RedisPipeline pipeline;
+    private final List<Command<?>> commands = new ArrayList<>();
+    private CompletableFuture<Void> completion;
+
+    RedisBatch(RedisPipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * Register a command
+     * @param send issues exactly one command on the pipelined connection
+     * @param reader maps the command's reply, null if Redis sent none
+     * @return result, available once the batch is flushed
+     * @throws IllegalStateException if the batch was already flushed
+     */
+    public <T> Supplier<T> command(Consumer<StringRedisConnection> send, Function<Object, T> reader) {
+        return register(new Command<>(null, List.of(), List.of(), send, reader));
+    }
+
+    /**
+     * Register a script call, sent by SHA
+     * @param script script; loaded into Redis before its first pipelined call
+     * @param keys script keys
+     * @param args script arguments
+     * @param reader maps the script's reply, null if Redis sent none
+     * @return result, available once the batch is flushed
+     * @throws IllegalStateException if the batch was already flushed
+     */
+    public <T> Supplier<T> script(RedisScript<?> script, List<String> keys, List<String> args, Function<Object, T> reader) {
+        String[] keysAndArgs = new String[keys.size() + args.size()];
+        int i = 0;
+        for (String key : keys) {
+            keysAndArgs[i++] = key;
+        }
+        for (String arg : args) {
+            keysAndArgs[i++] = arg;
+        }
+        int numKeys = keys.size();
+        return register(new Command<>(script, keys, args,
+            connection -> connection.evalSha(script.getSha1(), RedisPipeline.returnTypeOf(script), numKeys, keysAndArgs),
+            reader));
+    }
+
+    private synchronized <T> Supplier<T> register(Command<T> command) {
+        if (completion != null) {
+            throw new IllegalStateException("Redis batch already flushed");
+        }
+        commands.add(command);
+        return command;
+    }
+
+    /**
+     * Send all registered commands in one pipeline and wait for the replies, if not done yet
+     * Failures are not thrown here but reported by the results of the affected commands
+     */
+    public void flush() {
+        List<Command<?>> sent;
+        synchronized (this) {
+            if (completion != null) {
+                return;
+            }
+            completion = new CompletableFuture<>();
+            sent = commands;
+        }
+        if (sent.isEmpty()) {
+            completion.complete(null);
+            return;
+        }
+
+        try {
+            complete(sent, pipeline.execute(sent), null);
+        } catch (RuntimeException e) {
+            complete(sent, null, e);
+        }
+    }
+
+    /**
+     * Send all registered commands without waiting for the replies, if not done yet
+     * Failures are not reported here but by the results of the affected commands
+     * @return future completed once every command has its result, never exceptionally
+     */
+    public CompletableFuture<Void> flushAsync() {
+        List<Command<?>> sent;
+        synchronized (this) {
+            if (completion != null) {
+                return completion;
+            }
+            completion = new CompletableFuture<>();
+            sent = commands;
+        }
+        if (sent.isEmpty()) {
+            completion.complete(null);
+            return completion;
+        }
+
+        CompletableFuture<List<Object>> replies;
+        try {
+            replies = pipeline.executeAsync(sent);
+        } catch (RuntimeException e) {
+            replies = CompletableFuture.failedFuture(e);
+        }
+        replies.whenComplete((values, error) -> complete(sent, values, error));
+        return completion;
+    }
+
+    /**
+     * Fail every command still waiting for its reply, e.g. when the transaction deadline expired
+     * Replies arriving afterwards are ignored
+     */
+    public void abort(RuntimeException error) {
+        List<Command<?>> sent;
+        synchronized (this) {
+            if (completion == null) {
+                completion = new CompletableFuture<>();
+            }
+            sent = commands;
+        }
+        complete(sent, null, error);
+    }
+
+    private void complete(List<Command<?>> sent, List<Object> replies, Throwable error) {
+        for (int i = 0; i < sent.size(); i++) {
+            if (error != null) {
+                sent.get(i).fail(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            } else {
+                sent.get(i).complete(i < replies.size() ? replies.get(i) : null);
+            }
+        }
+        completion.complete(null);
+    }
+
+    /**
+     * Whether every command has its result, so reading one no longer waits on Redis
+     */
+    public synchronized boolean isDone() {
+        return completion != null && completion.isDone();
+    }
+
+    public synchronized int size() {
+        return commands.size();
+    }
+
+    /**
+     * One registered command and, once flushed, its result
+     */
+    final class Command<T> implements Supplier<T> {
+
+        private final RedisScript<?> script;
+        private final List<String> keys;
+        private final List<String> args;
+        private final Consumer<StringRedisConnection> send;
+        private final Function<Object, T> reader;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private Command(RedisScript<?> script, List<String> keys, List<String> args,
+                        Consumer<StringRedisConnection> send, Function<Object, T> reader) {
+            this.script = script;
+            this.keys = keys;
+            this.args = args;
+            this.send = send;
+            this.reader = reader;
+        }
+
+        RedisScript<?> getScript() {
+            return script;
+        }
+
+        List<String> getKeys() {
+            return keys;
+        }
+
+        List<String> getArgs() {
+            return args;
+        }
+
+        void send(StringRedisConnection connection) {
+            send.accept(connection);
+        }
+
+        private void complete(Object reply) {
+            if (reply instanceof Throwable t) {
+                fail(t);
+                return;
+            }
+            try {
+                result.complete(reader.apply(reply));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        private void fail(Throwable error) {
+            result.completeExceptionally(error instanceof RuntimeException
+                ? error : new IllegalStateException(error.getMessage(), error));
+        }
+
+        /**
+         * Result of the command, flushing the batch first if needed
+         * @throws RuntimeException the command's failure
+         */
+        @Override
+        public T get() {
+            flush();
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+    }
+}
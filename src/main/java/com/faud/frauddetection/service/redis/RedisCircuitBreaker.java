@@ -0,0 +1,122 @@
+package com.faud.frauddetection.service.redis;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker around Redis-backed evaluation
+ * Consecutive failures open the circuit, so callers stop waiting on an unhealthy Redis and use their
+ * fallback instead. Once the open period has passed a single probe request is let through while all
+ * others keep using the fallback: a successful probe closes the circuit, a failed one opens it for
+ * another period. A probe that never reports back is replaced after one open period
+ */
+@Component
+@Slf4j
+public class RedisCircuitBreaker {
+
+    public static final String STATE_GAUGE = "fraud.redis.circuit.state";
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final LongSupplier nanoClock;
+
+    private volatile State state = State.CLOSED;
+    private volatile int consecutiveFailures;
+
+    /**
+     * When the circuit opened, or when the probe of the half-open circuit was let through
+     */
+    private long changedAtNanos;
+
+    @Autowired
+    public RedisCircuitBreaker(FraudDetectionProperties properties, MeterRegistry meterRegistry) {
+        this(properties.getVelocity().getFallback().getFailureThreshold(),
+            properties.getVelocity().getFallback().getOpenDurationMs(), System::nanoTime, meterRegistry);
+    }
+
+    RedisCircuitBreaker(int failureThreshold, long openDurationMs, LongSupplier nanoClock, MeterRegistry meterRegistry) {
+        if (failureThreshold <= 0 || openDurationMs <= 0) {
+            throw new IllegalArgumentException("Failure threshold and open duration must be positive");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+        this.nanoClock = nanoClock;
+        Gauge.builder(STATE_GAUGE, this, breaker -> breaker.getState().ordinal())
+            .description("Redis circuit breaker state: 0 closed, 1 open, 2 half-open")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Whether a request may go to Redis
+     * @return true while closed, and for the single probe of a half-open circuit
+     */
+    public boolean allowRequest() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        synchronized (this) {
+            if (state == State.CLOSED) {
+                return true;
+            }
+            long now = nanoClock.getAsLong();
+            if (now - changedAtNanos < openDurationNanos) {
+                return false;
+            }
+            transition(State.HALF_OPEN, now);
+            return true;
+        }
+    }
+
+    /**
+     * Report a request Redis answered
+     */
+    public void recordSuccess() {
+        if (state == State.CLOSED && consecutiveFailures == 0) {
+            return;
+        }
+        synchronized (this) {
+            consecutiveFailures = 0;
+            if (state != State.CLOSED) {
+                transition(State.CLOSED, nanoClock.getAsLong());
+            }
+        }
+    }
+
+    /**
+     * Report a request Redis failed or did not answer in time
+     */
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            transition(State.OPEN, nanoClock.getAsLong());
+        }
+    }
+
+    private void transition(State next, long now) {
+        State previous = state;
+        state = next;
+        changedAtNanos = now;
+        if (next == State.OPEN) {
+            log.warn("Redis circuit breaker opened after {} consecutive failures (was {})", consecutiveFailures, previous);
+        } else {
+            log.info("Redis circuit breaker {} (was {})", next == State.CLOSED ? "closed" : "half-open", previous);
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,161 @@
+package com.faud.frauddetection.service.redis;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.constant.RedisKeys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Migration of Redis state from the unversioned key layout to the current versioned keys
+ * Each old key is merged into its new key and then deleted: event ZSET members are added, amount
+ * bucket fields are incremented and HyperLogLog sketches are merged, so state already written to the
+ * new keys by live traffic is kept. The new key's TTL is extended to the old key's if longer.
+ * The old layout put a user's keys in different slots and never ran in Redis Cluster, so the old keys
+ * are scanned on a standalone server. A lock key keeps concurrently starting instances from
+ * migrating the same keys twice
+ */
+@Component
+@Slf4j
+public class RedisKeyMigration {
+
+    static final String LOCK_KEY = RedisKeys.KEY_VERSION + RedisKeys.KEY_SEPARATOR + "migration";
+    private static final Duration LOCK_TTL = Duration.ofHours(1);
+
+    /**
+     * Lifetime of the temporary copy of an old sketch, only left behind if the migration dies mid-key
+     */
+    private static final long MERGE_COPY_TTL_SECONDS = 60;
+
+    private final StringRedisTemplate redisTemplate;
+    private final FraudDetectionProperties.KeyMigration properties;
+
+    public RedisKeyMigration(StringRedisTemplate redisTemplate, FraudDetectionProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties.getKeyMigration();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Boolean locked = redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, "locked", LOCK_TTL);
+        if (!Boolean.TRUE.equals(locked)) {
+            log.info("Redis key migration already running on another instance");
+            return;
+        }
+        try {
+            long migrated = migrate();
+            log.info("Migrated {} Redis keys to key layout {}", migrated, RedisKeys.KEY_VERSION);
+        } catch (RuntimeException e) {
+            log.error("Redis key migration failed, it continues on the next start: {}", e.getMessage(), e);
+        } finally {
+            redisTemplate.delete(LOCK_KEY);
+        }
+    }
+
+    /**
+     * Merge every old key into its new key and delete it
+     * @return number of old keys migrated
+     */
+    long migrate() {
+        return migrateKeys(RedisKeys.LEGACY_TRANSACTIONS_USER_PREFIX, this::migrateEvents)
+            + migrateKeys(RedisKeys.LEGACY_AMOUNT_BUCKETS_USER_PREFIX, this::migrateAmountBuckets)
+            + migrateKeys(RedisKeys.LEGACY_DISTINCT_PREFIX, this::migrateDistinctSlice);
+    }
+
+    private long migrateKeys(String legacyPrefix, Consumer<String> migration) {
+        long migrated = 0;
+        ScanOptions options = ScanOptions.scanOptions().match(legacyPrefix + "*").count(properties.getScanCount()).build();
+        try (Cursor<String> keys = redisTemplate.scan(options)) {
+            while (keys.hasNext()) {
+                String legacyKey = keys.next();
+                try {
+                    migration.accept(legacyKey);
+                    migrated++;
+                } catch (RuntimeException e) {
+                    log.warn("Failed to migrate Redis key {}: {}", legacyKey, e.getMessage());
+                }
+            }
+        }
+        return migrated;
+    }
+
+    void migrateEvents(String legacyKey) {
+        String key = RedisKeys.transactionsKey(legacyKey.substring(RedisKeys.LEGACY_TRANSACTIONS_USER_PREFIX.length()));
+        Set<ZSetOperations.TypedTuple<String>> events = redisTemplate.opsForZSet().rangeWithScores(legacyKey, 0, -1);
+        if (events != null && !events.isEmpty()) {
+            redisTemplate.opsForZSet().add(key, events);
+            extendTtl(legacyKey, key);
+        }
+        redisTemplate.delete(legacyKey);
+    }
+
+    void migrateAmountBuckets(String legacyKey) {
+        String key = RedisKeys.amountBucketsKey(legacyKey.substring(RedisKeys.LEGACY_AMOUNT_BUCKETS_USER_PREFIX.length()));
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(legacyKey);
+        if (!fields.isEmpty()) {
+            for (Map.Entry<Object, Object> field : fields.entrySet()) {
+                redisTemplate.opsForHash().increment(key, field.getKey(), Long.parseLong(field.getValue().toString()));
+            }
+            extendTtl(legacyKey, key);
+        }
+        redisTemplate.delete(legacyKey);
+    }
+
+    void migrateDistinctSlice(String legacyKey) {
+        String key = distinctSliceKey(legacyKey);
+        byte[] sketch = redisTemplate.dump(legacyKey);
+        if (sketch != null) {
+            // PFMERGE needs its keys in one slot; the copy shares the new key's hash tag
+            String copy = key + RedisKeys.KEY_SEPARATOR + "m";
+            redisTemplate.restore(copy, sketch, MERGE_COPY_TTL_SECONDS, TimeUnit.SECONDS, true);
+            redisTemplate.opsForHyperLogLog().union(key, copy);
+            redisTemplate.delete(copy);
+            extendTtl(legacyKey, key);
+        }
+        redisTemplate.delete(legacyKey);
+    }
+
+    /**
+     * New key of an old distinct slice key, distinct:&lt;countField&gt;:&lt;groupField&gt;:&lt;sliceSeconds&gt;:&lt;groupValue&gt;:&lt;slice&gt;
+     * The group value may itself contain separators, e.g. an IPv6 address
+     * @throws IllegalArgumentException if the key does not follow the old layout
+     */
+    static String distinctSliceKey(String legacyKey) {
+        String[] head = legacyKey.substring(RedisKeys.LEGACY_DISTINCT_PREFIX.length()).split(RedisKeys.KEY_SEPARATOR, 4);
+        int lastSeparator = head.length == 4 ? head[3].lastIndexOf(RedisKeys.KEY_SEPARATOR) : -1;
+        if (lastSeparator < 0) {
+            throw new IllegalArgumentException("Not a distinct slice key: " + legacyKey);
+        }
+        try {
+            return RedisKeys.distinctSliceKey(head[0], head[1], Long.parseLong(head[2]),
+                head[3].substring(0, lastSeparator), Long.parseLong(head[3].substring(lastSeparator + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a distinct slice key: " + legacyKey);
+        }
+    }
+
+    private void extendTtl(String legacyKey, String key) {
+        Long legacyTtl = redisTemplate.getExpire(legacyKey, TimeUnit.SECONDS);
+        if (legacyTtl == null || legacyTtl <= 0) {
+            return;
+        }
+        Long ttl = redisTemplate.getExpire(key, TimeUnit.SECONDS);
+        if (ttl == null || ttl < legacyTtl) {
+            redisTemplate.expire(key, legacyTtl, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.faud.frauddetection.service.redis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends RedisBatch commands in one executePipelined round-trip
+ * Scripts cannot fall back from EVALSHA to EVAL inside a pipeline, so each script is loaded once
+ * before its first pipelined call. If Redis lost its script cache (restart, SCRIPT FLUSH) only the
+ * commands that failed with NOSCRIPT are sent again after reloading, so no command runs twice.
+ * Batches of scripts can also be sent without blocking: each script goes out on the shared Lettuce
+ * connection through the reactive template, which writes them back to back without waiting for
+ * replies, and the batch completes when the last reply arrives
+ */
+@Component
+@Slf4j
+public class RedisPipeline {
+
+    private static final String NO_SCRIPT_ERROR = "NOSCRIPT";
+
+    /**
+     * Reply placeholder of scripts that returned nil, reactive streams cannot carry null
+     */
+    private static final Object NO_REPLY = new Object();
+
+    private final StringRedisTemplate redisTemplate;
+    private final ReactiveStringRedisTemplate reactiveTemplate;
+    private final Set<String> loadedScripts = ConcurrentHashMap.newKeySet();
+
+    public RedisPipeline(StringRedisTemplate redisTemplate) {
+        this(redisTemplate, (ReactiveStringRedisTemplate) null);
+    }
+
+    @Autowired
+    public RedisPipeline(StringRedisTemplate redisTemplate, ObjectProvider<ReactiveStringRedisTemplate> reactiveTemplate) {
+        this(redisTemplate, reactiveTemplate.getIfAvailable());
+    }
+
+    /**
+     * @param reactiveTemplate template for non-blocking batches, null to send them blocking
+     */
+    public RedisPipeline(StringRedisTemplate redisTemplate, ReactiveStringRedisTemplate reactiveTemplate) {
+        this.redisTemplate = redisTemplate;
+        this.reactiveTemplate = reactiveTemplate;
+    }
+
+    /**
+     * Start an empty batch
+     */
+    public RedisBatch newBatch() {
+        return new RedisBatch(this);
+    }
+
+    /**
+     * Send commands in one pipeline
+     * @return one reply per command, in order; failed commands have their exception as reply
+     */
+    List<Object> execute(List<? extends RedisBatch.Command<?>> commands) {
+        loadScripts(commands, false);
+        List<Object> replies = new ArrayList<>(pipelined(commands));
+
+        List<Integer> missingScripts = new ArrayList<>();
+        for (int i = 0; i < replies.size(); i++) {
+            if (isNoScript(replies.get(i))) {
+                missingScripts.add(i);
+            }
+        }
+        if (!missingScripts.isEmpty()) {
+            log.warn("Redis lost {} cached scripts, reloading", missingScripts.size());
+            List<RedisBatch.Command<?>> retried = new ArrayList<>(missingScripts.size());
+            for (int index : missingScripts) {
+                retried.add(commands.get(index));
+            }
+            loadScripts(retried, true);
+            List<Object> retriedReplies = pipelined(retried);
+            for (int i = 0; i < missingScripts.size(); i++) {
+                replies.set(missingScripts.get(i), i < retriedReplies.size() ? retriedReplies.get(i) : null);
+            }
+        }
+        return replies;
+    }
+
+    /**
+     * Send commands without blocking the calling thread
+     * Only scripts have a non-blocking form; batches with other commands, or without a reactive
+     * template, are sent with execute on the calling thread
+     * @return one reply per command, in order; failed commands have their exception as reply
+     */
+    CompletableFuture<List<Object>> executeAsync(List<? extends RedisBatch.Command<?>> commands) {
+        if (reactiveTemplate == null || commands.stream().anyMatch(command -> command.getScript() == null)) {
+            return CompletableFuture.completedFuture(execute(commands));
+        }
+        List<Mono<Object>> replies = new ArrayList<>(commands.size());
+        for (RedisBatch.Command<?> command : commands) {
+            replies.add(scriptReply(command));
+        }
+        // Subscribed in order, so the commands are written to the connection in registration order
+        return Flux.mergeSequential(replies)
+            .collectList()
+            .map(values -> {
+                List<Object> result = new ArrayList<>(values.size());
+                for (Object value : values) {
+                    result.add(value == NO_REPLY ? null : value);
+                }
+                return result;
+            })
+            .toFuture();
+    }
+
+    /**
+     * Reply of one script; EVALSHA falls back to EVAL when Redis does not have the script cached
+     */
+    private Mono<Object> scriptReply(RedisBatch.Command<?> command) {
+        boolean multi = returnTypeOf(command.getScript()) == ReturnType.MULTI;
+        return reactiveTemplate.execute(command.getScript(), command.getKeys(), command.getArgs())
+            .collectList()
+            .<Object>map(values -> {
+                if (multi) {
+                    return values.size() == 1 && values.get(0) instanceof List<?> list ? list : values;
+                }
+                return values.isEmpty() ? NO_REPLY : values.get(0);
+            })
+            .onErrorResume(error -> Mono.just(error));
+    }
+
+    private List<Object> pipelined(List<? extends RedisBatch.Command<?>> commands) {
+        try {
+            List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                for (RedisBatch.Command<?> command : commands) {
+                    command.send(stringConnection);
+                }
+                return null;
+            });
+            return replies != null ? replies : List.of();
+        } catch (RedisPipelineException e) {
+            // Replies of the commands that succeeded, with the failures in place
+            if (e.getPipelineResult().size() != commands.size()) {
+                throw e;
+            }
+            return e.getPipelineResult();
+        }
+    }
+
+    private void loadScripts(List<? extends RedisBatch.Command<?>> commands, boolean reload) {
+        Set<RedisScript<?>> scripts = new LinkedHashSet<>();
+        for (RedisBatch.Command<?> command : commands) {
+            RedisScript<?> script = command.getScript();
+            if (script != null && (reload || !loadedScripts.contains(script.getSha1()))) {
+                scripts.add(script);
+            }
+        }
+        for (RedisScript<?> script : scripts) {
+            byte[] source = script.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+            redisTemplate.execute((RedisCallback<String>) connection -> connection.scriptingCommands().scriptLoad(source));
+            loadedScripts.add(script.getSha1());
+        }
+    }
+
+    private static boolean isNoScript(Object reply) {
+        for (Throwable t = reply instanceof Throwable ? (Throwable) reply : null; t != null; t = t.getCause()) {
+            if (t.getMessage() != null && t.getMessage().contains(NO_SCRIPT_ERROR)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static ReturnType returnTypeOf(RedisScript<?> script) {
+        return ReturnType.fromJavaType(script.getResultType());
+    }
+}
@@ -0,0 +1,161 @@
+package com.faud.frauddetection.service.rule;
+
+import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.entity.RuleEvaluationType;
+import com.faud.frauddetection.service.evaluator.RuleEvaluator;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Fraud rule compiled into an immutable predicate tree
+ * Everything that only depends on the rule (operands, risk score, reason strings) is computed
+ * once at compile time, so per-transaction evaluation is predicate evaluation only
+ */
+@Getter
+@ToString(of = {"evaluationType", "invalidReason"})
+public final class CompiledRule {
+
+    private static final double DEFAULT_RISK_WEIGHT = 0.5;
+
+    /**
+     * Source rule
+     */
+    private final FraudRule rule;
+
+    private final RuleEvaluationType evaluationType;
+
+    /**
+     * Root predicate, null for invalid rules
+     */
+    private final RulePredicate predicate;
+
+    /**
+     * The condition of a single-condition rule, null otherwise
+     */
+    private final ConditionPredicate condition;
+
+    /**
+     * Reason reported for every evaluation when the rule could not be compiled, null otherwise
+     */
+    private final String invalidReason;
+
+    /**
+     * Risk score reported when the rule triggers
+     */
+    private final double riskScore;
+
+    private final String triggeredReason;
+    private final String notTriggeredReason;
+
+    /**
+     * Evaluator resolved from the rule type when the rule was loaded, null if no evaluator supports it
+     */
+    private final RuleEvaluator evaluator;
+
+    /**
+     * Evaluator-specific configuration parsed when the rule was bound, null if the evaluator has none
+     */
+    private final Object evaluatorConfig;
+
+    /**
+     * Reason the evaluator-specific configuration could not be parsed, null otherwise
+     */
+    private final String configError;
+
+    private CompiledRule(FraudRule rule, RuleEvaluationType evaluationType, RulePredicate predicate,
+                         ConditionPredicate condition, String invalidReason,
+                         String triggeredReason, String notTriggeredReason, RuleEvaluator evaluator,
+                         Object evaluatorConfig, String configError) {
+        this.rule = rule;
+        this.evaluationType = evaluationType;
+        this.predicate = predicate;
+        this.condition = condition;
+        this.invalidReason = invalidReason;
+        this.riskScore = rule.getRiskWeight() != null ? rule.getRiskWeight().doubleValue() : DEFAULT_RISK_WEIGHT;
+        this.triggeredReason = triggeredReason;
+        this.notTriggeredReason = notTriggeredReason;
+        this.evaluator = evaluator;
+        this.evaluatorConfig = evaluatorConfig;
+        this.configError = configError;
+    }
+
+    static CompiledRule singleCondition(FraudRule rule, ConditionPredicate condition) {
+        String triggeredReason = String.format("Field %s %s %s condition met",
+            rule.getConditionField(), rule.getConditionOperator().toUpperCase(), rule.getConditionValue());
+        return new CompiledRule(rule, RuleEvaluationType.SINGLE_CONDITION, condition, condition, null,
+            triggeredReason, "Condition not met", null, null, null);
+    }
+
+    static CompiledRule multiCondition(FraudRule rule, RulePredicate predicate) {
+        return new CompiledRule(rule, RuleEvaluationType.MULTI_CONDITION, predicate, null, null,
+            "Multi-condition rule triggered", "Multi-condition rule not triggered", null, null, null);
+    }
+
+    static CompiledRule invalid(FraudRule rule, RuleEvaluationType evaluationType, String invalidReason) {
+        return new CompiledRule(rule, evaluationType, null, null, invalidReason, null, null, null, null, null);
+    }
+
+    /**
+     * Copy of this rule bound to the evaluator that handles its rule type, with the evaluator's
+     * configuration parsed once; a configuration error is kept and reported by {@link #getEvaluatorConfig}
+     */
+    public CompiledRule withEvaluator(RuleEvaluator evaluator) {
+        Object config = null;
+        String error = null;
+        if (evaluator != null) {
+            try {
+                config = evaluator.compileConfig(rule);
+            } catch (IllegalArgumentException e) {
+                error = e.getMessage();
+            }
+        }
+        return new CompiledRule(rule, evaluationType, predicate, condition, invalidReason,
+            triggeredReason, notTriggeredReason, evaluator, config, error);
+    }
+
+    /**
+     * Evaluator-specific configuration parsed when the rule was bound
+     * @param type configuration type of the bound evaluator
+     * @return parsed configuration, null if the rule is not bound to an evaluator with a configuration
+     * @throws IllegalArgumentException if the configuration could not be parsed
+     */
+    public <T> T getEvaluatorConfig(Class<T> type) {
+        if (configError != null) {
+            throw new IllegalArgumentException(configError);
+        }
+        return type.isInstance(evaluatorConfig) ? type.cast(evaluatorConfig) : null;
+    }
+
+    public boolean isValid() {
+        return invalidReason == null;
+    }
+
+    public String getRuleName() {
+        return rule.getRuleName();
+    }
+
+    public String getRuleType() {
+        return rule.getRuleType();
+    }
+
+    /**
+     * Configured priority, null if not set; lower values are evaluated first
+     */
+    public Integer getPriority() {
+        return rule.getPriority();
+    }
+
+    /**
+     * Whether no further rules need to be evaluated once this rule triggers
+     */
+    public boolean isDecisive() {
+        return Boolean.TRUE.equals(rule.getDecisive());
+    }
+
+    /**
+     * Threshold reported in evaluation results (the configured condition value)
+     */
+    public String getThresholdValue() {
+        return rule.getConditionValue();
+    }
+}
@@ -0,0 +1,78 @@
+package com.faud.frauddetection.service.rule;
+
+import com.faud.frauddetection.constant.FraudRuleOperators;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Condition operators resolved once at rule compile time
+ * Maps both the keyword and the symbol form of each operator in FraudRuleOperators
+ */
+public enum ConditionOperator {
+    GREATER_THAN,
+    LESS_THAN,
+    EQUAL,
+    NOT_EQUAL,
+    GREATER_THAN_OR_EQUAL,
+    LESS_THAN_OR_EQUAL,
+    IN,
+    NOT_IN,
+    CONTAINS,
+    TIME_IN_RANGE,
+    TIME_NOT_IN_RANGE,
+    IS_NULL,
+    IS_NOT_NULL,
+    UNSUPPORTED;
+
+    private static final Map<String, ConditionOperator> BY_SYMBOL = Map.ofEntries(
+        Map.entry(FraudRuleOperators.GREATER_THAN, GREATER_THAN),
+        Map.entry(FraudRuleOperators.GREATER_THAN_SYMBOL, GREATER_THAN),
+        Map.entry(FraudRuleOperators.LESS_THAN, LESS_THAN),
+        Map.entry(FraudRuleOperators.LESS_THAN_SYMBOL, LESS_THAN),
+        Map.entry(FraudRuleOperators.EQUAL, EQUAL),
+        Map.entry(FraudRuleOperators.EQUAL_SYMBOL, EQUAL),
+        Map.entry(FraudRuleOperators.NOT_EQUAL, NOT_EQUAL),
+        Map.entry(FraudRuleOperators.NOT_EQUAL_SYMBOL, NOT_EQUAL),
+        Map.entry(FraudRuleOperators.GREATER_THAN_OR_EQUAL, GREATER_THAN_OR_EQUAL),
+        Map.entry(FraudRuleOperators.GREATER_THAN_OR_EQUAL_SYMBOL, GREATER_THAN_OR_EQUAL),
+        Map.entry(FraudRuleOperators.LESS_THAN_OR_EQUAL, LESS_THAN_OR_EQUAL),
+        Map.entry(FraudRuleOperators.LESS_THAN_OR_EQUAL_SYMBOL, LESS_THAN_OR_EQUAL),
+        Map.entry(FraudRuleOperators.IN, IN),
+        Map.entry(FraudRuleOperators.NOT_IN, NOT_IN),
+        Map.entry(FraudRuleOperators.CONTAINS, CONTAINS),
+        Map.entry(FraudRuleOperators.TIME_IN_RANGE, TIME_IN_RANGE),
+        Map.entry(FraudRuleOperators.TIME_NOT_IN_RANGE, TIME_NOT_IN_RANGE),
+        Map.entry(FraudRuleOperators.IS_NULL, IS_NULL),
+        Map.entry(FraudRuleOperators.IS_NOT_NULL, IS_NOT_NULL)
+    );
+
+    /**
+     * Resolve an operator from its configured form (case-insensitive)
+     * @param symbol operator keyword or symbol, e.g. "GT" or ">"
+     * @return resolved operator, or UNSUPPORTED for null and unknown values
+     */
+    public static ConditionOperator fromSymbol(String symbol) {
+        if (symbol == null) {
+            return UNSUPPORTED;
+        }
+        return BY_SYMBOL.getOrDefault(symbol.toUpperCase(Locale.ROOT), UNSUPPORTED);
+    }
+
+    /**
+     * Whether this operator compares the field value against a single ordered operand
+     */
+    public boolean isComparison() {
+        return switch (this) {
+            case GREATER_THAN, LESS_THAN, EQUAL, NOT_EQUAL, GREATER_THAN_OR_EQUAL, LESS_THAN_OR_EQUAL -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Whether this operator tests the field value for membership in a list of operands
+     */
+    public boolean isMembership() {
+        return this == IN || this == NOT_IN;
+    }
+}
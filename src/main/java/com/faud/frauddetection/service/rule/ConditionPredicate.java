@@ -0,0 +1,238 @@
+package com.faud.frauddetection.service.rule;
+
+import com.faud.frauddetection.constant.FraudRuleOperators;
+import com.faud.frauddetection.dto.Transaction;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.function.Function;
+
+/**
+ * Single field condition with its operand parsed at compile time
+ * Numeric thresholds, IN / NOT_IN operand sets and time ranges are built once, so evaluation
+ * only reads the transaction field and compares it against pre-typed values
+ */
+@Slf4j
+public final class ConditionPredicate implements RulePredicate {
+
+    private final String field;
+    private final Function<Transaction, Object> accessor;
+    private final Class<?> fieldType;
+    private final ConditionOperator operator;
+    private final String value;
+
+    private final BigDecimal decimalValue;
+    private final Double doubleValue;
+    private final MembershipSet listValues;
+    private final LocalTime rangeStart;
+    private final LocalTime rangeEnd;
+
+    /**
+     * @param fieldType declared type of the field, null if unknown
+     * @param listValues operand set of IN / NOT_IN conditions, null for other operators or when no list is configured
+     */
+    public ConditionPredicate(String field, Function<Transaction, Object> accessor, Class<?> fieldType,
+                              ConditionOperator operator, String value, MembershipSet listValues) {
+        this.field = field;
+        this.accessor = accessor;
+        this.fieldType = fieldType;
+        this.operator = operator;
+        this.value = value;
+
+        boolean comparison = operator.isComparison();
+        this.decimalValue = comparison ? parseDecimal(value) : null;
+        this.doubleValue = comparison ? parseDouble(value) : null;
+        this.listValues = operator.isMembership() ? listValues : null;
+
+        LocalTime[] range = operator == ConditionOperator.TIME_IN_RANGE || operator == ConditionOperator.TIME_NOT_IN_RANGE
+            ? parseTimeRange(value) : null;
+        this.rangeStart = range != null ? range[0] : null;
+        this.rangeEnd = range != null ? range[1] : null;
+    }
+
+    /**
+     * Read the condition field from the transaction
+     */
+    public Object extract(Transaction transaction) {
+        return accessor.apply(transaction);
+    }
+
+    @Override
+    public boolean test(Transaction transaction) {
+        return matchesValue(extract(transaction));
+    }
+
+    /**
+     * Evaluate the condition against an already extracted field value
+     * @param actualValue field value, may be null
+     * @return whether the condition is met
+     */
+    public boolean matchesValue(Object actualValue) {
+        if (actualValue == null) {
+            return operator == ConditionOperator.IS_NULL;
+        }
+
+        return switch (operator) {
+            case GREATER_THAN -> compare(actualValue) > 0;
+            case LESS_THAN -> compare(actualValue) < 0;
+            case EQUAL -> compare(actualValue) == 0;
+            case NOT_EQUAL -> compare(actualValue) != 0;
+            case GREATER_THAN_OR_EQUAL -> compare(actualValue) >= 0;
+            case LESS_THAN_OR_EQUAL -> compare(actualValue) <= 0;
+            case IN -> containsListValue(actualValue);
+            case NOT_IN -> !containsListValue(actualValue);
+            case CONTAINS -> actualValue.toString().contains(value);
+            case TIME_IN_RANGE -> isInTimeRange(actualValue);
+            case TIME_NOT_IN_RANGE -> !isInTimeRange(actualValue);
+            case IS_NULL, UNSUPPORTED -> false;
+            case IS_NOT_NULL -> true;
+        };
+    }
+
+    /**
+     * Wrap this condition so evaluation errors count as "not matched" instead of propagating,
+     * which is how conditions inside multi-condition groups behave
+     */
+    public RulePredicate lenient() {
+        return transaction -> {
+            try {
+                return test(transaction);
+            } catch (Exception e) {
+                log.warn("Error evaluating condition {}: {}", field, e.getMessage());
+                return false;
+            }
+        };
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public ConditionOperator getOperator() {
+        return operator;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Whether the condition only matches field values equal to the configured value
+     * Only true for EQ on String fields, where matching is exact string equality
+     */
+    boolean isExactMatch() {
+        return operator == ConditionOperator.EQUAL && fieldType == String.class && value != null;
+    }
+
+    /**
+     * Whether the condition only matches field values whose trimmed string form is one of its operands
+     * True for IN conditions with a non-numeric operand set
+     */
+    boolean isTrimmedMembership() {
+        return operator == ConditionOperator.IN && listValues != null && !listValues.isNumeric();
+    }
+
+    /**
+     * Operand set of an IN / NOT_IN condition, null for other operators
+     */
+    MembershipSet getListValues() {
+        return listValues;
+    }
+
+    private int compare(Object actualValue) {
+        if (actualValue instanceof BigDecimal decimal) {
+            return decimal.compareTo(requireNumeric(decimalValue));
+        }
+        if (actualValue instanceof Number number) {
+            return Double.compare(number.doubleValue(), requireNumeric(doubleValue));
+        }
+        if (actualValue instanceof String text) {
+            return text.compareTo(value);
+        }
+        return actualValue.toString().compareTo(value);
+    }
+
+    private <T> T requireNumeric(T operand) {
+        if (operand == null) {
+            throw new NumberFormatException("Condition value '" + value + "' for field " + field + " is not numeric");
+        }
+        return operand;
+    }
+
+    private boolean containsListValue(Object actualValue) {
+        if (listValues == null) {
+            throw new IllegalArgumentException("No list values configured for field " + field);
+        }
+        return listValues.contains(actualValue);
+    }
+
+    private boolean isInTimeRange(Object actualValue) {
+        if (rangeStart == null) {
+            return false;
+        }
+        LocalTime actualTime = toLocalTime(actualValue);
+        if (actualTime == null) {
+            return false;
+        }
+        if (rangeStart.isAfter(rangeEnd)) {
+            // Overnight range (e.g. 22:00-06:00): after start OR before end
+            return !actualTime.isBefore(rangeStart) || !actualTime.isAfter(rangeEnd);
+        }
+        return !actualTime.isBefore(rangeStart) && !actualTime.isAfter(rangeEnd);
+    }
+
+    private LocalTime toLocalTime(Object actualValue) {
+        if (actualValue instanceof LocalTime time) {
+            return time;
+        }
+        if (actualValue instanceof LocalDateTime dateTime) {
+            return dateTime.toLocalTime();
+        }
+        try {
+            return LocalTime.parse(actualValue.toString());
+        } catch (DateTimeParseException e) {
+            log.debug("Value {} of field {} is not a time: {}", actualValue, field, e.getMessage());
+            return null;
+        }
+    }
+
+    private static BigDecimal parseDecimal(String value) {
+        try {
+            return value != null ? new BigDecimal(value) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Double parseDouble(String value) {
+        try {
+            return value != null ? Double.parseDouble(value) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parse a time range such as "22:00-06:00"
+     * @return start and end time, or null when the range is malformed
+     */
+    private static LocalTime[] parseTimeRange(String timeRange) {
+        if (timeRange == null) {
+            return null;
+        }
+        String[] parts = timeRange.split(FraudRuleOperators.TIME_RANGE_SEPARATOR);
+        if (parts.length != 2) {
+            log.warn("Invalid time range format: {}. Expected format: HH:mm-HH:mm", timeRange);
+            return null;
+        }
+        try {
+            return new LocalTime[] {LocalTime.parse(parts[0].trim()), LocalTime.parse(parts[1].trim())};
+        } catch (DateTimeParseException e) {
+            log.warn("Invalid time range {}: {}", timeRange, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.faud.frauddetection.service.rule;
+
+import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.service.evaluator.DistinctCountEvaluator;
+import com.faud.frauddetection.service.evaluator.RuleEvaluatorRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.util.TreeSet;
+
+/**
+ * Validates fraud rules before they are saved
+ * Rejects rules whose type no evaluator supports and rules that reference Transaction fields
+ * unknown to the TransactionFieldRegistry or value lists that are not configured, so configuration
+ * mistakes surface at save time instead of as skipped rules or evaluation errors at runtime
+ */
+@Component
+public class FraudRuleValidator {
+
+    private final TransactionFieldRegistry fieldRegistry;
+    private final RuleEvaluatorRegistry evaluatorRegistry;
+    private final ValueListRegistry valueListRegistry;
+    private final ObjectMapper objectMapper;
+
+    public FraudRuleValidator(TransactionFieldRegistry fieldRegistry,
+                              RuleEvaluatorRegistry evaluatorRegistry,
+                              ValueListRegistry valueListRegistry) {
+        this.fieldRegistry = fieldRegistry;
+        this.evaluatorRegistry = evaluatorRegistry;
+        this.valueListRegistry = valueListRegistry;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    /**
+     * Validate a rule
+     * @param rule rule to be saved
+     * @throws IllegalArgumentException if the rule type is not supported, the rule references an unknown
+     *         field or value list, or has malformed JSON configuration
+     */
+    public void validate(FraudRule rule) {
+        if (rule.getRuleType() != null && !evaluatorRegistry.supports(rule.getRuleType())) {
+            throw new IllegalArgumentException("Unsupported rule type '" + rule.getRuleType()
+                + "'. Supported types: " + new TreeSet<>(evaluatorRegistry.getSupportedRuleTypes()));
+        }
+
+        if (rule.getConditionField() != null) {
+            requireKnownField(rule.getConditionField());
+        }
+        requireKnownList(rule.getConditionOperator(), rule.getConditionValue());
+
+        if (rule.getRuleConfig() != null && !rule.getRuleConfig().trim().isEmpty()) {
+            JsonNode config;
+            try {
+                config = objectMapper.readTree(rule.getRuleConfig());
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Rule config is not valid JSON: " + e.getOriginalMessage());
+            }
+            for (String field : new String[]{DistinctCountEvaluator.COUNT_FIELD, DistinctCountEvaluator.GROUP_FIELD}) {
+                if (config.has(field)) {
+                    requireKnownField(config.path(field).asText(null));
+                }
+            }
+            for (JsonNode group : config.path("conditionGroups")) {
+                for (JsonNode condition : group.path("conditions")) {
+                    requireKnownField(condition.path("field").asText(null));
+                    requireKnownList(condition.path("operator").asText(null), condition.path("value").asText(null));
+                }
+            }
+        }
+    }
+
+    private void requireKnownField(String fieldName) {
+        if (!fieldRegistry.isKnownField(fieldName)) {
+            throw new IllegalArgumentException("Unknown transaction field '" + fieldName
+                + "'. Supported fields: " + new TreeSet<>(fieldRegistry.getFieldNames()));
+        }
+    }
+
+    private void requireKnownList(String operator, String value) {
+        if (!ConditionOperator.fromSymbol(operator).isMembership() || !ValueListRegistry.isReference(value)) {
+            return;
+        }
+        String listName = ValueListRegistry.referencedName(value);
+        if (!valueListRegistry.isKnownList(listName)) {
+            throw new IllegalArgumentException("Unknown value list '" + listName
+                + "'. Configured lists: " + new TreeSet<>(valueListRegistry.getListNames()));
+        }
+    }
+}
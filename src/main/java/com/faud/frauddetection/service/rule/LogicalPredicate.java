@@ -0,0 +1,58 @@
+package com.faud.frauddetection.service.rule;
+
+import com.faud.frauddetection.dto.Transaction;
+
+import java.util.List;
+
+/**
+ * AND / OR combination of child predicates with short-circuit evaluation
+ */
+public final class LogicalPredicate implements RulePredicate {
+
+    private final boolean conjunction;
+    private final RulePredicate[] children;
+
+    private LogicalPredicate(boolean conjunction, List<RulePredicate> children) {
+        this.conjunction = conjunction;
+        this.children = children.toArray(new RulePredicate[0]);
+    }
+
+    /**
+     * Predicate that matches when all children match (never matches without children)
+     */
+    public static RulePredicate and(List<RulePredicate> children) {
+        return of(true, children);
+    }
+
+    /**
+     * Predicate that matches when any child matches
+     */
+    public static RulePredicate or(List<RulePredicate> children) {
+        return of(false, children);
+    }
+
+    private static RulePredicate of(boolean conjunction, List<RulePredicate> children) {
+        if (children.isEmpty()) {
+            return ALWAYS_FALSE;
+        }
+        return children.size() == 1 ? children.get(0) : new LogicalPredicate(conjunction, children);
+    }
+
+    @Override
+    public boolean test(Transaction transaction) {
+        for (RulePredicate child : children) {
+            if (child.test(transaction) != conjunction) {
+                return !conjunction;
+            }
+        }
+        return conjunction;
+    }
+
+    public boolean isConjunction() {
+        return conjunction;
+    }
+
+    public List<RulePredicate> getChildren() {
+        return List.of(children);
+    }
+}
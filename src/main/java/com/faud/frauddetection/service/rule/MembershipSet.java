@@ -0,0 +1,91 @@
+package com.faud.frauddetection.service.rule;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Operand set of an IN / NOT_IN condition, built once when the rule is compiled
+ * Operands of numeric fields are kept in a sorted array and matched by numeric value with a
+ * binary search; all other operands are kept in a hash set and matched by their trimmed
+ * string form, so membership checks never re-split or scan the configured list
+ */
+public final class MembershipSet {
+
+    private final Set<String> values;
+    private final BigDecimal[] sortedNumbers;
+
+    private MembershipSet(Set<String> values, BigDecimal[] sortedNumbers) {
+        this.values = values;
+        this.sortedNumbers = sortedNumbers;
+    }
+
+    /**
+     * Build the operand set for a field
+     * @param operands list operands, trimmed
+     * @param fieldType declared type of the condition field, null if unknown
+     * @return operand set; numeric only if the field is numeric and every operand is a number
+     */
+    public static MembershipSet of(Collection<String> operands, Class<?> fieldType) {
+        if (fieldType != null && Number.class.isAssignableFrom(fieldType)) {
+            BigDecimal[] numbers = parseNumbers(operands);
+            if (numbers != null) {
+                Arrays.sort(numbers);
+                return new MembershipSet(null, numbers);
+            }
+        }
+        return new MembershipSet(Set.copyOf(operands), null);
+    }
+
+    /**
+     * Whether the field value is one of the operands
+     */
+    public boolean contains(Object actualValue) {
+        if (sortedNumbers == null) {
+            return values.contains(actualValue.toString().trim());
+        }
+        BigDecimal number = toDecimal(actualValue);
+        return number != null && Arrays.binarySearch(sortedNumbers, number) >= 0;
+    }
+
+    /**
+     * Operands of a non-numeric set, matched against the trimmed string form of the field value
+     * @return operands, null for numeric sets
+     */
+    Set<String> getValues() {
+        return values;
+    }
+
+    public boolean isNumeric() {
+        return sortedNumbers != null;
+    }
+
+    public int size() {
+        return sortedNumbers != null ? sortedNumbers.length : values.size();
+    }
+
+    private static BigDecimal[] parseNumbers(Collection<String> operands) {
+        BigDecimal[] numbers = new BigDecimal[operands.size()];
+        int i = 0;
+        for (String operand : operands) {
+            try {
+                numbers[i++] = new BigDecimal(operand);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return numbers;
+    }
+
+    private static BigDecimal toDecimal(Object actualValue) {
+        if (actualValue instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        try {
+            return new BigDecimal(actualValue.toString().trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.faud.frauddetection.service.rule;
+
+import com.faud.frauddetection.constant.FraudRuleOperators;
+import com.faud.frauddetection.dto.MultiConditionConfig;
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.entity.RuleEvaluationType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Rule compiler
+ * Turns single-condition rules and MultiConditionConfig rules into immutable predicate trees when
+ * rules are loaded. Configuration problems are captured in the compiled rule instead of being
+ * thrown, so one broken rule never prevents the rest of the rule set from loading
+ */
+@Component
+@Slf4j
+public class RuleCompiler {
+
+    private final ObjectMapper objectMapper;
+    private final TransactionFieldRegistry fieldRegistry;
+    private final ValueListRegistry valueListRegistry;
+
+    public RuleCompiler(TransactionFieldRegistry fieldRegistry, ValueListRegistry valueListRegistry) {
+        this.objectMapper = new ObjectMapper();
+        this.fieldRegistry = fieldRegistry;
+        this.valueListRegistry = valueListRegistry;
+    }
+
+    /**
+     * Compile a rule according to its evaluation type
+     * @param rule rule configuration
+     * @return compiled rule, never null
+     */
+    public CompiledRule compile(FraudRule rule) {
+        return switch (rule.getEvaluationType()) {
+            case SINGLE_CONDITION -> compileSingleCondition(rule);
+            case MULTI_CONDITION -> compileMultiCondition(rule);
+            case INVALID -> CompiledRule.invalid(rule, RuleEvaluationType.INVALID, "No valid rule configuration found");
+        };
+    }
+
+    /**
+     * Compile a rule from its conditionField / conditionOperator / conditionValue
+     */
+    public CompiledRule compileSingleCondition(FraudRule rule) {
+        Optional<Function<Transaction, Object>> accessor = fieldRegistry.findAccessor(rule.getConditionField());
+        if (accessor.isEmpty()) {
+            log.warn("Rule {} references unknown transaction field '{}'", rule.getRuleName(), rule.getConditionField());
+            return CompiledRule.invalid(rule, RuleEvaluationType.SINGLE_CONDITION,
+                "Field condition evaluation error: Field '" + rule.getConditionField() + "' not found or not accessible");
+        }
+
+        ConditionOperator operator = ConditionOperator.fromSymbol(rule.getConditionOperator());
+        if (operator == ConditionOperator.UNSUPPORTED) {
+            log.warn("Rule {} uses unsupported operator: {}", rule.getRuleName(), rule.getConditionOperator());
+        }
+
+        MembershipSet listValues;
+        try {
+            listValues = compileListValues(rule.getConditionField(), operator, rule.getConditionValue());
+        } catch (IllegalArgumentException e) {
+            log.warn("Rule {}: {}", rule.getRuleName(), e.getMessage());
+            return CompiledRule.invalid(rule, RuleEvaluationType.SINGLE_CONDITION,
+                "Field condition evaluation error: " + e.getMessage());
+        }
+        ConditionPredicate condition = new ConditionPredicate(
+            rule.getConditionField(), accessor.get(), fieldRegistry.getFieldType(rule.getConditionField()),
+            operator, rule.getConditionValue(), listValues);
+        return CompiledRule.singleCondition(rule, condition);
+    }
+
+    /**
+     * Compile a rule from the MultiConditionConfig JSON stored in ruleConfig
+     */
+    public CompiledRule compileMultiCondition(FraudRule rule) {
+        try {
+            MultiConditionConfig config = objectMapper.readValue(rule.getRuleConfig(), MultiConditionConfig.class);
+
+            if (config.getConditionGroups() == null || config.getConditionGroups().isEmpty()) {
+                return CompiledRule.invalid(rule, RuleEvaluationType.MULTI_CONDITION, "No condition groups configured");
+            }
+
+            List<RulePredicate> groups = new ArrayList<>(config.getConditionGroups().size());
+            for (MultiConditionConfig.ConditionGroup group : config.getConditionGroups()) {
+                groups.add(compileGroup(rule, group));
+            }
+            return CompiledRule.multiCondition(rule, combine(config.getGroupLogicalOperator(), groups));
+
+        } catch (Exception e) {
+            log.error("Error compiling multi-condition rule {}: {}", rule.getRuleName(), e.getMessage());
+            return CompiledRule.invalid(rule, RuleEvaluationType.MULTI_CONDITION,
+                "Multi-condition evaluation error: " + e.getMessage());
+        }
+    }
+
+    private RulePredicate compileGroup(FraudRule rule, MultiConditionConfig.ConditionGroup group) {
+        List<MultiConditionConfig.RuleCondition> conditions = group.getConditions();
+        if (conditions == null || conditions.isEmpty()) {
+            return RulePredicate.ALWAYS_FALSE;
+        }
+
+        List<RulePredicate> predicates = new ArrayList<>(conditions.size());
+        for (MultiConditionConfig.RuleCondition condition : conditions) {
+            predicates.add(compileCondition(rule, condition));
+        }
+        return combine(group.getIntraGroupOperator(), predicates);
+    }
+
+    private RulePredicate compileCondition(FraudRule rule, MultiConditionConfig.RuleCondition condition) {
+        Optional<Function<Transaction, Object>> accessor = fieldRegistry.findAccessor(condition.getField());
+        if (accessor.isEmpty()) {
+            log.warn("Rule {} references unknown transaction field '{}', condition will never match",
+                rule.getRuleName(), condition.getField());
+            return RulePredicate.ALWAYS_FALSE;
+        }
+
+        ConditionOperator operator = ConditionOperator.fromSymbol(condition.getOperator());
+        if (operator == ConditionOperator.UNSUPPORTED) {
+            log.warn("Rule {} uses unsupported operator {}, condition will never match",
+                rule.getRuleName(), condition.getOperator());
+            return RulePredicate.ALWAYS_FALSE;
+        }
+
+        MembershipSet listValues;
+        try {
+            listValues = compileListValues(condition.getField(), operator, condition.getValue());
+        } catch (IllegalArgumentException e) {
+            log.warn("Rule {}: {}, condition will never match", rule.getRuleName(), e.getMessage());
+            return RulePredicate.ALWAYS_FALSE;
+        }
+        return new ConditionPredicate(condition.getField(), accessor.get(), fieldRegistry.getFieldType(condition.getField()),
+            operator, condition.getValue(), listValues).lenient();
+    }
+
+    /**
+     * Build the operand set of an IN / NOT_IN condition from an inline comma-separated list or a
+     * "@list:&lt;name&gt;" reference
+     * @return operand set, null if the operator takes no list or no value is configured
+     * @throws IllegalArgumentException if the value references an unknown list
+     */
+    private MembershipSet compileListValues(String field, ConditionOperator operator, String value) {
+        if (!operator.isMembership() || value == null) {
+            return null;
+        }
+
+        List<String> operands;
+        if (ValueListRegistry.isReference(value)) {
+            String listName = ValueListRegistry.referencedName(value);
+            operands = valueListRegistry.findList(listName)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown value list '" + listName + "'"));
+        } else {
+            operands = Arrays.stream(value.split(FraudRuleOperators.LIST_VALUE_SEPARATOR))
+                .map(String::trim)
+                .toList();
+        }
+        return MembershipSet.of(operands, fieldRegistry.getFieldType(field));
+    }
+
+    /**
+     * Combine predicates with a logical operator
+     * Any operator other than AND / OR only considers the first predicate, matching the
+     * behaviour of the original interpreter
+     */
+    private RulePredicate combine(String logicalOperator, List<RulePredicate> predicates) {
+        if (FraudRuleOperators.AND.equalsIgnoreCase(logicalOperator)) {
+            return LogicalPredicate.and(predicates);
+        }
+        if (FraudRuleOperators.OR.equalsIgnoreCase(logicalOperator)) {
+            return LogicalPredicate.or(predicates);
+        }
+        return predicates.get(0);
+    }
+}
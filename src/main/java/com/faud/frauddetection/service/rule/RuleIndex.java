@@ -0,0 +1,145 @@
+package com.faud.frauddetection.service.rule;
+
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.entity.RuleEvaluationType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Discrimination index over the equality and membership conditions of a rule set
+ * Single-condition rules testing "field EQ value" or "field IN (...)" are stored under each value
+ * they can match (an alpha memory per field), so a transaction only looks up its own field values
+ * and collects the rules that can possibly trigger. All other rules are always candidates. The cost
+ * of finding candidates therefore grows with the number of matching and non-indexable rules, not
+ * with the total number of rules
+ */
+final class RuleIndex {
+
+    /**
+     * Rule with its position in the rule set, used to return candidates in rule set order
+     */
+    private record Entry(int position, CompiledRule rule) {
+    }
+
+    /**
+     * Indexed rules of one transaction field
+     */
+    private static final class FieldIndex {
+
+        private final ConditionPredicate extractor;
+        private final Map<String, List<Entry>> exactMatches = new HashMap<>();
+        private final Map<String, List<Entry>> trimmedMatches = new HashMap<>();
+
+        private FieldIndex(ConditionPredicate extractor) {
+            this.extractor = extractor;
+        }
+
+        private void collect(Transaction transaction, List<Entry> candidates) {
+            Object actualValue = extractor.extract(transaction);
+            if (actualValue == null) {
+                return;
+            }
+            String text = actualValue.toString();
+            if (!exactMatches.isEmpty()) {
+                candidates.addAll(exactMatches.getOrDefault(text, List.of()));
+            }
+            if (!trimmedMatches.isEmpty()) {
+                candidates.addAll(trimmedMatches.getOrDefault(text.trim(), List.of()));
+            }
+        }
+    }
+
+    private final List<Entry> linearRules;
+    private final List<CompiledRule> linearRuleList;
+    private final Map<String, FieldIndex> fieldIndexes;
+    private final int indexedRuleCount;
+
+    RuleIndex(List<CompiledRule> rules) {
+        List<Entry> linear = new ArrayList<>();
+        Map<String, FieldIndex> indexes = new LinkedHashMap<>();
+        int indexed = 0;
+
+        for (int position = 0; position < rules.size(); position++) {
+            CompiledRule rule = rules.get(position);
+            Entry entry = new Entry(position, rule);
+            ConditionPredicate condition = indexableCondition(rule);
+            if (condition == null) {
+                linear.add(entry);
+                continue;
+            }
+
+            FieldIndex fieldIndex = indexes.computeIfAbsent(condition.getField(), field -> new FieldIndex(condition));
+            if (condition.isExactMatch()) {
+                fieldIndex.exactMatches.computeIfAbsent(condition.getValue(), value -> new ArrayList<>()).add(entry);
+            } else {
+                for (String operand : condition.getListValues().getValues()) {
+                    fieldIndex.trimmedMatches.computeIfAbsent(operand, value -> new ArrayList<>()).add(entry);
+                }
+            }
+            indexed++;
+        }
+
+        this.linearRules = List.copyOf(linear);
+        this.linearRuleList = linear.stream().map(Entry::rule).toList();
+        this.fieldIndexes = Map.copyOf(indexes);
+        this.indexedRuleCount = indexed;
+    }
+
+    /**
+     * Rules that may trigger for a transaction, in rule set order
+     * @param transaction transaction data
+     * @return every non-indexable rule plus the indexed rules matching the transaction's field values
+     */
+    List<CompiledRule> candidates(Transaction transaction) {
+        if (fieldIndexes.isEmpty()) {
+            return linearRuleList;
+        }
+
+        List<Entry> matched = new ArrayList<>();
+        for (FieldIndex fieldIndex : fieldIndexes.values()) {
+            fieldIndex.collect(transaction, matched);
+        }
+        if (matched.isEmpty()) {
+            return linearRuleList;
+        }
+        matched.sort(Comparator.comparingInt(Entry::position));
+
+        // Merge the two position-ordered lists
+        List<CompiledRule> candidates = new ArrayList<>(linearRules.size() + matched.size());
+        int i = 0;
+        int j = 0;
+        while (i < linearRules.size() || j < matched.size()) {
+            if (j == matched.size()
+                || (i < linearRules.size() && linearRules.get(i).position() < matched.get(j).position())) {
+                candidates.add(linearRules.get(i++).rule());
+            } else {
+                candidates.add(matched.get(j++).rule());
+            }
+        }
+        return candidates;
+    }
+
+    int getIndexedRuleCount() {
+        return indexedRuleCount;
+    }
+
+    /**
+     * The condition a rule can be indexed on, or null if the rule must always be evaluated
+     * Only valid single-condition rules whose evaluator decides by the predicate alone qualify
+     */
+    private static ConditionPredicate indexableCondition(CompiledRule rule) {
+        if (!rule.isValid()
+            || rule.getEvaluationType() != RuleEvaluationType.SINGLE_CONDITION
+            || rule.getEvaluator() == null
+            || !rule.getEvaluator().isPredicateOnly()) {
+            return null;
+        }
+        ConditionPredicate condition = rule.getCondition();
+        return condition.isExactMatch() || condition.isTrimmedMembership() ? condition : null;
+    }
+}
@@ -0,0 +1,23 @@
+package com.faud.frauddetection.service.rule;
+
+import com.faud.frauddetection.dto.Transaction;
+
+/**
+ * Node of a compiled rule predicate tree
+ * Implementations are immutable and safe to share between threads
+ */
+@FunctionalInterface
+public interface RulePredicate {
+
+    /**
+     * Predicate that never matches, used for conditions that can never be satisfied
+     */
+    RulePredicate ALWAYS_FALSE = transaction -> false;
+
+    /**
+     * Test the predicate against a transaction
+     * @param transaction transaction data
+     * @return whether the predicate matches
+     */
+    boolean test(Transaction transaction);
+}
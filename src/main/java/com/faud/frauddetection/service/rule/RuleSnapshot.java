@@ -0,0 +1,97 @@
+package com.faud.frauddetection.service.rule;
+
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.entity.FraudRuleSetVersion;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Immutable snapshot of the active fraud rules
+ * Swapped atomically as a whole, so readers always see a consistent rule set
+ */
+@Getter
+@ToString(exclude = {"compiledRules", "rules", "ruleIndex"})
+public final class RuleSnapshot {
+
+    /**
+     * Local, monotonically increasing snapshot version
+     */
+    private final long version;
+
+    /**
+     * Rule table fingerprint the snapshot was loaded from
+     */
+    private final FraudRuleSetVersion sourceVersion;
+
+    /**
+     * Time the snapshot was loaded
+     */
+    private final Instant loadedAt;
+
+    /**
+     * Enabled rules compiled into predicate trees, in repository order
+     */
+    private final List<CompiledRule> compiledRules;
+
+    /**
+     * Source rules of the compiled rules, in the same order
+     */
+    private final List<FraudRule> rules;
+
+    /**
+     * Index over the equality and membership conditions of the compiled rules
+     */
+    @Getter(AccessLevel.NONE)
+    private final RuleIndex ruleIndex;
+
+    public RuleSnapshot(long version, FraudRuleSetVersion sourceVersion, Instant loadedAt, List<CompiledRule> compiledRules) {
+        this.version = version;
+        this.sourceVersion = sourceVersion;
+        this.loadedAt = loadedAt;
+        this.compiledRules = List.copyOf(compiledRules);
+        this.rules = this.compiledRules.stream().map(CompiledRule::getRule).toList();
+        this.ruleIndex = new RuleIndex(this.compiledRules);
+    }
+
+    /**
+     * Empty snapshot used before the first successful load
+     */
+    public static RuleSnapshot empty() {
+        return new RuleSnapshot(0L, null, Instant.now(), List.of());
+    }
+
+    /**
+     * Age of the snapshot relative to the given instant
+     */
+    public Duration age(Instant now) {
+        return Duration.between(loadedAt, now);
+    }
+
+    public int size() {
+        return compiledRules.size();
+    }
+
+    /**
+     * Rules that may trigger for a transaction, in repository order
+     * Indexed equality and membership rules are only included when the transaction's field
+     * value can match them; every other rule is always included
+     * @param transaction transaction data
+     * @return candidate rules
+     */
+    public List<CompiledRule> getCandidateRules(Transaction transaction) {
+        return ruleIndex.candidates(transaction);
+    }
+
+    /**
+     * Number of rules only evaluated when the rule index selects them
+     */
+    public int getIndexedRuleCount() {
+        return ruleIndex.getIndexedRuleCount();
+    }
+}
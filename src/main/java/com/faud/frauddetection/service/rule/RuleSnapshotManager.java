@@ -0,0 +1,154 @@
+package com.faud.frauddetection.service.rule;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.entity.FraudRuleSetVersion;
+import com.faud.frauddetection.repository.FraudRuleRepository;
+import com.faud.frauddetection.service.evaluator.RuleEvaluationMetrics;
+import com.faud.frauddetection.service.evaluator.RuleEvaluatorRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the in-memory snapshot of active fraud rules
+ * The detection hot path reads the snapshot without touching the database; the snapshot is
+ * reloaded when rules are changed through the service and when a periodic version check
+ * detects changes made elsewhere (e.g. by another instance)
+ */
+@Component
+@Slf4j
+public class RuleSnapshotManager {
+
+    private final FraudRuleRepository fraudRuleRepository;
+    private final RuleCompiler ruleCompiler;
+    private final RuleEvaluatorRegistry evaluatorRegistry;
+    private final FraudDetectionProperties properties;
+    private final RuleEvaluationMetrics evaluationMetrics;
+    private final AtomicReference<RuleSnapshot> current = new AtomicReference<>();
+    private final AtomicLong versionSequence = new AtomicLong();
+
+    public RuleSnapshotManager(FraudRuleRepository fraudRuleRepository,
+                               RuleCompiler ruleCompiler,
+                               RuleEvaluatorRegistry evaluatorRegistry,
+                               FraudDetectionProperties properties,
+                               RuleEvaluationMetrics evaluationMetrics,
+                               MeterRegistry meterRegistry) {
+        this.fraudRuleRepository = fraudRuleRepository;
+        this.ruleCompiler = ruleCompiler;
+        this.evaluatorRegistry = evaluatorRegistry;
+        this.properties = properties;
+        this.evaluationMetrics = evaluationMetrics;
+
+        Gauge.builder("fraud.rules.snapshot.version", this, manager -> manager.currentOrEmpty().getVersion())
+            .description("Version of the active rule snapshot")
+            .register(meterRegistry);
+        Gauge.builder("fraud.rules.snapshot.age", this, manager -> manager.snapshotAgeSeconds())
+            .description("Age of the active rule snapshot")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        Gauge.builder("fraud.rules.snapshot.size", this, manager -> manager.currentOrEmpty().size())
+            .description("Number of rules in the active rule snapshot")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Get the current snapshot, loading it on first use
+     * @return active rule snapshot
+     */
+    public RuleSnapshot getSnapshot() {
+        RuleSnapshot snapshot = current.get();
+        return snapshot != null ? snapshot : reload();
+    }
+
+    /**
+     * Reload the snapshot from the repository, compile it, bind each rule to its evaluator
+     * and swap it in atomically; evaluation meters of rules that are no longer active are removed
+     * @return the newly loaded snapshot
+     */
+    public synchronized RuleSnapshot reload() {
+        // Read the version before the rules so a concurrent change is picked up by the next check
+        FraudRuleSetVersion sourceVersion = fraudRuleRepository.findRuleSetVersion();
+        List<FraudRule> rules = fraudRuleRepository.findAllEnabled();
+
+        List<CompiledRule> compiledRules = new ArrayList<>(rules.size());
+        for (FraudRule rule : rules) {
+            CompiledRule compiledRule = evaluatorRegistry.bind(ruleCompiler.compile(rule));
+            if (!compiledRule.isValid()) {
+                log.warn("Rule {} could not be compiled: {}", rule.getRuleName(), compiledRule.getInvalidReason());
+            }
+            if (compiledRule.getEvaluator() == null) {
+                log.warn("No evaluator supports rule type {}, rule {} will not be evaluated",
+                    rule.getRuleType(), rule.getRuleName());
+            }
+            if (compiledRule.getConfigError() != null) {
+                log.warn("Rule {} has an invalid configuration: {}", rule.getRuleName(), compiledRule.getConfigError());
+            }
+            compiledRules.add(compiledRule);
+        }
+
+        RuleSnapshot snapshot = new RuleSnapshot(versionSequence.incrementAndGet(), sourceVersion, Instant.now(), compiledRules);
+        current.set(snapshot);
+        evaluationMetrics.retainRules(compiledRules);
+        log.info("Loaded rule snapshot version {} with {} active rules ({} indexed)",
+            snapshot.getVersion(), snapshot.size(), snapshot.getIndexedRuleCount());
+        return snapshot;
+    }
+
+    /**
+     * Reload the snapshot, keeping the previous one if the reload fails
+     */
+    public void refresh() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("Failed to reload rule snapshot, keeping version {}: {}",
+                currentOrEmpty().getVersion(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Periodic cheap version check
+     * Reloads only when the rule table fingerprint changed or the snapshot exceeded its maximum age
+     */
+    @Scheduled(fixedDelayString = "${fraud.detection.rule-cache.version-check-interval-ms:5000}")
+    public void checkForUpdates() {
+        RuleSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            refresh();
+            return;
+        }
+
+        try {
+            FraudRuleSetVersion latest = fraudRuleRepository.findRuleSetVersion();
+            if (!Objects.equals(latest, snapshot.getSourceVersion())) {
+                log.info("Rule table changed ({} -> {}), reloading rule snapshot", snapshot.getSourceVersion(), latest);
+                refresh();
+            } else if (snapshot.age(Instant.now()).getSeconds() >= properties.getRuleCache().getMaxAgeSeconds()) {
+                log.debug("Rule snapshot version {} exceeded maximum age, reloading", snapshot.getVersion());
+                refresh();
+            }
+        } catch (Exception e) {
+            log.warn("Rule version check failed, keeping snapshot version {}: {}", snapshot.getVersion(), e.getMessage());
+        }
+    }
+
+    private RuleSnapshot currentOrEmpty() {
+        RuleSnapshot snapshot = current.get();
+        return snapshot != null ? snapshot : RuleSnapshot.empty();
+    }
+
+    private double snapshotAgeSeconds() {
+        RuleSnapshot snapshot = current.get();
+        return snapshot != null ? snapshot.age(Instant.now()).toMillis() / 1000.0 : 0.0;
+    }
+}
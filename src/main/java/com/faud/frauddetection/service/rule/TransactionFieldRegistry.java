@@ -0,0 +1,101 @@
+package com.faud.frauddetection.service.rule;
+
+import com.faud.frauddetection.dto.Transaction;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Registry of Transaction field accessors
+ * Built once at startup: every Transaction field is bound to a lambda generated from its getter,
+ * so reading a field in a rule costs the same as a direct getter call
+ */
+@Component
+@Slf4j
+public class TransactionFieldRegistry {
+
+    private final Map<String, Function<Transaction, Object>> accessors;
+    private final Map<String, Class<?>> fieldTypes;
+
+    public TransactionFieldRegistry() {
+        Map<String, Function<Transaction, Object>> accessorMap = new LinkedHashMap<>();
+        Map<String, Class<?>> typeMap = new LinkedHashMap<>();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+        for (Field field : Transaction.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            String name = field.getName();
+            String getterName = "get" + name.substring(0, 1).toUpperCase() + name.substring(1);
+            try {
+                Method getter = Transaction.class.getMethod(getterName);
+                accessorMap.put(name, bindGetter(lookup, getter));
+                typeMap.put(name, field.getType());
+            } catch (NoSuchMethodException e) {
+                log.warn("Transaction field {} has no getter and cannot be used in rules", name);
+            }
+        }
+
+        this.accessors = Map.copyOf(accessorMap);
+        this.fieldTypes = Map.copyOf(typeMap);
+        log.info("Registered {} transaction field accessors: {}", accessors.size(), typeMap.keySet());
+    }
+
+    /**
+     * Find the accessor for a field
+     * @param fieldName Transaction field name, case-sensitive
+     * @return accessor, or empty for unknown fields
+     */
+    public Optional<Function<Transaction, Object>> findAccessor(String fieldName) {
+        return fieldName == null ? Optional.empty() : Optional.ofNullable(accessors.get(fieldName));
+    }
+
+    /**
+     * Whether rules may reference the given field
+     */
+    public boolean isKnownField(String fieldName) {
+        return fieldName != null && accessors.containsKey(fieldName);
+    }
+
+    /**
+     * Declared type of a field, or null for unknown fields
+     */
+    public Class<?> getFieldType(String fieldName) {
+        return fieldName == null ? null : fieldTypes.get(fieldName);
+    }
+
+    public Set<String> getFieldNames() {
+        return accessors.keySet();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Transaction, Object> bindGetter(MethodHandles.Lookup lookup, Method getter) {
+        try {
+            MethodHandle handle = lookup.unreflect(getter);
+            CallSite site = LambdaMetafactory.metafactory(
+                lookup,
+                "apply",
+                MethodType.methodType(Function.class),
+                MethodType.methodType(Object.class, Object.class),
+                handle,
+                handle.type().wrap());
+            return (Function<Transaction, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Unable to bind accessor for Transaction." + getter.getName(), e);
+        }
+    }
+}
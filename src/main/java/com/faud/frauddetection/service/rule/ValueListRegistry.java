@@ -0,0 +1,90 @@
+package com.faud.frauddetection.service.rule;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.constant.FraudRuleOperators;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Named value lists for IN / NOT_IN conditions
+ * Lists are configured under fraud.detection.value-lists as resources with one value per line
+ * (blank lines and lines starting with # are ignored) and are loaded once at startup. A condition
+ * references a list with the value "@list:&lt;name&gt;" instead of an inline comma-separated list
+ */
+@Component
+@Slf4j
+public class ValueListRegistry {
+
+    private static final String COMMENT_PREFIX = "#";
+
+    private final Map<String, List<String>> lists;
+
+    public ValueListRegistry(FraudDetectionProperties properties) {
+        Map<String, List<String>> loaded = new HashMap<>();
+        properties.getValueLists().forEach((name, resource) -> {
+            List<String> values = load(name, resource);
+            loaded.put(name, values);
+            log.info("Loaded value list {} with {} values from {}", name, values.size(), resource.getDescription());
+        });
+        this.lists = Map.copyOf(loaded);
+    }
+
+    /**
+     * Whether a condition value references a named list
+     */
+    public static boolean isReference(String value) {
+        return value != null && value.trim().startsWith(FraudRuleOperators.VALUE_LIST_REFERENCE_PREFIX);
+    }
+
+    /**
+     * Name of the list referenced by a condition value
+     */
+    public static String referencedName(String value) {
+        return value.trim().substring(FraudRuleOperators.VALUE_LIST_REFERENCE_PREFIX.length()).trim();
+    }
+
+    /**
+     * Find a list by name
+     * @return list values, or empty for unknown lists
+     */
+    public Optional<List<String>> findList(String name) {
+        return Optional.ofNullable(lists.get(name));
+    }
+
+    public boolean isKnownList(String name) {
+        return lists.containsKey(name);
+    }
+
+    public Set<String> getListNames() {
+        return lists.keySet();
+    }
+
+    private static List<String> load(String name, Resource resource) {
+        List<String> values = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String value = line.trim();
+                if (!value.isEmpty() && !value.startsWith(COMMENT_PREFIX)) {
+                    values.add(value);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to load value list " + name + " from " + resource.getDescription(), e);
+        }
+        return List.copyOf(values);
+    }
+}
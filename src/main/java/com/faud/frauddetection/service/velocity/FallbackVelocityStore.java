@@ -0,0 +1,130 @@
+package com.faud.frauddetection.service.velocity;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.service.redis.RedisBatch;
+import com.faud.frauddetection.service.redis.RedisCircuitBreaker;
+import io.lettuce.core.RedisException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Velocity store the rules read from
+ * Delegates to the Redis-backed store (partition-local when enabled) behind a circuit breaker and
+ * records every transaction in the in-process shadow windows as well. A failed or timed out Redis
+ * call, or any call while the circuit is open, is answered from the shadow windows instead, and
+ * the aggregates are marked degraded so rules and results can tell
+ */
+@Component
+@Primary
+@Slf4j
+public class FallbackVelocityStore implements VelocityStore {
+
+    public static final String DEGRADED_COUNTER = "fraud.velocity.degraded";
+
+    private final VelocityStore redisBackedStore;
+    private final ShadowVelocityWindows shadowWindows;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final boolean enabled;
+    private final Counter degradedAggregations;
+
+    @Autowired
+    public FallbackVelocityStore(RedisVelocityStore redisStore, ObjectProvider<LocalVelocityStore> localStore,
+                                 ShadowVelocityWindows shadowWindows, RedisCircuitBreaker circuitBreaker,
+                                 FraudDetectionProperties properties, MeterRegistry meterRegistry) {
+        this(redisBacked(redisStore, localStore.getIfAvailable()), shadowWindows, circuitBreaker,
+            properties.getVelocity().getFallback().isEnabled(), meterRegistry);
+    }
+
+    FallbackVelocityStore(VelocityStore redisBackedStore, ShadowVelocityWindows shadowWindows,
+                          RedisCircuitBreaker circuitBreaker, boolean enabled, MeterRegistry meterRegistry) {
+        this.redisBackedStore = redisBackedStore;
+        this.shadowWindows = shadowWindows;
+        this.circuitBreaker = circuitBreaker;
+        this.enabled = enabled;
+        this.degradedAggregations = Counter.builder(DEGRADED_COUNTER)
+            .description("Velocity aggregations answered from the in-process fallback windows")
+            .register(meterRegistry);
+    }
+
+    private static VelocityStore redisBacked(RedisVelocityStore redisStore, LocalVelocityStore localStore) {
+        return localStore != null ? localStore : redisStore;
+    }
+
+    @Override
+    public VelocityAggregates recordAndAggregate(Transaction transaction, long timestampMs, long... windowSeconds) {
+        if (!enabled) {
+            return redisBackedStore.recordAndAggregate(transaction, timestampMs, windowSeconds);
+        }
+        VelocityAggregates fallback = shadowWindows.record(transaction, timestampMs, windowSeconds);
+        if (!circuitBreaker.allowRequest()) {
+            return degraded(fallback);
+        }
+        try {
+            VelocityAggregates aggregates = redisBackedStore.recordAndAggregate(transaction, timestampMs, windowSeconds);
+            circuitBreaker.recordSuccess();
+            return aggregates;
+        } catch (RuntimeException e) {
+            return failedOver(transaction, fallback, redisFailure(e));
+        }
+    }
+
+    @Override
+    public Supplier<VelocityAggregates> recordAndAggregate(RedisBatch batch, Transaction transaction, long timestampMs,
+                                                          long... windowSeconds) {
+        if (!enabled) {
+            return redisBackedStore.recordAndAggregate(batch, transaction, timestampMs, windowSeconds);
+        }
+        VelocityAggregates fallback = shadowWindows.record(transaction, timestampMs, windowSeconds);
+        if (!circuitBreaker.allowRequest()) {
+            return () -> degraded(fallback);
+        }
+        Supplier<VelocityAggregates> registered;
+        try {
+            registered = redisBackedStore.recordAndAggregate(batch, transaction, timestampMs, windowSeconds);
+        } catch (RuntimeException e) {
+            RuntimeException failure = redisFailure(e);
+            return () -> failedOver(transaction, fallback, failure);
+        }
+        return () -> {
+            try {
+                VelocityAggregates aggregates = registered.get();
+                circuitBreaker.recordSuccess();
+                return aggregates;
+            } catch (RuntimeException e) {
+                return failedOver(transaction, fallback, redisFailure(e));
+            }
+        };
+    }
+
+    /**
+     * Pass a Redis failure or timeout on to the fallback; any other error is rethrown, so a bug fails the
+     * rule instead of counting towards opening the circuit
+     */
+    private static RuntimeException redisFailure(RuntimeException error) {
+        if (error instanceof DataAccessException || error instanceof RedisException) {
+            return error;
+        }
+        throw error;
+    }
+
+    private VelocityAggregates failedOver(Transaction transaction, VelocityAggregates fallback, RuntimeException error) {
+        circuitBreaker.recordFailure();
+        log.warn("Velocity of transaction {} answered from in-process fallback windows, Redis failed: {}",
+            transaction.getTransactionId(), error.getMessage());
+        return degraded(fallback);
+    }
+
+    private VelocityAggregates degraded(VelocityAggregates fallback) {
+        degradedAggregations.increment();
+        return fallback;
+    }
+}
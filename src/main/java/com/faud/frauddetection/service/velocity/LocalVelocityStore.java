@@ -0,0 +1,246 @@
+package com.faud.frauddetection.service.velocity;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.dto.Transaction;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Partition-affine in-process velocity store
+ * Holds the velocity state of the users of the assigned partitions, written behind to Redis; rules
+ * read it through the FallbackVelocityStore
+ */
+@Component
+@ConditionalOnProperty(prefix = "fraud.detection.velocity.local-state", name = "enabled", havingValue = "true")
+@Slf4j
+public class LocalVelocityStore implements VelocityStore, ConsumerAwareRebalanceListener {
+
+    public static final String LOCAL_USERS_GAUGE = "fraud.velocity.local.users";
+    public static final String WRITE_BEHIND_FAILURES_COUNTER = "fraud.velocity.write.behind.failures";
+
+    private final RedisVelocityStore redisStore;
+    private final ConcurrentMap<String, UserVelocityState> states = new ConcurrentHashMap<>();
+    private final ThreadPoolTaskExecutor writeBehind;
+    private final Counter writeBehindFailures;
+    private final String topic;
+    private final int maxEventsPerUser;
+
+    /**
+     * Longest window requested so far, users without events in it are evicted
+     */
+    private volatile long retentionMillis;
+
+    public LocalVelocityStore(RedisVelocityStore redisStore, FraudDetectionProperties properties, MeterRegistry meterRegistry) {
+        FraudDetectionProperties.Velocity.LocalState localState = properties.getVelocity().getLocalState();
+        this.redisStore = redisStore;
+        this.topic = localState.getTopic();
+        this.maxEventsPerUser = properties.getVelocity().getCap().getMaxEventsPerUser();
+
+        // Single thread keeps the writes of a user in order; when the queue is full the caller writes itself
+        this.writeBehind = new ThreadPoolTaskExecutor();
+        writeBehind.setCorePoolSize(1);
+        writeBehind.setMaxPoolSize(1);
+        writeBehind.setQueueCapacity(localState.getWriteBehindQueueCapacity());
+        writeBehind.setThreadNamePrefix("velocity-write-behind-");
+        writeBehind.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        writeBehind.setWaitForTasksToCompleteOnShutdown(true);
+        writeBehind.initialize();
+
+        this.writeBehindFailures = Counter.builder(WRITE_BEHIND_FAILURES_COUNTER)
+            .description("Velocity events that could not be written behind to Redis")
+            .register(meterRegistry);
+        Gauge.builder(LOCAL_USERS_GAUGE, states, Map::size)
+            .description("Users whose velocity state is held in process")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Record the event in the user's state and aggregate the windows without a Redis round-trip
+     * The per-user event cap is applied as in Redis. A new event is written behind to Redis by the record
+     * script on a single background thread
+     */
+    @Override
+    public VelocityAggregates recordAndAggregate(Transaction transaction, long timestampMs, long... windowSeconds) {
+        if (windowSeconds.length == 0) {
+            return VelocityAggregates.EMPTY;
+        }
+        if (transaction.getUserId() == null) {
+            // No user to attribute the event to, so nothing is recorded and every window is empty
+            BigDecimal[] zeroSums = new BigDecimal[windowSeconds.length];
+            Arrays.fill(zeroSums, BigDecimal.valueOf(0, redisStore.getAmountScale()));
+            return new VelocityAggregates(windowSeconds, new long[windowSeconds.length], zeroSums);
+        }
+
+        long longestWindow = windowSeconds[0];
+        for (long window : windowSeconds) {
+            longestWindow = Math.max(longestWindow, window);
+        }
+        if (longestWindow * 1000 > retentionMillis) {
+            retentionMillis = longestWindow * 1000;
+        }
+        long oldestStart = timestampMs - longestWindow * 1000;
+        String eventId = transaction.getTransactionId() != null ? transaction.getTransactionId() : String.valueOf(timestampMs);
+        UserVelocityState state = stateCovering(transaction.getUserId(), oldestStart);
+
+        long[] counts = new long[windowSeconds.length];
+        BigDecimal[] sums = new BigDecimal[windowSeconds.length];
+        boolean added;
+        boolean downsampled;
+        synchronized (state) {
+            added = state.addEvent(eventId, timestampMs);
+            if (added) {
+                state.addToBucket(redisStore.bucketIndex(timestampMs), 1L, redisStore.toMinorUnits(transaction.getAmount()));
+            }
+            state.trim(oldestStart, redisStore.bucketIndex(oldestStart));
+            state.capEvents(maxEventsPerUser);
+            downsampled = state.isDownsampled();
+            for (int i = 0; i < windowSeconds.length; i++) {
+                long windowStart = timestampMs - windowSeconds[i] * 1000;
+                long firstBucket = redisStore.bucketIndex(windowStart);
+                counts[i] = state.count(windowStart, firstBucket);
+                sums[i] = BigDecimal.valueOf(state.sum(firstBucket), redisStore.getAmountScale());
+            }
+        }
+
+        if (added) {
+            long ttlWindow = longestWindow;
+            writeBehind.execute(() -> writeToRedis(transaction, timestampMs, ttlWindow));
+        }
+        return new VelocityAggregates(windowSeconds, counts, sums, false, downsampled);
+    }
+
+    /**
+     * State of a user covering windows from the given start, read from Redis if not held yet
+     */
+    private UserVelocityState stateCovering(String userId, long windowStartMs) {
+        UserVelocityState state = states.get(userId);
+        if (state != null && state.covers(windowStartMs)) {
+            return state;
+        }
+        if (state != null) {
+            // A longer window than held locally; pending writes of the user must reach Redis first
+            flushWriteBehind();
+        }
+        UserVelocityState loaded = redisStore.loadState(userId, windowStartMs);
+        return states.merge(userId, loaded, (current, fresh) -> current.covers(windowStartMs) ? current : fresh);
+    }
+
+    private void writeToRedis(Transaction transaction, long timestampMs, long ttlWindowSeconds) {
+        try {
+            redisStore.recordAndAggregate(transaction, timestampMs, ttlWindowSeconds);
+        } catch (RuntimeException e) {
+            writeBehindFailures.increment();
+            log.warn("Failed to write velocity event of transaction {} behind to Redis: {}",
+                transaction.getTransactionId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Wait until every queued write-behind update has been sent to Redis
+     */
+    void flushWriteBehind() {
+        try {
+            // The single write-behind thread runs tasks in order, so this completes after all earlier ones
+            writeBehind.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("Failed to drain velocity write-behind queue: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Drop users without events in the longest window
+     */
+    @Scheduled(fixedDelayString = "${fraud.detection.velocity.local-state.eviction-interval-ms:60000}")
+    public void evictIdleUsers() {
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        states.entrySet().removeIf(entry -> {
+            UserVelocityState state = entry.getValue();
+            synchronized (state) {
+                return state.getLastEventMs() <= cutoff;
+            }
+        });
+    }
+
+    /**
+     * Drain the write-behind queue before the revoked partitions are committed and drop their users,
+     * so their next owner starts from Redis
+     */
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        flushWriteBehind();
+        dropUsers(consumer, partitions);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        flushWriteBehind();
+        dropUsers(consumer, partitions);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        // State held from an earlier ownership may be stale, it is read from Redis again on first use
+        dropUsers(consumer, partitions);
+    }
+
+    private void dropUsers(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        Set<Integer> owned = new HashSet<>();
+        for (TopicPartition partition : partitions) {
+            if (topic.equals(partition.topic())) {
+                owned.add(partition.partition());
+            }
+        }
+        if (owned.isEmpty() || states.isEmpty()) {
+            return;
+        }
+
+        List<PartitionInfo> topicPartitions = consumer.partitionsFor(topic);
+        int partitionCount = topicPartitions.size();
+        int before = states.size();
+        states.keySet().removeIf(userId -> owned.contains(partitionOf(userId, partitionCount)));
+        log.info("Dropped local velocity state of {} users on rebalance of {} partitions", before - states.size(), owned.size());
+    }
+
+    /**
+     * Partition of a userId key under the default Kafka partitioner
+     */
+    static int partitionOf(String userId, int partitionCount) {
+        return Utils.toPositive(Utils.murmur2(userId.getBytes(StandardCharsets.UTF_8))) % partitionCount;
+    }
+
+    int size() {
+        return states.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writeBehind.shutdown();
+    }
+}
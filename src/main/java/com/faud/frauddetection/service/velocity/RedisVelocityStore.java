@@ -0,0 +1,201 @@
+package com.faud.frauddetection.service.velocity;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.constant.RedisKeys;
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.service.redis.RedisBatch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Redis-backed velocity store
+ * Records and aggregates a user's windows with one atomic script per transaction
+ */
+@Component
+public class RedisVelocityStore implements VelocityStore {
+
+    /**
+     * Adds the event to the user's capped event ZSET and its amount to the per-bucket hash, trims both
+     * to the longest window and counts and sums every window; windows reaching back past the cap are
+     * counted from the buckets, sums always are. Sent by SHA (EVALSHA), in full only when Redis does
+     * not have it cached yet
+     */
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> RECORD_SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/velocity-record.lua"), List.class);
+
+    public static final String DOWNSAMPLED_COUNTER = "fraud.velocity.downsampled";
+
+    /**
+     * Hash field prefixes of the per-bucket event counts and amount sums
+     */
+    private static final String COUNT_FIELD_PREFIX = "c:";
+    private static final String SUM_FIELD_PREFIX = "s:";
+
+    /**
+     * Hash field holding the time of the newest event dropped by the cap
+     */
+    private static final String DOWNSAMPLED_UNTIL_FIELD = "t";
+
+    /**
+     * Key states returned after the window aggregates
+     */
+    private static final long DOWNSAMPLED = 1L;
+    private static final long DOWNSAMPLED_NOW = 2L;
+
+    private final StringRedisTemplate redisTemplate;
+    private final long bucketMillis;
+    private final int amountScale;
+    private final int maxEventsPerUser;
+    private final Counter downsampledKeys;
+
+    public RedisVelocityStore(StringRedisTemplate redisTemplate, FraudDetectionProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.bucketMillis = properties.getVelocity().getBucketSeconds() * 1000;
+        this.amountScale = properties.getVelocity().getAmountScale();
+        this.maxEventsPerUser = properties.getVelocity().getCap().getMaxEventsPerUser();
+        if (maxEventsPerUser < 1) {
+            throw new IllegalArgumentException("Velocity cap must keep at least one event per user");
+        }
+        this.downsampledKeys = Counter.builder(DOWNSAMPLED_COUNTER)
+            .description("Users whose velocity events exceeded the per-user cap and were downsampled to bucket counters")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public VelocityAggregates recordAndAggregate(Transaction transaction, long timestampMs, long... windowSeconds) {
+        if (windowSeconds.length == 0) {
+            return VelocityAggregates.EMPTY;
+        }
+        List<?> reply = redisTemplate.execute(RECORD_SCRIPT, keys(transaction),
+            (Object[]) recordArgs(transaction, timestampMs, windowSeconds));
+        return aggregates(windowSeconds, reply);
+    }
+
+    /**
+     * Register the record script in a batch, so it shares one pipelined round-trip with the batch's other commands
+     */
+    @Override
+    public Supplier<VelocityAggregates> recordAndAggregate(RedisBatch batch, Transaction transaction, long timestampMs,
+                                                          long... windowSeconds) {
+        if (windowSeconds.length == 0) {
+            return () -> VelocityAggregates.EMPTY;
+        }
+        return batch.script(RECORD_SCRIPT, keys(transaction), List.of(recordArgs(transaction, timestampMs, windowSeconds)),
+            reply -> aggregates(windowSeconds, (List<?>) reply));
+    }
+
+    private static List<String> keys(Transaction transaction) {
+        String userId = transaction.getUserId();
+        return List.of(RedisKeys.transactionsKey(userId), RedisKeys.amountBucketsKey(userId));
+    }
+
+    private String[] recordArgs(Transaction transaction, long timestampMs, long[] windowSeconds) {
+        long longestWindow = windowSeconds[0];
+        for (long window : windowSeconds) {
+            longestWindow = Math.max(longestWindow, window);
+        }
+        String[] args = new String[7 + windowSeconds.length];
+        args[0] = String.valueOf(timestampMs);
+        args[1] = String.valueOf(longestWindow);
+        args[2] = transaction.getTransactionId() != null ? transaction.getTransactionId() : String.valueOf(timestampMs);
+        args[3] = String.valueOf(toMinorUnits(transaction.getAmount()));
+        args[4] = String.valueOf(bucketMillis);
+        args[5] = String.valueOf(timestampMs - longestWindow * 1000);
+        args[6] = String.valueOf(maxEventsPerUser);
+        for (int i = 0; i < windowSeconds.length; i++) {
+            args[7 + i] = String.valueOf(timestampMs - windowSeconds[i] * 1000);
+        }
+        return args;
+    }
+
+    /**
+     * Parse the script reply, a count and a sum per window in argument order followed by the key state
+     */
+    private VelocityAggregates aggregates(long[] windowSeconds, List<?> reply) {
+        long[] counts = new long[windowSeconds.length];
+        BigDecimal[] sums = new BigDecimal[windowSeconds.length];
+        for (int i = 0; i < windowSeconds.length; i++) {
+            counts[i] = replyValue(reply, 2 * i);
+            sums[i] = BigDecimal.valueOf(replyValue(reply, 2 * i + 1), amountScale);
+        }
+        long state = replyValue(reply, 2 * windowSeconds.length);
+        if (state == DOWNSAMPLED_NOW) {
+            downsampledKeys.increment();
+        }
+        return new VelocityAggregates(windowSeconds, counts, sums, false, state >= DOWNSAMPLED);
+    }
+
+    /**
+     * Read the velocity state of a user from Redis
+     * @param userId user ID
+     * @param sinceMs earliest window start (ms) the state has to cover
+     * @return state holding the user's kept events after sinceMs and the buckets from its bucket on
+     */
+    UserVelocityState loadState(String userId, long sinceMs) {
+        UserVelocityState state = new UserVelocityState(sinceMs);
+        Set<ZSetOperations.TypedTuple<String>> events = redisTemplate.opsForZSet()
+            .rangeByScoreWithScores(RedisKeys.transactionsKey(userId), sinceMs, Double.POSITIVE_INFINITY);
+        if (events != null) {
+            for (ZSetOperations.TypedTuple<String> event : events) {
+                if (event.getValue() != null && event.getScore() != null) {
+                    state.addEvent(event.getValue(), event.getScore().longValue());
+                }
+            }
+        }
+
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(RedisKeys.amountBucketsKey(userId));
+        for (Map.Entry<Object, Object> field : fields.entrySet()) {
+            String name = field.getKey().toString();
+            long value = Long.parseLong(field.getValue().toString());
+            if (name.startsWith(SUM_FIELD_PREFIX)) {
+                state.addToBucket(Long.parseLong(name.substring(SUM_FIELD_PREFIX.length())), 0L, value);
+            } else if (name.startsWith(COUNT_FIELD_PREFIX)) {
+                state.addToBucket(Long.parseLong(name.substring(COUNT_FIELD_PREFIX.length())), value, 0L);
+            } else if (name.equals(DOWNSAMPLED_UNTIL_FIELD)) {
+                state.downsampledUntil(value);
+            }
+        }
+        state.trim(sinceMs, bucketIndex(sinceMs));
+        return state;
+    }
+
+    /**
+     * Index of the bucket containing a time, as computed by the script
+     */
+    long bucketIndex(long timeMs) {
+        return Math.floorDiv(timeMs, bucketMillis);
+    }
+
+    int getAmountScale() {
+        return amountScale;
+    }
+
+    private static long replyValue(List<?> reply, int index) {
+        if (reply == null || reply.size() <= index || reply.get(index) == null) {
+            return 0L;
+        }
+        Object value = reply.get(index);
+        return value instanceof Number number ? number.longValue() : Long.parseLong(value.toString());
+    }
+
+    long toMinorUnits(BigDecimal amount) {
+        if (amount == null) {
+            return 0L;
+        }
+        return amount.setScale(amountScale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
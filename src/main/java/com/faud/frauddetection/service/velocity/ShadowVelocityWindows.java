@@ -0,0 +1,196 @@
+package com.faud.frauddetection.service.velocity;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.dto.Transaction;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Approximate in-process velocity windows of every user seen by this instance
+ * Every transaction is recorded here as well as in Redis, so the windows are already warm when Redis
+ * becomes unhealthy. Only an event count and an amount sum are kept per user and bucket: windows
+ * are answered at bucket granularity with the oldest bucket counted in full, and a redelivered
+ * transaction is counted again. Both errors can only overstate velocity. Users of other instances
+ * are not seen, so windows cover only the transactions this instance processed
+ */
+@Component
+public class ShadowVelocityWindows {
+
+    public static final String SHADOW_USERS_GAUGE = "fraud.velocity.shadow.users";
+
+    private final ConcurrentMap<String, UserBuckets> users = new ConcurrentHashMap<>();
+    private final long bucketMillis;
+    private final int amountScale;
+
+    /**
+     * Longest window requested so far, users without events in it are evicted
+     */
+    private volatile long retentionMillis;
+
+    public ShadowVelocityWindows(FraudDetectionProperties properties, MeterRegistry meterRegistry) {
+        this.bucketMillis = properties.getVelocity().getBucketSeconds() * 1000;
+        this.amountScale = properties.getVelocity().getAmountScale();
+        Gauge.builder(SHADOW_USERS_GAUGE, users, Map::size)
+            .description("Users whose approximate fallback velocity windows are held in process")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Record a transaction and aggregate the windows ending at it
+     * @param transaction transaction to record
+     * @param timestampMs event time in epoch milliseconds
+     * @param windowSeconds window lengths to aggregate; the longest one also bounds how long buckets are kept
+     * @return degraded event count and amount sum per window, including this transaction
+     */
+    public VelocityAggregates record(Transaction transaction, long timestampMs, long... windowSeconds) {
+        if (windowSeconds.length == 0 || transaction.getUserId() == null) {
+            return new VelocityAggregates(windowSeconds, new long[windowSeconds.length], zeroSums(windowSeconds.length), true);
+        }
+
+        long longestWindow = windowSeconds[0];
+        for (long window : windowSeconds) {
+            longestWindow = Math.max(longestWindow, window);
+        }
+        if (longestWindow * 1000 > retentionMillis) {
+            retentionMillis = longestWindow * 1000;
+        }
+
+        long[] counts = new long[windowSeconds.length];
+        BigDecimal[] sums = new BigDecimal[windowSeconds.length];
+        long amount = toMinorUnits(transaction.getAmount());
+        while (true) {
+            UserBuckets buckets = users.computeIfAbsent(transaction.getUserId(), userId -> new UserBuckets());
+            synchronized (buckets) {
+                // Evicted between the lookup and the lock; its replacement holds the user's events
+                if (buckets.evicted) {
+                    continue;
+                }
+                buckets.add(bucketIndex(timestampMs), timestampMs, amount);
+                buckets.trim(bucketIndex(timestampMs - longestWindow * 1000));
+                for (int i = 0; i < windowSeconds.length; i++) {
+                    long firstBucket = bucketIndex(timestampMs - windowSeconds[i] * 1000);
+                    counts[i] = buckets.count(firstBucket);
+                    sums[i] = BigDecimal.valueOf(buckets.sum(firstBucket), amountScale);
+                }
+            }
+            return new VelocityAggregates(windowSeconds, counts, sums, true);
+        }
+    }
+
+    /**
+     * Drop users without events in the longest window
+     */
+    @Scheduled(fixedDelayString = "${fraud.detection.velocity.fallback.eviction-interval-ms:60000}")
+    public void evictIdleUsers() {
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        for (Map.Entry<String, UserBuckets> entry : users.entrySet()) {
+            UserBuckets buckets = entry.getValue();
+            synchronized (buckets) {
+                if (buckets.lastEventMs <= cutoff) {
+                    // A record that already looked the buckets up sees the flag and starts over
+                    buckets.evicted = true;
+                    users.remove(entry.getKey(), buckets);
+                }
+            }
+        }
+    }
+
+    private long bucketIndex(long timeMs) {
+        return Math.floorDiv(timeMs, bucketMillis);
+    }
+
+    private long toMinorUnits(BigDecimal amount) {
+        if (amount == null) {
+            return 0L;
+        }
+        return amount.setScale(amountScale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private BigDecimal[] zeroSums(int length) {
+        BigDecimal[] sums = new BigDecimal[length];
+        Arrays.fill(sums, BigDecimal.valueOf(0, amountScale));
+        return sums;
+    }
+
+    int size() {
+        return users.size();
+    }
+
+    /**
+     * Per-bucket event counts and amount sums of one user in parallel primitive arrays
+     * Not thread-safe, callers synchronize on the instance
+     */
+    private static final class UserBuckets {
+
+        private static final int INITIAL_CAPACITY = 4;
+
+        private long[] indexes = new long[INITIAL_CAPACITY];
+        private long[] counts = new long[INITIAL_CAPACITY];
+        private long[] sums = new long[INITIAL_CAPACITY];
+        private int size;
+        private long lastEventMs;
+        private boolean evicted;
+
+        void add(long bucketIndex, long timeMs, long amountMinor) {
+            lastEventMs = Math.max(lastEventMs, timeMs);
+            for (int i = size - 1; i >= 0; i--) {
+                if (indexes[i] == bucketIndex) {
+                    counts[i]++;
+                    sums[i] += amountMinor;
+                    return;
+                }
+            }
+            if (size == indexes.length) {
+                indexes = Arrays.copyOf(indexes, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+                sums = Arrays.copyOf(sums, size * 2);
+            }
+            indexes[size] = bucketIndex;
+            counts[size] = 1;
+            sums[size] = amountMinor;
+            size++;
+        }
+
+        void trim(long oldestBucket) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (indexes[i] >= oldestBucket) {
+                    indexes[kept] = indexes[i];
+                    counts[kept] = counts[i];
+                    sums[kept] = sums[i];
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+
+        long count(long firstBucket) {
+            long count = 0;
+            for (int i = 0; i < size; i++) {
+                if (indexes[i] >= firstBucket) {
+                    count += counts[i];
+                }
+            }
+            return count;
+        }
+
+        long sum(long firstBucket) {
+            long sum = 0;
+            for (int i = 0; i < size; i++) {
+                if (indexes[i] >= firstBucket) {
+                    sum += sums[i];
+                }
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.faud.frauddetection.service.velocity;
+
+import java.util.Arrays;
+
+/**
+ * In-process velocity state of one user, mirroring the user's Redis event ZSET and amount buckets
+ * Events and buckets are kept in parallel primitive arrays; a user rarely has more than a few
+ * dozen events in a window, so linear scans beat any boxed collection. Like the Redis script, events
+ * beyond the per-user cap are dropped oldest first and windows reaching back to them are counted
+ * from the bucket counters. Not thread-safe, callers synchronize on the instance
+ */
+final class UserVelocityState {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * Value of downsampledUntilMs while no event has been dropped by the cap
+     */
+    private static final long NOT_DOWNSAMPLED = Long.MIN_VALUE;
+
+    private long[] eventTimes = new long[INITIAL_CAPACITY];
+    private String[] eventIds = new String[INITIAL_CAPACITY];
+    private int events;
+
+    private long[] bucketIndexes = new long[INITIAL_CAPACITY];
+    private long[] bucketCounts = new long[INITIAL_CAPACITY];
+    private long[] bucketSums = new long[INITIAL_CAPACITY];
+    private int buckets;
+
+    /**
+     * Time (ms) of the newest event dropped by the cap; windows starting before it are counted per bucket
+     */
+    private long downsampledUntilMs = NOT_DOWNSAMPLED;
+
+    /**
+     * Earliest window start (ms) this state holds every event and bucket for
+     */
+    private volatile long coveredFromMs;
+
+    private long lastEventMs;
+
+    UserVelocityState(long coveredFromMs) {
+        this.coveredFromMs = coveredFromMs;
+        this.lastEventMs = coveredFromMs;
+    }
+
+    /**
+     * Whether windows starting at the given time can be answered from this state
+     * Safe to call without holding the lock
+     */
+    boolean covers(long windowStartMs) {
+        return coveredFromMs <= windowStartMs;
+    }
+
+    long getLastEventMs() {
+        return lastEventMs;
+    }
+
+    /**
+     * Add an event
+     * @return false if an event with the same id is already held
+     */
+    boolean addEvent(String eventId, long timeMs) {
+        for (int i = 0; i < events; i++) {
+            if (eventIds[i].equals(eventId)) {
+                return false;
+            }
+        }
+        if (events == eventTimes.length) {
+            eventTimes = Arrays.copyOf(eventTimes, events * 2);
+            eventIds = Arrays.copyOf(eventIds, events * 2);
+        }
+        eventTimes[events] = timeMs;
+        eventIds[events] = eventId;
+        events++;
+        lastEventMs = Math.max(lastEventMs, timeMs);
+        return true;
+    }
+
+    /**
+     * Add events and their amount in minor units to a bucket
+     */
+    void addToBucket(long bucketIndex, long count, long amountMinor) {
+        for (int i = buckets - 1; i >= 0; i--) {
+            if (bucketIndexes[i] == bucketIndex) {
+                bucketCounts[i] += count;
+                bucketSums[i] += amountMinor;
+                return;
+            }
+        }
+        if (buckets == bucketIndexes.length) {
+            bucketIndexes = Arrays.copyOf(bucketIndexes, buckets * 2);
+            bucketCounts = Arrays.copyOf(bucketCounts, buckets * 2);
+            bucketSums = Arrays.copyOf(bucketSums, buckets * 2);
+        }
+        bucketIndexes[buckets] = bucketIndex;
+        bucketCounts[buckets] = count;
+        bucketSums[buckets] = amountMinor;
+        buckets++;
+    }
+
+    /**
+     * Mark events up to the given time as dropped by the cap, as read from Redis
+     */
+    void downsampledUntil(long timeMs) {
+        downsampledUntilMs = Math.max(downsampledUntilMs, timeMs);
+    }
+
+    /**
+     * Drop the oldest events beyond the cap
+     */
+    void capEvents(int maxEvents) {
+        while (events > maxEvents) {
+            int oldest = 0;
+            for (int i = 1; i < events; i++) {
+                if (eventTimes[i] < eventTimes[oldest]) {
+                    oldest = i;
+                }
+            }
+            downsampledUntilMs = Math.max(downsampledUntilMs, eventTimes[oldest]);
+            events--;
+            System.arraycopy(eventTimes, oldest + 1, eventTimes, oldest, events - oldest);
+            System.arraycopy(eventIds, oldest + 1, eventIds, oldest, events - oldest);
+            eventIds[events] = null;
+        }
+    }
+
+    /**
+     * Whether events were dropped by the cap within the held window
+     */
+    boolean isDownsampled() {
+        return downsampledUntilMs != NOT_DOWNSAMPLED;
+    }
+
+    /**
+     * Drop events at or before the window start and buckets before the oldest bucket, as the Redis script does
+     */
+    void trim(long windowStartMs, long oldestBucket) {
+        int kept = 0;
+        for (int i = 0; i < events; i++) {
+            if (eventTimes[i] > windowStartMs) {
+                eventTimes[kept] = eventTimes[i];
+                eventIds[kept] = eventIds[i];
+                kept++;
+            }
+        }
+        Arrays.fill(eventIds, kept, events, null);
+        events = kept;
+
+        kept = 0;
+        for (int i = 0; i < buckets; i++) {
+            if (bucketIndexes[i] >= oldestBucket) {
+                bucketIndexes[kept] = bucketIndexes[i];
+                bucketCounts[kept] = bucketCounts[i];
+                bucketSums[kept] = bucketSums[i];
+                kept++;
+            }
+        }
+        buckets = kept;
+        if (downsampledUntilMs <= windowStartMs) {
+            // Every dropped event has left the window, the events are exact again
+            downsampledUntilMs = NOT_DOWNSAMPLED;
+        }
+        coveredFromMs = Math.max(coveredFromMs, windowStartMs);
+    }
+
+    /**
+     * Number of events after the window start, or in the buckets from the window's first bucket on
+     * if the window reaches back to events dropped by the cap
+     */
+    long count(long windowStartMs, long firstBucket) {
+        long count = 0;
+        if (windowStartMs < downsampledUntilMs) {
+            for (int i = 0; i < buckets; i++) {
+                if (bucketIndexes[i] >= firstBucket) {
+                    count += bucketCounts[i];
+                }
+            }
+            return count;
+        }
+        for (int i = 0; i < events; i++) {
+            if (eventTimes[i] > windowStartMs) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Sum in minor units of the buckets from the first bucket of a window on
+     */
+    long sum(long firstBucket) {
+        long sum = 0;
+        for (int i = 0; i < buckets; i++) {
+            if (bucketIndexes[i] >= firstBucket) {
+                sum += bucketSums[i];
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,105 @@
+package com.faud.frauddetection.service.velocity;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Event counts and amount sums of the velocity windows of one transaction
+ * Aggregates answered from the in-process fallback windows instead of Redis are marked degraded, and
+ * aggregates of a user over the per-user event cap, whose older windows are counted per bucket, downsampled
+ */
+public final class VelocityAggregates {
+
+    /**
+     * Aggregates of a transaction that is not tracked by any velocity window
+     */
+    public static final VelocityAggregates EMPTY = new VelocityAggregates(new long[0], new long[0], new BigDecimal[0]);
+
+    private final long[] windowSeconds;
+    private final long[] counts;
+    private final BigDecimal[] sums;
+    private final boolean degraded;
+    private final boolean downsampled;
+
+    public VelocityAggregates(long[] windowSeconds, long[] counts, BigDecimal[] sums) {
+        this(windowSeconds, counts, sums, false, false);
+    }
+
+    public VelocityAggregates(long[] windowSeconds, long[] counts, BigDecimal[] sums, boolean degraded) {
+        this(windowSeconds, counts, sums, degraded, false);
+    }
+
+    public VelocityAggregates(long[] windowSeconds, long[] counts, BigDecimal[] sums, boolean degraded,
+                              boolean downsampled) {
+        if (windowSeconds.length != counts.length || windowSeconds.length != sums.length) {
+            throw new IllegalArgumentException("Expected one count and one sum per window");
+        }
+        this.windowSeconds = windowSeconds.clone();
+        this.counts = counts.clone();
+        this.sums = sums.clone();
+        this.degraded = degraded;
+        this.downsampled = downsampled;
+    }
+
+    /**
+     * Whether the aggregates are approximations from the in-process fallback windows
+     */
+    public boolean isDegraded() {
+        return degraded;
+    }
+
+    /**
+     * Whether the user had more events than the per-user cap, so windows reaching back past the kept
+     * events were counted at bucket granularity
+     */
+    public boolean isDownsampled() {
+        return downsampled;
+    }
+
+    /**
+     * Whether the window was aggregated
+     */
+    public boolean contains(long windowSeconds) {
+        return indexOf(windowSeconds) >= 0;
+    }
+
+    /**
+     * Number of events in the window
+     * @throws IllegalArgumentException if the window was not aggregated
+     */
+    public long getCount(long windowSeconds) {
+        return counts[requireIndex(windowSeconds)];
+    }
+
+    /**
+     * Sum of the amounts in the window
+     * @throws IllegalArgumentException if the window was not aggregated
+     */
+    public BigDecimal getSum(long windowSeconds) {
+        return sums[requireIndex(windowSeconds)];
+    }
+
+    private int indexOf(long window) {
+        for (int i = 0; i < windowSeconds.length; i++) {
+            if (windowSeconds[i] == window) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int requireIndex(long window) {
+        int index = indexOf(window);
+        if (index < 0) {
+            throw new IllegalArgumentException("Window of " + window + " seconds was not aggregated");
+        }
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return "VelocityAggregates{windowSeconds=" + Arrays.toString(windowSeconds)
+            + ", counts=" + Arrays.toString(counts) + ", sums=" + Arrays.toString(sums)
+            + ", degraded=" + degraded + ", downsampled=" + downsampled + "}";
+    }
+}
@@ -0,0 +1,39 @@
+package com.faud.frauddetection.service.velocity;
+
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.service.redis.RedisBatch;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-user velocity state shared by all velocity rules
+ * A transaction is recorded once per dimension (event count, amount) no matter how many rules read
+ * it, and every window length the active rules need is answered from the same update
+ */
+public interface VelocityStore {
+
+    /**
+     * Record a transaction and aggregate the windows ending at it
+     * Recording the same transaction id twice counts it once
+     * @param transaction transaction to record
+     * @param timestampMs event time in epoch milliseconds
+     * @param windowSeconds window lengths to aggregate; the longest one also bounds how long state is kept
+     * @return event count and amount sum per window, including this transaction
+     */
+    VelocityAggregates recordAndAggregate(Transaction transaction, long timestampMs, long... windowSeconds);
+
+    /**
+     * Register the record-and-aggregate of a transaction in a Redis batch
+     * Stores that answer without a Redis round-trip record the transaction immediately
+     * @param batch batch of the transaction
+     * @param transaction transaction to record
+     * @param timestampMs event time in epoch milliseconds
+     * @param windowSeconds window lengths to aggregate
+     * @return aggregates, available once the batch is flushed
+     */
+    default Supplier<VelocityAggregates> recordAndAggregate(RedisBatch batch, Transaction transaction, long timestampMs,
+                                                           long... windowSeconds) {
+        VelocityAggregates aggregates = recordAndAggregate(transaction, timestampMs, windowSeconds);
+        return () -> aggregates;
+    }
+}
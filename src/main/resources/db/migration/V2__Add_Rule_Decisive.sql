@@ -0,0 +1,4 @@
+-- V2__Add_Rule_Decisive.sql
+-- Rules marked decisive stop short-circuit evaluation as soon as they trigger.
+
+ALTER TABLE fraud_rules ADD COLUMN decisive BOOLEAN DEFAULT FALSE;
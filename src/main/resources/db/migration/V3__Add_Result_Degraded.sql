@@ -0,0 +1,4 @@
+-- V3__Add_Result_Degraded.sql
+-- Decisions made while Redis was unavailable used approximate in-process velocity windows.
+
+ALTER TABLE fraud_detection_results ADD COLUMN degraded BOOLEAN DEFAULT FALSE;
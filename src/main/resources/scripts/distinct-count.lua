@@ -0,0 +1,13 @@
+-- Add a value to the current slice sketch of a group and count the distinct values of the window
+-- KEYS[1] HyperLogLog of the current slice, KEYS[2..n] HyperLogLogs of the older slices of the window
+-- ARGV[1] counted value, ARGV[2] TTL (s) the current slice needs to cover the window
+-- Returns the estimated number of distinct values over all slices. A slice sketch is shared by every
+-- rule counting the same fields, so its TTL only ever grows to the longest window reading it
+redis.call('PFADD', KEYS[1], ARGV[1])
+
+local ttl = tonumber(ARGV[2])
+if redis.call('TTL', KEYS[1]) < ttl then
+    redis.call('EXPIRE', KEYS[1], ttl)
+end
+
+return redis.call('PFCOUNT', unpack(KEYS))
@@ -0,0 +1,92 @@
+-- Record a transaction once and aggregate every requested window ending at it
+-- KEYS[1] event sorted set (member = transaction id, score = event time in ms)
+-- KEYS[2] amount bucket hash, fields "c:<bucket>" (event count) and "s:<bucket>" (amount in minor units),
+--         and "t" (time in ms of the newest event dropped by the cap) while the key is downsampled
+-- ARGV[1] event time (ms), ARGV[2] key TTL (s), ARGV[3] transaction id, ARGV[4] amount in minor units,
+-- ARGV[5] bucket length (ms), ARGV[6] start of the longest window (ms), ARGV[7] maximum events per key,
+-- ARGV[8..n] window starts (ms)
+-- Returns the event count and amount sum of each window, in argument order, followed by the key state:
+-- 0 exact, 1 downsampled, 2 downsampled by this call. The bucket containing a window start is summed in full
+local bucketMs = tonumber(ARGV[5])
+local oldestBucket = math.floor(tonumber(ARGV[6]) / bucketMs)
+local maxEvents = tonumber(ARGV[7])
+
+-- A transaction id already in the window is neither counted nor summed again
+local added = redis.call('ZADD', KEYS[1], ARGV[1], ARGV[3])
+redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', ARGV[6])
+
+if added == 1 then
+    local bucket = math.floor(tonumber(ARGV[1]) / bucketMs)
+    redis.call('HINCRBY', KEYS[2], 'c:' .. bucket, 1)
+    redis.call('HINCRBY', KEYS[2], 's:' .. bucket, ARGV[4])
+end
+
+-- Beyond the cap the oldest events are dropped; windows reaching back to them are counted from
+-- the bucket counters. Once every dropped event has left the longest window the key is exact again
+local state = 0
+local downsampledUntil = tonumber(redis.call('HGET', KEYS[2], 't'))
+if downsampledUntil and downsampledUntil <= tonumber(ARGV[6]) then
+    redis.call('HDEL', KEYS[2], 't')
+    downsampledUntil = nil
+end
+local size = redis.call('ZCARD', KEYS[1])
+if size > maxEvents then
+    local newestDropped = redis.call('ZRANGE', KEYS[1], size - maxEvents - 1, size - maxEvents - 1, 'WITHSCORES')
+    redis.call('ZREMRANGEBYRANK', KEYS[1], 0, size - maxEvents - 1)
+    if not downsampledUntil then
+        state = 2
+    end
+    if not downsampledUntil or tonumber(newestDropped[2]) > downsampledUntil then
+        redis.call('HSET', KEYS[2], 't', newestDropped[2])
+        downsampledUntil = tonumber(newestDropped[2])
+    end
+end
+if state == 0 and downsampledUntil then
+    state = 1
+end
+
+local counts = {}
+local sums = {}
+local fields = redis.call('HGETALL', KEYS[2])
+for i = 1, #fields, 2 do
+    local field = fields[i]
+    if field ~= 't' then
+        local index = tonumber(string.sub(field, 3))
+        if index < oldestBucket then
+            redis.call('HDEL', KEYS[2], field)
+        elseif string.sub(field, 1, 1) == 's' then
+            sums[index] = tonumber(fields[i + 1])
+        else
+            counts[index] = tonumber(fields[i + 1])
+        end
+    end
+end
+
+local result = {}
+for w = 8, #ARGV do
+    local windowStart = tonumber(ARGV[w])
+    local firstBucket = math.floor(windowStart / bucketMs)
+    local sum = 0
+    for index, value in pairs(sums) do
+        if index >= firstBucket then
+            sum = sum + value
+        end
+    end
+    if downsampledUntil and windowStart < downsampledUntil then
+        local count = 0
+        for index, value in pairs(counts) do
+            if index >= firstBucket then
+                count = count + value
+            end
+        end
+        result[#result + 1] = count
+    else
+        result[#result + 1] = redis.call('ZCOUNT', KEYS[1], '(' .. ARGV[w], '+inf')
+    end
+    result[#result + 1] = sum
+end
+result[#result + 1] = state
+
+redis.call('EXPIRE', KEYS[1], ARGV[2])
+redis.call('EXPIRE', KEYS[2], ARGV[2])
+return result
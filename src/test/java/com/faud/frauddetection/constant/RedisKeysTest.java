@@ -0,0 +1,42 @@
+package com.faud.frauddetection.constant;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for RedisKeys
+ */
+class RedisKeysTest {
+
+    @Test
+    void userKeys_ShouldShareUserHashTag() {
+        assertThat(RedisKeys.transactionsKey("U1")).isEqualTo("v1:{u:U1}:e");
+        assertThat(RedisKeys.amountBucketsKey("U1")).isEqualTo("v1:{u:U1}:a");
+        assertThat(hashTag(RedisKeys.transactionsKey("U1"))).isEqualTo(hashTag(RedisKeys.amountBucketsKey("U1")));
+    }
+
+    @Test
+    void distinctSliceKey_GroupedByUser_ShouldShareUserHashTag() {
+        String key = RedisKeys.distinctSliceKey("deviceId", "userId", 300, "U1", 5_666_666);
+
+        assertThat(key).isEqualTo("v1:{u:U1}:d:deviceId:300:5666666");
+        assertThat(hashTag(key)).isEqualTo(hashTag(RedisKeys.transactionsKey("U1")));
+    }
+
+    @Test
+    void distinctSliceKey_OtherGroup_ShouldTagGroupFieldAndValue() {
+        String key = RedisKeys.distinctSliceKey("userId", "ipAddress", 1800, "2001:db8::1", 944_444);
+
+        assertThat(key).isEqualTo("v1:{ipAddress:2001:db8::1}:d:userId:1800:944444");
+        assertThat(RedisKeys.distinctSlicePrefix("userId", "ipAddress", 1800, "2001:db8::1") + 944_444).isEqualTo(key);
+    }
+
+    /**
+     * Part of a key Redis Cluster hashes to pick the slot
+     */
+    private static String hashTag(String key) {
+        int open = key.indexOf('{');
+        return key.substring(open + 1, key.indexOf('}', open));
+    }
+}
@@ -16,6 +16,8 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -349,4 +351,26 @@ class FraudRuleControllerTest {
         assertThat(result.getStatusCode()).isEqualTo(HttpStatus.CREATED);
         verify(fraudRuleService).createFraudRule(any(FraudRule.class));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void handleInvalidRule_ShouldReturnBadRequestWithMessage() {
+        // When
+        ResponseEntity<Map<String, String>> result = fraudRuleController.handleInvalidRule(
+            new IllegalArgumentException("Unknown transaction field 'amout'"));
+
+        // Then
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(result.getBody()).containsEntry("error", "Unknown transaction field 'amout'");
+    }
+
+    @Test
+    void handleMissingRule_ShouldReturnNotFoundWithMessage() {
+        // When
+        ResponseEntity<Map<String, String>> result = fraudRuleController.handleMissingRule(
+            new NoSuchElementException("Fraud rule with id 999 not found"));
+
+        // Then
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(result.getBody()).containsEntry("error", "Fraud rule with id 999 not found");
+    }
+}
@@ -135,6 +135,28 @@ class FraudDetectionResultRepositoryImplTest {
         verify(resultMapper).insert(resultWithNulls);
     }
 
+    // saveAll tests
+    @Test
+    void saveAll_ValidResults_ShouldCallInsertBatchOnce() {
+        // When
+        List<FraudDetectionResultEntity> saved = resultRepository.saveAll(testResults);
+
+        // Then
+        assertThat(saved).isSameAs(testResults);
+        verify(resultMapper).insertBatch(testResults);
+        verify(resultMapper, never()).insert(any());
+    }
+
+    @Test
+    void saveAll_EmptyList_ShouldNotCallMapper() {
+        // When
+        List<FraudDetectionResultEntity> saved = resultRepository.saveAll(Collections.emptyList());
+
+        // Then
+        assertThat(saved).isEmpty();
+        verifyNoInteractions(resultMapper);
+    }
+
     // findById tests
     @Test
     void findById_ExistingId_ShouldReturnResult() {
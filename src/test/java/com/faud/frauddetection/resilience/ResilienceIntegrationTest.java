@@ -12,6 +12,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.test.context.TestPropertySource;
@@ -155,7 +156,7 @@ class ResilienceIntegrationTest extends BaseIntegrationTest {
     @Test
     void testDatabaseConnectionFailureRecovery() {
         // Given - Database connection failure simulation
-        when(redisTemplate.opsForZSet()).thenThrow(new DataAccessException("Database connection failed") {});
+        when(velocityScriptCall()).thenThrow(new DataAccessException("Database connection failed") {});
 
         Transaction transaction = createTransaction(
             "TXN_DB_FAIL_001",
@@ -176,7 +177,7 @@ class ResilienceIntegrationTest extends BaseIntegrationTest {
     @Test
     void testRedisConnectionFailureRecovery() {
         // Given - Redis connection failure
-        when(redisTemplate.opsForZSet()).thenThrow(new RedisConnectionFailureException("Redis connection failed"));
+        when(velocityScriptCall()).thenThrow(new RedisConnectionFailureException("Redis connection failed"));
 
         Transaction transaction = createTransaction(
             "TXN_REDIS_FAIL_001",
@@ -216,12 +217,12 @@ class ResilienceIntegrationTest extends BaseIntegrationTest {
         AtomicInteger callCount = new AtomicInteger(0);
         
         // Mock intermittent failures
-        when(redisTemplate.opsForZSet()).thenAnswer(invocation -> {
+        when(velocityScriptCall()).thenAnswer(invocation -> {
             int count = callCount.incrementAndGet();
             if (count % 3 == 0) {
                 throw new RedisConnectionFailureException("Intermittent failure");
             }
-            return mock(org.springframework.data.redis.core.ZSetOperations.class);
+            return null;
         });
 
         // When - Make multiple calls
@@ -260,7 +261,7 @@ class ResilienceIntegrationTest extends BaseIntegrationTest {
     @Test
     void testGracefulDegradation() {
         // Given - Multiple service dependencies fail
-        when(redisTemplate.opsForZSet()).thenThrow(new RedisConnectionFailureException("Redis down"));
+        when(velocityScriptCall()).thenThrow(new RedisConnectionFailureException("Redis down"));
         when(kafkaTemplate.send(anyString(), anyString(), anyString()))
             .thenThrow(new RuntimeException("Kafka down"));
 
@@ -280,13 +281,15 @@ class ResilienceIntegrationTest extends BaseIntegrationTest {
         assertThat(result.getTransactionId()).isEqualTo("TXN_DEGRADED_001");
         // Amount-based rules should still work without Redis
         assertThat(result.isFraud()).isTrue(); // High amount should trigger fraud detection
+        // Velocity rules are answered from the in-process fallback windows
+        assertThat(result.isDegraded()).isTrue();
     }
 
     @Test
     @Timeout(15)
     void testServiceRecoveryAfterFailure() throws InterruptedException {
         // Given - Initial failure state
-        when(redisTemplate.opsForZSet()).thenThrow(new RedisConnectionFailureException("Initial failure"));
+        when(velocityScriptCall()).thenThrow(new RedisConnectionFailureException("Initial failure"));
 
         Transaction failingTransaction = createTransaction(
             "TXN_RECOVERY_FAIL",
@@ -302,7 +305,7 @@ class ResilienceIntegrationTest extends BaseIntegrationTest {
 
         // Simulate service recovery
         reset(redisTemplate);
-        when(redisTemplate.opsForZSet()).thenReturn(mock(org.springframework.data.redis.core.ZSetOperations.class));
+        when(velocityScriptCall()).thenReturn(null);
 
         // When - Service recovers
         Transaction recoveryTransaction = createTransaction(
@@ -358,13 +361,13 @@ class ResilienceIntegrationTest extends BaseIntegrationTest {
     @Timeout(10)
     void testTimeoutHandling() {
         // Given - Simulate slow external service
-        when(redisTemplate.opsForZSet()).thenAnswer(invocation -> {
+        when(velocityScriptCall()).thenAnswer(invocation -> {
             try {
                 Thread.sleep(5000); // Simulate slow operation
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             }
-            return mock(org.springframework.data.redis.core.ZSetOperations.class);
+            return null;
         });
 
         Transaction transaction = createTransaction(
@@ -399,12 +402,12 @@ class ResilienceIntegrationTest extends BaseIntegrationTest {
 
         // Mock intermittent Redis failures
         AtomicInteger callCount = new AtomicInteger(0);
-        when(redisTemplate.opsForZSet()).thenAnswer(invocation -> {
+        when(velocityScriptCall()).thenAnswer(invocation -> {
             int count = callCount.incrementAndGet();
             if (count % 4 == 0) { // Every 4th call fails
                 throw new RedisConnectionFailureException("Intermittent Redis failure");
             }
-            return mock(org.springframework.data.redis.core.ZSetOperations.class);
+            return null;
         });
 
         try {
@@ -457,7 +460,7 @@ class ResilienceIntegrationTest extends BaseIntegrationTest {
         );
 
         // When - Process transaction even with Redis failure
-        when(redisTemplate.opsForZSet()).thenThrow(new RedisConnectionFailureException("Redis failure"));
+        when(velocityScriptCall()).thenThrow(new RedisConnectionFailureException("Redis failure"));
         
         FraudDetectionResult result = fraudDetectionService.detectFraud(fraudTransaction);
 
@@ -530,6 +533,13 @@ class ResilienceIntegrationTest extends BaseIntegrationTest {
         });
     }
 
+    /**
+     * Velocity windows are updated through pipelined Redis scripts, so Redis failures are simulated on the pipeline
+     */
+    private Object velocityScriptCall() {
+        return redisTemplate.executePipelined(any(RedisCallback.class));
+    }
+
     private Transaction createTransaction(String transactionId, String userId, BigDecimal amount, 
                                        String ipAddress, LocalDateTime timestamp) {
         return Transaction.builder()
@@ -4,6 +4,12 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.faud.frauddetection.config.FraudDetectionProperties;
 import com.faud.frauddetection.dto.FraudDetectionResult;
+import com.faud.frauddetection.service.kafka.BinaryCodec;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,11 +17,15 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.SendResult;
 
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
@@ -95,6 +105,32 @@ class AlertServiceTest {
         verify(objectMapper, times(1)).writeValueAsString(any());
     }
     
+    @Test
+    @SuppressWarnings("unchecked")
+    void sendAlert_shouldSendBinaryAlertWithContentType_whenWireFormatIsBinary() throws Exception {
+        when(alertProperties.isEnabled()).thenReturn(true);
+        when(alertProperties.getWireFormat()).thenReturn(FraudDetectionProperties.WireFormat.BINARY);
+        when(alertProperties.getKafkaTopic()).thenReturn("fraud-alerts-topic");
+        MockProducer<String, byte[]> producer = new MockProducer<>(true, new StringSerializer(), new ByteArraySerializer());
+        ProducerFactory<String, byte[]> binaryProducerFactory = () -> producer;
+        ProducerFactory<String, String> producerFactory = mock(ProducerFactory.class);
+        doReturn(binaryProducerFactory).when(producerFactory).copyWithConfigurationOverride(anyMap());
+        when(kafkaTemplate.getProducerFactory()).thenReturn(producerFactory);
+
+        alertService.sendAlert(fraudulentResult);
+
+        assertThat(producer.history()).hasSize(1);
+        ProducerRecord<String, byte[]> alert = producer.history().get(0);
+        assertThat(alert.topic()).isEqualTo("fraud-alerts-topic");
+        assertThat(alert.key()).isEqualTo("txn-123-fraud");
+        assertThat(BinaryCodec.isBinary(alert.headers())).isTrue();
+        assertThat(new BinaryCodec().decodeResult(alert.value()).getRiskScore()).isEqualTo(95.0);
+        verify(producerFactory).copyWithConfigurationOverride(
+            Map.of(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class));
+        verify(kafkaTemplate, never()).send(anyString(), anyString(), anyString());
+        verifyNoInteractions(objectMapper);
+    }
+
     @Test
     void sendAlert_shouldHandleKafkaSendFailure() throws Exception {
         when(alertProperties.isEnabled()).thenReturn(true);
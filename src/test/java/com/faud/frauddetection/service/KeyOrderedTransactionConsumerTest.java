@@ -0,0 +1,178 @@
+package com.faud.frauddetection.service;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.dto.FraudDetectionResult;
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.service.kafka.OffsetCommitter;
+import com.faud.frauddetection.service.kafka.TransactionReader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for KeyOrderedTransactionConsumer
+ */
+class KeyOrderedTransactionConsumerTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("transactions", 0);
+
+    private FraudDetectionService fraudDetectionService;
+    private Consumer<?, ?> consumer;
+    private SimpleMeterRegistry meterRegistry;
+    private OffsetCommitter offsetCommitter;
+    private KeyOrderedTransactionConsumer keyOrderedConsumer;
+
+    @BeforeEach
+    void setUp() {
+        fraudDetectionService = mock(FraudDetectionService.class);
+        consumer = mock(Consumer.class);
+        when(consumer.assignment()).thenReturn(Set.of(PARTITION));
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        properties.setThreadPoolSize(4);
+        properties.getOffsetCommit().setIntervalMs(0);
+        meterRegistry = new SimpleMeterRegistry();
+        offsetCommitter = new OffsetCommitter(properties, meterRegistry);
+        keyOrderedConsumer = new KeyOrderedTransactionConsumer(fraudDetectionService, offsetCommitter,
+            new TransactionReader(), properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        keyOrderedConsumer.shutdown();
+    }
+
+    @Test
+    void consumeBatch_ShouldDetectEachUserInOffsetOrder() {
+        List<String> detected = new CopyOnWriteArrayList<>();
+        when(fraudDetectionService.detectFraud(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction transaction = invocation.getArgument(0);
+            detected.add(transaction.getUserId() + ":" + transaction.getTransactionId());
+            return persisted(transaction);
+        });
+
+        keyOrderedConsumer.consumeBatch(List.of(record(0, "U1", "TXN_0"), record(1, "U2", "TXN_1"),
+            record(2, "U1", "TXN_2"), record(3, "U2", "TXN_3"), record(4, "U1", "TXN_4")), consumer);
+
+        verify(fraudDetectionService, timeout(5_000).times(5)).detectFraud(any(Transaction.class));
+        assertThat(detected.stream().filter(entry -> entry.startsWith("U1:")))
+            .containsExactly("U1:TXN_0", "U1:TXN_2", "U1:TXN_4");
+        assertThat(detected.stream().filter(entry -> entry.startsWith("U2:")))
+            .containsExactly("U2:TXN_1", "U2:TXN_3");
+    }
+
+    @Test
+    void consumeBatch_SlowUser_ShouldCommitOnlyUpToItsRecord() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(fraudDetectionService.detectFraud(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction transaction = invocation.getArgument(0);
+            if ("U1".equals(transaction.getUserId())) {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return persisted(transaction);
+        });
+
+        keyOrderedConsumer.consumeBatch(List.of(record(0, "U2", "TXN_0"), record(1, "U1", "TXN_1"),
+            record(2, "U3", "TXN_2")), consumer);
+
+        // Records after the slow user's are detected, but not committed past it
+        waitForPendingRecords(1);
+        keyOrderedConsumer.consumeBatch(List.of(), consumer);
+        verify(consumer).commitAsync(eq(Map.of(PARTITION, new OffsetAndMetadata(1))), any(OffsetCommitCallback.class));
+        verify(consumer, never()).commitAsync(eq(Map.of(PARTITION, new OffsetAndMetadata(3))), any(OffsetCommitCallback.class));
+
+        release.countDown();
+        waitForPendingRecords(0);
+        keyOrderedConsumer.consumeBatch(List.of(), consumer);
+        verify(consumer).commitAsync(eq(Map.of(PARTITION, new OffsetAndMetadata(3))), any(OffsetCommitCallback.class));
+    }
+
+    @Test
+    void consumeBatch_ResultNotSaved_ShouldConsumeAgainFromIt() {
+        when(fraudDetectionService.detectFraud(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction transaction = invocation.getArgument(0);
+            return "U1".equals(transaction.getUserId()) ? FraudDetectionResult.builder().build() : persisted(transaction);
+        });
+
+        keyOrderedConsumer.consumeBatch(List.of(record(0, "U2", "TXN_0"), record(1, "U1", "TXN_1")), consumer);
+        waitForPendingRecords(0);
+        keyOrderedConsumer.consumeBatch(List.of(), consumer);
+
+        verify(consumer).seek(PARTITION, 1L);
+    }
+
+    @Test
+    void consumeBatch_MalformedRecord_ShouldSkipAndCommitIt() {
+        keyOrderedConsumer.consumeBatch(List.of(
+            new ConsumerRecord<>("transactions", 0, 0L, "U1", "not json".getBytes(StandardCharsets.UTF_8))), consumer);
+
+        verify(fraudDetectionService, never()).detectFraud(any(Transaction.class));
+        verify(consumer).commitAsync(eq(Map.of(PARTITION, new OffsetAndMetadata(1))), any(OffsetCommitCallback.class));
+    }
+
+    @Test
+    void consumeBatch_DetectionFailure_ShouldStillCompleteRecord() {
+        when(fraudDetectionService.detectFraud(any(Transaction.class))).thenThrow(new RuntimeException("Redis down"));
+
+        keyOrderedConsumer.consumeBatch(List.of(record(0, "U1", "TXN_0")), consumer);
+        waitForPendingRecords(0);
+        keyOrderedConsumer.consumeBatch(List.of(), consumer);
+
+        verify(consumer).commitAsync(eq(Map.of(PARTITION, new OffsetAndMetadata(1))), any(OffsetCommitCallback.class));
+    }
+
+    @Test
+    void constructor_InvalidThreadPoolSize_ShouldThrow() {
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        properties.setThreadPoolSize(0);
+
+        assertThatThrownBy(() -> new KeyOrderedTransactionConsumer(fraudDetectionService, offsetCommitter,
+            new TransactionReader(), properties))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void waitForPendingRecords(int pending) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (pendingRecords() != pending && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(pendingRecords()).isEqualTo(pending);
+    }
+
+    private double pendingRecords() {
+        return meterRegistry.get(OffsetCommitter.PENDING_RECORDS_GAUGE).gauge().value();
+    }
+
+    private static FraudDetectionResult persisted(Transaction transaction) {
+        return FraudDetectionResult.builder().transactionId(transaction.getTransactionId()).persisted(true).build();
+    }
+
+    private static ConsumerRecord<String, byte[]> record(long offset, String userId, String transactionId) {
+        return new ConsumerRecord<>("transactions", 0, offset, userId,
+            ("{\"transactionId\":\"" + transactionId + "\",\"userId\":\"" + userId + "\",\"amount\":10.00}")
+                .getBytes(StandardCharsets.UTF_8));
+    }
+}
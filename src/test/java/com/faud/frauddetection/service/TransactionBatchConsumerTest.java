@@ -0,0 +1,138 @@
+package com.faud.frauddetection.service;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.dto.FraudDetectionResult;
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.service.kafka.OffsetCommitter;
+import com.faud.frauddetection.service.kafka.TransactionReader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for TransactionBatchConsumer
+ */
+class TransactionBatchConsumerTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("transactions", 0);
+
+    private FraudDetectionService fraudDetectionService;
+    private OffsetCommitter offsetCommitter;
+    private Consumer<?, ?> kafkaConsumer;
+    private TransactionBatchConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        fraudDetectionService = mock(FraudDetectionService.class);
+        kafkaConsumer = mock(Consumer.class);
+        when(kafkaConsumer.assignment()).thenReturn(Set.of(PARTITION));
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        properties.setBatchSize(2);
+        properties.getOffsetCommit().setIntervalMs(0);
+        offsetCommitter = new OffsetCommitter(properties, new SimpleMeterRegistry());
+        consumer = new TransactionBatchConsumer(fraudDetectionService, offsetCommitter, new TransactionReader(), properties);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void consumeBatch_ShouldDetectInBatchesOfBatchSizeInOffsetOrder() {
+        List<ConsumerRecord<String, byte[]>> records = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            records.add(record(i, "{\"transactionId\":\"TXN_" + i + "\",\"userId\":\"U1\",\"amount\":10.00}"));
+        }
+        ArgumentCaptor<List<Transaction>> batches = ArgumentCaptor.forClass(List.class);
+
+        consumer.consumeBatch(records, kafkaConsumer);
+
+        verify(fraudDetectionService, times(3)).detectFraudBatch(batches.capture());
+        assertThat(batches.getAllValues()).extracting(List::size).containsExactly(2, 2, 1);
+        assertThat(batches.getAllValues().get(0)).extracting(Transaction::getTransactionId)
+            .containsExactly("TXN_0", "TXN_1");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void consumeBatch_MalformedRecord_ShouldSkipItAndDetectTheRest() {
+        ArgumentCaptor<List<Transaction>> batches = ArgumentCaptor.forClass(List.class);
+
+        consumer.consumeBatch(List.of(record(0, "not json"), record(1, "{\"transactionId\":\"TXN_1\"}")), kafkaConsumer);
+
+        verify(fraudDetectionService).detectFraudBatch(batches.capture());
+        assertThat(batches.getValue()).extracting(Transaction::getTransactionId).containsExactly("TXN_1");
+    }
+
+    @Test
+    void consumeBatch_DetectionFailure_ShouldContinueWithNextBatch() {
+        when(fraudDetectionService.detectFraudBatch(anyList()))
+            .thenThrow(new RuntimeException("Redis down"))
+            .thenReturn(List.of());
+
+        consumer.consumeBatch(List.of(record(0, "{\"transactionId\":\"TXN_0\"}"), record(1, "{\"transactionId\":\"TXN_1\"}"),
+            record(2, "{\"transactionId\":\"TXN_2\"}")), kafkaConsumer);
+
+        verify(fraudDetectionService, times(2)).detectFraudBatch(anyList());
+        verify(kafkaConsumer).seek(PARTITION, 0L);
+    }
+
+    @Test
+    void consumeBatch_ResultsSaved_ShouldCommitPastBatch() {
+        when(fraudDetectionService.detectFraudBatch(anyList()))
+            .thenReturn(List.of(persisted("TXN_0"), persisted("TXN_1")));
+
+        consumer.consumeBatch(List.of(record(0, "{\"transactionId\":\"TXN_0\"}"), record(1, "{\"transactionId\":\"TXN_1\"}")),
+            kafkaConsumer);
+
+        verify(kafkaConsumer).commitAsync(eq(Map.of(PARTITION, new OffsetAndMetadata(2))), any(OffsetCommitCallback.class));
+    }
+
+    @Test
+    void consumeBatch_ResultNotSaved_ShouldConsumeAgainFromIt() {
+        when(fraudDetectionService.detectFraudBatch(anyList()))
+            .thenReturn(List.of(persisted("TXN_0"), FraudDetectionResult.builder().transactionId("TXN_1").build()));
+
+        consumer.consumeBatch(List.of(record(0, "{\"transactionId\":\"TXN_0\"}"), record(1, "{\"transactionId\":\"TXN_1\"}")),
+            kafkaConsumer);
+
+        verify(kafkaConsumer).seek(PARTITION, 1L);
+    }
+
+    @Test
+    void constructor_InvalidBatchSize_ShouldThrow() {
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        properties.setBatchSize(0);
+
+        assertThatThrownBy(() -> new TransactionBatchConsumer(fraudDetectionService, offsetCommitter,
+            new TransactionReader(), properties))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static FraudDetectionResult persisted(String transactionId) {
+        return FraudDetectionResult.builder().transactionId(transactionId).persisted(true).build();
+    }
+
+    private static ConsumerRecord<String, byte[]> record(long offset, String value) {
+        return new ConsumerRecord<>("transactions", 0, offset, "U1", value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,108 @@
+package com.faud.frauddetection.service;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.dto.FraudDetectionResult;
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.service.kafka.OffsetCommitter;
+import com.faud.frauddetection.service.kafka.TransactionReader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for TransactionConsumer
+ */
+class TransactionConsumerTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("transactions", 0);
+
+    private FraudDetectionService fraudDetectionService;
+    private FraudDetectionProperties properties;
+    private OffsetCommitter offsetCommitter;
+    private TransactionReader transactionReader;
+    private Consumer<?, ?> kafkaConsumer;
+
+    @BeforeEach
+    void setUp() {
+        fraudDetectionService = mock(FraudDetectionService.class);
+        kafkaConsumer = mock(Consumer.class);
+        when(kafkaConsumer.assignment()).thenReturn(Set.of(PARTITION));
+        properties = new FraudDetectionProperties();
+        properties.getOffsetCommit().setIntervalMs(0);
+        offsetCommitter = new OffsetCommitter(properties, new SimpleMeterRegistry());
+        transactionReader = new TransactionReader();
+    }
+
+    @Test
+    void consume_Async_ShouldCommitOnceResultIsSaved() {
+        CompletableFuture<FraudDetectionResult> detection = new CompletableFuture<>();
+        when(fraudDetectionService.detectFraudAsync(any(Transaction.class))).thenReturn(detection);
+        TransactionConsumer consumer = new TransactionConsumer(fraudDetectionService, offsetCommitter, transactionReader, properties);
+
+        consumer.consume(record(0, "{\"transactionId\":\"TXN_0\"}"), kafkaConsumer);
+        verify(kafkaConsumer, never()).commitAsync(eq(Map.of(PARTITION, new OffsetAndMetadata(1))), any(OffsetCommitCallback.class));
+
+        detection.complete(FraudDetectionResult.builder().transactionId("TXN_0").persisted(true).build());
+        consumer.consume(record(1, "not json"), kafkaConsumer);
+
+        verify(kafkaConsumer).commitAsync(eq(Map.of(PARTITION, new OffsetAndMetadata(2))), any(OffsetCommitCallback.class));
+    }
+
+    @Test
+    void consume_Sync_ResultNotSaved_ShouldConsumeAgainFromIt() {
+        properties.setAsyncProcessing(false);
+        when(fraudDetectionService.detectFraud(any(Transaction.class)))
+            .thenReturn(FraudDetectionResult.builder().transactionId("TXN_0").riskLevel("HIGH").build());
+        TransactionConsumer consumer = new TransactionConsumer(fraudDetectionService, offsetCommitter, transactionReader, properties);
+
+        consumer.consume(record(0, "{\"transactionId\":\"TXN_0\"}"), kafkaConsumer);
+
+        verify(kafkaConsumer).seek(PARTITION, 0L);
+        verify(kafkaConsumer, never()).commitAsync(anyMap(), any(OffsetCommitCallback.class));
+    }
+
+    @Test
+    void consume_Sync_FailedDetection_ShouldNotRetry() {
+        properties.setAsyncProcessing(false);
+        when(fraudDetectionService.detectFraud(any(Transaction.class))).thenReturn(FraudDetectionResult.builder()
+            .transactionId("TXN_0").riskLevel(FraudDetectionResult.ERROR_RISK_LEVEL).build());
+        TransactionConsumer consumer = new TransactionConsumer(fraudDetectionService, offsetCommitter, transactionReader, properties);
+
+        consumer.consume(record(0, "{\"transactionId\":\"TXN_0\"}"), kafkaConsumer);
+
+        verify(kafkaConsumer, never()).seek(any(TopicPartition.class), any(Long.class));
+        verify(kafkaConsumer).commitAsync(eq(Map.of(PARTITION, new OffsetAndMetadata(1))), any(OffsetCommitCallback.class));
+    }
+
+    @Test
+    void consume_MalformedMessage_ShouldSkipAndCommitIt() {
+        TransactionConsumer consumer = new TransactionConsumer(fraudDetectionService, offsetCommitter, transactionReader, properties);
+
+        consumer.consume(record(0, "not json"), kafkaConsumer);
+
+        verify(fraudDetectionService, never()).detectFraudAsync(any(Transaction.class));
+        verify(kafkaConsumer).commitAsync(eq(Map.of(PARTITION, new OffsetAndMetadata(1))), any(OffsetCommitCallback.class));
+    }
+
+    private static ConsumerRecord<String, byte[]> record(long offset, String value) {
+        return new ConsumerRecord<>("transactions", 0, offset, "U1", value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -4,6 +4,12 @@ import com.faud.frauddetection.dto.RuleEvaluationResult;
 import com.faud.frauddetection.dto.Transaction;
 import com.faud.frauddetection.entity.FraudRule;
 import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.service.rule.CompiledRule;
+import com.faud.frauddetection.service.rule.RuleCompiler;
+import com.faud.frauddetection.service.rule.TransactionFieldRegistry;
+import com.faud.frauddetection.service.rule.ValueListRegistry;
+import com.faud.frauddetection.service.velocity.VelocityAggregates;
+import com.faud.frauddetection.service.velocity.VelocityStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,14 +17,11 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.ZSetOperations;
-import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.Set;
-import java.util.HashSet;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
@@ -32,10 +35,7 @@ import static org.mockito.Mockito.*;
 class AmountEvaluatorTest {
 
     @Mock
-    private StringRedisTemplate redisTemplate;
-
-    @Mock
-    private ZSetOperations<String, String> zSetOperations;
+    private VelocityStore velocityStore;
 
     @Mock
     private FraudDetectionProperties properties;
@@ -48,13 +48,11 @@ class AmountEvaluatorTest {
 
     @BeforeEach
     void setUp() {
-        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
-        
         // Setup mock properties
         when(properties.getTimeWindow()).thenReturn(timeWindow);
         when(timeWindow.getDefaultSeconds()).thenReturn(3600L);
         
-        amountEvaluator = new AmountEvaluator(redisTemplate, properties);
+        amountEvaluator = new AmountEvaluator(velocityStore, properties);
         
         testTransaction = Transaction.builder()
                 .transactionId("TXN_001")
@@ -89,16 +87,7 @@ class AmountEvaluatorTest {
             "{\"timeWindowSeconds\": 3600}");
         
         // Mock Redis to return cumulative amount exceeding threshold
-        Set<ZSetOperations.TypedTuple<String>> mockData = new HashSet<>();
-        mockData.add(new DefaultTypedTuple<>("500.00", 1000.0));
-        mockData.add(new DefaultTypedTuple<>("800.00", 2000.0));
-        mockData.add(new DefaultTypedTuple<>("1000.00", 3000.0)); // Current transaction
-        
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.rangeByScoreWithScores(anyString(), anyDouble(), anyDouble()))
-            .thenReturn(mockData);
-        when(redisTemplate.expire(anyString(), anyLong(), any())).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowSum(new BigDecimal("2300.00")));
 
         // When
         RuleEvaluationResult result = amountEvaluator.evaluateRule(rule, testTransaction);
@@ -112,9 +101,7 @@ class AmountEvaluatorTest {
         assertThat(result.getThresholdValue()).isEqualTo("2000");
         
         // Verify Redis interactions
-        verify(zSetOperations).add(eq("amounts:user:USER_123"), eq("1000"), anyDouble());
-        verify(zSetOperations).removeRangeByScore(eq("amounts:user:USER_123"), anyDouble(), anyDouble());
-        verify(redisTemplate).expire(eq("amounts:user:USER_123"), eq(3600L), any());
+        verify(velocityStore).recordAndAggregate(eq(testTransaction), anyLong(), eq(3600L));
     }
 
     @Test
@@ -124,15 +111,7 @@ class AmountEvaluatorTest {
             "{\"timeWindowSeconds\": 1800}");
         
         // Mock Redis to return cumulative amount below threshold
-        Set<ZSetOperations.TypedTuple<String>> mockData = new HashSet<>();
-        mockData.add(new DefaultTypedTuple<>("1000.00", 1000.0));
-        mockData.add(new DefaultTypedTuple<>("2000.00", 2000.0));
-        
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(2L);
-        when(zSetOperations.rangeByScoreWithScores(anyString(), anyDouble(), anyDouble()))
-            .thenReturn(mockData);
-        when(redisTemplate.expire(anyString(), anyLong(), any())).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowSum(new BigDecimal("3000.00")));
 
         // When
         RuleEvaluationResult result = amountEvaluator.evaluateRule(rule, testTransaction);
@@ -151,17 +130,13 @@ class AmountEvaluatorTest {
         FraudRule rule = createAmountRule("custom_window", BigDecimal.valueOf(1000), 
             "{\"timeWindowSeconds\": 7200}"); // 2 hours
         
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.rangeByScoreWithScores(anyString(), anyDouble(), anyDouble()))
-            .thenReturn(new HashSet<>());
-        when(redisTemplate.expire(anyString(), anyLong(), any())).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowSum(BigDecimal.ZERO));
 
         // When
         amountEvaluator.evaluateRule(rule, testTransaction);
 
         // Then - verify custom time window is used
-        verify(redisTemplate).expire(eq("amounts:user:USER_123"), eq(7200L), any());
+        verify(velocityStore).recordAndAggregate(eq(testTransaction), anyLong(), eq(7200L));
     }
 
     @Test
@@ -188,17 +163,13 @@ class AmountEvaluatorTest {
         FraudRule rule = createAmountRule("invalid_json", BigDecimal.valueOf(1000), 
             "{invalid json}");
         
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.rangeByScoreWithScores(anyString(), anyDouble(), anyDouble()))
-            .thenReturn(new HashSet<>());
-        when(redisTemplate.expire(anyString(), anyLong(), any())).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowSum(BigDecimal.ZERO));
 
         // When
         amountEvaluator.evaluateRule(rule, testTransaction);
 
         // Then - should use default time window (3600 seconds)
-        verify(redisTemplate).expire(eq("amounts:user:USER_123"), eq(3600L), any());
+        verify(velocityStore).recordAndAggregate(eq(testTransaction), anyLong(), eq(3600L));
     }
 
     @Test
@@ -206,17 +177,13 @@ class AmountEvaluatorTest {
         // Given
         FraudRule rule = createAmountRule("empty_config", BigDecimal.valueOf(1000), "");
         
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.rangeByScoreWithScores(anyString(), anyDouble(), anyDouble()))
-            .thenReturn(new HashSet<>());
-        when(redisTemplate.expire(anyString(), anyLong(), any())).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowSum(BigDecimal.ZERO));
 
         // When
         amountEvaluator.evaluateRule(rule, testTransaction);
 
         // Then - should use default time window (3600 seconds)
-        verify(redisTemplate).expire(eq("amounts:user:USER_123"), eq(3600L), any());
+        verify(velocityStore).recordAndAggregate(eq(testTransaction), anyLong(), eq(3600L));
     }
 
     @Test
@@ -224,14 +191,7 @@ class AmountEvaluatorTest {
         // Given
         FraudRule rule = createAmountRule("invalid_redis_data", BigDecimal.valueOf(1000), "");
         
-        Set<ZSetOperations.TypedTuple<String>> mockData = new HashSet<>();
-        mockData.add(new DefaultTypedTuple<>("invalid_amount", 1000.0));
-        
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.rangeByScoreWithScores(anyString(), anyDouble(), anyDouble()))
-            .thenReturn(mockData);
-        when(redisTemplate.expire(anyString(), anyLong(), any())).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowSum(new BigDecimal("0")));
 
         // When
         RuleEvaluationResult result = amountEvaluator.evaluateRule(rule, testTransaction);
@@ -246,7 +206,7 @@ class AmountEvaluatorTest {
         // Given
         FraudRule rule = createAmountRule("redis_exception", BigDecimal.valueOf(1000), "");
         
-        when(zSetOperations.add(anyString(), anyString(), anyDouble()))
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong()))
             .thenThrow(new RuntimeException("Redis connection failed"));
 
         // When
@@ -263,11 +223,7 @@ class AmountEvaluatorTest {
         // Given
         FraudRule rule = createAmountRule("null_data", BigDecimal.valueOf(1000), "");
         
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.rangeByScoreWithScores(anyString(), anyDouble(), anyDouble()))
-            .thenReturn(null);
-        when(redisTemplate.expire(anyString(), anyLong(), any())).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowSum(BigDecimal.ZERO));
 
         // When
         RuleEvaluationResult result = amountEvaluator.evaluateRule(rule, testTransaction);
@@ -283,15 +239,7 @@ class AmountEvaluatorTest {
         // Given
         FraudRule rule = createAmountRule("exact_match", BigDecimal.valueOf(2000), "");
         
-        Set<ZSetOperations.TypedTuple<String>> mockData = new HashSet<>();
-        mockData.add(new DefaultTypedTuple<>("1000.00", 1000.0)); // Previous transaction
-        mockData.add(new DefaultTypedTuple<>("1000.00", 2000.0)); // Current transaction added by evaluator
-        
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.rangeByScoreWithScores(anyString(), anyDouble(), anyDouble()))
-            .thenReturn(mockData);
-        when(redisTemplate.expire(anyString(), anyLong(), any())).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowSum(new BigDecimal("2000.00")));
 
         // When
         RuleEvaluationResult result = amountEvaluator.evaluateRule(rule, testTransaction);
@@ -307,15 +255,7 @@ class AmountEvaluatorTest {
         // Given
         FraudRule rule = createAmountRule("risk_calculation", BigDecimal.valueOf(1000), "");
         
-        Set<ZSetOperations.TypedTuple<String>> mockData = new HashSet<>();
-        mockData.add(new DefaultTypedTuple<>("500.00", 1000.0)); // Previous transaction
-        mockData.add(new DefaultTypedTuple<>("1000.00", 2000.0)); // Current transaction
-        
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.rangeByScoreWithScores(anyString(), anyDouble(), anyDouble()))
-            .thenReturn(mockData);
-        when(redisTemplate.expire(anyString(), anyLong(), any())).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowSum(new BigDecimal("1500.00")));
 
         // When
         RuleEvaluationResult result = amountEvaluator.evaluateRule(rule, testTransaction);
@@ -331,17 +271,13 @@ class AmountEvaluatorTest {
         FraudRule rule = createAmountRule("string_window", BigDecimal.valueOf(1000), 
             "{\"timeWindowSeconds\": \"7200\"}"); // String value should be parsed
         
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.rangeByScoreWithScores(anyString(), anyDouble(), anyDouble()))
-            .thenReturn(new HashSet<>());
-        when(redisTemplate.expire(anyString(), anyLong(), any())).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowSum(BigDecimal.ZERO));
 
         // When
         amountEvaluator.evaluateRule(rule, testTransaction);
 
         // Then - should parse string value correctly
-        verify(redisTemplate).expire(eq("amounts:user:USER_123"), eq(7200L), any());
+        verify(velocityStore).recordAndAggregate(eq(testTransaction), anyLong(), eq(7200L));
     }
 
     @Test
@@ -350,17 +286,13 @@ class AmountEvaluatorTest {
         FraudRule rule = createAmountRule("numeric_window", BigDecimal.valueOf(1000), 
             "{\"timeWindowSeconds\": 1800}"); // Numeric value
         
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.rangeByScoreWithScores(anyString(), anyDouble(), anyDouble()))
-            .thenReturn(new HashSet<>());
-        when(redisTemplate.expire(anyString(), anyLong(), any())).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowSum(BigDecimal.ZERO));
 
         // When
         amountEvaluator.evaluateRule(rule, testTransaction);
 
         // Then - should parse numeric value correctly
-        verify(redisTemplate).expire(eq("amounts:user:USER_123"), eq(1800L), any());
+        verify(velocityStore).recordAndAggregate(eq(testTransaction), anyLong(), eq(1800L));
     }
 
     @Test
@@ -369,17 +301,13 @@ class AmountEvaluatorTest {
         FraudRule rule = createAmountRule("missing_key", BigDecimal.valueOf(1000), 
             "{\"otherKey\": 1800}"); // Missing timeWindowSeconds key
         
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.rangeByScoreWithScores(anyString(), anyDouble(), anyDouble()))
-            .thenReturn(new HashSet<>());
-        when(redisTemplate.expire(anyString(), anyLong(), any())).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowSum(BigDecimal.ZERO));
 
         // When
         amountEvaluator.evaluateRule(rule, testTransaction);
 
         // Then - should use default time window
-        verify(redisTemplate).expire(eq("amounts:user:USER_123"), eq(3600L), any());
+        verify(velocityStore).recordAndAggregate(eq(testTransaction), anyLong(), eq(3600L));
     }
 
     @Test
@@ -388,17 +316,13 @@ class AmountEvaluatorTest {
         FraudRule rule = createAmountRule("invalid_number", BigDecimal.valueOf(1000), 
             "{\"timeWindowSeconds\": \"invalid_number\"}"); // Invalid string number
         
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.rangeByScoreWithScores(anyString(), anyDouble(), anyDouble()))
-            .thenReturn(new HashSet<>());
-        when(redisTemplate.expire(anyString(), anyLong(), any())).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowSum(BigDecimal.ZERO));
 
         // When
         amountEvaluator.evaluateRule(rule, testTransaction);
 
         // Then - should use default time window
-        verify(redisTemplate).expire(eq("amounts:user:USER_123"), eq(3600L), any());
+        verify(velocityStore).recordAndAggregate(eq(testTransaction), anyLong(), eq(3600L));
     }
 
     @Test
@@ -406,17 +330,13 @@ class AmountEvaluatorTest {
         // Given
         FraudRule rule = createAmountRule("null_config", BigDecimal.valueOf(1000), null);
         
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.rangeByScoreWithScores(anyString(), anyDouble(), anyDouble()))
-            .thenReturn(new HashSet<>());
-        when(redisTemplate.expire(anyString(), anyLong(), any())).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowSum(BigDecimal.ZERO));
 
         // When
         amountEvaluator.evaluateRule(rule, testTransaction);
 
         // Then - should use default time window
-        verify(redisTemplate).expire(eq("amounts:user:USER_123"), eq(3600L), any());
+        verify(velocityStore).recordAndAggregate(eq(testTransaction), anyLong(), eq(3600L));
     }
 
     @Test
@@ -424,14 +344,7 @@ class AmountEvaluatorTest {
         // Given
         FraudRule rule = createAmountRule("low_risk", BigDecimal.valueOf(2000), "");
         
-        Set<ZSetOperations.TypedTuple<String>> mockData = new HashSet<>();
-        mockData.add(new DefaultTypedTuple<>("500.00", 1000.0)); // Total = 1500, risk = 1500/2000 = 0.75
-        
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.rangeByScoreWithScores(anyString(), anyDouble(), anyDouble()))
-            .thenReturn(mockData);
-        when(redisTemplate.expire(anyString(), anyLong(), any())).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowSum(new BigDecimal("500.00")));
 
         // When
         RuleEvaluationResult result = amountEvaluator.evaluateRule(rule, testTransaction);
@@ -446,17 +359,7 @@ class AmountEvaluatorTest {
         // Given
         FraudRule rule = createAmountRule("multi_tx", BigDecimal.valueOf(3000), "");
         
-        Set<ZSetOperations.TypedTuple<String>> mockData = new HashSet<>();
-        mockData.add(new DefaultTypedTuple<>("1000.00", 1000.0)); // Previous transaction 1
-        mockData.add(new DefaultTypedTuple<>("1500.00", 1500.0)); // Previous transaction 2
-        mockData.add(new DefaultTypedTuple<>("1000.00", 2000.0)); // Current transaction
-        // Total = 1000 + 1500 + 1000 = 3500
-        
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.rangeByScoreWithScores(anyString(), anyDouble(), anyDouble()))
-            .thenReturn(mockData);
-        when(redisTemplate.expire(anyString(), anyLong(), any())).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowSum(new BigDecimal("3500.00")));
 
         // When
         RuleEvaluationResult result = amountEvaluator.evaluateRule(rule, testTransaction);
@@ -467,6 +370,23 @@ class AmountEvaluatorTest {
         assertThat(result.getRiskScore()).isEqualTo(1.0); // 3500/3000 > 1, capped at 1.0
     }
 
+    @Test
+    void testEvaluateRule_SharedVelocity_ShouldReadWindowWithoutRecording() {
+        // Given
+        FraudRule rule = createAmountRule("shared_velocity", BigDecimal.valueOf(2000), "{\"timeWindowSeconds\": 3600}");
+        VelocityAggregates aggregates = new VelocityAggregates(new long[]{60L, 3600L},
+            new long[]{1L, 4L}, new BigDecimal[]{new BigDecimal("1000.00"), new BigDecimal("2500.00")});
+        RuleEvaluationContext context = RuleEvaluationContext.withVelocity(testTransaction, () -> aggregates);
+
+        // When
+        RuleEvaluationResult result = amountEvaluator.evaluateRule(compile(rule), context);
+
+        // Then - the window is read from the shared aggregates, the store is not called again
+        assertThat(result.isTriggered()).isTrue();
+        assertThat(result.getActualValue()).isEqualTo("2500.00");
+        verifyNoInteractions(velocityStore);
+    }
+
     private FraudRule createAmountRule(String ruleName, BigDecimal threshold, String config) {
         return FraudRule.builder()
             .ruleName(ruleName)
@@ -477,4 +397,23 @@ class AmountEvaluatorTest {
             .enabled(true)
             .build();
     }
-} 
\ No newline at end of file
+
+    private static Answer<VelocityAggregates> windowSum(BigDecimal sum) {
+        return invocation -> new VelocityAggregates(new long[]{requestedWindow(invocation)},
+            new long[]{1L}, new BigDecimal[]{sum});
+    }
+
+    /**
+     * Window length passed to the stubbed store, single vararg
+     */
+    private static long requestedWindow(InvocationOnMock invocation) {
+        Object window = invocation.getArguments()[2];
+        return window instanceof long[] windows ? windows[0] : (Long) window;
+    }
+
+    private CompiledRule compile(FraudRule rule) {
+        return new RuleCompiler(new TransactionFieldRegistry(), new ValueListRegistry(new FraudDetectionProperties()))
+            .compile(rule)
+            .withEvaluator(amountEvaluator);
+    }
+}
@@ -0,0 +1,208 @@
+package com.faud.frauddetection.service.evaluator;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.dto.RuleEvaluationResult;
+import com.faud.frauddetection.dto.RuleEvaluationStatus;
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.service.redis.RedisPipeline;
+import com.faud.frauddetection.service.rule.CompiledRule;
+import com.faud.frauddetection.service.rule.RuleCompiler;
+import com.faud.frauddetection.service.rule.TransactionFieldRegistry;
+import com.faud.frauddetection.service.rule.ValueListRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for DistinctCountEvaluator
+ */
+class DistinctCountEvaluatorTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+    private static final String DEVICES_PER_USER =
+        "{\"countField\": \"deviceId\", \"groupField\": \"userId\", \"timeWindowSeconds\": 3600}";
+
+    private StringRedisTemplate redisTemplate;
+    private FraudDetectionProperties properties;
+    private DistinctCountEvaluator evaluator;
+    private Transaction transaction;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        properties = new FraudDetectionProperties();
+        evaluator = new DistinctCountEvaluator(redisTemplate, new TransactionFieldRegistry(), properties);
+        transaction = Transaction.builder()
+            .transactionId("TXN_1")
+            .userId("U1")
+            .deviceId("D1")
+            .ipAddress("10.0.0.1")
+            .amount(BigDecimal.TEN)
+            .build();
+    }
+
+    @Test
+    void script_ShouldBeOnClasspath() {
+        assertThat(new ClassPathResource("scripts/distinct-count.lua").exists()).isTrue();
+    }
+
+    @Test
+    void supports_DistinctCountRuleType() {
+        assertThat(evaluator.supports("DISTINCT_COUNT")).isTrue();
+        assertThat(evaluator.supports("distinct_count")).isTrue();
+        assertThat(evaluator.supports("FREQUENCY")).isFalse();
+    }
+
+    @Test
+    void evaluateRule_MoreDistinctValuesThanThreshold_ShouldTrigger() {
+        when(redisTemplate.execute(eq(DistinctCountEvaluator.DISTINCT_COUNT_SCRIPT), anyList(), any(Object[].class)))
+            .thenReturn(7L);
+
+        RuleEvaluationResult result = evaluator.evaluateRule(rule(DEVICES_PER_USER, 5), transaction);
+
+        assertThat(result.isTriggered()).isTrue();
+        assertThat(result.getActualValue()).isEqualTo("7");
+        assertThat(result.getRiskScore()).isEqualTo(1.0);
+        assertThat(result.getReason()).isEqualTo("7 distinct deviceId per userId in 3600 seconds, exceeds threshold 5");
+    }
+
+    @Test
+    void evaluateRule_AtThreshold_ShouldNotTrigger() {
+        when(redisTemplate.execute(eq(DistinctCountEvaluator.DISTINCT_COUNT_SCRIPT), anyList(), any(Object[].class)))
+            .thenReturn(5L);
+
+        RuleEvaluationResult result = evaluator.evaluateRule(rule(DEVICES_PER_USER, 5), transaction);
+
+        assertThat(result.isTriggered()).isFalse();
+        assertThat(result.getReason()).isEqualTo("Distinct deviceId count is normal");
+    }
+
+    @Test
+    void query_ShouldAddToCurrentSliceAndMergeWindowSlices() {
+        DistinctCountEvaluator.SliceQuery query = evaluator.query(evaluator.configOf(rule(DEVICES_PER_USER, 5)), transaction, NOW);
+
+        long currentSlice = NOW / 300_000;
+        assertThat(query.keys()).hasSize(12);
+        assertThat(query.keys().get(0)).isEqualTo("v1:{u:U1}:d:deviceId:300:" + currentSlice);
+        assertThat(query.keys().get(11)).isEqualTo("v1:{u:U1}:d:deviceId:300:" + (currentSlice - 11));
+        assertThat(query.args()).containsExactly("D1", "3900");
+    }
+
+    @Test
+    void query_LongWindow_ShouldWidenSlicesToMaxSlices() {
+        String usersPerIp = "{\"countField\": \"userId\", \"groupField\": \"ipAddress\", \"timeWindowSeconds\": 86400}";
+
+        DistinctCountEvaluator.SliceQuery query = evaluator.query(evaluator.configOf(rule(usersPerIp, 20)), transaction, NOW);
+
+        assertThat(query.keys()).hasSize(48);
+        assertThat(query.keys().get(0)).startsWith("v1:{ipAddress:10.0.0.1}:d:userId:1800:");
+        assertThat(query.args()).containsExactly("U1", "88200");
+    }
+
+    @Test
+    void evaluateRule_MissingCountedValue_ShouldNotCallRedis() {
+        Transaction noDevice = transaction.toBuilder().deviceId(null).build();
+
+        RuleEvaluationResult result = evaluator.evaluateRule(rule(DEVICES_PER_USER, 5), noDevice);
+
+        assertThat(result.isTriggered()).isFalse();
+        assertThat(result.getStatus()).isNotEqualTo(RuleEvaluationStatus.FAILED);
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void evaluateRule_UnknownField_ShouldFail() {
+        RuleEvaluationResult result = evaluator.evaluateRule(
+            rule("{\"countField\": \"cardNumber\", \"groupField\": \"userId\"}", 10), transaction);
+
+        assertThat(result.getStatus()).isEqualTo(RuleEvaluationStatus.FAILED);
+        assertThat(result.getReason()).contains("Unknown countField 'cardNumber'");
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void evaluateRule_RedisFailure_ShouldFail() {
+        when(redisTemplate.execute(eq(DistinctCountEvaluator.DISTINCT_COUNT_SCRIPT), anyList(), any(Object[].class)))
+            .thenThrow(new RuntimeException("Redis down"));
+
+        RuleEvaluationResult result = evaluator.evaluateRule(rule(DEVICES_PER_USER, 5), transaction);
+
+        assertThat(result.getStatus()).isEqualTo(RuleEvaluationStatus.FAILED);
+        assertThat(result.getReason()).isEqualTo("Rule evaluation error: Redis down");
+    }
+
+    @Test
+    void prepare_ShouldReadCountFromBatch() {
+        StringRedisConnection connection = mock(StringRedisConnection.class);
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            ((RedisCallback<?>) invocation.getArgument(0)).doInRedis(connection);
+            return List.of(9L);
+        });
+        CompiledRule compiled = compile(rule(DEVICES_PER_USER, 5));
+        RuleEvaluationContext context = RuleEvaluationContext.of(transaction, new RedisPipeline(redisTemplate).newBatch());
+
+        evaluator.prepare(compiled, context);
+        RuleEvaluationResult result = evaluator.evaluateRule(compiled, context);
+
+        assertThat(result.isTriggered()).isTrue();
+        assertThat(result.getActualValue()).isEqualTo("9");
+        verify(redisTemplate, never()).execute(eq(DistinctCountEvaluator.DISTINCT_COUNT_SCRIPT), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void configOf_CompiledRule_ShouldBeParsedWhenBound() {
+        CompiledRule compiled = compile(rule(DEVICES_PER_USER, 5));
+
+        assertThat(compiled.getConfigError()).isNull();
+        assertThat(evaluator.configOf(compiled)).isSameAs(evaluator.configOf(compiled));
+        assertThat(evaluator.configOf(compiled).countField()).isEqualTo("deviceId");
+    }
+
+    @Test
+    void compile_InvalidConfig_ShouldKeepErrorAndFailEvaluation() {
+        CompiledRule compiled = compile(rule("{\"countField\": \"cardNumber\", \"groupField\": \"userId\"}", 10));
+        RuleEvaluationContext context = RuleEvaluationContext.of(transaction, new RedisPipeline(redisTemplate).newBatch());
+
+        evaluator.prepare(compiled, context);
+        RuleEvaluationResult result = evaluator.evaluateRule(compiled, context);
+
+        assertThat(compiled.getConfigError()).isEqualTo("Unknown countField 'cardNumber'");
+        assertThat(result.getStatus()).isEqualTo(RuleEvaluationStatus.FAILED);
+        assertThat(result.getReason()).isEqualTo("Rule evaluation error: Unknown countField 'cardNumber'");
+        verifyNoInteractions(redisTemplate);
+    }
+
+    private static FraudRule rule(String config, long threshold) {
+        return FraudRule.builder()
+            .ruleName("DISTINCT_RULE")
+            .ruleType("DISTINCT_COUNT")
+            .ruleConfig(config)
+            .thresholdValue(BigDecimal.valueOf(threshold))
+            .riskWeight(BigDecimal.valueOf(0.4))
+            .enabled(true)
+            .build();
+    }
+
+    private CompiledRule compile(FraudRule rule) {
+        return new RuleCompiler(new TransactionFieldRegistry(), new ValueListRegistry(properties))
+            .compile(rule)
+            .withEvaluator(evaluator);
+    }
+}
@@ -1,8 +1,12 @@
 package com.faud.frauddetection.service.evaluator;
 
+import com.faud.frauddetection.config.FraudDetectionProperties;
 import com.faud.frauddetection.dto.RuleEvaluationResult;
 import com.faud.frauddetection.dto.Transaction;
 import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.service.rule.RuleCompiler;
+import com.faud.frauddetection.service.rule.TransactionFieldRegistry;
+import com.faud.frauddetection.service.rule.ValueListRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -26,8 +30,9 @@ class DynamicEvaluatorTest {
 
     @BeforeEach
     void setUp() {
-        MultiConditionEvaluator multiConditionEvaluator = new MultiConditionEvaluator();
-        ruleEngine = new DynamicEvaluator(multiConditionEvaluator);
+        RuleCompiler ruleCompiler = new RuleCompiler(new TransactionFieldRegistry(), new ValueListRegistry(new FraudDetectionProperties()));
+        MultiConditionEvaluator multiConditionEvaluator = new MultiConditionEvaluator(ruleCompiler);
+        ruleEngine = new DynamicEvaluator(multiConditionEvaluator, ruleCompiler);
         
         testTransaction = Transaction.builder()
                 .transactionId("TXN_001")
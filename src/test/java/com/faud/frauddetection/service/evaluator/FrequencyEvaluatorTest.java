@@ -2,8 +2,15 @@ package com.faud.frauddetection.service.evaluator;
 
 import com.faud.frauddetection.dto.RuleEvaluationResult;
 import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.dto.RuleEvaluationStatus;
 import com.faud.frauddetection.entity.FraudRule;
 import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.service.rule.CompiledRule;
+import com.faud.frauddetection.service.rule.RuleCompiler;
+import com.faud.frauddetection.service.rule.TransactionFieldRegistry;
+import com.faud.frauddetection.service.rule.ValueListRegistry;
+import com.faud.frauddetection.service.velocity.VelocityAggregates;
+import com.faud.frauddetection.service.velocity.VelocityStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,15 +18,13 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.ZSetOperations;
-import org.springframework.data.redis.core.ValueOperations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
@@ -33,10 +38,7 @@ import static org.mockito.Mockito.*;
 class FrequencyEvaluatorTest {
 
     @Mock
-    private StringRedisTemplate redisTemplate;
-
-    @Mock
-    private ZSetOperations<String, String> zSetOperations;
+    private VelocityStore velocityStore;
 
     @Mock
     private FraudDetectionProperties properties;
@@ -44,9 +46,6 @@ class FrequencyEvaluatorTest {
     @Mock
     private FraudDetectionProperties.TimeWindow timeWindow;
 
-    @Mock
-    private ValueOperations<String, String> valueOperations;
-
     private FrequencyEvaluator frequencyEvaluator;
     private Transaction testTransaction;
     private ObjectMapper objectMapper;
@@ -54,11 +53,10 @@ class FrequencyEvaluatorTest {
 
     @BeforeEach
     void setUp() {
-        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
         when(properties.getTimeWindow()).thenReturn(timeWindow);
         when(timeWindow.getDefaultSeconds()).thenReturn(3600L);
 
-        frequencyEvaluator = new FrequencyEvaluator(redisTemplate, properties);
+        frequencyEvaluator = new FrequencyEvaluator(velocityStore, properties);
         
         testTransaction = Transaction.builder()
                 .transactionId("TXN_001")
@@ -98,10 +96,7 @@ class FrequencyEvaluatorTest {
             "{\"timeWindowSeconds\": 3600}");
         
         // Mock Redis to return frequency exceeding threshold
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.zCard(anyString())).thenReturn(7L); // 7 transactions > 5 threshold
-        when(redisTemplate.expire(anyString(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowCount(7L)); // 7 transactions > 5 threshold
 
         // When
         RuleEvaluationResult result = frequencyEvaluator.evaluateRule(rule, testTransaction);
@@ -114,10 +109,8 @@ class FrequencyEvaluatorTest {
         assertThat(result.getActualValue()).isEqualTo("7");
         assertThat(result.getThresholdValue()).isEqualTo("5");
         
-        // Verify Redis interactions
-        verify(zSetOperations).add(eq("transactions:user:USER_123"), anyString(), anyDouble());
-        verify(zSetOperations).removeRangeByScore(eq("transactions:user:USER_123"), anyDouble(), anyDouble());
-        verify(redisTemplate).expire(eq("transactions:user:USER_123"), eq(3600L), eq(TimeUnit.SECONDS));
+        // Verify the window is updated and counted in one call
+        verify(velocityStore).recordAndAggregate(eq(testTransaction), anyLong(), eq(3600L));
     }
 
     @Test
@@ -127,10 +120,7 @@ class FrequencyEvaluatorTest {
             "{\"timeWindowSeconds\": 1800}");
         
         // Mock Redis to return frequency below threshold
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(2L);
-        when(zSetOperations.zCard(anyString())).thenReturn(3L); // 3 transactions < 10 threshold
-        when(redisTemplate.expire(anyString(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowCount(3L)); // 3 transactions < 10 threshold
 
         // When
         RuleEvaluationResult result = frequencyEvaluator.evaluateRule(rule, testTransaction);
@@ -149,16 +139,13 @@ class FrequencyEvaluatorTest {
         FraudRule rule = createFrequencyRule("custom_window", BigDecimal.valueOf(5), 
             "{\"timeWindowSeconds\": 7200}"); // 2 hours
         
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.zCard(anyString())).thenReturn(3L);
-        when(redisTemplate.expire(anyString(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowCount(3L));
 
         // When
         frequencyEvaluator.evaluateRule(rule, testTransaction);
 
         // Then - verify custom time window is used
-        verify(redisTemplate).expire(eq("transactions:user:USER_123"), eq(7200L), eq(TimeUnit.SECONDS));
+        verify(velocityStore).recordAndAggregate(eq(testTransaction), anyLong(), eq(7200L));
     }
 
     @Test
@@ -166,16 +153,13 @@ class FrequencyEvaluatorTest {
         // Given
         FraudRule rule = createFrequencyRule("default_window", BigDecimal.valueOf(5), null);
         
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.zCard(anyString())).thenReturn(3L);
-        when(redisTemplate.expire(anyString(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowCount(3L));
 
         // When
         frequencyEvaluator.evaluateRule(rule, testTransaction);
 
         // Then - should use default time window (3600 seconds)
-        verify(redisTemplate).expire(eq("transactions:user:USER_123"), eq(3600L), eq(TimeUnit.SECONDS));
+        verify(velocityStore).recordAndAggregate(eq(testTransaction), anyLong(), eq(3600L));
     }
 
     @Test
@@ -202,16 +186,13 @@ class FrequencyEvaluatorTest {
         FraudRule rule = createFrequencyRule("invalid_json", BigDecimal.valueOf(5), 
             "{invalid json}");
         
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.zCard(anyString())).thenReturn(3L);
-        when(redisTemplate.expire(anyString(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowCount(3L));
 
         // When
         frequencyEvaluator.evaluateRule(rule, testTransaction);
 
         // Then - should use default time window (3600 seconds)
-        verify(redisTemplate).expire(eq("transactions:user:USER_123"), eq(3600L), eq(TimeUnit.SECONDS));
+        verify(velocityStore).recordAndAggregate(eq(testTransaction), anyLong(), eq(3600L));
     }
 
     @Test
@@ -219,16 +200,13 @@ class FrequencyEvaluatorTest {
         // Given
         FraudRule rule = createFrequencyRule("empty_config", BigDecimal.valueOf(5), "");
         
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.zCard(anyString())).thenReturn(3L);
-        when(redisTemplate.expire(anyString(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowCount(3L));
 
         // When
         frequencyEvaluator.evaluateRule(rule, testTransaction);
 
         // Then - should use default time window (3600 seconds)
-        verify(redisTemplate).expire(eq("transactions:user:USER_123"), eq(3600L), eq(TimeUnit.SECONDS));
+        verify(velocityStore).recordAndAggregate(eq(testTransaction), anyLong(), eq(3600L));
     }
 
     @Test
@@ -237,34 +215,28 @@ class FrequencyEvaluatorTest {
         FraudRule rule = createFrequencyRule("string_window", BigDecimal.valueOf(5), 
             "{\"timeWindowSeconds\": \"1800\"}"); // String value should be parsed
         
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.zCard(anyString())).thenReturn(3L);
-        when(redisTemplate.expire(anyString(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowCount(3L));
 
         // When
         frequencyEvaluator.evaluateRule(rule, testTransaction);
 
         // Then - should parse string value correctly
-        verify(redisTemplate).expire(eq("transactions:user:USER_123"), eq(1800L), eq(TimeUnit.SECONDS));
+        verify(velocityStore).recordAndAggregate(eq(testTransaction), anyLong(), eq(1800L));
     }
 
     @Test
-    void testEvaluateRule_NullTransactionCount_ShouldHandleGracefully() {
+    void testEvaluateRule_EmptyWindow_ShouldHandleGracefully() {
         // Given
-        FraudRule rule = createFrequencyRule("null_count", BigDecimal.valueOf(5), "");
+        FraudRule rule = createFrequencyRule("empty_window", BigDecimal.valueOf(5), "");
         
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.zCard(anyString())).thenReturn(null);
-        when(redisTemplate.expire(anyString(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowCount(0L));
 
         // When
         RuleEvaluationResult result = frequencyEvaluator.evaluateRule(rule, testTransaction);
 
         // Then
         assertThat(result.isTriggered()).isFalse();
-        assertThat(result.getActualValue()).isEqualTo("null");
+        assertThat(result.getActualValue()).isEqualTo("0");
         assertThat(result.getThresholdValue()).isEqualTo("5");
     }
 
@@ -273,7 +245,7 @@ class FrequencyEvaluatorTest {
         // Given
         FraudRule rule = createFrequencyRule("redis_exception", BigDecimal.valueOf(5), "");
         
-        when(zSetOperations.add(anyString(), anyString(), anyDouble()))
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong()))
             .thenThrow(new RuntimeException("Redis connection failed"));
 
         // When
@@ -290,10 +262,7 @@ class FrequencyEvaluatorTest {
         // Given
         FraudRule rule = createFrequencyRule("exact_match", BigDecimal.valueOf(5), "");
         
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.zCard(anyString())).thenReturn(5L); // Exactly equal to threshold
-        when(redisTemplate.expire(anyString(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowCount(5L)); // Exactly equal to threshold
 
         // When
         RuleEvaluationResult result = frequencyEvaluator.evaluateRule(rule, testTransaction);
@@ -309,10 +278,7 @@ class FrequencyEvaluatorTest {
         // Given
         FraudRule rule = createFrequencyRule("risk_calculation", BigDecimal.valueOf(3), "");
         
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.zCard(anyString())).thenReturn(8L); // Triggers rule
-        when(redisTemplate.expire(anyString(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowCount(8L)); // Triggers rule
 
         // When
         RuleEvaluationResult result = frequencyEvaluator.evaluateRule(rule, testTransaction);
@@ -337,16 +303,13 @@ class FrequencyEvaluatorTest {
             // Given
             FraudRule rule = createFrequencyRule("valid_format_" + i, BigDecimal.valueOf(5), validConfigs[i]);
             
-            when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-            when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-            when(zSetOperations.zCard(anyString())).thenReturn(3L);
-            when(redisTemplate.expire(anyString(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+            when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowCount(3L));
 
             // When
             frequencyEvaluator.evaluateRule(rule, testTransaction);
 
             // Then
-            verify(redisTemplate).expire(eq("transactions:user:USER_123"), eq(expectedValues[i]), eq(TimeUnit.SECONDS));
+            verify(velocityStore).recordAndAggregate(eq(testTransaction), anyLong(), eq(expectedValues[i]));
         }
     }
 
@@ -357,16 +320,13 @@ class FrequencyEvaluatorTest {
         FraudRule rule = createFrequencyRule("invalid_config", BigDecimal.valueOf(5), 
             "{\"timeWindowSeconds\": -100}");
         
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.zCard(anyString())).thenReturn(3L);
-        when(redisTemplate.expire(anyString(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowCount(3L));
 
         // When
         frequencyEvaluator.evaluateRule(rule, testTransaction);
 
         // Then - should use the parsed value even if negative (implementation detail)
-        verify(redisTemplate).expire(eq("transactions:user:USER_123"), eq(-100L), eq(TimeUnit.SECONDS));
+        verify(velocityStore).recordAndAggregate(eq(testTransaction), anyLong(), eq(-100L));
     }
 
     @Test
@@ -375,16 +335,13 @@ class FrequencyEvaluatorTest {
         FraudRule rule = createFrequencyRule("invalid_number", BigDecimal.valueOf(5), 
             "{\"timeWindowSeconds\": \"invalid_number\"}"); // Invalid string number
         
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.zCard(anyString())).thenReturn(3L);
-        when(redisTemplate.expire(anyString(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowCount(3L));
 
         // When
         frequencyEvaluator.evaluateRule(rule, testTransaction);
 
         // Then - should use default time window
-        verify(redisTemplate).expire(eq("transactions:user:USER_123"), eq(3600L), eq(TimeUnit.SECONDS));
+        verify(velocityStore).recordAndAggregate(eq(testTransaction), anyLong(), eq(3600L));
     }
 
     @Test
@@ -393,16 +350,13 @@ class FrequencyEvaluatorTest {
         FraudRule rule = createFrequencyRule("missing_key", BigDecimal.valueOf(5), 
             "{\"otherKey\": 1800}"); // Missing timeWindowSeconds key
         
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.zCard(anyString())).thenReturn(3L);
-        when(redisTemplate.expire(anyString(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowCount(3L));
 
         // When
         frequencyEvaluator.evaluateRule(rule, testTransaction);
 
         // Then - should use default time window
-        verify(redisTemplate).expire(eq("transactions:user:USER_123"), eq(3600L), eq(TimeUnit.SECONDS));
+        verify(velocityStore).recordAndAggregate(eq(testTransaction), anyLong(), eq(3600L));
     }
 
     @Test
@@ -410,16 +364,13 @@ class FrequencyEvaluatorTest {
         // Given
         FraudRule rule = createFrequencyRule("null_config", BigDecimal.valueOf(5), null);
         
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.zCard(anyString())).thenReturn(3L);
-        when(redisTemplate.expire(anyString(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowCount(3L));
 
         // When
         frequencyEvaluator.evaluateRule(rule, testTransaction);
 
         // Then - should use default time window
-        verify(redisTemplate).expire(eq("transactions:user:USER_123"), eq(3600L), eq(TimeUnit.SECONDS));
+        verify(velocityStore).recordAndAggregate(eq(testTransaction), anyLong(), eq(3600L));
     }
 
     @Test
@@ -427,10 +378,7 @@ class FrequencyEvaluatorTest {
         // Given
         FraudRule rule = createFrequencyRule("high_freq", BigDecimal.valueOf(3), "");
         
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.zCard(anyString())).thenReturn(6L); // 6 > 3, ratio = 6/3 = 2.0, capped at 1.0
-        when(redisTemplate.expire(anyString(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowCount(6L)); // 6 > 3, ratio = 6/3 = 2.0, capped at 1.0
 
         // When
         RuleEvaluationResult result = frequencyEvaluator.evaluateRule(rule, testTransaction);
@@ -447,10 +395,7 @@ class FrequencyEvaluatorTest {
         // Given
         FraudRule rule = createFrequencyRule("low_risk", BigDecimal.valueOf(10), "");
         
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.zCard(anyString())).thenReturn(7L); // 7 <= 10, doesn't trigger
-        when(redisTemplate.expire(anyString(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowCount(7L)); // 7 <= 10, doesn't trigger
 
         // When
         RuleEvaluationResult result = frequencyEvaluator.evaluateRule(rule, testTransaction);
@@ -467,10 +412,7 @@ class FrequencyEvaluatorTest {
         // Given
         FraudRule rule = createFrequencyRule("edge_case", BigDecimal.valueOf(1), "");
         
-        when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenReturn(true);
-        when(zSetOperations.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenReturn(0L);
-        when(zSetOperations.zCard(anyString())).thenReturn(1L); // Exactly equals threshold
-        when(redisTemplate.expire(anyString(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(velocityStore.recordAndAggregate(any(), anyLong(), anyLong())).thenAnswer(windowCount(1L)); // Exactly equals threshold
 
         // When
         RuleEvaluationResult result = frequencyEvaluator.evaluateRule(rule, testTransaction);
@@ -482,6 +424,70 @@ class FrequencyEvaluatorTest {
         assertThat(result.getThresholdValue()).isEqualTo("1");
     }
 
+    @Test
+    void testEvaluateRule_SharedVelocity_ShouldReadWindowWithoutRecording() {
+        // Given
+        FraudRule rule = createFrequencyRule("shared_velocity", BigDecimal.valueOf(5), "{\"timeWindowSeconds\": 60}");
+        VelocityAggregates aggregates = new VelocityAggregates(new long[]{60L, 3600L},
+            new long[]{6L, 20L}, new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+        RuleEvaluationContext context = RuleEvaluationContext.withVelocity(testTransaction, () -> aggregates);
+
+        // When
+        RuleEvaluationResult result = frequencyEvaluator.evaluateRule(compile(rule), context);
+
+        // Then - the window is read from the shared aggregates, the store is not called again
+        assertThat(result.isTriggered()).isTrue();
+        assertThat(result.getActualValue()).isEqualTo("6");
+        verifyNoInteractions(velocityStore);
+    }
+
+    @Test
+    void testEvaluateRule_SharedVelocityMissingWindow_ShouldFailWithoutRecording() {
+        // Given
+        FraudRule rule = createFrequencyRule("missing_window", BigDecimal.valueOf(5), "{\"timeWindowSeconds\": 120}");
+        VelocityAggregates aggregates = new VelocityAggregates(new long[]{60L}, new long[]{6L}, new BigDecimal[]{BigDecimal.ZERO});
+        RuleEvaluationContext context = RuleEvaluationContext.withVelocity(testTransaction, () -> aggregates);
+
+        // When
+        RuleEvaluationResult result = frequencyEvaluator.evaluateRule(compile(rule), context);
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo(RuleEvaluationStatus.FAILED);
+        assertThat(result.getReason()).contains("Window of 120 seconds was not aggregated");
+        verifyNoInteractions(velocityStore);
+    }
+
+    @Test
+    void testEvaluateRule_DegradedVelocity_ShouldFlagResultAsDegraded() {
+        // Given - aggregates answered from the in-process fallback windows
+        FraudRule rule = createFrequencyRule("degraded_velocity", BigDecimal.valueOf(5), "{\"timeWindowSeconds\": 60}");
+        VelocityAggregates aggregates = new VelocityAggregates(new long[]{60L},
+            new long[]{6L}, new BigDecimal[]{BigDecimal.ZERO}, true);
+        RuleEvaluationContext context = RuleEvaluationContext.withVelocity(testTransaction, () -> aggregates);
+
+        // When
+        RuleEvaluationResult result = frequencyEvaluator.evaluateRule(compile(rule), context);
+
+        // Then
+        assertThat(result.isTriggered()).isTrue();
+        assertThat(result.isDegraded()).isTrue();
+        assertThat(result.getStatus()).isEqualTo(RuleEvaluationStatus.COMPLETED);
+    }
+
+    @Test
+    void testTimeWindowSeconds_CompiledRule_ShouldBeResolvedWhenBound() {
+        // Given
+        FraudRule rule = createFrequencyRule("bound_window", BigDecimal.valueOf(5), "{\"timeWindowSeconds\": 60}");
+        CompiledRule compiledRule = compile(rule);
+
+        // When - the source rule changes after the rule was bound
+        rule.setRuleConfig("{\"timeWindowSeconds\": 120}");
+
+        // Then
+        assertThat(frequencyEvaluator.timeWindowSeconds(compiledRule)).isEqualTo(60L);
+        assertThat(frequencyEvaluator.timeWindowSeconds(compile(rule))).isEqualTo(120L);
+    }
+
     private FraudRule createFrequencyRule(String ruleName, BigDecimal threshold, String config) {
         return FraudRule.builder()
             .ruleName(ruleName)
@@ -492,4 +498,23 @@ class FrequencyEvaluatorTest {
             .enabled(true)
             .build();
     }
-} 
\ No newline at end of file
+
+    private static Answer<VelocityAggregates> windowCount(long count) {
+        return invocation -> new VelocityAggregates(new long[]{requestedWindow(invocation)},
+            new long[]{count}, new BigDecimal[]{BigDecimal.ZERO});
+    }
+
+    /**
+     * Window length passed to the stubbed store, single vararg
+     */
+    private static long requestedWindow(InvocationOnMock invocation) {
+        Object window = invocation.getArguments()[2];
+        return window instanceof long[] windows ? windows[0] : (Long) window;
+    }
+
+    private CompiledRule compile(FraudRule rule) {
+        return new RuleCompiler(new TransactionFieldRegistry(), new ValueListRegistry(new FraudDetectionProperties()))
+            .compile(rule)
+            .withEvaluator(frequencyEvaluator);
+    }
+}
@@ -1,9 +1,13 @@
 package com.faud.frauddetection.service.evaluator;
 
+import com.faud.frauddetection.config.FraudDetectionProperties;
 import com.faud.frauddetection.dto.MultiConditionConfig;
 import com.faud.frauddetection.dto.RuleEvaluationResult;
 import com.faud.frauddetection.dto.Transaction;
 import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.service.rule.RuleCompiler;
+import com.faud.frauddetection.service.rule.TransactionFieldRegistry;
+import com.faud.frauddetection.service.rule.ValueListRegistry;
 import com.faud.frauddetection.entity.RuleEvaluationType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -32,8 +36,9 @@ class MultiConditionEvaluatorTest {
 
     @BeforeEach
     void setUp() {
-        multiConditionEvaluator = new MultiConditionEvaluator();
-        ruleEngine = new DynamicEvaluator(multiConditionEvaluator);
+        RuleCompiler ruleCompiler = new RuleCompiler(new TransactionFieldRegistry(), new ValueListRegistry(new FraudDetectionProperties()));
+        multiConditionEvaluator = new MultiConditionEvaluator(ruleCompiler);
+        ruleEngine = new DynamicEvaluator(multiConditionEvaluator, ruleCompiler);
         objectMapper = new ObjectMapper();
         
         testTransaction = Transaction.builder()
@@ -0,0 +1,70 @@
+package com.faud.frauddetection.service.evaluator;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.service.rule.CompiledRule;
+import com.faud.frauddetection.service.rule.RuleCompiler;
+import com.faud.frauddetection.service.rule.TransactionFieldRegistry;
+import com.faud.frauddetection.service.rule.ValueListRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for RuleCostTracker
+ */
+class RuleCostTrackerTest {
+
+    private final RuleCompiler ruleCompiler =
+        new RuleCompiler(new TransactionFieldRegistry(), new ValueListRegistry(new FraudDetectionProperties()));
+    private final RuleCostTracker costTracker = new RuleCostTracker();
+
+    @Test
+    void getAverageNanos_UnknownRule_ShouldBeZero() {
+        assertThat(costTracker.getAverageNanos(rule(7L, "UNKNOWN"))).isZero();
+        assertThat(costTracker.getAverageNanos(rule(null, null))).isZero();
+    }
+
+    @Test
+    void record_FirstSample_ShouldBecomeAverage() {
+        costTracker.record(rule(1L, "VELOCITY"), 800_000L);
+
+        assertThat(costTracker.getAverageNanos(rule(1L, "VELOCITY"))).isEqualTo(800_000L);
+    }
+
+    @Test
+    void record_LaterSamples_ShouldMoveAverageGradually() {
+        costTracker.record(rule(1L, "VELOCITY"), 800_000L);
+        costTracker.record(rule(1L, "VELOCITY"), 0L);
+
+        assertThat(costTracker.getAverageNanos(rule(1L, "VELOCITY"))).isEqualTo(700_000L);
+    }
+
+    @Test
+    void record_RulesSharingName_ShouldBeTrackedByRuleId() {
+        costTracker.record(rule(1L, "VELOCITY"), 800_000L);
+        costTracker.record(rule(2L, "VELOCITY"), 100_000L);
+
+        assertThat(costTracker.getAverageNanos(rule(1L, "VELOCITY"))).isEqualTo(800_000L);
+        assertThat(costTracker.getAverageNanos(rule(2L, "VELOCITY"))).isEqualTo(100_000L);
+        assertThat(costTracker.getAverageNanos(rule(1L, "RENAMED"))).isEqualTo(800_000L);
+    }
+
+    @Test
+    void record_UnsavedRule_ShouldBeTrackedByName() {
+        costTracker.record(rule(null, "DRAFT"), 1_000L);
+
+        assertThat(costTracker.getAverageNanos(rule(null, "DRAFT"))).isEqualTo(1_000L);
+    }
+
+    @Test
+    void record_RuleWithoutIdOrName_ShouldBeIgnored() {
+        costTracker.record(rule(null, null), 1_000L);
+
+        assertThat(costTracker.getAverageNanos(rule(null, null))).isZero();
+    }
+
+    private CompiledRule rule(Long id, String ruleName) {
+        return ruleCompiler.compile(FraudRule.builder().id(id).ruleName(ruleName).ruleType("AMOUNT").build());
+    }
+}
@@ -0,0 +1,355 @@
+package com.faud.frauddetection.service.evaluator;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.dto.RuleEvaluationResult;
+import com.faud.frauddetection.dto.RuleEvaluationStatus;
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.service.redis.RedisBatch;
+import com.faud.frauddetection.service.redis.RedisPipeline;
+import com.faud.frauddetection.service.rule.CompiledRule;
+import com.faud.frauddetection.service.rule.RuleCompiler;
+import com.faud.frauddetection.service.rule.TransactionFieldRegistry;
+import com.faud.frauddetection.service.rule.ValueListRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for RuleEvaluationExecutor
+ * Covers concurrent evaluation of I/O-bound rules, the transaction deadline, failure isolation
+ * short-circuit evaluation and asynchronous evaluation after the Redis batch replies
+ */
+class RuleEvaluationExecutorTest {
+
+    private RuleCompiler ruleCompiler;
+    private SimpleMeterRegistry meterRegistry;
+    private RuleEvaluationExecutor executor;
+    private RuleEvaluationExecutor shortCircuitExecutor;
+    private Transaction transaction;
+
+    @BeforeEach
+    void setUp() {
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        properties.getRuleEvaluation().setEvaluationTimeoutMs(200);
+        ruleCompiler = new RuleCompiler(new TransactionFieldRegistry(), new ValueListRegistry(properties));
+        meterRegistry = new SimpleMeterRegistry();
+        RuleEvaluationMetrics metrics = new RuleEvaluationMetrics(meterRegistry);
+        executor = new RuleEvaluationExecutor(properties, metrics);
+
+        FraudDetectionProperties shortCircuitProperties = new FraudDetectionProperties();
+        shortCircuitProperties.getRuleEvaluation().setShortCircuit(true);
+        shortCircuitExecutor = new RuleEvaluationExecutor(shortCircuitProperties, metrics);
+        transaction = Transaction.builder()
+            .transactionId("TXN_001")
+            .userId("USER_123")
+            .amount(new BigDecimal("15000.00"))
+            .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+        shortCircuitExecutor.shutdown();
+    }
+
+    @Test
+    void evaluate_ShouldReturnResultsInRuleOrder() {
+        List<RuleEvaluationResult> results = executor.evaluate(List.of(
+            rule("SLOW_IO", new StubEvaluator(true, 50, false)),
+            rule("IN_MEMORY", new StubEvaluator(false, 0, false)),
+            rule("FAST_IO", new StubEvaluator(true, 0, false))), transaction);
+
+        assertThat(results).extracting(RuleEvaluationResult::getRuleName)
+            .containsExactly("SLOW_IO", "IN_MEMORY", "FAST_IO");
+        assertThat(results).allMatch(result -> result.getStatus() == RuleEvaluationStatus.COMPLETED);
+    }
+
+    @Test
+    void evaluate_IoBoundRules_ShouldRunConcurrently() {
+        long start = System.nanoTime();
+
+        List<RuleEvaluationResult> results = executor.evaluate(List.of(
+            rule("IO_1", new StubEvaluator(true, 100, false)),
+            rule("IO_2", new StubEvaluator(true, 100, false)),
+            rule("IO_3", new StubEvaluator(true, 100, false))), transaction);
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        assertThat(results).allMatch(result -> result.getStatus() == RuleEvaluationStatus.COMPLETED);
+        assertThat(elapsedMs).isLessThan(200);
+    }
+
+    @Test
+    void evaluate_RuleExceedingDeadline_ShouldTimeOutWithoutDelayingDecision() {
+        long start = System.nanoTime();
+
+        List<RuleEvaluationResult> results = executor.evaluate(List.of(
+            rule("HANGING", new StubEvaluator(true, 5_000, false)),
+            rule("FAST", new StubEvaluator(true, 0, false))), transaction);
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        assertThat(elapsedMs).isLessThan(1_000);
+        assertThat(results.get(0).getStatus()).isEqualTo(RuleEvaluationStatus.TIMED_OUT);
+        assertThat(results.get(0).isTriggered()).isFalse();
+        assertThat(results.get(0).getReason()).isEqualTo("Rule evaluation timed out after 200 ms");
+        assertThat(results.get(1).getStatus()).isEqualTo(RuleEvaluationStatus.COMPLETED);
+        assertThat(results.get(1).isTriggered()).isTrue();
+        assertThat(meterRegistry.get(RuleEvaluationMetrics.RULE_TIMEOUTS_COUNTER)
+            .tag(RuleEvaluationMetrics.RULE_TAG, "HANGING").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get(RuleEvaluationMetrics.RULE_TRIGGERED_COUNTER)
+            .tag(RuleEvaluationMetrics.RULE_TAG, "FAST").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void evaluate_FailingRule_ShouldNotAffectOtherRules() {
+        List<RuleEvaluationResult> results = executor.evaluate(List.of(
+            rule("BROKEN_IO", new StubEvaluator(true, 0, true)),
+            rule("BROKEN_IN_MEMORY", new StubEvaluator(false, 0, true)),
+            rule("HEALTHY", new StubEvaluator(false, 0, false))), transaction);
+
+        assertThat(results).extracting(RuleEvaluationResult::getStatus).containsExactly(
+            RuleEvaluationStatus.FAILED, RuleEvaluationStatus.FAILED, RuleEvaluationStatus.COMPLETED);
+        assertThat(results.get(0).getReason()).isEqualTo("Rule evaluation error: Redis unavailable");
+        assertThat(meterRegistry.get(RuleEvaluationMetrics.RULE_ERRORS_COUNTER)
+            .tag(RuleEvaluationMetrics.RULE_TAG, "BROKEN_IO").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get(RuleEvaluationMetrics.RULE_ERRORS_COUNTER)
+            .tag(RuleEvaluationMetrics.RULE_TAG, "HEALTHY").counter().count()).isZero();
+    }
+
+    @Test
+    void evaluate_RuleWithoutEvaluator_ShouldBeSkipped() {
+        CompiledRule unbound = ruleCompiler.compile(FraudRule.builder().ruleName("CUSTOM").ruleType("CUSTOM").build());
+
+        List<RuleEvaluationResult> results = executor.evaluate(List.of(unbound), transaction);
+
+        assertThat(results).isEmpty();
+    }
+
+    @Test
+    void shortCircuit_ShouldEvaluateInMemoryRulesFirstThenByPriority() {
+        List<RuleEvaluationResult> results = shortCircuitExecutor.evaluate(List.of(
+            rule("IO_FIRST_PRIORITY", new StubEvaluator(true, 0, false).notTriggering(), 1, false),
+            rule("IN_MEMORY_LOW_PRIORITY", new StubEvaluator(false, 0, false).notTriggering(), 5, false),
+            rule("IN_MEMORY_HIGH_PRIORITY", new StubEvaluator(false, 0, false).notTriggering(), 2, false)), transaction);
+
+        assertThat(results).extracting(RuleEvaluationResult::getRuleName)
+            .containsExactly("IN_MEMORY_HIGH_PRIORITY", "IN_MEMORY_LOW_PRIORITY", "IO_FIRST_PRIORITY");
+        assertThat(results).allMatch(result -> result.getStatus() == RuleEvaluationStatus.COMPLETED);
+    }
+
+    @Test
+    void shortCircuit_DecisiveRuleTriggered_ShouldSkipRemainingRules() {
+        StubEvaluator redisEvaluator = new StubEvaluator(true, 0, false);
+
+        List<RuleEvaluationResult> results = shortCircuitExecutor.evaluate(List.of(
+            rule("VELOCITY", redisEvaluator, 1, false),
+            rule("BLOCKED_IP", new StubEvaluator(false, 0, false), 1, true),
+            rule("HIGH_AMOUNT", new StubEvaluator(false, 0, false), 2, false)), transaction);
+
+        assertThat(results).extracting(RuleEvaluationResult::getStatus).containsExactly(
+            RuleEvaluationStatus.COMPLETED, RuleEvaluationStatus.SKIPPED, RuleEvaluationStatus.SKIPPED);
+        assertThat(results.get(1).getReason()).isEqualTo("Skipped: decisive rule BLOCKED_IP triggered");
+        assertThat(results.get(2).isTriggered()).isFalse();
+        assertThat(redisEvaluator.invocations.get()).isZero();
+    }
+
+    @Test
+    void shortCircuit_SaturatedRiskScore_ShouldSkipRemainingRules() {
+        List<RuleEvaluationResult> results = shortCircuitExecutor.evaluate(List.of(
+            rule("RULE_1", new StubEvaluator(false, 0, false), 1, false),
+            rule("RULE_2", new StubEvaluator(false, 0, false), 2, false),
+            rule("RULE_3", new StubEvaluator(true, 0, false), 3, false)), transaction);
+
+        assertThat(results).extracting(RuleEvaluationResult::getStatus).containsExactly(
+            RuleEvaluationStatus.COMPLETED, RuleEvaluationStatus.COMPLETED, RuleEvaluationStatus.SKIPPED);
+        assertThat(results.get(2).getReason()).isEqualTo("Skipped: risk score reached 1.0");
+        assertThat(meterRegistry.get(RuleEvaluationMetrics.RULE_SKIPPED_COUNTER)
+            .tag(RuleEvaluationMetrics.RULE_TAG, "RULE_3").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shortCircuit_StatefulRuleAfterDecision_ShouldStillRecordTransaction() throws InterruptedException {
+        StubEvaluator velocityEvaluator = new StubEvaluator(true, 0, false).stateful();
+
+        List<RuleEvaluationResult> results = shortCircuitExecutor.evaluate(List.of(
+            rule("BLOCKED_IP", new StubEvaluator(false, 0, false), 1, true),
+            rule("VELOCITY", velocityEvaluator, 1, false)), transaction);
+
+        assertThat(results.get(1).getStatus()).isEqualTo(RuleEvaluationStatus.SKIPPED);
+        assertThat(velocityEvaluator.evaluated.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void evaluateAsync_ShouldEvaluateOnceBatchRepliesArrive() throws Exception {
+        Sinks.One<Long> reply = Sinks.one();
+        RuleEvaluationContext context = RuleEvaluationContext.of(transaction, batchReplying(reply.asMono().flux()));
+        CompiledRule rule = rule("DISTINCT_DEVICES", new PreparedEvaluator());
+        context.putPrepared(rule, context.getBatch().script(SCRIPT, List.of("k"), List.of(), value -> (Long) value));
+
+        CompletableFuture<List<RuleEvaluationResult>> results = executor.evaluateAsync(List.of(rule), context);
+
+        assertThat(results).isNotDone();
+        reply.tryEmitValue(9L);
+        RuleEvaluationResult result = results.get(1, TimeUnit.SECONDS).get(0);
+        assertThat(result.isTriggered()).isTrue();
+        assertThat(result.getActualValue()).isEqualTo("9");
+    }
+
+    @Test
+    void evaluateAsync_BatchPastDeadline_ShouldFailPendingRules() throws Exception {
+        RuleEvaluationContext context = RuleEvaluationContext.of(transaction, batchReplying(Flux.never()));
+        CompiledRule rule = rule("DISTINCT_DEVICES", new PreparedEvaluator());
+        context.putPrepared(rule, context.getBatch().script(SCRIPT, List.of("k"), List.of(), value -> (Long) value));
+
+        List<RuleEvaluationResult> results = executor.evaluateAsync(List.of(rule), context).get(1, TimeUnit.SECONDS);
+
+        assertThat(results.get(0).getStatus()).isEqualTo(RuleEvaluationStatus.FAILED);
+        assertThat(results.get(0).getReason()).isEqualTo("Rule evaluation error: Redis batch did not complete within 200 ms");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RedisBatch batchReplying(Flux<Long> reply) {
+        ReactiveStringRedisTemplate reactiveTemplate = mock(ReactiveStringRedisTemplate.class);
+        when(reactiveTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenReturn(reply);
+        return new RedisPipeline(null, reactiveTemplate).newBatch();
+    }
+
+    private CompiledRule rule(String ruleName, RuleEvaluator evaluator) {
+        return rule(ruleName, evaluator, 1, false);
+    }
+
+    private CompiledRule rule(String ruleName, RuleEvaluator evaluator, int priority, boolean decisive) {
+        return ruleCompiler.compile(FraudRule.builder()
+                .ruleName(ruleName)
+                .ruleType("STUB")
+                .priority(priority)
+                .decisive(decisive)
+                .build())
+            .withEvaluator(evaluator);
+    }
+
+    private static final RedisScript<Long> SCRIPT = RedisScript.of("return 1", Long.class);
+
+    /**
+     * Evaluator that triggers when the count it registered in the Redis batch is above 5
+     */
+    private static class PreparedEvaluator implements RuleEvaluator {
+
+        @Override
+        public RuleEvaluationResult evaluateRule(FraudRule rule, Transaction transaction) {
+            throw new UnsupportedOperationException("Only evaluated with a context");
+        }
+
+        @Override
+        public RuleEvaluationResult evaluateRule(CompiledRule compiledRule, RuleEvaluationContext context) {
+            Supplier<Long> count = context.getPrepared(compiledRule);
+            long value = count.get();
+            return RuleEvaluationResult.builder()
+                .triggered(value > 5)
+                .riskScore(value > 5 ? 0.5 : 0.0)
+                .actualValue(String.valueOf(value))
+                .ruleName(compiledRule.getRuleName())
+                .build();
+        }
+
+        @Override
+        public Set<String> getSupportedRuleTypes() {
+            return Set.of("STUB");
+        }
+
+        @Override
+        public boolean isIoBound() {
+            return true;
+        }
+
+        @Override
+        public boolean isStateful() {
+            return true;
+        }
+    }
+
+    /**
+     * Evaluator that triggers with risk score 0.5 after an optional delay, or fails
+     */
+    private static class StubEvaluator implements RuleEvaluator {
+
+        private final boolean ioBound;
+        private final long delayMs;
+        private final boolean failing;
+        private boolean triggering = true;
+        private boolean stateful;
+        private final AtomicInteger invocations = new AtomicInteger();
+        private final CountDownLatch evaluated = new CountDownLatch(1);
+
+        StubEvaluator(boolean ioBound, long delayMs, boolean failing) {
+            this.ioBound = ioBound;
+            this.delayMs = delayMs;
+            this.failing = failing;
+        }
+
+        StubEvaluator notTriggering() {
+            this.triggering = false;
+            return this;
+        }
+
+        StubEvaluator stateful() {
+            this.stateful = true;
+            return this;
+        }
+
+        @Override
+        public RuleEvaluationResult evaluateRule(FraudRule rule, Transaction transaction) {
+            invocations.incrementAndGet();
+            evaluated.countDown();
+            if (failing) {
+                throw new IllegalStateException("Redis unavailable");
+            }
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return RuleEvaluationResult.builder()
+                .triggered(triggering)
+                .riskScore(triggering ? 0.5 : 0.0)
+                .reason("Stub triggered")
+                .ruleName(rule.getRuleName())
+                .build();
+        }
+
+        @Override
+        public Set<String> getSupportedRuleTypes() {
+            return Set.of("STUB");
+        }
+
+        @Override
+        public boolean isIoBound() {
+            return ioBound;
+        }
+
+        @Override
+        public boolean isStateful() {
+            return stateful;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.faud.frauddetection.service.evaluator;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.dto.RuleEvaluationResult;
+import com.faud.frauddetection.dto.RuleEvaluationStatus;
+import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.service.rule.CompiledRule;
+import com.faud.frauddetection.service.rule.RuleCompiler;
+import com.faud.frauddetection.service.rule.TransactionFieldRegistry;
+import com.faud.frauddetection.service.rule.ValueListRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for RuleEvaluationMetrics
+ */
+class RuleEvaluationMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RuleEvaluationMetrics metrics;
+    private RuleCompiler ruleCompiler;
+    private CompiledRule rule;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new RuleEvaluationMetrics(meterRegistry);
+        ruleCompiler = new RuleCompiler(new TransactionFieldRegistry(), new ValueListRegistry(new FraudDetectionProperties()));
+        rule = ruleCompiler.compile(FraudRule.builder()
+                .id(42L)
+                .ruleName("HIGH_AMOUNT")
+                .ruleType("SIMPLE")
+                .conditionField("amount")
+                .conditionOperator("GT")
+                .conditionValue("10000")
+                .build())
+            .withEvaluator(new DynamicEvaluator(new MultiConditionEvaluator(ruleCompiler), ruleCompiler));
+    }
+
+    @Test
+    void recordLatency_ShouldTimeRuleAndEvaluator() {
+        metrics.recordLatency(rule, TimeUnit.MICROSECONDS.toNanos(250));
+        metrics.recordLatency(rule, TimeUnit.MICROSECONDS.toNanos(750));
+
+        Timer ruleTimer = meterRegistry.get(RuleEvaluationMetrics.RULE_EVALUATION_TIMER)
+            .tag(RuleEvaluationMetrics.RULE_TAG, "42")
+            .tag(RuleEvaluationMetrics.RULE_TYPE_TAG, "SIMPLE")
+            .timer();
+        Timer evaluatorTimer = meterRegistry.get(RuleEvaluationMetrics.EVALUATOR_EVALUATION_TIMER)
+            .tag(RuleEvaluationMetrics.EVALUATOR_TAG, "DynamicEvaluator")
+            .timer();
+        assertThat(ruleTimer.count()).isEqualTo(2L);
+        assertThat(ruleTimer.totalTime(TimeUnit.MICROSECONDS)).isEqualTo(1000.0);
+        assertThat(evaluatorTimer.count()).isEqualTo(2L);
+    }
+
+    @Test
+    void recordResult_ShouldCountByStatus() {
+        metrics.recordResult(rule, RuleEvaluationResult.builder().triggered(true).build());
+        metrics.recordResult(rule, RuleEvaluationResult.builder().triggered(false).build());
+        metrics.recordResult(rule, RuleEvaluationResult.builder().status(RuleEvaluationStatus.FAILED).build());
+        metrics.recordResult(rule, RuleEvaluationResult.builder().status(RuleEvaluationStatus.TIMED_OUT).build());
+        metrics.recordResult(rule, RuleEvaluationResult.builder().status(RuleEvaluationStatus.SKIPPED).build());
+
+        assertThat(count(RuleEvaluationMetrics.RULE_TRIGGERED_COUNTER)).isEqualTo(1.0);
+        assertThat(count(RuleEvaluationMetrics.RULE_ERRORS_COUNTER)).isEqualTo(1.0);
+        assertThat(count(RuleEvaluationMetrics.RULE_TIMEOUTS_COUNTER)).isEqualTo(1.0);
+        assertThat(count(RuleEvaluationMetrics.RULE_SKIPPED_COUNTER)).isEqualTo(1.0);
+    }
+
+    @Test
+    void recordResult_UnsavedRule_ShouldBeTaggedByName() {
+        CompiledRule unsaved = ruleCompiler.compile(FraudRule.builder().ruleName("HIGH_AMOUNT").ruleType("SIMPLE").build())
+            .withEvaluator(rule.getEvaluator());
+
+        metrics.recordResult(unsaved, RuleEvaluationResult.builder().triggered(true).build());
+
+        assertThat(meterRegistry.get(RuleEvaluationMetrics.RULE_TRIGGERED_COUNTER)
+            .tag(RuleEvaluationMetrics.RULE_TAG, "HIGH_AMOUNT").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void recordResult_RuleTypeChanged_ShouldTagWithNewType() {
+        CompiledRule retyped = compile(42L, "HIGH_AMOUNT", "DYNAMIC");
+
+        metrics.recordResult(rule, RuleEvaluationResult.builder().triggered(true).build());
+        metrics.recordResult(retyped, RuleEvaluationResult.builder().triggered(true).build());
+
+        assertThat(meterRegistry.get(RuleEvaluationMetrics.RULE_TRIGGERED_COUNTER)
+            .tag(RuleEvaluationMetrics.RULE_TAG, "42")
+            .tag(RuleEvaluationMetrics.RULE_TYPE_TAG, "DYNAMIC").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void retainRules_ShouldRemoveMetersOfInactiveRulesAndTypes() {
+        CompiledRule retyped = compile(42L, "HIGH_AMOUNT", "DYNAMIC");
+        CompiledRule deleted = compile(7L, "NIGHT_TIME", "SIMPLE");
+        metrics.recordLatency(rule, 1_000L);
+        metrics.recordResult(deleted, RuleEvaluationResult.builder().triggered(true).build());
+
+        metrics.retainRules(List.of(retyped));
+        metrics.recordResult(retyped, RuleEvaluationResult.builder().triggered(true).build());
+
+        assertThat(meterRegistry.find(RuleEvaluationMetrics.RULE_EVALUATION_TIMER)
+            .tag(RuleEvaluationMetrics.RULE_TYPE_TAG, "SIMPLE").timers()).isEmpty();
+        assertThat(meterRegistry.find(RuleEvaluationMetrics.RULE_TRIGGERED_COUNTER)
+            .tag(RuleEvaluationMetrics.RULE_TAG, "7").counters()).isEmpty();
+        assertThat(meterRegistry.get(RuleEvaluationMetrics.RULE_TRIGGERED_COUNTER)
+            .tag(RuleEvaluationMetrics.RULE_TYPE_TAG, "DYNAMIC").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get(RuleEvaluationMetrics.EVALUATOR_EVALUATION_TIMER).timer().count()).isEqualTo(1L);
+    }
+
+    private CompiledRule compile(Long id, String ruleName, String ruleType) {
+        return ruleCompiler.compile(FraudRule.builder()
+                .id(id)
+                .ruleName(ruleName)
+                .ruleType(ruleType)
+                .conditionField("amount")
+                .conditionOperator("GT")
+                .conditionValue("10000")
+                .build())
+            .withEvaluator(rule.getEvaluator());
+    }
+
+    private double count(String name) {
+        return meterRegistry.get(name).tag(RuleEvaluationMetrics.RULE_TAG, "42").counter().count();
+    }
+}
@@ -0,0 +1,94 @@
+package com.faud.frauddetection.service.evaluator;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.service.rule.CompiledRule;
+import com.faud.frauddetection.service.rule.RuleCompiler;
+import com.faud.frauddetection.service.rule.TransactionFieldRegistry;
+import com.faud.frauddetection.service.rule.ValueListRegistry;
+import com.faud.frauddetection.service.velocity.VelocityStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for RuleEvaluatorRegistry
+ */
+class RuleEvaluatorRegistryTest {
+
+    private RuleCompiler ruleCompiler;
+    private MultiConditionEvaluator multiConditionEvaluator;
+    private DynamicEvaluator dynamicEvaluator;
+    private AmountEvaluator amountEvaluator;
+    private FrequencyEvaluator frequencyEvaluator;
+    private RuleEvaluatorRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        VelocityStore velocityStore = mock(VelocityStore.class);
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        ruleCompiler = new RuleCompiler(new TransactionFieldRegistry(), new ValueListRegistry(new FraudDetectionProperties()));
+        multiConditionEvaluator = new MultiConditionEvaluator(ruleCompiler);
+        dynamicEvaluator = new DynamicEvaluator(multiConditionEvaluator, ruleCompiler);
+        amountEvaluator = new AmountEvaluator(velocityStore, properties);
+        frequencyEvaluator = new FrequencyEvaluator(velocityStore, properties);
+        registry = new RuleEvaluatorRegistry(
+            List.of(amountEvaluator, dynamicEvaluator, frequencyEvaluator, multiConditionEvaluator));
+    }
+
+    @Test
+    void findEvaluator_ShouldDispatchByRuleType() {
+        assertThat(registry.findEvaluator("AMOUNT")).containsSame(amountEvaluator);
+        assertThat(registry.findEvaluator("FREQUENCY")).containsSame(frequencyEvaluator);
+        assertThat(registry.findEvaluator("SIMPLE")).containsSame(dynamicEvaluator);
+        assertThat(registry.findEvaluator("MULTI_CONDITION")).containsSame(dynamicEvaluator);
+    }
+
+    @Test
+    void findEvaluator_ShouldBeCaseInsensitive() {
+        assertThat(registry.findEvaluator("amount")).containsSame(amountEvaluator);
+        assertThat(registry.findEvaluator("Time_Of_Day")).containsSame(dynamicEvaluator);
+    }
+
+    @Test
+    void findEvaluator_UnsupportedType_ShouldReturnEmpty() {
+        assertThat(registry.findEvaluator("CUSTOM")).isEmpty();
+        assertThat(registry.findEvaluator("DYNAMIC")).isEmpty();
+        assertThat(registry.findEvaluator(null)).isEmpty();
+        assertThat(registry.supports("CUSTOM")).isFalse();
+    }
+
+    @Test
+    void constructor_ConflictingEvaluators_ShouldFailFast() {
+        AmountEvaluator secondAmountEvaluator = new AmountEvaluator(mock(VelocityStore.class), new FraudDetectionProperties());
+
+        assertThatThrownBy(() -> new RuleEvaluatorRegistry(List.of(amountEvaluator, secondAmountEvaluator)))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("AMOUNT");
+    }
+
+    @Test
+    void bind_ShouldAttachEvaluatorForRuleType() {
+        CompiledRule supported = registry.bind(ruleCompiler.compile(
+            FraudRule.builder().ruleName("HIGH_AMOUNT").ruleType("AMOUNT").build()));
+        CompiledRule unsupported = registry.bind(ruleCompiler.compile(
+            FraudRule.builder().ruleName("LEGACY").ruleType("CUSTOM").build()));
+
+        assertThat(supported.getEvaluator()).isSameAs(amountEvaluator);
+        assertThat(supported.getRuleName()).isEqualTo("HIGH_AMOUNT");
+        assertThat(unsupported.getEvaluator()).isNull();
+    }
+
+    @Test
+    void getCapabilities_ShouldGroupRuleTypesByEvaluator() {
+        assertThat(registry.getCapabilities())
+            .containsKeys("AmountEvaluator", "DynamicEvaluator", "FrequencyEvaluator")
+            .doesNotContainKey("MultiConditionEvaluator");
+        assertThat(registry.getCapabilities().get("DynamicEvaluator")).contains("SIMPLE", "MULTI_CONDITION");
+    }
+}
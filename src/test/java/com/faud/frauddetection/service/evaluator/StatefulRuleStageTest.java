@@ -0,0 +1,186 @@
+package com.faud.frauddetection.service.evaluator;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.service.redis.RedisBatch;
+import com.faud.frauddetection.service.redis.RedisPipeline;
+import com.faud.frauddetection.service.rule.CompiledRule;
+import com.faud.frauddetection.service.rule.RuleCompiler;
+import com.faud.frauddetection.service.rule.RuleSnapshot;
+import com.faud.frauddetection.service.rule.TransactionFieldRegistry;
+import com.faud.frauddetection.service.rule.ValueListRegistry;
+import com.faud.frauddetection.service.velocity.VelocityAggregates;
+import com.faud.frauddetection.service.velocity.VelocityStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for StatefulRuleStage
+ */
+class StatefulRuleStageTest {
+
+    private VelocityStore velocityStore;
+    private RedisPipeline redisPipeline;
+    private StatefulRuleStage statefulRuleStage;
+    private RuleCompiler ruleCompiler;
+    private FrequencyEvaluator frequencyEvaluator;
+    private AmountEvaluator amountEvaluator;
+    private DynamicEvaluator dynamicEvaluator;
+    private Transaction transaction;
+
+    @BeforeEach
+    void setUp() {
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        velocityStore = mock(VelocityStore.class);
+        redisPipeline = new RedisPipeline(mock(StringRedisTemplate.class));
+        statefulRuleStage = new StatefulRuleStage(velocityStore, redisPipeline);
+        ruleCompiler = new RuleCompiler(new TransactionFieldRegistry(), new ValueListRegistry(properties));
+        frequencyEvaluator = new FrequencyEvaluator(velocityStore, properties);
+        amountEvaluator = new AmountEvaluator(velocityStore, properties);
+        dynamicEvaluator = new DynamicEvaluator(new MultiConditionEvaluator(ruleCompiler), ruleCompiler);
+        transaction = Transaction.builder().transactionId("TXN_1").userId("U1").amount(BigDecimal.TEN).build();
+    }
+
+    @Test
+    void windowsOf_ShouldCollectDistinctVelocityWindows() {
+        RuleSnapshot snapshot = snapshot(1L,
+            rule("FREQ_1M", "FREQUENCY", "{\"timeWindowSeconds\": 60}", frequencyEvaluator),
+            rule("FREQ_1H", "FREQUENCY", "{\"timeWindowSeconds\": 3600}", frequencyEvaluator),
+            rule("AMOUNT_1H", "AMOUNT", "{\"timeWindowSeconds\": 3600}", amountEvaluator),
+            rule("HIGH_AMOUNT", "SIMPLE", null, dynamicEvaluator));
+
+        assertThat(statefulRuleStage.windowsOf(snapshot)).containsExactly(60L, 3600L);
+    }
+
+    @Test
+    void open_ShouldRecordOnceForAllRulesOfTheTransaction() {
+        RuleSnapshot snapshot = snapshot(1L,
+            rule("FREQ_1M", "FREQUENCY", "{\"timeWindowSeconds\": 60}", frequencyEvaluator),
+            rule("AMOUNT_1H", "AMOUNT", "{\"timeWindowSeconds\": 3600}", amountEvaluator));
+        VelocityAggregates aggregates = new VelocityAggregates(new long[]{60L, 3600L},
+            new long[]{1L, 4L}, new BigDecimal[]{BigDecimal.TEN, new BigDecimal("40")});
+        AtomicInteger loads = new AtomicInteger();
+        when(velocityStore.recordAndAggregate(any(RedisBatch.class), eq(transaction), anyLong(), eq(60L), eq(3600L)))
+            .thenReturn(() -> {
+                loads.incrementAndGet();
+                return aggregates;
+            });
+
+        RuleEvaluationContext context = statefulRuleStage.open(transaction, snapshot, snapshot.getCompiledRules());
+        for (CompiledRule rule : snapshot.getCompiledRules()) {
+            rule.getEvaluator().evaluateRule(rule, context);
+        }
+
+        assertThat(context.getVelocity()).isSameAs(aggregates);
+        assertThat(loads).hasValue(1);
+        verify(velocityStore, times(1)).recordAndAggregate(any(RedisBatch.class), eq(transaction), anyLong(), eq(60L), eq(3600L));
+        verify(velocityStore, never()).recordAndAggregate(any(Transaction.class), anyLong(), any(long[].class));
+    }
+
+    @Test
+    void open_LoadFailure_ShouldBeReportedToEveryRuleWithoutRetrying() {
+        RuleSnapshot snapshot = snapshot(1L, rule("FREQ_1M", "FREQUENCY", "{\"timeWindowSeconds\": 60}", frequencyEvaluator));
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<VelocityAggregates> failing = () -> {
+            loads.incrementAndGet();
+            throw new RuntimeException("Redis down");
+        };
+        when(velocityStore.recordAndAggregate(any(RedisBatch.class), any(), anyLong(), anyLong())).thenReturn(failing);
+
+        RuleEvaluationContext context = statefulRuleStage.open(transaction, snapshot, snapshot.getCompiledRules());
+
+        assertThatThrownBy(context::getVelocity).hasMessage("Redis down");
+        assertThatThrownBy(context::getVelocity).hasMessage("Redis down");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void open_NoVelocityRules_ShouldNotTouchTheStore() {
+        RuleSnapshot snapshot = snapshot(1L, rule("HIGH_AMOUNT", "SIMPLE", null, dynamicEvaluator));
+
+        RuleEvaluationContext context = statefulRuleStage.open(transaction, snapshot, snapshot.getCompiledRules());
+
+        assertThat(context.hasVelocity()).isFalse();
+        assertThat(context.hasBatch()).isTrue();
+        verifyNoInteractions(velocityStore);
+    }
+
+    @Test
+    void open_ShouldPrepareOnlyStatefulCandidateRules() {
+        FrequencyEvaluator preparing = spy(frequencyEvaluator);
+        DynamicEvaluator stateless = spy(dynamicEvaluator);
+        CompiledRule velocityRule = rule("FREQ_1M", "FREQUENCY", "{\"timeWindowSeconds\": 60}", preparing);
+        CompiledRule simpleRule = rule("HIGH_AMOUNT", "SIMPLE", null, stateless);
+        RuleSnapshot snapshot = snapshot(1L, velocityRule, simpleRule);
+        when(velocityStore.recordAndAggregate(any(RedisBatch.class), any(), anyLong(), anyLong()))
+            .thenReturn(() -> VelocityAggregates.EMPTY);
+
+        RuleEvaluationContext context = statefulRuleStage.open(transaction, snapshot, List.of(velocityRule, simpleRule));
+
+        verify(preparing).prepare(velocityRule, context);
+        verify(stateless, never()).prepare(any(), any());
+    }
+
+    @Test
+    void open_SharedBatch_ShouldRegisterEveryTransactionInIt() {
+        RuleSnapshot snapshot = snapshot(1L, rule("FREQ_1M", "FREQUENCY", "{\"timeWindowSeconds\": 60}", frequencyEvaluator));
+        when(velocityStore.recordAndAggregate(any(RedisBatch.class), any(), anyLong(), anyLong()))
+            .thenReturn(() -> VelocityAggregates.EMPTY);
+        RedisBatch batch = redisPipeline.newBatch();
+        Transaction other = Transaction.builder().transactionId("TXN_2").userId("U2").amount(BigDecimal.ONE).build();
+
+        RuleEvaluationContext first = statefulRuleStage.open(transaction, snapshot, snapshot.getCompiledRules(), batch);
+        RuleEvaluationContext second = statefulRuleStage.open(other, snapshot, snapshot.getCompiledRules(), batch);
+
+        assertThat(first.getBatch()).isSameAs(batch);
+        assertThat(second.getBatch()).isSameAs(batch);
+        verify(velocityStore).recordAndAggregate(eq(batch), eq(transaction), anyLong(), eq(60L));
+        verify(velocityStore).recordAndAggregate(eq(batch), eq(other), anyLong(), eq(60L));
+    }
+
+    @Test
+    void windowsOf_NewSnapshotVersion_ShouldResolveAgain() {
+        statefulRuleStage.windowsOf(snapshot(1L, rule("FREQ_1M", "FREQUENCY", "{\"timeWindowSeconds\": 60}", frequencyEvaluator)));
+
+        long[] windows = statefulRuleStage.windowsOf(
+            snapshot(2L, rule("FREQ_5M", "FREQUENCY", "{\"timeWindowSeconds\": 300}", frequencyEvaluator)));
+
+        assertThat(windows).containsExactly(300L);
+    }
+
+    private CompiledRule rule(String name, String type, String config, RuleEvaluator evaluator) {
+        return ruleCompiler.compile(FraudRule.builder()
+                .ruleName(name)
+                .ruleType(type)
+                .ruleConfig(config)
+                .thresholdValue(BigDecimal.valueOf(5))
+                .enabled(true)
+                .build())
+            .withEvaluator(evaluator);
+    }
+
+    private RuleSnapshot snapshot(long version, CompiledRule... rules) {
+        return new RuleSnapshot(version, null, Instant.now(), List.of(rules));
+    }
+}
@@ -116,6 +116,27 @@ class FraudDetectionResultServiceTest {
         assertThat(savedEntity.getReason()).isEqualTo("Multiple risk factors detected");
     }
 
+    @Test
+    void saveResult_DegradedDecision_ShouldKeepDegradedFlag() {
+        // Given
+        FraudDetectionResult degradedResult = FraudDetectionResult.builder()
+            .transactionId("TXN-DEGRADED")
+            .isFraudulent(true)
+            .riskScore(0.6)
+            .reason("Velocity from in-process fallback windows")
+            .detectionTime(LocalDateTime.now())
+            .degraded(true)
+            .build();
+
+        // When
+        fraudDetectionResultService.saveResult(degradedResult);
+
+        // Then
+        ArgumentCaptor<FraudDetectionResultEntity> entityCaptor = ArgumentCaptor.forClass(FraudDetectionResultEntity.class);
+        verify(resultRepository).save(entityCaptor.capture());
+        assertThat(entityCaptor.getValue().isDegraded()).isTrue();
+    }
+
     @Test
     void saveResult_NonFraudulentTransaction_ShouldMapCorrectly() {
         // Given
@@ -303,4 +324,28 @@ class FraudDetectionResultServiceTest {
         // Then
         verify(resultRepository, times(2)).save(any(FraudDetectionResultEntity.class));
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void saveResults_ShouldSaveAllEntitiesInOneCall() {
+        // Given
+        FraudDetectionResult result2 = FraudDetectionResult.builder()
+            .transactionId("TXN-002")
+            .isFraudulent(false)
+            .riskScore(20.0)
+            .degraded(true)
+            .build();
+        ArgumentCaptor<List<FraudDetectionResultEntity>> captor = ArgumentCaptor.forClass(List.class);
+
+        // When
+        fraudDetectionResultService.saveResults(List.of(testResultDto, result2));
+
+        // Then
+        verify(resultRepository).saveAll(captor.capture());
+        verify(resultRepository, never()).save(any(FraudDetectionResultEntity.class));
+        assertThat(captor.getValue()).extracting(FraudDetectionResultEntity::getTransactionId)
+            .containsExactly("TXN-001", "TXN-002");
+        assertThat(captor.getValue().get(0).isFraud()).isTrue();
+        assertThat(captor.getValue().get(1).isDegraded()).isTrue();
+    }
 } 
\ No newline at end of file
@@ -1,29 +1,46 @@
 package com.faud.frauddetection.service.impl;
 
+import com.faud.frauddetection.config.FraudDetectionProperties;
 import com.faud.frauddetection.dto.FraudDetectionResult;
 import com.faud.frauddetection.dto.RuleEvaluationResult;
 import com.faud.frauddetection.dto.Transaction;
 import com.faud.frauddetection.entity.FraudRule;
 import com.faud.frauddetection.service.FraudRuleService;
 import com.faud.frauddetection.service.FraudDetectionResultService;
+import com.faud.frauddetection.service.evaluator.RuleEvaluationExecutor;
+import com.faud.frauddetection.service.evaluator.RuleEvaluationMetrics;
 import com.faud.frauddetection.service.evaluator.RuleEvaluator;
+import com.faud.frauddetection.service.evaluator.RuleEvaluatorRegistry;
+import com.faud.frauddetection.service.evaluator.StatefulRuleStage;
+import com.faud.frauddetection.service.redis.RedisPipeline;
+import com.faud.frauddetection.service.rule.RuleCompiler;
+import com.faud.frauddetection.service.rule.TransactionFieldRegistry;
+import com.faud.frauddetection.service.rule.ValueListRegistry;
+import com.faud.frauddetection.service.rule.RuleSnapshot;
+import com.faud.frauddetection.service.velocity.VelocityStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.ArrayList;
-import java.lang.reflect.Field;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -39,15 +56,29 @@ class FraudDetectionServiceSimulationTest {
     @Mock
     private FraudDetectionResultService resultService;
 
+    @Mock
+    private VelocityStore velocityStore;
+
+    @Mock
+    private RedisPipeline redisPipeline;
+
     // No longer injecting mocks, we will construct it manually
     private FraudDetectionServiceImpl fraudDetectionService;
 
+    private RuleEvaluationExecutor ruleEvaluationExecutor;
+
+    private SimpleMeterRegistry meterRegistry;
+
     private Transaction transaction;
 
     @BeforeEach
     void setUp() {
-        // Manually construct the service with mocks and an empty list for ruleEngines
-        fraudDetectionService = new FraudDetectionServiceImpl(new ArrayList<>(), fraudRuleService, resultService);
+        // Manually construct the service with mocks; evaluators are bound to the rules in each snapshot
+        meterRegistry = new SimpleMeterRegistry();
+        ruleEvaluationExecutor = new RuleEvaluationExecutor(new FraudDetectionProperties(), new RuleEvaluationMetrics(meterRegistry));
+        fraudDetectionService = new FraudDetectionServiceImpl(
+            new RuleEvaluatorRegistry(List.of()), fraudRuleService, resultService, ruleEvaluationExecutor,
+            new StatefulRuleStage(velocityStore, redisPipeline), new FraudDetectionProperties(), meterRegistry);
 
         transaction = Transaction.builder()
                 .transactionId("test-tx-id")
@@ -58,13 +89,25 @@ class FraudDetectionServiceSimulationTest {
                 .build();
     }
 
+    @AfterEach
+    void tearDown() {
+        ruleEvaluationExecutor.shutdown();
+    }
+
+    private RuleSnapshot snapshotOf(List<RuleEvaluator> evaluators, FraudRule... rules) {
+        RuleCompiler ruleCompiler = new RuleCompiler(new TransactionFieldRegistry(), new ValueListRegistry(new FraudDetectionProperties()));
+        RuleEvaluatorRegistry evaluatorRegistry = new RuleEvaluatorRegistry(evaluators);
+        return new RuleSnapshot(1L, null, Instant.now(), Arrays.stream(rules)
+            .map(ruleCompiler::compile)
+            .map(evaluatorRegistry::bind)
+            .toList());
+    }
+
     private void mockRuleAndEvaluator(String ruleType, String ruleName, boolean isTriggered, double riskScore, String reason) {
         FraudRule rule = new FraudRule();
         rule.setRuleType(ruleType);
         rule.setRuleName(ruleName);
 
-        when(fraudRuleService.getActiveRules()).thenReturn(Collections.singletonList(rule));
-
         RuleEvaluator mockEvaluator = new RuleEvaluator() {
             @Override
             public RuleEvaluationResult evaluateRule(FraudRule r, Transaction t) {
@@ -77,21 +120,12 @@ class FraudDetectionServiceSimulationTest {
             }
 
             @Override
-            public boolean supports(String type) {
-                return type.equals(ruleType);
+            public Set<String> getSupportedRuleTypes() {
+                return Set.of(ruleType);
             }
         };
-        
-        // Use reflection to add the mock evaluator to the service's private list
-        try {
-            Field ruleEnginesField = FraudDetectionServiceImpl.class.getDeclaredField("ruleEngines");
-            ruleEnginesField.setAccessible(true);
-            @SuppressWarnings("unchecked")
-            List<RuleEvaluator> ruleEngines = (List<RuleEvaluator>) ruleEnginesField.get(fraudDetectionService);
-            ruleEngines.add(mockEvaluator);
-        } catch (NoSuchFieldException | IllegalAccessException e) {
-            fail("Failed to modify ruleEngines via reflection", e);
-        }
+
+        when(fraudRuleService.getActiveRuleSnapshot()).thenReturn(snapshotOf(List.of(mockEvaluator), rule));
     }
 
     @Test
@@ -105,6 +139,7 @@ class FraudDetectionServiceSimulationTest {
         FraudDetectionResult result = fraudDetectionService.detectFraud(highAmountTransaction);
         
         assertTrue(result.isFraudulent());
+        assertTrue(result.isPersisted());
         assertEquals(0.9, result.getRiskScore());
         assertThat(result.getEvaluationResults()).hasSize(1);
         assertEquals("High Amount Rule: Transaction amount exceeds threshold", result.getReason().replace("Triggered rules: ", ""));
@@ -130,15 +165,13 @@ class FraudDetectionServiceSimulationTest {
         ipRule.setRuleType("IP_BLACKLIST");
         ipRule.setRuleName("Risky IP");
 
-        when(fraudRuleService.getActiveRules()).thenReturn(List.of(amountRule, ipRule));
-
         RuleEvaluator amountEvaluator = new RuleEvaluator() {
             @Override
             public RuleEvaluationResult evaluateRule(FraudRule r, Transaction t) {
                 return RuleEvaluationResult.builder().triggered(true).riskScore(0.2).build();
             }
             @Override
-            public boolean supports(String type) { return type.equals("AMOUNT"); }
+            public Set<String> getSupportedRuleTypes() { return Set.of("AMOUNT"); }
         };
 
         RuleEvaluator ipEvaluator = new RuleEvaluator() {
@@ -147,14 +180,11 @@ class FraudDetectionServiceSimulationTest {
                 return RuleEvaluationResult.builder().triggered(true).riskScore(0.2).build();
             }
             @Override
-            public boolean supports(String type) { return type.equals("IP_BLACKLIST"); }
+            public Set<String> getSupportedRuleTypes() { return Set.of("IP_BLACKLIST"); }
         };
         
-        // Use reflection to add our mock evaluators to the private list in the service
-        List<RuleEvaluator> evaluators = (List<RuleEvaluator>) ReflectionTestUtils.getField(fraudDetectionService, "ruleEngines");
-        evaluators.clear(); // Clear previous mocks if any
-        evaluators.add(amountEvaluator);
-        evaluators.add(ipEvaluator);
+        when(fraudRuleService.getActiveRuleSnapshot())
+            .thenReturn(snapshotOf(List.of(amountEvaluator, ipEvaluator), amountRule, ipRule));
 
         FraudDetectionResult result = fraudDetectionService.detectFraud(transaction);
         assertTrue(result.isFraudulent());
@@ -162,9 +192,48 @@ class FraudDetectionServiceSimulationTest {
         assertThat(result.getEvaluationResults()).hasSize(2);
     }
 
+    @Test
+    void testSaveFailure_ShouldReturnResultNotPersisted() {
+        mockRuleAndEvaluator("AMOUNT", "High Amount Rule", true, 0.9, "Transaction amount exceeds threshold");
+        doThrow(new RuntimeException("Database connection failed")).when(resultService).saveResult(any());
+
+        FraudDetectionResult result = fraudDetectionService.detectFraud(transaction);
+
+        assertTrue(result.isFraudulent());
+        assertFalse(result.isPersisted());
+    }
+
+    @Test
+    void testDetectFraudBatch_ShouldLoadRulesOnceAndSaveResultsTogether() {
+        mockRuleAndEvaluator("AMOUNT", "High Amount Rule", true, 0.9, "Transaction amount exceeds threshold");
+        when(redisPipeline.newBatch()).thenReturn(new RedisPipeline(null).newBatch());
+        Transaction second = transaction.toBuilder().transactionId("test-tx-2").build();
+
+        List<FraudDetectionResult> results = fraudDetectionService.detectFraudBatch(List.of(transaction, second));
+
+        assertThat(results).extracting(FraudDetectionResult::getTransactionId).containsExactly("test-tx-id", "test-tx-2");
+        assertThat(results).allMatch(FraudDetectionResult::isFraudulent);
+        assertThat(results).allMatch(FraudDetectionResult::isPersisted);
+        verify(fraudRuleService, times(1)).getActiveRuleSnapshot();
+        verify(redisPipeline, times(1)).newBatch();
+        verify(resultService).saveResults(results);
+        verify(resultService, never()).saveResult(any());
+    }
+
+    @Test
+    void testDetectFraudBatch_RulesUnavailable_ShouldFailEveryTransaction() {
+        when(fraudRuleService.getActiveRuleSnapshot()).thenThrow(new RuntimeException("Database connection failed"));
+        Transaction second = transaction.toBuilder().transactionId("test-tx-2").build();
+
+        List<FraudDetectionResult> results = fraudDetectionService.detectFraudBatch(List.of(transaction, second));
+
+        assertThat(results).extracting(FraudDetectionResult::getRiskLevel).containsExactly("ERROR", "ERROR");
+        verify(resultService, never()).saveResults(any());
+    }
+
     @Test
     void testNoRulesTriggered_ShouldNotBeFlaggedAsFraud() {
-        when(fraudRuleService.getActiveRules()).thenReturn(Collections.emptyList());
+        when(fraudRuleService.getActiveRuleSnapshot()).thenReturn(snapshotOf(List.of()));
 
         FraudDetectionResult result = fraudDetectionService.detectFraud(transaction);
 
@@ -172,4 +241,126 @@ class FraudDetectionServiceSimulationTest {
         assertEquals(0.0, result.getRiskScore());
         assertThat(result.getEvaluationResults()).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testRuleWithoutEvaluator_ShouldBeSkipped() {
+        FraudRule customRule = new FraudRule();
+        customRule.setRuleType("CUSTOM");
+        customRule.setRuleName("Legacy Custom Rule");
+
+        when(fraudRuleService.getActiveRuleSnapshot()).thenReturn(snapshotOf(List.of(), customRule));
+
+        FraudDetectionResult result = fraudDetectionService.detectFraud(transaction);
+
+        assertFalse(result.isFraudulent());
+        assertThat(result.getEvaluationResults()).isEmpty();
+    }
+
+    @Test
+    void testDetection_ShouldRecordProcessingTimeAndMetrics() {
+        mockRuleAndEvaluator("AMOUNT", "High Amount Rule", true, 0.9, "Transaction amount exceeds threshold");
+
+        FraudDetectionResult result = fraudDetectionService.detectFraud(transaction);
+
+        assertThat(result.getProcessingTime()).isGreaterThanOrEqualTo(0L);
+        assertThat(meterRegistry.get(FraudDetectionServiceImpl.DETECTION_TIMER).tag("outcome", "fraud").timer().count())
+            .isEqualTo(1L);
+        assertThat(meterRegistry.get(RuleEvaluationMetrics.RULE_EVALUATION_TIMER)
+            .tag(RuleEvaluationMetrics.RULE_TAG, "High Amount Rule").timer().count()).isEqualTo(1L);
+        assertThat(meterRegistry.get(RuleEvaluationMetrics.RULE_TRIGGERED_COUNTER)
+            .tag(RuleEvaluationMetrics.RULE_TAG, "High Amount Rule").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testAsyncDetection_ShouldCompleteWithSameResult() throws Exception {
+        mockRuleAndEvaluator("AMOUNT", "High Amount Rule", true, 0.9, "Transaction amount exceeds threshold");
+
+        FraudDetectionResult result = fraudDetectionService.detectFraudAsync(transaction).get(1, TimeUnit.SECONDS);
+
+        assertTrue(result.isFraudulent());
+        assertEquals(0.9, result.getRiskScore());
+        assertThat(meterRegistry.get(FraudDetectionServiceImpl.DETECTION_TIMER).tag("outcome", "fraud").timer().count())
+            .isEqualTo(1L);
+    }
+
+    @Test
+    void testDegradedRule_ShouldFlagDecisionAsDegraded() {
+        FraudRule velocityRule = new FraudRule();
+        velocityRule.setRuleType("FREQUENCY");
+        velocityRule.setRuleName("Velocity Rule");
+
+        RuleEvaluator fallbackEvaluator = new RuleEvaluator() {
+            @Override
+            public RuleEvaluationResult evaluateRule(FraudRule r, Transaction t) {
+                return RuleEvaluationResult.builder().triggered(true).riskScore(0.3).degraded(true).build();
+            }
+            @Override
+            public Set<String> getSupportedRuleTypes() { return Set.of("FREQUENCY"); }
+        };
+        when(fraudRuleService.getActiveRuleSnapshot()).thenReturn(snapshotOf(List.of(fallbackEvaluator), velocityRule));
+
+        FraudDetectionResult result = fraudDetectionService.detectFraud(transaction);
+
+        assertTrue(result.isFraudulent());
+        assertTrue(result.isDegraded());
+        assertThat(meterRegistry.get(FraudDetectionServiceImpl.DEGRADED_DETECTION_COUNTER).counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testDownsampledVelocity_ShouldAddVelocityCapSignalOnce() {
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        properties.getVelocity().getCap().setRiskScore(0.4);
+        fraudDetectionService = new FraudDetectionServiceImpl(
+            new RuleEvaluatorRegistry(List.of()), fraudRuleService, resultService, ruleEvaluationExecutor,
+            new StatefulRuleStage(velocityStore, redisPipeline), properties, meterRegistry);
+
+        FraudRule frequencyRule = new FraudRule();
+        frequencyRule.setRuleType("FREQUENCY");
+        frequencyRule.setRuleName("Frequency Rule");
+        FraudRule amountRule = new FraudRule();
+        amountRule.setRuleType("AMOUNT");
+        amountRule.setRuleName("Amount Rule");
+
+        RuleEvaluator downsampledEvaluator = new RuleEvaluator() {
+            @Override
+            public RuleEvaluationResult evaluateRule(FraudRule r, Transaction t) {
+                return RuleEvaluationResult.builder().triggered(false).ruleName(r.getRuleName()).downsampled(true).build();
+            }
+            @Override
+            public Set<String> getSupportedRuleTypes() { return Set.of("FREQUENCY", "AMOUNT"); }
+        };
+        when(fraudRuleService.getActiveRuleSnapshot())
+            .thenReturn(snapshotOf(List.of(downsampledEvaluator), frequencyRule, amountRule));
+
+        FraudDetectionResult result = fraudDetectionService.detectFraud(transaction);
+
+        assertTrue(result.isFraudulent());
+        assertEquals(0.4, result.getRiskScore(), 0.001);
+        assertThat(result.getEvaluationResults()).hasSize(3);
+        assertThat(result.getEvaluationResults()).filteredOn(RuleEvaluationResult::isTriggered)
+            .extracting(RuleEvaluationResult::getRuleName)
+            .containsExactly(FraudDetectionServiceImpl.VELOCITY_CAP_SIGNAL);
+    }
+
+    @Test
+    void testDownsampledVelocity_SignalDisabled_ShouldNotAddRisk() {
+        FraudRule frequencyRule = new FraudRule();
+        frequencyRule.setRuleType("FREQUENCY");
+        frequencyRule.setRuleName("Frequency Rule");
+
+        RuleEvaluator downsampledEvaluator = new RuleEvaluator() {
+            @Override
+            public RuleEvaluationResult evaluateRule(FraudRule r, Transaction t) {
+                return RuleEvaluationResult.builder().triggered(false).ruleName(r.getRuleName()).downsampled(true).build();
+            }
+            @Override
+            public Set<String> getSupportedRuleTypes() { return Set.of("FREQUENCY"); }
+        };
+        when(fraudRuleService.getActiveRuleSnapshot()).thenReturn(snapshotOf(List.of(downsampledEvaluator), frequencyRule));
+
+        FraudDetectionResult result = fraudDetectionService.detectFraud(transaction);
+
+        assertFalse(result.isFraudulent());
+        assertThat(result.getEvaluationResults()).hasSize(1);
+    }
+}
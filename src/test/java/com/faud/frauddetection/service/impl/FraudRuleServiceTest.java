@@ -1,7 +1,14 @@
 package com.faud.frauddetection.service.impl;
 
+import com.faud.frauddetection.config.FraudDetectionProperties;
 import com.faud.frauddetection.entity.FraudRule;
 import com.faud.frauddetection.repository.FraudRuleRepository;
+import com.faud.frauddetection.service.rule.FraudRuleValidator;
+import com.faud.frauddetection.service.rule.RuleCompiler;
+import com.faud.frauddetection.service.rule.RuleSnapshot;
+import com.faud.frauddetection.service.rule.RuleSnapshotManager;
+import com.faud.frauddetection.service.rule.TransactionFieldRegistry;
+import com.faud.frauddetection.service.rule.ValueListRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,9 +17,11 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -30,6 +39,12 @@ class FraudRuleServiceTest {
     @Mock
     private FraudRuleRepository fraudRuleRepository;
 
+    @Mock
+    private RuleSnapshotManager ruleSnapshotManager;
+
+    @Mock
+    private FraudRuleValidator fraudRuleValidator;
+
     @InjectMocks
     private FraudRuleServiceImpl fraudRuleService;
 
@@ -76,7 +91,32 @@ class FraudRuleServiceTest {
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getRuleName()).isEqualTo("NEW_RULE");
+        verify(fraudRuleValidator).validate(ruleToCreate);
         verify(fraudRuleRepository).save(ruleToCreate);
+        verify(ruleSnapshotManager).refresh();
+    }
+
+    @Test
+    void createFraudRule_UnknownField_ShouldRejectWithoutSaving() {
+        // Given
+        FraudRule invalidRule = FraudRule.builder()
+            .ruleName("TYPO_RULE")
+            .ruleType("SIMPLE")
+            .conditionField("amout")
+            .conditionOperator("GT")
+            .conditionValue("10000")
+            .build();
+
+        doThrow(new IllegalArgumentException("Unknown transaction field 'amout'"))
+            .when(fraudRuleValidator).validate(invalidRule);
+
+        // When & Then
+        assertThatThrownBy(() -> fraudRuleService.createFraudRule(invalidRule))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("amout");
+
+        verify(fraudRuleRepository, never()).save(any());
+        verify(ruleSnapshotManager, never()).refresh();
     }
 
     @Test
@@ -121,7 +161,10 @@ class FraudRuleServiceTest {
             .enabled(false)
             .build();
 
-        when(fraudRuleRepository.findAll()).thenReturn(Arrays.asList(testRule, disabledRule));
+        RuleCompiler ruleCompiler = new RuleCompiler(
+            new TransactionFieldRegistry(), new ValueListRegistry(new FraudDetectionProperties()));
+        when(ruleSnapshotManager.getSnapshot())
+            .thenReturn(new RuleSnapshot(1L, null, Instant.now(), List.of(ruleCompiler.compile(testRule))));
 
         // When
         List<FraudRule> result = fraudRuleService.getActiveRules();
@@ -129,7 +172,9 @@ class FraudRuleServiceTest {
         // Then
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getEnabled()).isTrue();
-        verify(fraudRuleRepository).findAll();
+        assertThat(result).doesNotContain(disabledRule);
+        verify(fraudRuleRepository, never()).findAll();
+        verify(fraudRuleRepository, never()).findAllEnabled();
     }
 
     @Test
@@ -186,9 +231,12 @@ class FraudRuleServiceTest {
         assertThat(result.getDescription()).isEqualTo("Updated description");
         assertThat(result.getThresholdValue()).isEqualTo(BigDecimal.valueOf(15000));
         assertThat(result.getEnabled()).isFalse();
+        assertThat(result.getRiskWeight()).isEqualTo(BigDecimal.valueOf(0.7));
+        assertThat(result.getPriority()).isEqualTo(3);
 
         verify(fraudRuleRepository).findById(1L);
         verify(fraudRuleRepository).update(any(FraudRule.class));
+        verify(ruleSnapshotManager).refresh();
     }
 
     @Test
@@ -200,11 +248,61 @@ class FraudRuleServiceTest {
 
         // When & Then
         assertThatThrownBy(() -> fraudRuleService.updateFraudRule(999L, updateData))
-            .isInstanceOf(IllegalArgumentException.class)
+            .isInstanceOf(NoSuchElementException.class)
             .hasMessage("Fraud rule with id 999 not found");
 
         verify(fraudRuleRepository).findById(999L);
         verify(fraudRuleRepository, never()).update(any());
+        verify(ruleSnapshotManager, never()).refresh();
+    }
+
+    @Test
+    void updateFraudRule_UnknownField_ShouldRejectWithoutUpdating() {
+        // Given
+        FraudRule updateData = FraudRule.builder().conditionField("amout").build();
+
+        when(fraudRuleRepository.findById(1L)).thenReturn(Optional.of(testRule));
+        doThrow(new IllegalArgumentException("Unknown transaction field 'amout'"))
+            .when(fraudRuleValidator).validate(updateData);
+
+        // When & Then
+        assertThatThrownBy(() -> fraudRuleService.updateFraudRule(1L, updateData))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        verify(fraudRuleRepository, never()).update(any());
+    }
+
+    @Test
+    void updateFraudRule_OnlyEnabledChanges_ShouldSkipValidation() {
+        // Given - a seeded CUSTOM rule that no evaluator supports
+        FraudRule customRule = FraudRule.builder()
+            .id(2L)
+            .ruleName("CUSTOM_RULE")
+            .ruleType("CUSTOM")
+            .ruleConfig("{\"script\": \"legacy\"}")
+            .enabled(true)
+            .riskWeight(BigDecimal.valueOf(0.5))
+            .priority(2)
+            .build();
+        FraudRule toggled = FraudRule.builder()
+            .ruleName("CUSTOM_RULE")
+            .ruleType("CUSTOM")
+            .ruleConfig("{\"script\": \"legacy\"}")
+            .enabled(false)
+            .riskWeight(BigDecimal.valueOf(0.5))
+            .priority(2)
+            .build();
+
+        when(fraudRuleRepository.findById(2L)).thenReturn(Optional.of(customRule));
+
+        // When
+        FraudRule result = fraudRuleService.updateFraudRule(2L, toggled);
+
+        // Then
+        assertThat(result.getEnabled()).isFalse();
+        verify(fraudRuleValidator, never()).validate(any());
+        verify(fraudRuleRepository).update(customRule);
+        verify(ruleSnapshotManager).refresh();
     }
 
     // DELETE tests
@@ -218,6 +316,7 @@ class FraudRuleServiceTest {
 
         // Then
         verify(fraudRuleRepository).delete(1L);
+        verify(ruleSnapshotManager).refresh();
     }
 
     @Test
@@ -249,6 +348,9 @@ class FraudRuleServiceTest {
 
         // Then
         assertThat(result).isNotNull();
+        assertThat(result.getRiskWeight()).isEqualTo(BigDecimal.valueOf(0.2));
+        assertThat(result.getPriority()).isEqualTo(1);
+        assertThat(result.getDecisive()).isFalse();
         verify(fraudRuleRepository).save(ruleWithNullName);
     }
 
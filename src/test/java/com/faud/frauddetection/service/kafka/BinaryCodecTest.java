@@ -0,0 +1,179 @@
+package com.faud.frauddetection.service.kafka;
+
+import com.faud.frauddetection.dto.FraudDetectionResult;
+import com.faud.frauddetection.dto.RuleEvaluationResult;
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.dto.TransactionStatus;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for BinaryCodec
+ */
+class BinaryCodecTest {
+
+    private final BinaryCodec codec = new BinaryCodec();
+
+    @Test
+    void transaction_ShouldRoundTrip() throws Exception {
+        Transaction transaction = Transaction.builder()
+            .transactionId("TXN_1")
+            .userId("U1")
+            .amount(new BigDecimal("-12345678901234567890.125"))
+            .timestamp(LocalDateTime.of(2024, 1, 15, 10, 30, 5, 123_456_789))
+            .ipAddress("192.168.1.100")
+            .deviceId("DEVICE_1")
+            .userAgent("Mozilla/5.0 \u00e9")
+            .country("US")
+            .currency("USD")
+            .merchant("M1")
+            .paymentMethod("CREDIT_CARD")
+            .status(TransactionStatus.REVIEW)
+            .build();
+
+        assertThat(codec.decodeTransaction(codec.encode(transaction))).isEqualTo(transaction);
+    }
+
+    @Test
+    void transaction_MissingIdAndTimestamp_ShouldGetDefaultsLikeJson() throws Exception {
+        Transaction decoded = codec.decodeTransaction(codec.encode(Transaction.builder().userId("U1").build()));
+
+        assertThat(decoded.getTransactionId()).isNotNull();
+        assertThat(decoded.getTimestamp()).isNotNull();
+        assertThat(decoded.getAmount()).isNull();
+        assertThat(decoded.getStatus()).isNull();
+    }
+
+    @Test
+    void transaction_ShouldShareCodeStringsAcrossMessages() throws Exception {
+        byte[] payload = codec.encode(Transaction.builder().country("DE").currency("EUR").build());
+
+        Transaction first = codec.decodeTransaction(payload);
+        Transaction second = codec.decodeTransaction(payload);
+
+        assertThat(second.getCountry()).isSameAs(first.getCountry());
+        assertThat(second.getCurrency()).isSameAs(first.getCurrency());
+    }
+
+    @Test
+    void result_ShouldRoundTripDecisionAndTriggeredRuleNames() throws Exception {
+        // Built like FraudDetectionServiceImpl.score: all rule evaluations, triggeredRules left unset
+        FraudDetectionResult result = FraudDetectionResult.builder()
+            .transactionId("TXN_1")
+            .isFraudulent(true)
+            .riskScore(0.85)
+            .riskLevel("HIGH")
+            .reason("Large amount")
+            .detectionTime(LocalDateTime.of(2024, 1, 15, 10, 30, 5))
+            .processingTime(3L)
+            .degraded(true)
+            .evaluationResults(List.of(
+                RuleEvaluationResult.builder().ruleName("LARGE_AMOUNT_RULE").triggered(true).riskScore(0.6).build(),
+                RuleEvaluationResult.builder().ruleName("NIGHT_TIME_RULE").triggered(false).build(),
+                RuleEvaluationResult.builder().ruleName("HIGH_FREQUENCY_RULE").triggered(true).riskScore(0.25).build()))
+            .build();
+
+        FraudDetectionResult decoded = codec.decodeResult(codec.encode(result));
+
+        assertThat(decoded).usingRecursiveComparison().ignoringFields("evaluationResults", "triggeredRules")
+            .isEqualTo(result);
+        assertThat(decoded.getTriggeredRules()).extracting(RuleEvaluationResult::getRuleName)
+            .containsExactly("LARGE_AMOUNT_RULE", "HIGH_FREQUENCY_RULE");
+        assertThat(decoded.getEvaluationResults()).extracting(RuleEvaluationResult::getRuleName)
+            .containsExactly("LARGE_AMOUNT_RULE", "HIGH_FREQUENCY_RULE");
+    }
+
+    @Test
+    void result_Empty_ShouldRoundTrip() throws Exception {
+        byte[] payload = codec.encode(new FraudDetectionResult());
+
+        assertThat(payload).hasSize(2);
+        assertThat(codec.decodeResult(payload)).usingRecursiveComparison().isEqualTo(new FraudDetectionResult());
+    }
+
+    @Test
+    void decode_UnknownVersion_ShouldThrow() {
+        byte[] payload = codec.encode(Transaction.builder().userId("U1").build());
+        payload[0] = (byte) (BinaryCodec.VERSION + 1);
+
+        assertThatThrownBy(() -> codec.decodeTransaction(payload))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("version");
+    }
+
+    @Test
+    void decode_TruncatedOrTrailingBytes_ShouldThrow() {
+        byte[] payload = codec.encode(Transaction.builder().userId("U1").country("US").build());
+
+        assertThatThrownBy(() -> codec.decodeTransaction(Arrays.copyOf(payload, payload.length - 1)))
+            .isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> codec.decodeTransaction(Arrays.copyOf(payload, payload.length + 1)))
+            .isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> codec.decodeTransaction(new byte[0])).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> codec.decodeTransaction(null)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void isBinary_ShouldFollowContentTypeHeader() {
+        RecordHeaders binary = new RecordHeaders();
+        binary.add(BinaryCodec.binaryContentType());
+        RecordHeaders json = new RecordHeaders();
+        json.add(BinaryCodec.CONTENT_TYPE_HEADER, BinaryCodec.JSON_CONTENT_TYPE.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(BinaryCodec.isBinary(binary)).isTrue();
+        assertThat(BinaryCodec.isBinary(json)).isFalse();
+        assertThat(BinaryCodec.isBinary(new RecordHeaders())).isFalse();
+    }
+
+    @Test
+    void schema_ShouldMatchCodec() throws Exception {
+        Map<String, List<String>> blocks = new LinkedHashMap<>();
+        int version = -1;
+        try (InputStream in = getClass().getResourceAsStream("/schema/wire-format.schema");
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            List<String> block = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] tokens = line.split("\\s+");
+                if (tokens[0].equals("version")) {
+                    version = Integer.parseInt(tokens[1]);
+                } else if (line.endsWith("{")) {
+                    block = new ArrayList<>();
+                    blocks.put(tokens[0] + " " + tokens[1], block);
+                } else if (line.equals("}")) {
+                    block = null;
+                } else {
+                    assertThat(Integer.parseInt(tokens[0])).isEqualTo(block.size());
+                    block.add(String.join(" ", Arrays.copyOfRange(tokens, 1, tokens.length)));
+                }
+            }
+        }
+
+        assertThat(version).isEqualTo(BinaryCodec.VERSION);
+        assertThat(blocks.get("message Transaction")).isEqualTo(BinaryCodec.TRANSACTION_FIELDS);
+        assertThat(blocks.get("message FraudDetectionResult")).isEqualTo(BinaryCodec.RESULT_FIELDS);
+        assertThat(blocks.get("enum TransactionStatus"))
+            .isEqualTo(Arrays.stream(BinaryCodec.STATUSES).map(Enum::name).toList())
+            .containsExactlyInAnyOrderElementsOf(Arrays.stream(TransactionStatus.values()).map(Enum::name).toList());
+    }
+}
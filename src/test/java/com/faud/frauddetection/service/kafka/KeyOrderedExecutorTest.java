@@ -0,0 +1,89 @@
+package com.faud.frauddetection.service.kafka;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for KeyOrderedExecutor
+ */
+class KeyOrderedExecutorTest {
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+    private final KeyOrderedExecutor executor = new KeyOrderedExecutor(pool);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void submit_SameKey_ShouldRunInSubmissionOrder() {
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> last = null;
+        for (int i = 0; i < 50; i++) {
+            int task = i;
+            last = executor.submit("U1", () -> order.add(task));
+        }
+
+        last.join();
+
+        assertThat(order).hasSize(50).isSorted();
+    }
+
+    @Test
+    void submit_BlockedKey_ShouldNotDelayOtherKeys() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> blocked = executor.submit("U1", () -> await(release));
+        CompletableFuture<Void> queued = executor.submit("U1", () -> { });
+
+        executor.submit("U2", () -> { }).get(5, TimeUnit.SECONDS);
+
+        assertThat(blocked).isNotDone();
+        assertThat(queued).isNotDone();
+        release.countDown();
+        queued.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void submit_FailedTask_ShouldStillRunLaterTasksOfKey() throws Exception {
+        CompletableFuture<Void> failed = executor.submit("U1", () -> {
+            throw new IllegalStateException("boom");
+        });
+        CompletableFuture<Void> next = executor.submit("U1", () -> { });
+
+        next.get(5, TimeUnit.SECONDS);
+
+        assertThat(failed).isCompletedExceptionally();
+    }
+
+    @Test
+    void submit_Completed_ShouldReleaseKey() throws Exception {
+        CompletableFuture<Void> future = executor.submit("U1", () -> { });
+        future.get(5, TimeUnit.SECONDS);
+
+        // The key is released right after the future completes
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (executor.pendingKeys() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(executor.pendingKeys()).isZero();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
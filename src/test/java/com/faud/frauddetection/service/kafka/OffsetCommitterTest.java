@@ -0,0 +1,134 @@
+package com.faud.frauddetection.service.kafka;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.dto.FraudDetectionResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for OffsetCommitter
+ */
+class OffsetCommitterTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("transactions", 0);
+
+    private FraudDetectionProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private Consumer<?, ?> consumer;
+    private OffsetCommitter committer;
+
+    @BeforeEach
+    void setUp() {
+        properties = new FraudDetectionProperties();
+        properties.getOffsetCommit().setIntervalMs(0);
+        properties.getOffsetCommit().setDrainTimeoutMs(100);
+        meterRegistry = new SimpleMeterRegistry();
+        consumer = mock(Consumer.class);
+        when(consumer.assignment()).thenReturn(Set.of(PARTITION));
+        committer = new OffsetCommitter(properties, meterRegistry);
+    }
+
+    @Test
+    void commitIfDue_ShouldCommitSavedRecordsAsync() {
+        committer.completed(committer.dispatched(record(0)), persisted());
+        committer.dispatched(record(1));
+
+        committer.commitIfDue(consumer);
+
+        verify(consumer).commitAsync(eq(Map.of(PARTITION, new OffsetAndMetadata(1))), any(OffsetCommitCallback.class));
+        assertThat(meterRegistry.get(OffsetCommitter.PENDING_RECORDS_GAUGE).gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void commitIfDue_IntervalNotElapsed_ShouldBatchCommits() {
+        properties.getOffsetCommit().setIntervalMs(60_000);
+        committer = new OffsetCommitter(properties, meterRegistry);
+        committer.completed(committer.dispatched(record(0)), persisted());
+        committer.commitIfDue(consumer);
+
+        committer.completed(committer.dispatched(record(1)), persisted());
+        committer.commitIfDue(consumer);
+
+        verify(consumer).commitAsync(eq(Map.of(PARTITION, new OffsetAndMetadata(1))), any(OffsetCommitCallback.class));
+        verify(consumer, never()).commitAsync(eq(Map.of(PARTITION, new OffsetAndMetadata(2))), any(OffsetCommitCallback.class));
+    }
+
+    @Test
+    void commitIfDue_ResultNotSaved_ShouldSeekBackToRecord() {
+        committer.completed(committer.dispatched(record(0)), persisted());
+        committer.completed(committer.dispatched(record(1)), FraudDetectionResult.builder().transactionId("TXN_1").build());
+        committer.completed(committer.dispatched(record(2)), persisted());
+
+        committer.commitIfDue(consumer);
+
+        verify(consumer).seek(PARTITION, 1L);
+        verify(consumer, never()).commitAsync(anyMap(), any(OffsetCommitCallback.class));
+        assertThat(meterRegistry.get(OffsetCommitter.REWINDS_COUNTER).counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void onPartitionsRevoked_ShouldCommitSyncAndForgetPartition() {
+        committer.completed(committer.dispatched(record(0)), persisted());
+
+        committer.onPartitionsRevoked(consumer, List.of(PARTITION));
+        committer.commitIfDue(consumer);
+
+        verify(consumer).commitSync(Map.of(PARTITION, new OffsetAndMetadata(1)), Duration.ofMillis(100));
+        verify(consumer, never()).commitAsync(anyMap(), any(OffsetCommitCallback.class));
+    }
+
+    @Test
+    void onPartitionsRevoked_RecordInProgress_ShouldCommitUpToIt() {
+        committer.completed(committer.dispatched(record(0)), persisted());
+        committer.dispatched(record(1));
+
+        committer.onPartitionsRevoked(consumer, List.of(PARTITION));
+
+        verify(consumer).commitSync(Map.of(PARTITION, new OffsetAndMetadata(1)), Duration.ofMillis(100));
+    }
+
+    @Test
+    void isDone_ShouldAcceptSavedResultsAndFailedDetections() {
+        assertThat(OffsetCommitter.isDone(persisted())).isTrue();
+        assertThat(OffsetCommitter.isDone(FraudDetectionResult.builder().riskLevel(FraudDetectionResult.ERROR_RISK_LEVEL).build())).isTrue();
+        assertThat(OffsetCommitter.isDone(FraudDetectionResult.builder().riskLevel("HIGH").build())).isFalse();
+        assertThat(OffsetCommitter.isDone(null)).isFalse();
+    }
+
+    @Test
+    void constructor_NegativeInterval_ShouldThrow() {
+        properties.getOffsetCommit().setIntervalMs(-1);
+
+        assertThatThrownBy(() -> new OffsetCommitter(properties, new SimpleMeterRegistry()))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static FraudDetectionResult persisted() {
+        return FraudDetectionResult.builder().riskLevel("LOW").persisted(true).build();
+    }
+
+    private static ConsumerRecord<String, String> record(long offset) {
+        return new ConsumerRecord<>("transactions", 0, offset, "U1", "{}");
+    }
+}
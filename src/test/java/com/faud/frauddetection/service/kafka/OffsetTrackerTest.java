@@ -0,0 +1,168 @@
+package com.faud.frauddetection.service.kafka;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for OffsetTracker
+ */
+class OffsetTrackerTest {
+
+    private static final TopicPartition PARTITION_0 = new TopicPartition("transactions", 0);
+    private static final TopicPartition PARTITION_1 = new TopicPartition("transactions", 1);
+
+    private final OffsetTracker tracker = new OffsetTracker();
+
+    @Test
+    void committable_ShouldStopAtLowestIncompleteRecord() {
+        List<OffsetTracker.Pending> pending = dispatch(PARTITION_0, 10, 4);
+        pending.get(0).completed();
+        pending.get(2).completed();
+
+        assertThat(tracker.committable(List.of(PARTITION_0))).containsEntry(PARTITION_0, new OffsetAndMetadata(11));
+        assertThat(tracker.pending()).isEqualTo(2);
+    }
+
+    @Test
+    void committable_AllComplete_ShouldCommitPastLastRecord() {
+        List<OffsetTracker.Pending> pending = dispatch(PARTITION_0, 10, 2);
+        pending.get(1).completed();
+        pending.get(0).completed();
+
+        assertThat(tracker.committable(List.of(PARTITION_0))).containsEntry(PARTITION_0, new OffsetAndMetadata(12));
+    }
+
+    @Test
+    void committable_ShouldOnlyReturnOffsetsThatAdvanced() {
+        List<OffsetTracker.Pending> pending = dispatch(PARTITION_0, 10, 2);
+        pending.get(0).completed();
+        tracker.committable(List.of(PARTITION_0));
+
+        assertThat(tracker.committable(List.of(PARTITION_0))).isEmpty();
+
+        pending.get(1).completed();
+        assertThat(tracker.committable(List.of(PARTITION_0))).containsEntry(PARTITION_0, new OffsetAndMetadata(12));
+    }
+
+    @Test
+    void committable_ShouldSkipPartitionsNotAssigned() {
+        tracker.dispatched(PARTITION_0, 10).completed();
+        tracker.dispatched(PARTITION_1, 20).completed();
+
+        Map<TopicPartition, OffsetAndMetadata> committable = tracker.committable(List.of(PARTITION_1));
+
+        assertThat(committable).containsOnlyKeys(PARTITION_1);
+    }
+
+    @Test
+    void dispatched_Redelivered_ShouldCommitAgain() {
+        dispatch(PARTITION_0, 10, 2).forEach(OffsetTracker.Pending::completed);
+        tracker.committable(List.of(PARTITION_0));
+
+        // Partition assigned again from an older committed offset
+        tracker.dispatched(PARTITION_0, 11).completed();
+
+        assertThat(tracker.committable(List.of(PARTITION_0))).containsEntry(PARTITION_0, new OffsetAndMetadata(12));
+    }
+
+    @Test
+    void failed_ShouldHoldCommitsBackAndRewindToLowestFailedRecord() {
+        List<OffsetTracker.Pending> pending = dispatch(PARTITION_0, 10, 4);
+        pending.get(0).completed();
+        pending.get(3).failed();
+        pending.get(1).failed();
+        pending.get(2).completed();
+
+        assertThat(tracker.committable(List.of(PARTITION_0))).containsEntry(PARTITION_0, new OffsetAndMetadata(11));
+        assertThat(tracker.rewinds(List.of(PARTITION_0, PARTITION_1))).containsOnly(Map.entry(PARTITION_0, 11L));
+        assertThat(tracker.rewinds(List.of(PARTITION_0))).isEmpty();
+    }
+
+    @Test
+    void rewinds_ShouldSkipRestOfPollUntilConsumedAgain() {
+        List<OffsetTracker.Pending> pending = dispatch(PARTITION_0, 10, 2);
+        pending.get(0).failed();
+        tracker.rewinds(List.of(PARTITION_0));
+
+        // Records of the same poll after the rewind are skipped, the seek delivers them again
+        assertThat(tracker.dispatched(PARTITION_0, 12)).isNull();
+        assertThat(tracker.committable(List.of(PARTITION_0))).isEmpty();
+
+        OffsetTracker.Pending redelivered = tracker.dispatched(PARTITION_0, 10);
+        assertThat(redelivered).isNotNull();
+        redelivered.completed();
+        assertThat(tracker.committable(List.of(PARTITION_0))).containsEntry(PARTITION_0, new OffsetAndMetadata(11));
+
+        // Records from the failed one on are delivered again, their earlier deliveries no longer count
+        pending.get(1).completed();
+        assertThat(tracker.pending()).isZero();
+    }
+
+    @Test
+    void rewinds_RecordBelowInProgress_ShouldHoldCommitsBackUntilItCompletes() {
+        List<OffsetTracker.Pending> pending = dispatch(PARTITION_0, 10, 2);
+        pending.get(1).failed();
+        assertThat(tracker.rewinds(List.of(PARTITION_0))).containsOnly(Map.entry(PARTITION_0, 11L));
+
+        tracker.dispatched(PARTITION_0, 11).completed();
+
+        assertThat(tracker.committable(List.of(PARTITION_0))).containsEntry(PARTITION_0, new OffsetAndMetadata(10));
+        assertThat(tracker.pending(List.of(PARTITION_0))).isEqualTo(1);
+
+        pending.get(0).completed();
+        assertThat(tracker.committable(List.of(PARTITION_0))).containsEntry(PARTITION_0, new OffsetAndMetadata(12));
+    }
+
+    @Test
+    void rewinds_RecordBelowFailsLater_ShouldRewindAgainToIt() {
+        List<OffsetTracker.Pending> pending = dispatch(PARTITION_0, 10, 2);
+        pending.get(1).failed();
+        tracker.rewinds(List.of(PARTITION_0));
+        tracker.dispatched(PARTITION_0, 11).completed();
+
+        pending.get(0).failed();
+
+        assertThat(tracker.committable(List.of(PARTITION_0))).containsEntry(PARTITION_0, new OffsetAndMetadata(10));
+        assertThat(tracker.rewinds(List.of(PARTITION_0))).containsOnly(Map.entry(PARTITION_0, 10L));
+    }
+
+    @Test
+    void failed_RecordAlreadyRewound_ShouldNotRewindAgain() {
+        List<OffsetTracker.Pending> pending = dispatch(PARTITION_0, 10, 2);
+        pending.get(0).failed();
+        tracker.rewinds(List.of(PARTITION_0));
+        OffsetTracker.Pending redelivered = tracker.dispatched(PARTITION_0, 10);
+
+        // The earlier delivery of 11 fails after the rewind, its redelivery decides
+        pending.get(1).failed();
+
+        assertThat(tracker.rewinds(List.of(PARTITION_0))).isEmpty();
+        redelivered.completed();
+        assertThat(tracker.committable(List.of(PARTITION_0))).containsEntry(PARTITION_0, new OffsetAndMetadata(11));
+    }
+
+    @Test
+    void remove_ShouldForgetPartition() {
+        tracker.dispatched(PARTITION_0, 10);
+
+        tracker.remove(List.of(PARTITION_0));
+
+        assertThat(tracker.pending()).isZero();
+        assertThat(tracker.committable(List.of(PARTITION_0))).isEmpty();
+    }
+
+    private List<OffsetTracker.Pending> dispatch(TopicPartition partition, long firstOffset, int count) {
+        List<OffsetTracker.Pending> pending = new ArrayList<>();
+        for (long offset = firstOffset; offset < firstOffset + count; offset++) {
+            pending.add(tracker.dispatched(partition, offset));
+        }
+        return pending;
+    }
+}
@@ -0,0 +1,95 @@
+package com.faud.frauddetection.service.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.dto.TransactionStatus;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for TransactionReader
+ */
+class TransactionReaderTest {
+
+    private final TransactionReader reader = new TransactionReader();
+
+    @Test
+    void read_ShouldParseAllFields() throws Exception {
+        Transaction transaction = reader.read(bytes("{\"transactionId\":\"TXN_1\",\"userId\":\"U1\",\"amount\":10.50,"
+            + "\"currency\":\"USD\",\"merchant\":\"M1\",\"country\":\"US\",\"paymentMethod\":\"CARD\","
+            + "\"status\":\"REVIEW\",\"timestamp\":[2024,1,15,10,30]}"));
+
+        assertThat(transaction.getTransactionId()).isEqualTo("TXN_1");
+        assertThat(transaction.getAmount()).isEqualByComparingTo(new BigDecimal("10.50"));
+        assertThat(transaction.getCurrency()).isEqualTo("USD");
+        assertThat(transaction.getCountry()).isEqualTo("US");
+        assertThat(transaction.getPaymentMethod()).isEqualTo("CARD");
+        assertThat(transaction.getStatus()).isEqualTo(TransactionStatus.REVIEW);
+        assertThat(transaction.getTimestamp()).isEqualTo(LocalDateTime.of(2024, 1, 15, 10, 30));
+    }
+
+    @Test
+    void read_ShouldShareCodeStringsAcrossMessages() throws Exception {
+        Transaction first = reader.read(bytes("{\"transactionId\":\"TXN_1\",\"currency\":\"EUR\",\"country\":\"DE\"}"));
+        Transaction second = reader.read(bytes("{\"transactionId\":\"TXN_2\",\"currency\":\"EUR\",\"country\":\"DE\"}"));
+
+        assertThat(second.getCurrency()).isSameAs(first.getCurrency());
+        assertThat(second.getCountry()).isSameAs(first.getCountry());
+        assertThat(second.getTransactionId()).isEqualTo("TXN_2");
+    }
+
+    @Test
+    void read_LongOrNonAsciiCode_ShouldParseAsIs() throws Exception {
+        Transaction transaction = reader.read(bytes("{\"country\":\"Deutschland\",\"paymentMethod\":\"\u00dcberweisung\"}"));
+
+        assertThat(transaction.getCountry()).isEqualTo("Deutschland");
+        assertThat(transaction.getPaymentMethod()).isEqualTo("\u00dcberweisung");
+    }
+
+    @Test
+    void read_NullCode_ShouldStayNull() throws Exception {
+        Transaction transaction = reader.read(bytes("{\"currency\":null}"));
+
+        assertThat(transaction.getCurrency()).isNull();
+    }
+
+    @Test
+    void read_UnknownStatus_ShouldThrow() {
+        assertThatThrownBy(() -> reader.read(bytes("{\"status\":\"SETTLED\"}")))
+            .isInstanceOf(JsonProcessingException.class);
+    }
+
+    @Test
+    void read_MalformedMessage_ShouldNotIncludePayloadInError() {
+        assertThatThrownBy(() -> reader.read(bytes("{\"userId\":\"secret-user\",\"amount\":")))
+            .isInstanceOf(JsonProcessingException.class)
+            .satisfies(e -> assertThat(e.getMessage()).doesNotContain("secret-user"));
+    }
+
+    @Test
+    void read_BinaryContentType_ShouldDecodeBinaryAndOtherwiseJson() throws Exception {
+        Transaction transaction = Transaction.builder().transactionId("TXN_1").userId("U1").country("US").build();
+        RecordHeaders binary = new RecordHeaders();
+        binary.add(BinaryCodec.binaryContentType());
+
+        assertThat(reader.read(binary, new BinaryCodec().encode(transaction))).isEqualTo(transaction);
+        assertThat(reader.read(new RecordHeaders(), bytes("{\"transactionId\":\"TXN_2\"}")).getTransactionId())
+            .isEqualTo("TXN_2");
+    }
+
+    @Test
+    void read_NullPayload_ShouldThrow() {
+        assertThatThrownBy(() -> reader.read(null)).isInstanceOf(JsonProcessingException.class);
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
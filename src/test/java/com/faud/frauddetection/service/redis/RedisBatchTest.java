@@ -0,0 +1,117 @@
+package com.faud.frauddetection.service.redis;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for RedisBatch
+ */
+class RedisBatchTest {
+
+    private StringRedisTemplate redisTemplate;
+    private StringRedisConnection connection;
+    private RedisBatch batch;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        connection = mock(StringRedisConnection.class);
+        batch = new RedisPipeline(redisTemplate).newBatch();
+    }
+
+    @Test
+    void get_ShouldSendAllCommandsInOnePipeline() {
+        pipelineReplies(List.of(3L, 1L));
+        Supplier<Long> count = batch.command(c -> c.zCard("events"), reply -> (Long) reply);
+        Supplier<Boolean> added = batch.command(c -> c.sAdd("devices", "D1"), reply -> ((Long) reply) == 1L);
+
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+        assertThat(count.get()).isEqualTo(3L);
+        assertThat(added.get()).isTrue();
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        verify(connection).zCard("events");
+        verify(connection).sAdd("devices", "D1");
+    }
+
+    @Test
+    void command_AfterFlush_ShouldThrow() {
+        batch.flush();
+
+        assertThatThrownBy(() -> batch.command(c -> c.zCard("events"), reply -> reply))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Redis batch already flushed");
+    }
+
+    @Test
+    void flush_EmptyBatch_ShouldNotCallRedis() {
+        batch.flush();
+
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void get_FailedCommand_ShouldOnlyFailItsOwnResult() {
+        pipelineReplies(List.of(new RedisSystemException("WRONGTYPE", null), 1L));
+        Supplier<Object> failed = batch.command(c -> c.zCard("events"), reply -> reply);
+        Supplier<Object> succeeded = batch.command(c -> c.sAdd("devices", "D1"), reply -> reply);
+
+        assertThatThrownBy(failed::get).hasMessage("WRONGTYPE");
+        assertThat(succeeded.get()).isEqualTo(1L);
+    }
+
+    @Test
+    void get_PipelineFailure_ShouldFailEveryResult() {
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+            .thenThrow(new RedisConnectionFailureException("Redis down"));
+        Supplier<Object> first = batch.command(c -> c.zCard("events"), reply -> reply);
+        Supplier<Object> second = batch.command(c -> c.zCard("amounts"), reply -> reply);
+
+        assertThatThrownBy(first::get).isInstanceOf(RedisConnectionFailureException.class);
+        assertThatThrownBy(second::get).isInstanceOf(RedisConnectionFailureException.class);
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void get_NoReply_ShouldPassNullToReader() {
+        pipelineReplies(List.of());
+        Supplier<Long> count = batch.command(c -> c.zCard("events"), reply -> reply == null ? 0L : (Long) reply);
+
+        assertThat(count.get()).isZero();
+    }
+
+    @Test
+    void abort_ShouldFailPendingResultsWithoutCallingRedis() {
+        Supplier<Object> count = batch.command(c -> c.zCard("events"), reply -> reply);
+
+        batch.abort(new IllegalStateException("deadline expired"));
+
+        assertThat(batch.isDone()).isTrue();
+        assertThatThrownBy(count::get).hasMessage("deadline expired");
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+    }
+
+    private void pipelineReplies(List<Object> replies) {
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            RedisCallback<?> callback = invocation.getArgument(0);
+            callback.doInRedis(connection);
+            return replies;
+        });
+    }
+}
@@ -0,0 +1,107 @@
+package com.faud.frauddetection.service.redis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for RedisCircuitBreaker
+ */
+class RedisCircuitBreakerTest {
+
+    private static final long OPEN_MS = 5000;
+
+    private AtomicLong clock;
+    private SimpleMeterRegistry meterRegistry;
+    private RedisCircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong();
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreaker = new RedisCircuitBreaker(3, OPEN_MS, clock::get, meterRegistry);
+    }
+
+    @Test
+    void recordFailure_ConsecutiveFailuresAtThreshold_ShouldOpen() {
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+        assertThat(circuitBreaker.allowRequest()).isTrue();
+
+        circuitBreaker.recordFailure();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+        assertThat(circuitBreaker.allowRequest()).isFalse();
+        assertThat(meterRegistry.get(RedisCircuitBreaker.STATE_GAUGE).gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void recordSuccess_ShouldResetConsecutiveFailures() {
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordSuccess();
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void allowRequest_AfterOpenPeriod_ShouldLetSingleProbeThrough() {
+        open();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_MS));
+
+        assertThat(circuitBreaker.allowRequest()).isTrue();
+        assertThat(circuitBreaker.getState()).isEqualTo(RedisCircuitBreaker.State.HALF_OPEN);
+        assertThat(circuitBreaker.allowRequest()).isFalse();
+        assertThat(circuitBreaker.allowRequest()).isFalse();
+    }
+
+    @Test
+    void recordSuccess_ProbeSucceeded_ShouldClose() {
+        open();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_MS));
+        circuitBreaker.allowRequest();
+
+        circuitBreaker.recordSuccess();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+        assertThat(circuitBreaker.allowRequest()).isTrue();
+    }
+
+    @Test
+    void recordFailure_ProbeFailed_ShouldOpenForAnotherPeriod() {
+        open();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_MS));
+        circuitBreaker.allowRequest();
+
+        circuitBreaker.recordFailure();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_MS - 1));
+        assertThat(circuitBreaker.allowRequest()).isFalse();
+    }
+
+    @Test
+    void allowRequest_ProbeNeverReported_ShouldLetAnotherProbeThroughAfterOpenPeriod() {
+        open();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_MS));
+        circuitBreaker.allowRequest();
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_MS));
+
+        assertThat(circuitBreaker.allowRequest()).isTrue();
+        assertThat(circuitBreaker.allowRequest()).isFalse();
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.recordFailure();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.faud.frauddetection.service.redis;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.HyperLogLogOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for RedisKeyMigration
+ */
+class RedisKeyMigrationTest {
+
+    private StringRedisTemplate redisTemplate;
+    private ZSetOperations<String, String> zSetOperations;
+    private HashOperations<String, Object, Object> hashOperations;
+    private HyperLogLogOperations<String, String> hyperLogLogOperations;
+    private FraudDetectionProperties properties;
+    private RedisKeyMigration migration;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        zSetOperations = mock(ZSetOperations.class);
+        hashOperations = mock(HashOperations.class);
+        hyperLogLogOperations = mock(HyperLogLogOperations.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        when(redisTemplate.opsForHyperLogLog()).thenReturn(hyperLogLogOperations);
+        properties = new FraudDetectionProperties();
+        migration = new RedisKeyMigration(redisTemplate, properties);
+    }
+
+    @Test
+    void migrateEvents_ShouldAddEventsToVersionedKeyAndDeleteOldKey() {
+        Set<ZSetOperations.TypedTuple<String>> events = Set.of(new DefaultTypedTuple<>("TXN_1", 1_700_000_000_000d));
+        when(zSetOperations.rangeWithScores("transactions:user:U1", 0, -1)).thenReturn(events);
+        when(redisTemplate.getExpire("transactions:user:U1", TimeUnit.SECONDS)).thenReturn(3600L);
+        when(redisTemplate.getExpire("v1:{u:U1}:e", TimeUnit.SECONDS)).thenReturn(-1L);
+
+        migration.migrateEvents("transactions:user:U1");
+
+        verify(zSetOperations).add("v1:{u:U1}:e", events);
+        verify(redisTemplate).expire("v1:{u:U1}:e", 3600L, TimeUnit.SECONDS);
+        verify(redisTemplate).delete("transactions:user:U1");
+    }
+
+    @Test
+    void migrateAmountBuckets_ShouldIncrementVersionedFields() {
+        when(hashOperations.entries("amounts:buckets:user:U1")).thenReturn(Map.of("c:28333333", "2", "s:28333333", "15050"));
+        when(redisTemplate.getExpire("amounts:buckets:user:U1", TimeUnit.SECONDS)).thenReturn(600L);
+        when(redisTemplate.getExpire("v1:{u:U1}:a", TimeUnit.SECONDS)).thenReturn(3600L);
+
+        migration.migrateAmountBuckets("amounts:buckets:user:U1");
+
+        verify(hashOperations).increment("v1:{u:U1}:a", "c:28333333", 2L);
+        verify(hashOperations).increment("v1:{u:U1}:a", "s:28333333", 15050L);
+        verify(redisTemplate, never()).expire(eq("v1:{u:U1}:a"), any(Long.class), any(TimeUnit.class));
+        verify(redisTemplate).delete("amounts:buckets:user:U1");
+    }
+
+    @Test
+    void migrateDistinctSlice_ShouldMergeSketchThroughCopyInSameSlot() {
+        byte[] sketch = {1, 2, 3};
+        when(redisTemplate.dump("distinct:deviceId:userId:300:U1:5666666")).thenReturn(sketch);
+
+        migration.migrateDistinctSlice("distinct:deviceId:userId:300:U1:5666666");
+
+        verify(redisTemplate).restore("v1:{u:U1}:d:deviceId:300:5666666:m", sketch, 60, TimeUnit.SECONDS, true);
+        verify(hyperLogLogOperations).union("v1:{u:U1}:d:deviceId:300:5666666", "v1:{u:U1}:d:deviceId:300:5666666:m");
+        verify(redisTemplate).delete("v1:{u:U1}:d:deviceId:300:5666666:m");
+        verify(redisTemplate).delete("distinct:deviceId:userId:300:U1:5666666");
+    }
+
+    @Test
+    void distinctSliceKey_GroupValueWithSeparators_ShouldKeepWholeValue() {
+        assertThat(RedisKeyMigration.distinctSliceKey("distinct:userId:ipAddress:1800:2001:db8::1:944444"))
+            .isEqualTo("v1:{ipAddress:2001:db8::1}:d:userId:1800:944444");
+        assertThatThrownBy(() -> RedisKeyMigration.distinctSliceKey("distinct:userId:ipAddress"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void migrateOnStartup_Disabled_ShouldNotTouchRedis() {
+        migration.migrateOnStartup();
+
+        verify(redisTemplate, never()).scan(any(ScanOptions.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void migrateOnStartup_LockHeldByOtherInstance_ShouldSkip() {
+        properties.getKeyMigration().setEnabled(true);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(RedisKeyMigration.LOCK_KEY), anyString(), any(Duration.class))).thenReturn(false);
+
+        migration.migrateOnStartup();
+
+        verify(redisTemplate, never()).scan(any(ScanOptions.class));
+        verify(redisTemplate, never()).delete(RedisKeyMigration.LOCK_KEY);
+    }
+
+    @Test
+    void migrate_ShouldScanEveryOldLayout() {
+        when(redisTemplate.scan(any(ScanOptions.class))).thenAnswer(invocation -> cursorOf(List.of()));
+
+        assertThat(migration.migrate()).isZero();
+
+        verify(redisTemplate, times(3)).scan(any(ScanOptions.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cursor<String> cursorOf(List<String> keys) {
+        Iterator<String> iterator = keys.iterator();
+        Cursor<String> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> iterator.next());
+        return cursor;
+    }
+}
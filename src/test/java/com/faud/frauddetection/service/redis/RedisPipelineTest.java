@@ -0,0 +1,143 @@
+package com.faud.frauddetection.service.redis;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for RedisPipeline
+ */
+class RedisPipelineTest {
+
+    private static final RedisScript<Long> SCRIPT = RedisScript.of("return redis.call('INCR', KEYS[1])", Long.class);
+
+    private StringRedisTemplate redisTemplate;
+    private StringRedisConnection connection;
+    private RedisPipeline redisPipeline;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        connection = mock(StringRedisConnection.class);
+        redisPipeline = new RedisPipeline(redisTemplate);
+    }
+
+    @Test
+    void script_ShouldBeLoadedOnceAndSentBySha() {
+        pipelineReplies(List.of(1L), List.of(2L));
+
+        RedisBatch first = redisPipeline.newBatch();
+        Supplier<Long> firstCount = first.script(SCRIPT, List.of("k"), List.of(), reply -> (Long) reply);
+        RedisBatch second = redisPipeline.newBatch();
+        Supplier<Long> secondCount = second.script(SCRIPT, List.of("k"), List.of(), reply -> (Long) reply);
+
+        assertThat(firstCount.get()).isEqualTo(1L);
+        assertThat(secondCount.get()).isEqualTo(2L);
+        verify(redisTemplate, times(1)).execute(any(RedisCallback.class));
+        verify(connection, times(2)).evalSha(SCRIPT.getSha1(), ReturnType.INTEGER, 1, "k");
+    }
+
+    @Test
+    void script_NoScriptReply_ShouldReloadAndResendOnlyFailedCommands() {
+        RedisSystemException noScript = new RedisSystemException("NOSCRIPT No matching script", null);
+        int[] call = {0};
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            ((RedisCallback<?>) invocation.getArgument(0)).doInRedis(connection);
+            if (call[0]++ == 0) {
+                throw new RedisPipelineException(noScript, Arrays.asList(noScript, 7L));
+            }
+            return List.of(1L);
+        });
+
+        RedisBatch batch = redisPipeline.newBatch();
+        Supplier<Long> script = batch.script(SCRIPT, List.of("k"), List.of(), reply -> (Long) reply);
+        Supplier<Object> other = batch.command(c -> c.zCard("events"), reply -> reply);
+
+        assertThat(script.get()).isEqualTo(1L);
+        assertThat(other.get()).isEqualTo(7L);
+        verify(redisTemplate, times(2)).execute(any(RedisCallback.class));
+        verify(connection, times(2)).evalSha(SCRIPT.getSha1(), ReturnType.INTEGER, 1, "k");
+        verify(connection, times(1)).zCard("events");
+    }
+
+    @Test
+    void execute_PartialPipelineFailure_ShouldKeepOtherReplies() {
+        RedisSystemException failure = new RedisSystemException("WRONGTYPE", null);
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+            .thenThrow(new RedisPipelineException(failure, Arrays.asList(5L, failure)));
+
+        RedisBatch batch = redisPipeline.newBatch();
+        Supplier<Object> succeeded = batch.command(c -> c.zCard("events"), reply -> reply);
+        Supplier<Object> failed = batch.command(c -> c.zCard("amounts"), reply -> reply);
+
+        assertThat(succeeded.get()).isEqualTo(5L);
+        assertThatThrownBy(failed::get).hasMessage("WRONGTYPE");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushAsync_ScriptBatch_ShouldUseReactiveTemplateWithoutBlocking() throws Exception {
+        ReactiveStringRedisTemplate reactiveTemplate = mock(ReactiveStringRedisTemplate.class);
+        RedisScript<List> multi = RedisScript.of("return {1, 2}", List.class);
+        when(reactiveTemplate.execute(eq(SCRIPT), anyList(), anyList())).thenReturn(Flux.just(7L));
+        when(reactiveTemplate.execute(eq(multi), anyList(), anyList())).thenReturn(Flux.just(3L, 100L));
+        when(reactiveTemplate.execute(eq(SCRIPT), eq(List.of("missing")), anyList())).thenReturn(Flux.empty());
+
+        RedisBatch batch = new RedisPipeline(redisTemplate, reactiveTemplate).newBatch();
+        Supplier<Long> count = batch.script(SCRIPT, List.of("k"), List.of("1"), reply -> (Long) reply);
+        Supplier<Object> window = batch.script(multi, List.of("w"), List.of(), reply -> reply);
+        Supplier<Object> nil = batch.script(SCRIPT, List.of("missing"), List.of(), reply -> reply);
+        CompletableFuture<Void> flushed = batch.flushAsync();
+
+        flushed.get(1, TimeUnit.SECONDS);
+        assertThat(count.get()).isEqualTo(7L);
+        assertThat(window.get()).isEqualTo(List.of(3L, 100L));
+        assertThat(nil.get()).isNull();
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void flushAsync_WithoutReactiveTemplate_ShouldFallBackToBlockingPipeline() throws Exception {
+        pipelineReplies(List.of(4L));
+
+        RedisBatch batch = redisPipeline.newBatch();
+        Supplier<Long> count = batch.script(SCRIPT, List.of("k"), List.of(), reply -> (Long) reply);
+
+        assertThat(batch.flushAsync()).isDone();
+        assertThat(count.get()).isEqualTo(4L);
+    }
+
+    @SafeVarargs
+    private void pipelineReplies(List<Object>... replies) {
+        int[] call = {0};
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            ((RedisCallback<?>) invocation.getArgument(0)).doInRedis(connection);
+            return replies[call[0]++];
+        });
+    }
+}
@@ -0,0 +1,175 @@
+package com.faud.frauddetection.service.rule;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.service.evaluator.RuleEvaluator;
+import com.faud.frauddetection.service.evaluator.RuleEvaluatorRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for FraudRuleValidator
+ */
+class FraudRuleValidatorTest {
+
+    private FraudRuleValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        RuleEvaluator evaluator = mock(RuleEvaluator.class);
+        when(evaluator.getSupportedRuleTypes()).thenReturn(Set.of("SIMPLE", "MULTI_CONDITION", "FREQUENCY", "DISTINCT_COUNT"));
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        properties.getValueLists().put("blocked-ips",
+            new ByteArrayResource("10.0.0.1\n10.0.0.2\n".getBytes(StandardCharsets.UTF_8)));
+        validator = new FraudRuleValidator(new TransactionFieldRegistry(),
+            new RuleEvaluatorRegistry(List.of(evaluator)), new ValueListRegistry(properties));
+    }
+
+    @Test
+    void validate_KnownConditionField_ShouldPass() {
+        FraudRule rule = FraudRule.builder()
+            .ruleName("HIGH_AMOUNT")
+            .ruleType("SIMPLE")
+            .conditionField("amount")
+            .conditionOperator("GT")
+            .conditionValue("10000")
+            .build();
+
+        assertThatCode(() -> validator.validate(rule)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void validate_UnsupportedRuleType_ShouldReject() {
+        FraudRule rule = FraudRule.builder().ruleName("LEGACY").ruleType("CUSTOM").build();
+
+        assertThatThrownBy(() -> validator.validate(rule))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageStartingWith("Unsupported rule type 'CUSTOM'")
+            .hasMessageContaining("FREQUENCY");
+    }
+
+    @Test
+    void validate_RuleTypeIsCaseInsensitive_ShouldPass() {
+        FraudRule rule = FraudRule.builder().ruleName("LOWER").ruleType("frequency").build();
+
+        assertThatCode(() -> validator.validate(rule)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void validate_UnknownConditionField_ShouldReject() {
+        FraudRule rule = FraudRule.builder()
+            .ruleName("TYPO")
+            .ruleType("SIMPLE")
+            .conditionField("amout")
+            .conditionOperator("GT")
+            .conditionValue("10000")
+            .build();
+
+        assertThatThrownBy(() -> validator.validate(rule))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageStartingWith("Unknown transaction field 'amout'")
+            .hasMessageContaining("amount");
+    }
+
+    @Test
+    void validate_UnknownMultiConditionField_ShouldReject() {
+        FraudRule rule = FraudRule.builder()
+            .ruleName("MULTI")
+            .ruleType("MULTI_CONDITION")
+            .ruleConfig("{\"conditionGroups\": [{\"conditions\": ["
+                + "{\"field\": \"amount\", \"operator\": \"GT\", \"value\": \"10000\"},"
+                + "{\"field\": \"merchantCategory\", \"operator\": \"EQ\", \"value\": \"GAMBLING\"}]}]}")
+            .build();
+
+        assertThatThrownBy(() -> validator.validate(rule))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageStartingWith("Unknown transaction field 'merchantCategory'");
+    }
+
+    @Test
+    void validate_UnknownDistinctCountField_ShouldReject() {
+        FraudRule rule = FraudRule.builder()
+            .ruleName("DEVICES_PER_CARD")
+            .ruleType("DISTINCT_COUNT")
+            .ruleConfig("{\"countField\": \"deviceId\", \"groupField\": \"cardNumber\"}")
+            .build();
+
+        assertThatThrownBy(() -> validator.validate(rule))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageStartingWith("Unknown transaction field 'cardNumber'");
+    }
+
+    @Test
+    void validate_KnownValueListReference_ShouldPass() {
+        FraudRule rule = FraudRule.builder()
+            .ruleName("BLOCKED_IP")
+            .ruleType("SIMPLE")
+            .conditionField("ipAddress")
+            .conditionOperator("IN")
+            .conditionValue("@list:blocked-ips")
+            .build();
+
+        assertThatCode(() -> validator.validate(rule)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void validate_UnknownValueListReference_ShouldReject() {
+        FraudRule singleCondition = FraudRule.builder()
+            .ruleName("BLOCKED_IP")
+            .ruleType("SIMPLE")
+            .conditionField("ipAddress")
+            .conditionOperator("NOT_IN")
+            .conditionValue("@list:blocked-ip")
+            .build();
+        FraudRule multiCondition = FraudRule.builder()
+            .ruleName("MULTI")
+            .ruleType("MULTI_CONDITION")
+            .ruleConfig("{\"conditionGroups\": [{\"conditions\": ["
+                + "{\"field\": \"deviceId\", \"operator\": \"IN\", \"value\": \"@list:risky-devices\"}]}]}")
+            .build();
+
+        assertThatThrownBy(() -> validator.validate(singleCondition))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageStartingWith("Unknown value list 'blocked-ip'")
+            .hasMessageContaining("blocked-ips");
+        assertThatThrownBy(() -> validator.validate(multiCondition))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageStartingWith("Unknown value list 'risky-devices'");
+    }
+
+    @Test
+    void validate_MalformedRuleConfig_ShouldReject() {
+        FraudRule rule = FraudRule.builder()
+            .ruleName("BROKEN")
+            .ruleType("MULTI_CONDITION")
+            .ruleConfig("{invalid json}")
+            .build();
+
+        assertThatThrownBy(() -> validator.validate(rule))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageStartingWith("Rule config is not valid JSON");
+    }
+
+    @Test
+    void validate_ConfigWithoutConditions_ShouldPass() {
+        FraudRule frequencyRule = FraudRule.builder()
+            .ruleName("FREQUENCY")
+            .ruleType("FREQUENCY")
+            .ruleConfig("{\"timeWindowSeconds\":3600}")
+            .build();
+        FraudRule emptyRule = FraudRule.builder().ruleName("EMPTY").build();
+
+        assertThatCode(() -> validator.validate(frequencyRule)).doesNotThrowAnyException();
+        assertThatCode(() -> validator.validate(emptyRule)).doesNotThrowAnyException();
+    }
+}
@@ -0,0 +1,51 @@
+package com.faud.frauddetection.service.rule;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for MembershipSet
+ */
+class MembershipSetTest {
+
+    @Test
+    void of_StringField_ShouldMatchTrimmedStringForm() {
+        MembershipSet set = MembershipSet.of(List.of("USD", "EUR", "EUR"), String.class);
+
+        assertThat(set.isNumeric()).isFalse();
+        assertThat(set.size()).isEqualTo(2);
+        assertThat(set.contains("EUR")).isTrue();
+        assertThat(set.contains(" USD ")).isTrue();
+        assertThat(set.contains("usd")).isFalse();
+    }
+
+    @Test
+    void of_NumericField_ShouldMatchByValueRegardlessOfScale() {
+        MembershipSet set = MembershipSet.of(List.of("500", "100.5", "1000"), BigDecimal.class);
+
+        assertThat(set.isNumeric()).isTrue();
+        assertThat(set.contains(new BigDecimal("1000.00"))).isTrue();
+        assertThat(set.contains(new BigDecimal("100.50"))).isTrue();
+        assertThat(set.contains(500)).isTrue();
+        assertThat(set.contains(new BigDecimal("999.99"))).isFalse();
+        assertThat(set.contains("not a number")).isFalse();
+    }
+
+    @Test
+    void of_NumericFieldWithNonNumericOperand_ShouldFallBackToStrings() {
+        MembershipSet set = MembershipSet.of(List.of("100", "unknown"), BigDecimal.class);
+
+        assertThat(set.isNumeric()).isFalse();
+        assertThat(set.contains(new BigDecimal("100"))).isTrue();
+        assertThat(set.contains(new BigDecimal("100.00"))).isFalse();
+    }
+
+    @Test
+    void of_UnknownFieldType_ShouldUseStrings() {
+        assertThat(MembershipSet.of(List.of("1", "2"), null).isNumeric()).isFalse();
+    }
+}
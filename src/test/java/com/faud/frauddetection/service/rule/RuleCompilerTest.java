@@ -0,0 +1,236 @@
+package com.faud.frauddetection.service.rule;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.entity.RuleEvaluationType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for RuleCompiler
+ * Covers operand pre-parsing, predicate tree shape and handling of invalid configurations
+ */
+class RuleCompilerTest {
+
+    private RuleCompiler ruleCompiler;
+    private Transaction transaction;
+
+    @BeforeEach
+    void setUp() {
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        properties.getValueLists().put("blocked-ips", new ByteArrayResource(
+            "# known bad hosts\n10.0.0.1\n\n 192.168.1.100 \n".getBytes(StandardCharsets.UTF_8)));
+        ruleCompiler = new RuleCompiler(new TransactionFieldRegistry(), new ValueListRegistry(properties));
+        transaction = Transaction.builder()
+            .transactionId("TXN_001")
+            .userId("USER_123")
+            .amount(new BigDecimal("15000.00"))
+            .currency("USD")
+            .country("US")
+            .ipAddress("192.168.1.100")
+            .timestamp(LocalDateTime.of(2025, 1, 1, 23, 30))
+            .build();
+    }
+
+    @Test
+    void compile_SingleCondition_ShouldPrecomputeReasonAndRiskScore() {
+        FraudRule rule = singleConditionRule("amount", "gt", "10000");
+        rule.setRiskWeight(BigDecimal.valueOf(0.7));
+
+        CompiledRule compiled = ruleCompiler.compile(rule);
+
+        assertThat(compiled.isValid()).isTrue();
+        assertThat(compiled.getEvaluationType()).isEqualTo(RuleEvaluationType.SINGLE_CONDITION);
+        assertThat(compiled.getCondition().getOperator()).isEqualTo(ConditionOperator.GREATER_THAN);
+        assertThat(compiled.getTriggeredReason()).isEqualTo("Field amount GT 10000 condition met");
+        assertThat(compiled.getRiskScore()).isEqualTo(0.7);
+        assertThat(compiled.getPredicate().test(transaction)).isTrue();
+    }
+
+    @Test
+    void compile_SingleConditionWithoutRiskWeight_ShouldUseDefault() {
+        CompiledRule compiled = ruleCompiler.compile(singleConditionRule("amount", "GT", "10000"));
+
+        assertThat(compiled.getRiskScore()).isEqualTo(0.5);
+    }
+
+    @Test
+    void compile_UnknownField_ShouldProduceInvalidRule() {
+        CompiledRule compiled = ruleCompiler.compile(singleConditionRule("nonExistentField", "EQ", "value"));
+
+        assertThat(compiled.isValid()).isFalse();
+        assertThat(compiled.getInvalidReason()).startsWith("Field condition evaluation error");
+    }
+
+    @Test
+    void compile_MissingConfiguration_ShouldProduceInvalidRule() {
+        CompiledRule compiled = ruleCompiler.compile(FraudRule.builder().ruleName("EMPTY").ruleType("SIMPLE").build());
+
+        assertThat(compiled.getEvaluationType()).isEqualTo(RuleEvaluationType.INVALID);
+        assertThat(compiled.getInvalidReason()).isEqualTo("No valid rule configuration found");
+    }
+
+    @Test
+    void compile_InvalidJson_ShouldProduceInvalidRule() {
+        CompiledRule compiled = ruleCompiler.compile(multiConditionRule("{invalid json}"));
+
+        assertThat(compiled.isValid()).isFalse();
+        assertThat(compiled.getInvalidReason()).startsWith("Multi-condition evaluation error");
+    }
+
+    @Test
+    void compile_NoConditionGroups_ShouldProduceInvalidRule() {
+        CompiledRule compiled = ruleCompiler.compile(multiConditionRule("{\"conditionGroups\": []}"));
+
+        assertThat(compiled.getInvalidReason()).isEqualTo("No condition groups configured");
+    }
+
+    @Test
+    void compile_MultiConditionAndGroup_ShouldRequireAllConditions() {
+        CompiledRule compiled = ruleCompiler.compile(multiConditionRule(
+            "{\"conditionGroups\": [{\"intraGroupOperator\": \"AND\", \"conditions\": ["
+                + "{\"field\": \"amount\", \"operator\": \"GT\", \"value\": \"10000\"},"
+                + "{\"field\": \"currency\", \"operator\": \"IN\", \"value\": \" EUR , USD \"}]}]}"));
+
+        assertThat(compiled.getPredicate()).isInstanceOf(LogicalPredicate.class);
+        assertThat(((LogicalPredicate) compiled.getPredicate()).isConjunction()).isTrue();
+        assertThat(compiled.getPredicate().test(transaction)).isTrue();
+        assertThat(compiled.getPredicate().test(transaction.toBuilder().currency("GBP").build())).isFalse();
+    }
+
+    @Test
+    void compile_MultiConditionOrGroups_ShouldMatchAnyGroup() {
+        CompiledRule compiled = ruleCompiler.compile(multiConditionRule(
+            "{\"groupLogicalOperator\": \"OR\", \"conditionGroups\": ["
+                + "{\"conditions\": [{\"field\": \"country\", \"operator\": \"EQ\", \"value\": \"CN\"}]},"
+                + "{\"conditions\": [{\"field\": \"timestamp\", \"operator\": \"TIME_IN_RANGE\", \"value\": \"22:00-06:00\"}]}]}"));
+
+        assertThat(compiled.getPredicate().test(transaction)).isTrue();
+        assertThat(compiled.getPredicate().test(
+            transaction.toBuilder().timestamp(LocalDateTime.of(2025, 1, 1, 12, 0)).build())).isFalse();
+    }
+
+    @Test
+    void compile_UnknownLogicalOperator_ShouldOnlyUseFirstCondition() {
+        CompiledRule compiled = ruleCompiler.compile(multiConditionRule(
+            "{\"conditionGroups\": [{\"intraGroupOperator\": \"XOR\", \"conditions\": ["
+                + "{\"field\": \"amount\", \"operator\": \"GT\", \"value\": \"10000\"},"
+                + "{\"field\": \"currency\", \"operator\": \"EQ\", \"value\": \"EUR\"}]}]}"));
+
+        assertThat(compiled.getPredicate().test(transaction)).isTrue();
+    }
+
+    @Test
+    void compile_MultiConditionUnknownFieldOrOperator_ShouldNeverMatch() {
+        CompiledRule compiled = ruleCompiler.compile(multiConditionRule(
+            "{\"groupLogicalOperator\": \"OR\", \"conditionGroups\": ["
+                + "{\"conditions\": [{\"field\": \"nonExistentField\", \"operator\": \"IS_NULL\"}]},"
+                + "{\"conditions\": [{\"field\": \"amount\", \"operator\": \"UNKNOWN_OP\", \"value\": \"1\"}]},"
+                + "{\"conditions\": []}]}"));
+
+        assertThat(compiled.isValid()).isTrue();
+        assertThat(compiled.getPredicate().test(transaction)).isFalse();
+    }
+
+    @Test
+    void condition_NonNumericThreshold_ShouldFailOnNumericField() {
+        CompiledRule compiled = ruleCompiler.compile(singleConditionRule("amount", "GT", "abc"));
+
+        assertThatThrownBy(() -> compiled.getPredicate().test(transaction))
+            .isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    void condition_InvalidTimeRange_ShouldNeverBeInRange() {
+        ConditionPredicate inRange = ruleCompiler.compile(
+            singleConditionRule("timestamp", "TIME_IN_RANGE", "invalid-format")).getCondition();
+        ConditionPredicate notInRange = ruleCompiler.compile(
+            singleConditionRule("timestamp", "TIME_NOT_IN_RANGE", "invalid-format")).getCondition();
+
+        assertThat(inRange.test(transaction)).isFalse();
+        assertThat(notInRange.test(transaction)).isTrue();
+    }
+
+    @Test
+    void condition_NullValue_ShouldOnlyMatchIsNull() {
+        Transaction withoutCountry = transaction.toBuilder().country(null).build();
+
+        assertThat(ruleCompiler.compile(singleConditionRule("country", "IS_NULL", "")).getPredicate()
+            .test(withoutCountry)).isTrue();
+        assertThat(ruleCompiler.compile(singleConditionRule("country", "NOT_IN", "US")).getPredicate()
+            .test(withoutCountry)).isFalse();
+    }
+
+    @Test
+    void compile_InlineList_ShouldBuildHashSetOperands() {
+        ConditionPredicate condition = ruleCompiler.compile(
+            singleConditionRule("currency", "IN", " EUR , USD ,GBP")).getCondition();
+
+        assertThat(condition.test(transaction)).isTrue();
+        assertThat(condition.test(transaction.toBuilder().currency("JPY").build())).isFalse();
+    }
+
+    @Test
+    void compile_NumericFieldList_ShouldMatchByNumericValue() {
+        ConditionPredicate condition = ruleCompiler.compile(
+            singleConditionRule("amount", "IN", "9999.99, 15000, 20000")).getCondition();
+
+        assertThat(condition.test(transaction)).isTrue();
+        assertThat(condition.test(transaction.toBuilder().amount(new BigDecimal("15000.01")).build())).isFalse();
+    }
+
+    @Test
+    void compile_ValueListReference_ShouldUseConfiguredList() {
+        CompiledRule inList = ruleCompiler.compile(singleConditionRule("ipAddress", "IN", "@list:blocked-ips"));
+        CompiledRule notInList = ruleCompiler.compile(singleConditionRule("ipAddress", "NOT_IN", "@list:blocked-ips"));
+
+        assertThat(inList.getPredicate().test(transaction)).isTrue();
+        assertThat(notInList.getPredicate().test(transaction)).isFalse();
+        assertThat(inList.getPredicate().test(transaction.toBuilder().ipAddress("172.16.0.1").build())).isFalse();
+    }
+
+    @Test
+    void compile_UnknownValueList_ShouldProduceInvalidRule() {
+        CompiledRule compiled = ruleCompiler.compile(singleConditionRule("ipAddress", "IN", "@list:missing"));
+
+        assertThat(compiled.isValid()).isFalse();
+        assertThat(compiled.getInvalidReason()).isEqualTo("Field condition evaluation error: Unknown value list 'missing'");
+    }
+
+    @Test
+    void compile_MultiConditionUnknownValueList_ShouldNeverMatch() {
+        CompiledRule compiled = ruleCompiler.compile(multiConditionRule(
+            "{\"conditionGroups\": [{\"conditions\": ["
+                + "{\"field\": \"ipAddress\", \"operator\": \"NOT_IN\", \"value\": \"@list:missing\"}]}]}"));
+
+        assertThat(compiled.isValid()).isTrue();
+        assertThat(compiled.getPredicate().test(transaction)).isFalse();
+    }
+
+    private FraudRule singleConditionRule(String field, String operator, String value) {
+        return FraudRule.builder()
+            .ruleName("SINGLE")
+            .ruleType("SIMPLE")
+            .conditionField(field)
+            .conditionOperator(operator)
+            .conditionValue(value)
+            .build();
+    }
+
+    private FraudRule multiConditionRule(String ruleConfig) {
+        return FraudRule.builder()
+            .ruleName("MULTI")
+            .ruleType("MULTI_CONDITION")
+            .ruleConfig(ruleConfig)
+            .build();
+    }
+}
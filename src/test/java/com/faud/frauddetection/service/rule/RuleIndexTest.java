@@ -0,0 +1,144 @@
+package com.faud.frauddetection.service.rule;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.service.evaluator.DynamicEvaluator;
+import com.faud.frauddetection.service.evaluator.MultiConditionEvaluator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for RuleIndex
+ * Covers candidate selection for equality and membership rules and the rules that must stay linear
+ */
+class RuleIndexTest {
+
+    private RuleCompiler ruleCompiler;
+    private DynamicEvaluator dynamicEvaluator;
+    private Transaction transaction;
+
+    @BeforeEach
+    void setUp() {
+        ruleCompiler = new RuleCompiler(new TransactionFieldRegistry(), new ValueListRegistry(new FraudDetectionProperties()));
+        dynamicEvaluator = new DynamicEvaluator(new MultiConditionEvaluator(ruleCompiler), ruleCompiler);
+        transaction = Transaction.builder()
+            .transactionId("TXN_001")
+            .userId("USER_123")
+            .amount(new BigDecimal("15000.00"))
+            .currency("USD")
+            .country("US")
+            .paymentMethod("CRYPTO")
+            .build();
+    }
+
+    @Test
+    void candidates_EqualityRules_ShouldOnlyIncludeMatchingValue() {
+        CompiledRule us = rule("COUNTRY_US", "country", "EQ", "US");
+        CompiledRule cn = rule("COUNTRY_CN", "country", "EQ", "CN");
+        CompiledRule crypto = rule("CRYPTO", "paymentMethod", "EQ", "CRYPTO");
+
+        RuleIndex index = new RuleIndex(List.of(us, cn, crypto));
+
+        assertThat(index.getIndexedRuleCount()).isEqualTo(3);
+        assertThat(index.candidates(transaction)).containsExactly(us, crypto);
+        assertThat(index.candidates(transaction.toBuilder().country("CN").paymentMethod("CARD").build()))
+            .containsExactly(cn);
+    }
+
+    @Test
+    void candidates_MembershipRules_ShouldMatchTrimmedValue() {
+        CompiledRule currencies = rule("CURRENCIES", "currency", "IN", " EUR , USD ");
+
+        RuleIndex index = new RuleIndex(List.of(currencies));
+
+        assertThat(index.candidates(transaction)).containsExactly(currencies);
+        assertThat(index.candidates(transaction.toBuilder().currency(" EUR").build())).containsExactly(currencies);
+        assertThat(index.candidates(transaction.toBuilder().currency("GBP").build())).isEmpty();
+    }
+
+    @Test
+    void candidates_NonIndexableRules_ShouldAlwaysBeIncluded() {
+        CompiledRule notIn = rule("NOT_IN", "country", "NOT_IN", "US, CA");
+        CompiledRule numericIn = rule("NUMERIC_IN", "amount", "IN", "100, 200");
+        CompiledRule numericEq = rule("NUMERIC_EQ", "amount", "EQ", "100");
+        CompiledRule greaterThan = rule("GREATER_THAN", "amount", "GT", "10000");
+        CompiledRule invalid = rule("INVALID", "unknownField", "EQ", "US");
+        CompiledRule unbound = ruleCompiler.compile(singleConditionRule("UNBOUND", "country", "EQ", "CN"));
+        CompiledRule multiCondition = ruleCompiler.compile(FraudRule.builder()
+                .ruleName("MULTI")
+                .ruleType("MULTI_CONDITION")
+                .ruleConfig("{\"conditionGroups\": [{\"conditions\": "
+                    + "[{\"field\": \"country\", \"operator\": \"EQ\", \"value\": \"CN\"}]}]}")
+                .build())
+            .withEvaluator(dynamicEvaluator);
+        List<CompiledRule> rules = List.of(notIn, numericIn, numericEq, greaterThan, invalid, unbound, multiCondition);
+
+        RuleIndex index = new RuleIndex(rules);
+
+        assertThat(index.getIndexedRuleCount()).isZero();
+        assertThat(index.candidates(transaction)).containsExactlyElementsOf(rules);
+    }
+
+    @Test
+    void candidates_ShouldKeepRuleSetOrder() {
+        CompiledRule first = rule("FIRST", "amount", "GT", "10000");
+        CompiledRule second = rule("SECOND", "country", "EQ", "US");
+        CompiledRule third = rule("THIRD", "amount", "LT", "10000");
+        CompiledRule fourth = rule("FOURTH", "currency", "IN", "USD");
+        CompiledRule fifth = rule("FIFTH", "country", "EQ", "CN");
+
+        RuleIndex index = new RuleIndex(List.of(first, second, third, fourth, fifth));
+
+        assertThat(index.candidates(transaction)).containsExactly(first, second, third, fourth);
+    }
+
+    @Test
+    void candidates_NullFieldValue_ShouldSkipIndexedRules() {
+        CompiledRule linear = rule("LINEAR", "amount", "GT", "10000");
+        CompiledRule indexed = rule("INDEXED", "country", "EQ", "US");
+
+        RuleIndex index = new RuleIndex(List.of(linear, indexed));
+
+        assertThat(index.candidates(transaction.toBuilder().country(null).build())).containsExactly(linear);
+    }
+
+    @Test
+    void candidates_ShouldContainEveryRuleWhosePredicateMatches() {
+        List<CompiledRule> rules = List.of(
+            rule("R1", "country", "EQ", "US"),
+            rule("R2", "country", "IN", "CN, RU"),
+            rule("R3", "currency", "EQ", "usd"),
+            rule("R4", "paymentMethod", "IN", "CRYPTO, WIRE"),
+            rule("R5", "currency", "NOT_IN", "USD"));
+        RuleIndex index = new RuleIndex(rules);
+
+        for (Transaction candidate : List.of(transaction,
+                transaction.toBuilder().country("RU").currency("usd").build(),
+                transaction.toBuilder().country("DE").paymentMethod("WIRE").currency("EUR").build())) {
+            List<CompiledRule> matching = rules.stream()
+                .filter(rule -> rule.getPredicate().test(candidate))
+                .toList();
+            assertThat(index.candidates(candidate)).containsAll(matching);
+        }
+    }
+
+    private CompiledRule rule(String ruleName, String field, String operator, String value) {
+        return ruleCompiler.compile(singleConditionRule(ruleName, field, operator, value)).withEvaluator(dynamicEvaluator);
+    }
+
+    private FraudRule singleConditionRule(String ruleName, String field, String operator, String value) {
+        return FraudRule.builder()
+            .ruleName(ruleName)
+            .ruleType("SIMPLE")
+            .conditionField(field)
+            .conditionOperator(operator)
+            .conditionValue(value)
+            .build();
+    }
+}
@@ -0,0 +1,212 @@
+package com.faud.frauddetection.service.rule;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.entity.FraudRule;
+import com.faud.frauddetection.entity.FraudRuleSetVersion;
+import com.faud.frauddetection.repository.FraudRuleRepository;
+import com.faud.frauddetection.service.evaluator.DynamicEvaluator;
+import com.faud.frauddetection.service.evaluator.MultiConditionEvaluator;
+import com.faud.frauddetection.service.evaluator.RuleEvaluationMetrics;
+import com.faud.frauddetection.service.evaluator.RuleEvaluatorRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RuleSnapshotManager
+ * Covers lazy loading, atomic swaps, version checks and snapshot metrics
+ */
+@ExtendWith(MockitoExtension.class)
+class RuleSnapshotManagerTest {
+
+    @Mock
+    private FraudRuleRepository fraudRuleRepository;
+
+    private FraudDetectionProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private DynamicEvaluator dynamicEvaluator;
+    private RuleSnapshotManager ruleSnapshotManager;
+
+    private FraudRule amountRule;
+    private FraudRuleSetVersion initialVersion;
+
+    @BeforeEach
+    void setUp() {
+        properties = new FraudDetectionProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        RuleCompiler ruleCompiler = new RuleCompiler(new TransactionFieldRegistry(), new ValueListRegistry(new FraudDetectionProperties()));
+        dynamicEvaluator = new DynamicEvaluator(new MultiConditionEvaluator(ruleCompiler), ruleCompiler);
+        ruleSnapshotManager = new RuleSnapshotManager(fraudRuleRepository, ruleCompiler,
+            new RuleEvaluatorRegistry(List.of(dynamicEvaluator)), properties,
+            new RuleEvaluationMetrics(meterRegistry), meterRegistry);
+
+        amountRule = FraudRule.builder()
+            .id(1L)
+            .ruleName("HIGH_AMOUNT")
+            .ruleType("SIMPLE")
+            .conditionField("amount")
+            .conditionOperator("GT")
+            .conditionValue("10000")
+            .enabled(true)
+            .riskWeight(BigDecimal.valueOf(0.5))
+            .build();
+
+        initialVersion = FraudRuleSetVersion.builder()
+            .ruleCount(1)
+            .enabledCount(1)
+            .lastUpdatedAt(LocalDateTime.of(2024, 1, 1, 12, 0))
+            .build();
+    }
+
+    @Test
+    void getSnapshot_FirstCall_ShouldLoadOnce() {
+        when(fraudRuleRepository.findRuleSetVersion()).thenReturn(initialVersion);
+        when(fraudRuleRepository.findAllEnabled()).thenReturn(List.of(amountRule));
+
+        RuleSnapshot first = ruleSnapshotManager.getSnapshot();
+        RuleSnapshot second = ruleSnapshotManager.getSnapshot();
+
+        assertThat(first).isSameAs(second);
+        assertThat(first.getVersion()).isEqualTo(1L);
+        assertThat(first.getRules()).containsExactly(amountRule);
+        assertThat(first.getCompiledRules().get(0).isValid()).isTrue();
+        verify(fraudRuleRepository, times(1)).findAllEnabled();
+    }
+
+    @Test
+    void getSnapshot_ShouldBindRulesToTheirEvaluators() {
+        FraudRule customRule = FraudRule.builder()
+            .id(2L)
+            .ruleName("LEGACY_CUSTOM")
+            .ruleType("CUSTOM")
+            .enabled(true)
+            .build();
+        when(fraudRuleRepository.findRuleSetVersion()).thenReturn(initialVersion);
+        when(fraudRuleRepository.findAllEnabled()).thenReturn(List.of(amountRule, customRule));
+
+        RuleSnapshot snapshot = ruleSnapshotManager.getSnapshot();
+
+        assertThat(snapshot.getRules()).containsExactly(amountRule, customRule);
+        assertThat(snapshot.getCompiledRules().get(0).getEvaluator()).isSameAs(dynamicEvaluator);
+        assertThat(snapshot.getCompiledRules().get(1).getEvaluator()).isNull();
+    }
+
+    @Test
+    void getSnapshot_InitialLoadFails_ShouldPropagateException() {
+        when(fraudRuleRepository.findRuleSetVersion()).thenThrow(new RuntimeException("Database unavailable"));
+
+        assertThatThrownBy(() -> ruleSnapshotManager.getSnapshot())
+            .isInstanceOf(RuntimeException.class)
+            .hasMessage("Database unavailable");
+    }
+
+    @Test
+    void refresh_ShouldSwapInNewSnapshotWithHigherVersion() {
+        when(fraudRuleRepository.findRuleSetVersion()).thenReturn(initialVersion);
+        when(fraudRuleRepository.findAllEnabled()).thenReturn(List.of(amountRule)).thenReturn(List.of());
+
+        RuleSnapshot before = ruleSnapshotManager.getSnapshot();
+        ruleSnapshotManager.refresh();
+        RuleSnapshot after = ruleSnapshotManager.getSnapshot();
+
+        assertThat(after.getVersion()).isGreaterThan(before.getVersion());
+        assertThat(after.getRules()).isEmpty();
+        assertThat(before.getRules()).containsExactly(amountRule);
+    }
+
+    @Test
+    void refresh_ReloadFails_ShouldKeepPreviousSnapshot() {
+        when(fraudRuleRepository.findRuleSetVersion()).thenReturn(initialVersion);
+        when(fraudRuleRepository.findAllEnabled())
+            .thenReturn(List.of(amountRule))
+            .thenThrow(new RuntimeException("Database unavailable"));
+
+        RuleSnapshot before = ruleSnapshotManager.getSnapshot();
+        ruleSnapshotManager.refresh();
+
+        assertThat(ruleSnapshotManager.getSnapshot()).isSameAs(before);
+    }
+
+    @Test
+    void checkForUpdates_UnchangedVersion_ShouldNotReload() {
+        when(fraudRuleRepository.findRuleSetVersion()).thenReturn(initialVersion);
+        when(fraudRuleRepository.findAllEnabled()).thenReturn(List.of(amountRule));
+
+        RuleSnapshot before = ruleSnapshotManager.getSnapshot();
+        ruleSnapshotManager.checkForUpdates();
+
+        assertThat(ruleSnapshotManager.getSnapshot()).isSameAs(before);
+        verify(fraudRuleRepository, times(1)).findAllEnabled();
+    }
+
+    @Test
+    void checkForUpdates_ChangedVersion_ShouldReload() {
+        FraudRuleSetVersion changedVersion = FraudRuleSetVersion.builder()
+            .ruleCount(1)
+            .enabledCount(0)
+            .lastUpdatedAt(LocalDateTime.of(2024, 1, 1, 12, 5))
+            .build();
+        when(fraudRuleRepository.findRuleSetVersion())
+            .thenReturn(initialVersion)
+            .thenReturn(changedVersion);
+        when(fraudRuleRepository.findAllEnabled()).thenReturn(List.of(amountRule)).thenReturn(List.of());
+
+        RuleSnapshot before = ruleSnapshotManager.getSnapshot();
+        ruleSnapshotManager.checkForUpdates();
+        RuleSnapshot after = ruleSnapshotManager.getSnapshot();
+
+        assertThat(after).isNotSameAs(before);
+        assertThat(after.getSourceVersion()).isEqualTo(changedVersion);
+        assertThat(after.getRules()).isEmpty();
+    }
+
+    @Test
+    void checkForUpdates_SnapshotExceededMaxAge_ShouldReload() {
+        properties.getRuleCache().setMaxAgeSeconds(0L);
+        when(fraudRuleRepository.findRuleSetVersion()).thenReturn(initialVersion);
+        when(fraudRuleRepository.findAllEnabled()).thenReturn(List.of(amountRule));
+
+        RuleSnapshot before = ruleSnapshotManager.getSnapshot();
+        ruleSnapshotManager.checkForUpdates();
+
+        assertThat(ruleSnapshotManager.getSnapshot().getVersion()).isGreaterThan(before.getVersion());
+    }
+
+    @Test
+    void checkForUpdates_VersionCheckFails_ShouldKeepSnapshot() {
+        when(fraudRuleRepository.findRuleSetVersion())
+            .thenReturn(initialVersion)
+            .thenThrow(new RuntimeException("Database unavailable"));
+        when(fraudRuleRepository.findAllEnabled()).thenReturn(List.of(amountRule));
+
+        RuleSnapshot before = ruleSnapshotManager.getSnapshot();
+        ruleSnapshotManager.checkForUpdates();
+
+        assertThat(ruleSnapshotManager.getSnapshot()).isSameAs(before);
+    }
+
+    @Test
+    void metrics_ShouldExposeSnapshotVersionAgeAndSize() {
+        when(fraudRuleRepository.findRuleSetVersion()).thenReturn(initialVersion);
+        when(fraudRuleRepository.findAllEnabled()).thenReturn(List.of(amountRule));
+
+        assertThat(meterRegistry.get("fraud.rules.snapshot.version").gauge().value()).isEqualTo(0.0);
+
+        ruleSnapshotManager.getSnapshot();
+
+        assertThat(meterRegistry.get("fraud.rules.snapshot.version").gauge().value()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("fraud.rules.snapshot.size").gauge().value()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("fraud.rules.snapshot.age").gauge().value()).isGreaterThanOrEqualTo(0.0);
+    }
+}
@@ -0,0 +1,60 @@
+package com.faud.frauddetection.service.rule;
+
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.dto.TransactionStatus;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for TransactionFieldRegistry
+ */
+class TransactionFieldRegistryTest {
+
+    private final TransactionFieldRegistry registry = new TransactionFieldRegistry();
+
+    @Test
+    void findAccessor_KnownFields_ShouldReturnGetterValues() {
+        Transaction transaction = Transaction.builder()
+            .transactionId("TXN_001")
+            .userId("USER_123")
+            .amount(new BigDecimal("15000.00"))
+            .country("US")
+            .timestamp(LocalDateTime.of(2025, 1, 1, 23, 30))
+            .status(TransactionStatus.PENDING)
+            .build();
+
+        assertThat(registry.findAccessor("transactionId").orElseThrow().apply(transaction)).isEqualTo("TXN_001");
+        assertThat(registry.findAccessor("amount").orElseThrow().apply(transaction)).isEqualTo(new BigDecimal("15000.00"));
+        assertThat(registry.findAccessor("timestamp").orElseThrow().apply(transaction)).isEqualTo(transaction.getTimestamp());
+        assertThat(registry.findAccessor("status").orElseThrow().apply(transaction)).isEqualTo(TransactionStatus.PENDING);
+        assertThat(registry.findAccessor("deviceId").orElseThrow().apply(transaction)).isNull();
+    }
+
+    @Test
+    void findAccessor_UnknownOrNullField_ShouldReturnEmpty() {
+        assertThat(registry.findAccessor("nonExistentField")).isEmpty();
+        assertThat(registry.findAccessor("Amount")).isEmpty();
+        assertThat(registry.findAccessor(null)).isEmpty();
+        assertThat(registry.isKnownField("nonExistentField")).isFalse();
+        assertThat(registry.isKnownField(null)).isFalse();
+    }
+
+    @Test
+    void getFieldType_ShouldReturnDeclaredTypes() {
+        assertThat(registry.getFieldType("amount")).isEqualTo(BigDecimal.class);
+        assertThat(registry.getFieldType("timestamp")).isEqualTo(LocalDateTime.class);
+        assertThat(registry.getFieldType("country")).isEqualTo(String.class);
+        assertThat(registry.getFieldType("nonExistentField")).isNull();
+    }
+
+    @Test
+    void getFieldNames_ShouldContainEveryTransactionField() {
+        assertThat(registry.getFieldNames()).contains(
+            "transactionId", "userId", "amount", "timestamp", "ipAddress", "deviceId",
+            "userAgent", "country", "currency", "merchant", "paymentMethod", "status");
+    }
+}
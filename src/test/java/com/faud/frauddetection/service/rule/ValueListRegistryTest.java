@@ -0,0 +1,50 @@
+package com.faud.frauddetection.service.rule;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for ValueListRegistry
+ */
+class ValueListRegistryTest {
+
+    @Test
+    void constructor_ShouldLoadOneValuePerLineSkippingCommentsAndBlanks() {
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        properties.getValueLists().put("blocked-ips", new ByteArrayResource(
+            "# header\n10.0.0.1\n\n  10.0.0.2  \n#10.0.0.3\n".getBytes(StandardCharsets.UTF_8)));
+
+        ValueListRegistry registry = new ValueListRegistry(properties);
+
+        assertThat(registry.findList("blocked-ips")).contains(List.of("10.0.0.1", "10.0.0.2"));
+        assertThat(registry.isKnownList("blocked-ips")).isTrue();
+        assertThat(registry.findList("other")).isEmpty();
+    }
+
+    @Test
+    void constructor_MissingResource_ShouldFailFast() {
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        properties.getValueLists().put("missing", new ClassPathResource("lists/does-not-exist.txt"));
+
+        assertThatThrownBy(() -> new ValueListRegistry(properties))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("missing");
+    }
+
+    @Test
+    void reference_ShouldRecognizeAndParseListReferences() {
+        assertThat(ValueListRegistry.isReference("@list:blocked-ips")).isTrue();
+        assertThat(ValueListRegistry.isReference(" @list: blocked-ips ")).isTrue();
+        assertThat(ValueListRegistry.isReference("10.0.0.1,10.0.0.2")).isFalse();
+        assertThat(ValueListRegistry.isReference(null)).isFalse();
+        assertThat(ValueListRegistry.referencedName(" @list: blocked-ips ")).isEqualTo("blocked-ips");
+    }
+}
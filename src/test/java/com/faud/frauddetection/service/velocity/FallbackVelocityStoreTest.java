@@ -0,0 +1,175 @@
+package com.faud.frauddetection.service.velocity;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.service.redis.RedisBatch;
+import com.faud.frauddetection.service.redis.RedisCircuitBreaker;
+import com.faud.frauddetection.service.redis.RedisPipeline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.math.BigDecimal;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for FallbackVelocityStore
+ */
+class FallbackVelocityStoreTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private VelocityStore redisStore;
+    private RedisCircuitBreaker circuitBreaker;
+    private SimpleMeterRegistry meterRegistry;
+    private FallbackVelocityStore fallbackStore;
+
+    @BeforeEach
+    void setUp() {
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        redisStore = mock(VelocityStore.class);
+        circuitBreaker = new RedisCircuitBreaker(properties, meterRegistry);
+        fallbackStore = new FallbackVelocityStore(redisStore, new ShadowVelocityWindows(properties, meterRegistry),
+            circuitBreaker, true, meterRegistry);
+    }
+
+    @Test
+    void recordAndAggregate_RedisHealthy_ShouldReturnRedisAggregates() {
+        VelocityAggregates fromRedis = aggregates(3600, 4L);
+        when(redisStore.recordAndAggregate(any(Transaction.class), anyLong(), any(long[].class))).thenReturn(fromRedis);
+
+        VelocityAggregates aggregates = fallbackStore.recordAndAggregate(transaction("TXN_1", "100.00"), NOW, 3600);
+
+        assertThat(aggregates).isSameAs(fromRedis);
+        assertThat(aggregates.isDegraded()).isFalse();
+    }
+
+    @Test
+    void recordAndAggregate_RedisFailure_ShouldAnswerFromShadowWindows() {
+        when(redisStore.recordAndAggregate(any(Transaction.class), anyLong(), any(long[].class)))
+            .thenReturn(aggregates(3600, 1L))
+            .thenThrow(new RedisConnectionFailureException("Redis down"));
+
+        fallbackStore.recordAndAggregate(transaction("TXN_1", "100.00"), NOW, 3600);
+        VelocityAggregates aggregates = fallbackStore.recordAndAggregate(transaction("TXN_2", "50.00"), NOW + 1_000, 3600);
+
+        // The shadow windows saw the transaction recorded while Redis was still healthy
+        assertThat(aggregates.isDegraded()).isTrue();
+        assertThat(aggregates.getCount(3600)).isEqualTo(2L);
+        assertThat(aggregates.getSum(3600)).isEqualTo(new BigDecimal("150.00"));
+        assertThat(meterRegistry.get(FallbackVelocityStore.DEGRADED_COUNTER).counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void recordAndAggregate_CircuitOpen_ShouldNotCallRedis() {
+        when(redisStore.recordAndAggregate(any(Transaction.class), anyLong(), any(long[].class)))
+            .thenThrow(new RedisConnectionFailureException("Redis down"));
+
+        for (int i = 0; i < 10; i++) {
+            VelocityAggregates aggregates = fallbackStore.recordAndAggregate(transaction("TXN_" + i, "10.00"), NOW + i, 60);
+            assertThat(aggregates.isDegraded()).isTrue();
+            assertThat(aggregates.getCount(60)).isEqualTo(i + 1L);
+        }
+
+        // The default threshold opens the circuit after 5 consecutive failures
+        assertThat(circuitBreaker.getState()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+        verify(redisStore, times(5)).recordAndAggregate(any(Transaction.class), anyLong(), any(long[].class));
+    }
+
+    @Test
+    void recordAndAggregate_NonRedisError_ShouldPropagateWithoutOpeningCircuit() {
+        when(redisStore.recordAndAggregate(any(Transaction.class), anyLong(), any(long[].class)))
+            .thenThrow(new ArithmeticException("Rounding necessary"));
+
+        for (int i = 0; i < 10; i++) {
+            Transaction transaction = transaction("TXN_" + i, "10.00");
+            assertThatThrownBy(() -> fallbackStore.recordAndAggregate(transaction, NOW, 60))
+                .isInstanceOf(ArithmeticException.class);
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+        assertThat(meterRegistry.get(FallbackVelocityStore.DEGRADED_COUNTER).counter().count()).isZero();
+    }
+
+    @Test
+    void recordAndAggregate_BatchReplyNonRedisError_ShouldPropagate() {
+        RedisBatch batch = new RedisPipeline(null).newBatch();
+        when(redisStore.recordAndAggregate(eq(batch), any(Transaction.class), anyLong(), any(long[].class)))
+            .thenReturn(() -> {
+                throw new NullPointerException("reply");
+            });
+
+        Supplier<VelocityAggregates> aggregates =
+            fallbackStore.recordAndAggregate(batch, transaction("TXN_1", "100.00"), NOW, 60);
+
+        assertThatThrownBy(aggregates::get).isInstanceOf(NullPointerException.class);
+        assertThat(circuitBreaker.getState()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void recordAndAggregate_BatchReplyTimedOut_ShouldAnswerFromShadowWindows() {
+        RedisBatch batch = new RedisPipeline(null).newBatch();
+        when(redisStore.recordAndAggregate(eq(batch), any(Transaction.class), anyLong(), any(long[].class)))
+            .thenReturn(() -> {
+                throw new QueryTimeoutException("Redis batch did not complete within 200 ms");
+            });
+
+        Supplier<VelocityAggregates> aggregates =
+            fallbackStore.recordAndAggregate(batch, transaction("TXN_1", "100.00"), NOW, 60, 3600);
+
+        assertThat(aggregates.get().isDegraded()).isTrue();
+        assertThat(aggregates.get().getCount(3600)).isEqualTo(1L);
+    }
+
+    @Test
+    void recordAndAggregate_CircuitOpen_ShouldNotRegisterInBatch() {
+        for (int i = 0; i < 5; i++) {
+            circuitBreaker.recordFailure();
+        }
+        RedisBatch batch = new RedisPipeline(null).newBatch();
+
+        Supplier<VelocityAggregates> aggregates =
+            fallbackStore.recordAndAggregate(batch, transaction("TXN_1", "100.00"), NOW, 60);
+
+        assertThat(aggregates.get().isDegraded()).isTrue();
+        verify(redisStore, never()).recordAndAggregate(eq(batch), any(Transaction.class), anyLong(), any(long[].class));
+    }
+
+    @Test
+    void recordAndAggregate_Disabled_ShouldOnlyDelegate() {
+        FallbackVelocityStore disabled = new FallbackVelocityStore(redisStore,
+            new ShadowVelocityWindows(new FraudDetectionProperties(), meterRegistry), circuitBreaker, false, meterRegistry);
+        when(redisStore.recordAndAggregate(any(Transaction.class), anyLong(), any(long[].class)))
+            .thenThrow(new RedisConnectionFailureException("Redis down"));
+
+        assertThatThrownBy(() -> disabled.recordAndAggregate(transaction("TXN_1", "100.00"), NOW, 60))
+            .isInstanceOf(RedisConnectionFailureException.class);
+        assertThat(circuitBreaker.getState()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+    }
+
+    private static VelocityAggregates aggregates(long window, long count) {
+        return new VelocityAggregates(new long[]{window}, new long[]{count}, new BigDecimal[]{BigDecimal.ZERO});
+    }
+
+    private static Transaction transaction(String transactionId, String amount) {
+        return Transaction.builder()
+            .transactionId(transactionId)
+            .userId("U1")
+            .amount(new BigDecimal(amount))
+            .build();
+    }
+}
@@ -0,0 +1,203 @@
+package com.faud.frauddetection.service.velocity;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.dto.Transaction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for LocalVelocityStore
+ */
+class LocalVelocityStoreTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private RedisVelocityStore redisStore;
+    private SimpleMeterRegistry meterRegistry;
+    private LocalVelocityStore localStore;
+
+    @BeforeEach
+    void setUp() {
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        RedisVelocityStore bucketing = new RedisVelocityStore(null, properties, new SimpleMeterRegistry());
+        redisStore = mock(RedisVelocityStore.class);
+        when(redisStore.bucketIndex(anyLong())).thenAnswer(invocation -> bucketing.bucketIndex(invocation.getArgument(0)));
+        when(redisStore.toMinorUnits(any())).thenAnswer(invocation -> bucketing.toMinorUnits(invocation.getArgument(0)));
+        when(redisStore.getAmountScale()).thenReturn(2);
+        when(redisStore.loadState(anyString(), anyLong()))
+            .thenAnswer(invocation -> new UserVelocityState(invocation.getArgument(1)));
+        meterRegistry = new SimpleMeterRegistry();
+        localStore = new LocalVelocityStore(redisStore, properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        localStore.shutdown();
+    }
+
+    @Test
+    void recordAndAggregate_ShouldAggregateLocallyAfterFirstLoad() {
+        localStore.recordAndAggregate(transaction("TXN_1", "U1", "100.00"), NOW, 60, 3600);
+        localStore.recordAndAggregate(transaction("TXN_2", "U1", "50.25"), NOW + 1_000, 60, 3600);
+        VelocityAggregates aggregates = localStore.recordAndAggregate(transaction("TXN_3", "U1", "10.00"), NOW + 120_000, 60, 3600);
+
+        assertThat(aggregates.getCount(60)).isEqualTo(1L);
+        assertThat(aggregates.getCount(3600)).isEqualTo(3L);
+        assertThat(aggregates.getSum(3600)).isEqualTo(new BigDecimal("160.25"));
+        verify(redisStore, times(1)).loadState("U1", NOW - 3_600_000);
+    }
+
+    @Test
+    void recordAndAggregate_ShouldStartFromRedisState() {
+        UserVelocityState stored = new UserVelocityState(NOW - 3_600_000);
+        stored.addEvent("TXN_OLD", NOW - 30_000);
+        stored.addToBucket(Math.floorDiv(NOW - 30_000, 60_000), 1L, 40_000);
+        when(redisStore.loadState("U1", NOW - 3_600_000)).thenReturn(stored);
+
+        VelocityAggregates aggregates = localStore.recordAndAggregate(transaction("TXN_1", "U1", "100.00"), NOW, 3600);
+
+        assertThat(aggregates.getCount(3600)).isEqualTo(2L);
+        assertThat(aggregates.getSum(3600)).isEqualTo(new BigDecimal("500.00"));
+    }
+
+    @Test
+    void recordAndAggregate_ShouldWriteNewEventsBehindToRedis() {
+        Transaction transaction = transaction("TXN_1", "U1", "100.00");
+
+        localStore.recordAndAggregate(transaction, NOW, 60, 3600);
+        localStore.flushWriteBehind();
+
+        verify(redisStore).recordAndAggregate(transaction, NOW, 3600L);
+    }
+
+    @Test
+    void recordAndAggregate_NoUserId_ShouldReturnEmptyWindowsWithoutRecording() {
+        VelocityAggregates aggregates = localStore.recordAndAggregate(transaction("TXN_1", null, "100.00"), NOW, 60, 3600);
+        localStore.flushWriteBehind();
+
+        assertThat(aggregates.getCount(60)).isZero();
+        assertThat(aggregates.getCount(3600)).isZero();
+        assertThat(aggregates.getSum(3600)).isEqualTo(new BigDecimal("0.00"));
+        assertThat(aggregates.isDegraded()).isFalse();
+        verify(redisStore, never()).loadState(any(), anyLong());
+        verify(redisStore, never()).recordAndAggregate(any(Transaction.class), anyLong(), any(long[].class));
+    }
+
+    @Test
+    void recordAndAggregate_SameTransactionTwice_ShouldCountAndWriteOnce() {
+        Transaction transaction = transaction("TXN_1", "U1", "100.00");
+
+        localStore.recordAndAggregate(transaction, NOW, 3600);
+        VelocityAggregates aggregates = localStore.recordAndAggregate(transaction, NOW + 10, 3600);
+        localStore.flushWriteBehind();
+
+        assertThat(aggregates.getCount(3600)).isEqualTo(1L);
+        assertThat(aggregates.getSum(3600)).isEqualTo(new BigDecimal("100.00"));
+        verify(redisStore, times(1)).recordAndAggregate(eq(transaction), anyLong(), anyLong());
+    }
+
+    @Test
+    void recordAndAggregate_WriteBehindFailure_ShouldBeCounted() {
+        when(redisStore.recordAndAggregate(any(), anyLong(), anyLong())).thenThrow(new RuntimeException("Redis down"));
+
+        VelocityAggregates aggregates = localStore.recordAndAggregate(transaction("TXN_1", "U1", "100.00"), NOW, 3600);
+        localStore.flushWriteBehind();
+
+        assertThat(aggregates.getCount(3600)).isEqualTo(1L);
+        assertThat(meterRegistry.counter(LocalVelocityStore.WRITE_BEHIND_FAILURES_COUNTER).count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void recordAndAggregate_LongerWindow_ShouldReloadFromRedis() {
+        localStore.recordAndAggregate(transaction("TXN_1", "U1", "100.00"), NOW, 60);
+        localStore.recordAndAggregate(transaction("TXN_2", "U1", "100.00"), NOW + 1_000, 3600);
+
+        verify(redisStore).loadState("U1", NOW - 60_000);
+        verify(redisStore).loadState("U1", NOW + 1_000 - 3_600_000);
+    }
+
+    @Test
+    void recordAndAggregate_OverCap_ShouldCountOlderWindowsFromBuckets() {
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        properties.getVelocity().getCap().setMaxEventsPerUser(2);
+        LocalVelocityStore cappedStore = new LocalVelocityStore(redisStore, properties, meterRegistry);
+        try {
+            cappedStore.recordAndAggregate(transaction("TXN_1", "U1", "100.00"), NOW, 60, 3600);
+            VelocityAggregates exact = cappedStore.recordAndAggregate(transaction("TXN_2", "U1", "50.00"), NOW + 120_000, 60, 3600);
+            VelocityAggregates capped = cappedStore.recordAndAggregate(transaction("TXN_3", "U1", "10.00"), NOW + 125_000, 60, 3600);
+
+            assertThat(exact.isDownsampled()).isFalse();
+            assertThat(capped.isDownsampled()).isTrue();
+            // The dropped first event is still counted from its bucket, the short window stays exact
+            assertThat(capped.getCount(3600)).isEqualTo(3L);
+            assertThat(capped.getSum(3600)).isEqualTo(new BigDecimal("160.00"));
+            assertThat(capped.getCount(60)).isEqualTo(2L);
+        } finally {
+            cappedStore.shutdown();
+        }
+    }
+
+    @Test
+    void onPartitionsRevoked_ShouldFlushAndDropOnlyUsersOfRevokedPartitions() {
+        List<String> users = List.of("U1", "U2", "U3", "U4", "U5", "U6");
+        for (String user : users) {
+            localStore.recordAndAggregate(transaction("TXN_" + user, user, "1.00"), NOW, 60);
+        }
+        int revoked = LocalVelocityStore.partitionOf("U1", 3);
+        long kept = users.stream().filter(user -> LocalVelocityStore.partitionOf(user, 3) != revoked).count();
+
+        localStore.onPartitionsRevokedBeforeCommit(consumer(3), List.of(new TopicPartition("transactions", revoked)));
+
+        assertThat(localStore.size()).isEqualTo((int) kept);
+        verify(redisStore, times(users.size())).recordAndAggregate(any(), anyLong(), anyLong());
+    }
+
+    @Test
+    void onPartitionsAssigned_OtherTopic_ShouldKeepState() {
+        localStore.recordAndAggregate(transaction("TXN_1", "U1", "1.00"), NOW, 60);
+        Consumer<?, ?> consumer = consumer(3);
+
+        localStore.onPartitionsAssigned(consumer, List.of(new TopicPartition("fraud-alerts", 0)));
+
+        assertThat(localStore.size()).isEqualTo(1);
+        verify(consumer, never()).partitionsFor(anyString());
+    }
+
+    private Consumer<?, ?> consumer(int partitionCount) {
+        List<PartitionInfo> partitions = new ArrayList<>();
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(new PartitionInfo("transactions", i, null, null, null));
+        }
+        Consumer<?, ?> consumer = mock(Consumer.class);
+        when(consumer.partitionsFor("transactions")).thenReturn(partitions);
+        return consumer;
+    }
+
+    private static Transaction transaction(String transactionId, String userId, String amount) {
+        return Transaction.builder()
+            .transactionId(transactionId)
+            .userId(userId)
+            .amount(new BigDecimal(amount))
+            .build();
+    }
+}
@@ -0,0 +1,176 @@
+package com.faud.frauddetection.service.velocity;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.dto.Transaction;
+import com.faud.frauddetection.service.redis.RedisBatch;
+import com.faud.frauddetection.service.redis.RedisPipeline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for RedisVelocityStore
+ */
+class RedisVelocityStoreTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+    private static final List<String> KEYS = List.of("v1:{u:U1}:e", "v1:{u:U1}:a");
+
+    private StringRedisTemplate redisTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private RedisVelocityStore velocityStore;
+    private Transaction transaction;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        velocityStore = new RedisVelocityStore(redisTemplate, new FraudDetectionProperties(), meterRegistry);
+        transaction = Transaction.builder()
+            .transactionId("TXN_1")
+            .userId("U1")
+            .amount(new BigDecimal("800.5"))
+            .build();
+    }
+
+    @Test
+    void script_ShouldBeOnClasspathAndCalledBySha() {
+        assertThat(new ClassPathResource("scripts/velocity-record.lua").exists()).isTrue();
+        assertThat(RedisVelocityStore.RECORD_SCRIPT.getSha1()).hasSize(40);
+    }
+
+    @Test
+    void recordAndAggregate_ShouldRecordOnceForAllWindows() {
+        when(redisTemplate.execute(eq(RedisVelocityStore.RECORD_SCRIPT), anyList(), any(Object[].class)))
+            .thenReturn(List.of(2L, 150050L, 9L, 730050L, 0L));
+
+        VelocityAggregates aggregates = velocityStore.recordAndAggregate(transaction, NOW, 600, 3600);
+
+        assertThat(aggregates.getCount(600)).isEqualTo(2L);
+        assertThat(aggregates.getSum(600)).isEqualTo(new BigDecimal("1500.50"));
+        assertThat(aggregates.getCount(3600)).isEqualTo(9L);
+        assertThat(aggregates.getSum(3600)).isEqualTo(new BigDecimal("7300.50"));
+        assertThat(aggregates.isDownsampled()).isFalse();
+        // TTL and trimming follow the longest window; the transaction id is the event member
+        verify(redisTemplate).execute(RedisVelocityStore.RECORD_SCRIPT, KEYS,
+            String.valueOf(NOW), "3600", "TXN_1", "80050", "60000", String.valueOf(NOW - 3_600_000), "10000",
+            String.valueOf(NOW - 600_000), String.valueOf(NOW - 3_600_000));
+    }
+
+    @Test
+    void recordAndAggregate_Batch_ShouldSendScriptOnFlush() {
+        StringRedisConnection connection = mock(StringRedisConnection.class);
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            ((RedisCallback<?>) invocation.getArgument(0)).doInRedis(connection);
+            return List.of(List.of(2L, 150050L, 0L));
+        });
+        RedisBatch batch = new RedisPipeline(redisTemplate).newBatch();
+
+        Supplier<VelocityAggregates> aggregates = velocityStore.recordAndAggregate(batch, transaction, NOW, 600);
+
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+        assertThat(aggregates.get().getCount(600)).isEqualTo(2L);
+        assertThat(aggregates.get().getSum(600)).isEqualTo(new BigDecimal("1500.50"));
+        verify(connection).evalSha(RedisVelocityStore.RECORD_SCRIPT.getSha1(), ReturnType.MULTI, 2,
+            KEYS.get(0), KEYS.get(1), String.valueOf(NOW), "600", "TXN_1", "80050", "60000",
+            String.valueOf(NOW - 600_000), "10000", String.valueOf(NOW - 600_000));
+    }
+
+    @Test
+    void recordAndAggregate_NullReply_ShouldAggregateZero() {
+        VelocityAggregates aggregates = velocityStore.recordAndAggregate(transaction, NOW, 600);
+
+        assertThat(aggregates.getCount(600)).isZero();
+        assertThat(aggregates.getSum(600)).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    void recordAndAggregate_NoTransactionId_ShouldUseTimestampAsMember() {
+        Transaction anonymous = Transaction.builder().userId("U1").build();
+
+        velocityStore.recordAndAggregate(anonymous, NOW, 600);
+
+        verify(redisTemplate).execute(RedisVelocityStore.RECORD_SCRIPT, KEYS,
+            String.valueOf(NOW), "600", String.valueOf(NOW), "0", "60000", String.valueOf(NOW - 600_000), "10000",
+            String.valueOf(NOW - 600_000));
+    }
+
+    @Test
+    void recordAndAggregate_KeyDownsampled_ShouldFlagAggregatesAndCountConversionOnce() {
+        when(redisTemplate.execute(eq(RedisVelocityStore.RECORD_SCRIPT), anyList(), any(Object[].class)))
+            .thenReturn(List.of(10001L, 150050L, 2L))
+            .thenReturn(List.of(10002L, 150050L, 1L));
+
+        VelocityAggregates first = velocityStore.recordAndAggregate(transaction, NOW, 600);
+        VelocityAggregates second = velocityStore.recordAndAggregate(transaction, NOW + 1_000, 600);
+
+        assertThat(first.isDownsampled()).isTrue();
+        assertThat(second.isDownsampled()).isTrue();
+        assertThat(second.getCount(600)).isEqualTo(10002L);
+        assertThat(meterRegistry.get(RedisVelocityStore.DOWNSAMPLED_COUNTER).counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void loadState_DownsampledKey_ShouldCountOlderWindowsFromBuckets() {
+        ZSetOperations<String, String> zSetOperations = mock(ZSetOperations.class);
+        HashOperations<String, Object, Object> hashOperations = mock(HashOperations.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        // Only the newest event is kept; two older events of the same bucket were dropped by the cap
+        Set<ZSetOperations.TypedTuple<String>> kept = new LinkedHashSet<>();
+        kept.add(new DefaultTypedTuple<>("TXN_3", (double) NOW - 10_000));
+        when(zSetOperations.rangeByScoreWithScores(KEYS.get(0), NOW - 600_000, Double.POSITIVE_INFINITY)).thenReturn(kept);
+        long bucket = velocityStore.bucketIndex(NOW - 10_000);
+        when(hashOperations.entries(KEYS.get(1))).thenReturn(Map.of(
+            "c:" + bucket, "3", "s:" + bucket, "30000", "t", String.valueOf(NOW - 20_000)));
+
+        UserVelocityState state = velocityStore.loadState("U1", NOW - 600_000);
+
+        assertThat(state.isDownsampled()).isTrue();
+        assertThat(state.count(NOW - 600_000, velocityStore.bucketIndex(NOW - 600_000))).isEqualTo(3L);
+        assertThat(state.count(NOW - 15_000, velocityStore.bucketIndex(NOW - 15_000))).isEqualTo(1L);
+        assertThat(state.sum(velocityStore.bucketIndex(NOW - 600_000))).isEqualTo(30000L);
+    }
+
+    @Test
+    void recordAndAggregate_NoWindows_ShouldNotCallRedis() {
+        assertThat(velocityStore.recordAndAggregate(transaction, NOW)).isSameAs(VelocityAggregates.EMPTY);
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void getCount_WindowNotAggregated_ShouldThrow() {
+        VelocityAggregates aggregates = velocityStore.recordAndAggregate(transaction, NOW, 600);
+
+        assertThatThrownBy(() -> aggregates.getCount(60))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Window of 60 seconds was not aggregated");
+    }
+}
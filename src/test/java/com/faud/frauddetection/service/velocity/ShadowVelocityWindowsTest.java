@@ -0,0 +1,77 @@
+package com.faud.frauddetection.service.velocity;
+
+import com.faud.frauddetection.config.FraudDetectionProperties;
+import com.faud.frauddetection.dto.Transaction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ShadowVelocityWindows
+ */
+class ShadowVelocityWindowsTest {
+
+    // Start of a minute bucket
+    private static final long NOW = 1_700_000_040_000L;
+
+    private ShadowVelocityWindows shadowWindows;
+
+    @BeforeEach
+    void setUp() {
+        shadowWindows = new ShadowVelocityWindows(new FraudDetectionProperties(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void record_ShouldCountAndSumPerWindow() {
+        shadowWindows.record(transaction("U1", "100.00"), NOW, 60, 3600);
+        shadowWindows.record(transaction("U1", "50.25"), NOW + 1_000, 60, 3600);
+        VelocityAggregates aggregates = shadowWindows.record(transaction("U1", "10.00"), NOW + 120_000, 60, 3600);
+
+        assertThat(aggregates.isDegraded()).isTrue();
+        assertThat(aggregates.getCount(60)).isEqualTo(1L);
+        assertThat(aggregates.getCount(3600)).isEqualTo(3L);
+        assertThat(aggregates.getSum(3600)).isEqualTo(new BigDecimal("160.25"));
+    }
+
+    @Test
+    void record_ShouldCountOldestBucketInFull() {
+        shadowWindows.record(transaction("U1", "100.00"), NOW + 1_000, 60);
+
+        // The window starts 59s into the first event's bucket, which is still counted
+        VelocityAggregates aggregates = shadowWindows.record(transaction("U1", "10.00"), NOW + 60_000 + 59_000, 60);
+
+        assertThat(aggregates.getCount(60)).isEqualTo(2L);
+    }
+
+    @Test
+    void record_ShouldKeepUsersApart() {
+        shadowWindows.record(transaction("U1", "100.00"), NOW, 60);
+        VelocityAggregates aggregates = shadowWindows.record(transaction("U2", "10.00"), NOW, 60);
+
+        assertThat(aggregates.getCount(60)).isEqualTo(1L);
+        assertThat(shadowWindows.size()).isEqualTo(2);
+    }
+
+    @Test
+    void evictIdleUsers_ShouldDropUsersWithoutEventsInLongestWindow() {
+        long now = System.currentTimeMillis();
+        shadowWindows.record(transaction("U1", "100.00"), now - 7_200_000, 3600);
+        shadowWindows.record(transaction("U2", "100.00"), now, 3600);
+
+        shadowWindows.evictIdleUsers();
+
+        assertThat(shadowWindows.size()).isEqualTo(1);
+    }
+
+    private static Transaction transaction(String userId, String amount) {
+        return Transaction.builder()
+            .transactionId("TXN_" + userId)
+            .userId(userId)
+            .amount(new BigDecimal(amount))
+            .build();
+    }
+}